@@ -0,0 +1,74 @@
+package db.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Moves the game ids, bonus codes and conversion currencies that used to be written into {@code description} into
+ * the columns added by V12. Bets, wins and bonuses whose description only carried the identifier lose it;
+ * conversions keep theirs, since it also records the amounts.
+ * <p>
+ * Runs outside a transaction in id ranges of {@value #CHUNK_SIZE} rows, each committed on its own, so the ledger
+ * is never locked as a whole and an interrupted run is simply repeated: rows already moved no longer match.
+ */
+@Slf4j
+public class V13__backfill_transaction_references extends BaseJavaMigration {
+
+    static final int CHUNK_SIZE = 10_000;
+
+    static final String BACKFILL_SQL =
+            "UPDATE transactions SET " +
+            "game_id = CASE type WHEN 'BET' THEN substr(description, 13) WHEN 'WIN' THEN substr(description, 15) END, " +
+            "bonus_code = CASE WHEN type = 'BONUS' THEN substr(description, 17) END, " +
+            "counter_currency = CASE type WHEN 'CONVERSION' THEN right(description, 3) " +
+            "WHEN 'CONVERSION_IN' THEN (regexp_match(description, '^Converted \\S+ ([A-Z]{3}) to '))[1] END, " +
+            "description = CASE WHEN type IN ('CONVERSION', 'CONVERSION_IN') THEN description END " +
+            "WHERE id > ? AND id <= ? AND (" +
+            "(type = 'BET' AND description LIKE 'Bet on game %' AND length(description) BETWEEN 13 AND 76) " +
+            "OR (type = 'WIN' AND description LIKE 'Win from game %' AND length(description) BETWEEN 15 AND 78) " +
+            "OR (type = 'BONUS' AND description LIKE 'Bonus credited: %' AND length(description) BETWEEN 17 AND 80) " +
+            "OR (type IN ('CONVERSION', 'CONVERSION_IN') AND counter_currency IS NULL " +
+            "AND description ~ '^Converted \\S+ [A-Z]{3} to \\S+ [A-Z]{3}$'))";
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        long minId;
+        long maxId;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT min(id), max(id) FROM transactions")) {
+            rs.next();
+            minId = rs.getLong(1);
+            maxId = rs.getLong(2);
+            if (rs.wasNull()) {
+                return;
+            }
+        }
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(true);
+        long updated = 0;
+        try (PreparedStatement backfill = connection.prepareStatement(BACKFILL_SQL)) {
+            for (long from = minId - 1; from < maxId; from += CHUNK_SIZE) {
+                backfill.setLong(1, from);
+                backfill.setLong(2, Math.min(from + CHUNK_SIZE, maxId));
+                updated += backfill.executeUpdate();
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        log.info("Backfilled references of {} ledger entries with ids {} to {}", updated, minId, maxId);
+    }
+}
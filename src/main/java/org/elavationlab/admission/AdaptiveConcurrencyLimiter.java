@@ -0,0 +1,208 @@
+package org.elavationlab.admission;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.elavationlab.config.AdmissionProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Bounds the requests in flight with a limit that adapts to latency (additive increase, multiplicative
+ * decrease).
+ * <p>
+ * Every completed critical or normal request is a sample: one slower than {@code latency-target} or finished
+ * while threads are waiting for a database connection cuts the limit by {@code decrease-factor}, at most once per
+ * latency target so a burst of slow samples from the same stall counts once; a fast one raises it by
+ * {@code 1/limit}, about one per limit's worth of requests. Low-priority requests are not sampled, since reports
+ * are slow by nature.
+ * <p>
+ * Priorities share the limit unevenly: low-priority requests may only fill {@code low-share} of it and are shed
+ * whenever the connection pool has waiters, normal ones {@code normal-share}, and bets and wins all of it. Only
+ * low-priority requests wait for a slot, briefly; everything else is admitted or shed at once, so overload turns
+ * into fast rejections instead of requests queueing on the pool until they time out.
+ * <p>
+ * Admission is a compare-and-set on the in-flight count against the current limit, so requests never serialize
+ * on a lock; only low-priority requests that wait for a slot use a monitor, and a release signals it only while
+ * one of them is waiting.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private final AdmissionProperties properties;
+    private final BooleanSupplier poolSaturated;
+    private final long latencyTargetNanos;
+    private final Map<AdmissionPriority, Counter> shedCounters = new EnumMap<>(AdmissionPriority.class);
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    /** Bits of the limit as a double. */
+    private final AtomicLong limitBits;
+    private final AtomicLong lastDecreaseNanos;
+    private final Object slotReleased = new Object();
+    private final AtomicInteger lowPriorityWaiters = new AtomicInteger();
+
+    @Autowired
+    public AdaptiveConcurrencyLimiter(AdmissionProperties properties, DataSource dataSource, MeterRegistry meterRegistry) {
+        this(properties, poolWaiters(dataSource), meterRegistry);
+    }
+
+    AdaptiveConcurrencyLimiter(AdmissionProperties properties, BooleanSupplier poolSaturated, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.poolSaturated = poolSaturated;
+        this.latencyTargetNanos = TimeUnit.MILLISECONDS.toNanos(properties.getLatencyTargetMs());
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(properties.getInitialLimit()));
+        this.lastDecreaseNanos = new AtomicLong(System.nanoTime() - latencyTargetNanos);
+        for (AdmissionPriority priority : AdmissionPriority.values()) {
+            shedCounters.put(priority, Counter.builder("wallet.admission.shed.total")
+                    .tag("priority", priority.name().toLowerCase()).register(meterRegistry));
+        }
+        Gauge.builder("wallet.admission.limit", this, AdaptiveConcurrencyLimiter::getLimit).register(meterRegistry);
+        Gauge.builder("wallet.admission.in.flight", this, AdaptiveConcurrencyLimiter::getInFlight).register(meterRegistry);
+    }
+
+    /**
+     * Takes a slot for a request, waiting up to {@code low-priority-max-wait-ms} for low-priority ones. Returns
+     * false if the request should be shed; otherwise {@link #release} must follow.
+     */
+    public boolean tryAcquire(AdmissionPriority priority) {
+        boolean poolBusy = priority == AdmissionPriority.LOW && poolSaturated.getAsBoolean();
+        if (!poolBusy && tryIncrement(priority)) {
+            return true;
+        }
+        if (priority == AdmissionPriority.LOW && awaitSlot(priority, poolBusy)) {
+            return true;
+        }
+        shedCounters.get(priority).increment();
+        return false;
+    }
+
+    /**
+     * Returns a slot. A negative latency skips the sample, for requests that went asynchronous.
+     */
+    public void release(AdmissionPriority priority, long latencyNanos) {
+        inFlight.decrementAndGet();
+        if (priority != AdmissionPriority.LOW && latencyNanos >= 0) {
+            sample(latencyNanos);
+        }
+        if (lowPriorityWaiters.get() > 0) {
+            synchronized (slotReleased) {
+                slotReleased.notify();
+            }
+        }
+    }
+
+    public int getRetryAfterSeconds() {
+        return properties.getRetryAfterSeconds();
+    }
+
+    double getLimit() {
+        return Double.longBitsToDouble(limitBits.get());
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    private boolean tryIncrement(AdmissionPriority priority) {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= ceiling(priority)) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Waits up to {@code low-priority-max-wait-ms} for a slot, re-checking the pool after each release. The pool
+     * is checked outside the monitor, and the waiter registers before re-checking the count, so a release between
+     * the two cannot go unsignalled.
+     */
+    private boolean awaitSlot(AdmissionPriority priority, boolean poolBusy) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getLowPriorityMaxWaitMs());
+        while (true) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            synchronized (slotReleased) {
+                lowPriorityWaiters.incrementAndGet();
+                try {
+                    if (poolBusy || inFlight.get() >= ceiling(priority)) {
+                        TimeUnit.NANOSECONDS.timedWait(slotReleased, remaining);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                } finally {
+                    lowPriorityWaiters.decrementAndGet();
+                }
+            }
+            poolBusy = poolSaturated.getAsBoolean();
+            if (!poolBusy && tryIncrement(priority)) {
+                return true;
+            }
+        }
+    }
+
+    private double ceiling(AdmissionPriority priority) {
+        double limit = getLimit();
+        return switch (priority) {
+            case CRITICAL -> limit;
+            case NORMAL -> Math.max(1, limit * properties.getNormalShare());
+            case LOW -> Math.max(1, limit * properties.getLowShare());
+        };
+    }
+
+    private void sample(long latencyNanos) {
+        if (latencyNanos > latencyTargetNanos || poolSaturated.getAsBoolean()) {
+            long now = System.nanoTime();
+            long last = lastDecreaseNanos.get();
+            if (now - last >= latencyTargetNanos && lastDecreaseNanos.compareAndSet(last, now)) {
+                updateLimit(limit -> Math.max(properties.getMinLimit(), limit * properties.getDecreaseFactor()));
+            }
+        } else {
+            updateLimit(limit -> Math.min(properties.getMaxLimit(), limit + 1 / limit));
+        }
+    }
+
+    private void updateLimit(DoubleUnaryOperator update) {
+        limitBits.updateAndGet(bits -> Double.doubleToLongBits(update.applyAsDouble(Double.longBitsToDouble(bits))));
+    }
+
+    private static BooleanSupplier poolWaiters(DataSource dataSource) {
+        if (dataSource instanceof WorkloadRoutingDataSource routing) {
+            // Waiters on the bulk and background pools are expected and say nothing about the interactive workloads
+            return () -> routing.hasWaiters(Workload.WRITE) || routing.hasWaiters(Workload.READ);
+        }
+        HikariDataSource hikari;
+        try {
+            hikari = dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            hikari = null;
+        }
+        if (hikari == null) {
+            return () -> false;
+        }
+        HikariDataSource pool = hikari;
+        return () -> {
+            // Null until the pool has started
+            HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+            return mxBean != null && mxBean.getThreadsAwaitingConnection() > 0;
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package org.elavationlab.admission;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sets the admission priority of a handler method or of every handler in a controller. Unannotated handlers
+ * are {@link AdmissionPriority#NORMAL}.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Admission {
+    AdmissionPriority value();
+}
@@ -0,0 +1,70 @@
+package org.elavationlab.admission;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.elavationlab.exception.ServiceOverloadedException;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Admits requests through the {@link AdaptiveConcurrencyLimiter} at the priority of their handler's
+ * {@link Admission} annotation, and sheds the rest with {@link ServiceOverloadedException}. A request that goes
+ * asynchronous (balance streams, streamed responses) gives its slot back as soon as the request thread is
+ * released.
+ */
+@Component
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".permit";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public AdmissionControlInterceptor(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The slot of an asynchronous request was returned when it went asynchronous
+        if (request.getDispatcherType() == DispatcherType.ASYNC || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        AdmissionPriority priority = priorityOf(method);
+        if (!limiter.tryAcquire(priority)) {
+            throw new ServiceOverloadedException("Service is overloaded, please retry", limiter.getRetryAfterSeconds());
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, new Permit(priority, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        release(request, false);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request, true);
+    }
+
+    private void release(HttpServletRequest request, boolean sample) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Permit permit) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            limiter.release(permit.priority(), sample ? System.nanoTime() - permit.startedNanos() : -1);
+        }
+    }
+
+    private static AdmissionPriority priorityOf(HandlerMethod method) {
+        Admission admission = AnnotatedElementUtils.findMergedAnnotation(method.getMethod(), Admission.class);
+        if (admission == null) {
+            admission = AnnotatedElementUtils.findMergedAnnotation(method.getBeanType(), Admission.class);
+        }
+        return admission != null ? admission.value() : AdmissionPriority.NORMAL;
+    }
+
+    private record Permit(AdmissionPriority priority, long startedNanos) {
+    }
+}
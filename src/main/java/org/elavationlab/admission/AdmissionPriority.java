@@ -0,0 +1,12 @@
+package org.elavationlab.admission;
+
+/**
+ * Order in which requests are shed under overload: {@link #LOW} first, {@link #CRITICAL} last.
+ */
+public enum AdmissionPriority {
+    /** Bets and wins, which the game flow waits on. */
+    CRITICAL,
+    NORMAL,
+    /** History, lookups and reports that can be retried later without affecting play. */
+    LOW
+}
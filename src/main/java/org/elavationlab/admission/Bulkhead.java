@@ -0,0 +1,16 @@
+package org.elavationlab.admission;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sets the workload of a handler method or of every handler in a controller. Unannotated handlers are
+ * {@link Workload#READ} for GET requests and {@link Workload#WRITE} otherwise.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+    Workload value();
+}
@@ -0,0 +1,75 @@
+package org.elavationlab.admission;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.elavationlab.config.AdmissionProperties;
+import org.elavationlab.exception.ServiceOverloadedException;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Runs each request in the {@link WorkloadBulkheads} compartment of its {@link Workload} and binds the
+ * workload to the request thread, so the request's transactions use that workload's connection pool. A request
+ * that goes asynchronous gives its slot back as soon as the request thread is released.
+ */
+@Component
+public class BulkheadInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String WORKLOAD_ATTRIBUTE = BulkheadInterceptor.class.getName() + ".workload";
+
+    private final WorkloadBulkheads bulkheads;
+    private final AdmissionProperties admissionProperties;
+
+    public BulkheadInterceptor(WorkloadBulkheads bulkheads, AdmissionProperties admissionProperties) {
+        this.bulkheads = bulkheads;
+        this.admissionProperties = admissionProperties;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        Workload workload = workloadOf(request, method);
+        if (!bulkheads.tryAcquire(workload)) {
+            throw new ServiceOverloadedException("Too many " + workload.name().toLowerCase() + " requests, please retry",
+                    admissionProperties.getRetryAfterSeconds());
+        }
+        request.setAttribute(WORKLOAD_ATTRIBUTE, workload);
+        WorkloadContext.set(workload);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        release(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    private void release(HttpServletRequest request) {
+        if (request.getAttribute(WORKLOAD_ATTRIBUTE) instanceof Workload workload) {
+            request.removeAttribute(WORKLOAD_ATTRIBUTE);
+            WorkloadContext.clear();
+            bulkheads.release(workload);
+        }
+    }
+
+    private static Workload workloadOf(HttpServletRequest request, HandlerMethod method) {
+        Bulkhead bulkhead = AnnotatedElementUtils.findMergedAnnotation(method.getMethod(), Bulkhead.class);
+        if (bulkhead == null) {
+            bulkhead = AnnotatedElementUtils.findMergedAnnotation(method.getBeanType(), Bulkhead.class);
+        }
+        if (bulkhead != null) {
+            return bulkhead.value();
+        }
+        return HttpMethod.GET.matches(request.getMethod()) ? Workload.READ : Workload.WRITE;
+    }
+}
@@ -0,0 +1,18 @@
+package org.elavationlab.admission;
+
+/**
+ * Workloads that get their own connection pool and execution limit, so one cannot starve another.
+ */
+public enum Workload {
+    /** Money movements: bets, wins, deposits, withdrawals and the rest of the wallet writes. */
+    WRITE,
+    /** Interactive reads: balances and transaction history. */
+    READ,
+    /** Reports, settlement files and bulk balance requests, and the jobs they start. */
+    BULK,
+    /**
+     * Scheduled jobs, workers and admin requests; also whatever runs outside a bulkheaded request. Has a pool
+     * but no bulkhead.
+     */
+    BACKGROUND
+}
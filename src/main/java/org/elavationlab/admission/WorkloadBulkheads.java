@@ -0,0 +1,87 @@
+package org.elavationlab.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.elavationlab.config.BulkheadProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds the requests of each {@link Workload} processed at once, with a short bounded queue in front, so a
+ * burst of history or report requests cannot take every request thread from bets and wins.
+ */
+@Component
+public class WorkloadBulkheads {
+
+    private final Map<Workload, Compartment> compartments = new EnumMap<>(Workload.class);
+
+    public WorkloadBulkheads(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        compartments.put(Workload.WRITE, new Compartment(Workload.WRITE, properties.getWrite(), meterRegistry));
+        compartments.put(Workload.READ, new Compartment(Workload.READ, properties.getRead(), meterRegistry));
+        compartments.put(Workload.BULK, new Compartment(Workload.BULK, properties.getBulk(), meterRegistry));
+    }
+
+    /**
+     * Takes a slot, queueing briefly if the workload is at its limit. Returns false if the request should be
+     * rejected; otherwise {@link #release} must follow.
+     */
+    public boolean tryAcquire(Workload workload) {
+        return compartments.get(workload).tryAcquire();
+    }
+
+    public void release(Workload workload) {
+        compartments.get(workload).slots.release();
+    }
+
+    private static final class Compartment {
+        private final BulkheadProperties.Limits limits;
+        private final Semaphore slots;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final Counter rejectedCounter;
+        private final Timer waitTimer;
+
+        Compartment(Workload workload, BulkheadProperties.Limits limits, MeterRegistry meterRegistry) {
+            this.limits = limits;
+            this.slots = new Semaphore(limits.getMaxConcurrent(), true);
+            String tag = workload.name().toLowerCase();
+            this.rejectedCounter = Counter.builder("wallet.bulkhead.rejected.total").tag("workload", tag).register(meterRegistry);
+            this.waitTimer = Timer.builder("wallet.bulkhead.wait").tag("workload", tag).register(meterRegistry);
+            Gauge.builder("wallet.bulkhead.active", slots, s -> limits.getMaxConcurrent() - s.availablePermits())
+                    .tag("workload", tag).register(meterRegistry);
+            Gauge.builder("wallet.bulkhead.queued", queued, AtomicInteger::get).tag("workload", tag).register(meterRegistry);
+        }
+
+        boolean tryAcquire() {
+            if (slots.tryAcquire()) {
+                return true;
+            }
+            if (queued.incrementAndGet() > limits.getMaxQueued()) {
+                queued.decrementAndGet();
+                rejectedCounter.increment();
+                return false;
+            }
+            long started = System.nanoTime();
+            try {
+                if (slots.tryAcquire(limits.getMaxWaitMs(), TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+                rejectedCounter.increment();
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejectedCounter.increment();
+                return false;
+            } finally {
+                queued.decrementAndGet();
+                waitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.elavationlab.admission;
+
+import java.util.function.Supplier;
+
+/**
+ * The workload of the current thread, which picks the connection pool of the transactions it starts.
+ */
+public final class WorkloadContext {
+
+    private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    /** {@link Workload#BACKGROUND} unless a request, {@link #callAs} or {@link #runAs} set it. */
+    public static Workload current() {
+        Workload workload = CURRENT.get();
+        return workload != null ? workload : Workload.BACKGROUND;
+    }
+
+    static void set(Workload workload) {
+        CURRENT.set(workload);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Runs work on the calling thread as the given workload, for work a request hands to another thread.
+     */
+    public static <T> T callAs(Workload workload, Supplier<T> work) {
+        Workload previous = CURRENT.get();
+        CURRENT.set(workload);
+        try {
+            return work.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public static void runAs(Workload workload, Runnable work) {
+        callAs(workload, () -> {
+            work.run();
+            return null;
+        });
+    }
+}
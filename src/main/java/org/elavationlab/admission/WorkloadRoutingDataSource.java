@@ -0,0 +1,40 @@
+package org.elavationlab.admission;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.Map;
+
+/**
+ * Hands out connections from the pool of the current thread's {@link Workload}. The pool is chosen when a
+ * transaction acquires its connection, so a transaction stays on one pool however it is used afterwards.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final Map<Workload, HikariDataSource> pools;
+
+    public WorkloadRoutingDataSource(Map<Workload, HikariDataSource> pools) {
+        this.pools = pools;
+        setTargetDataSources(Map.copyOf(pools));
+        setDefaultTargetDataSource(pools.get(Workload.BACKGROUND));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return WorkloadContext.current();
+    }
+
+    /**
+     * Whether threads are waiting for a connection from the workload's pool.
+     */
+    public boolean hasWaiters(Workload workload) {
+        // Null until the pool has started
+        HikariPoolMXBean pool = pools.get(workload).getHikariPoolMXBean();
+        return pool != null && pool.getThreadsAwaitingConnection() > 0;
+    }
+
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
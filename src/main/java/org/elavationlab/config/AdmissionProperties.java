@@ -0,0 +1,38 @@
+package org.elavationlab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "wallet.admission")
+public class AdmissionProperties {
+
+    /** Whether wallet, transaction and report requests pass through the concurrency limiter. */
+    private boolean enabled = true;
+
+    /** Latency above which the limit is cut; half of the NFR-001 budget, leaving room for queueing. */
+    private long latencyTargetMs = 250;
+
+    private int initialLimit = 100;
+
+    private int minLimit = 10;
+
+    private int maxLimit = 400;
+
+    /** Factor applied to the limit at most once per latency target while latency is over it. */
+    private double decreaseFactor = 0.9;
+
+    /** Share of the limit normal-priority requests may occupy, keeping the rest for bets and wins. */
+    private double normalShare = 0.8;
+
+    /** Share of the limit low-priority requests (history, reports) may occupy. */
+    private double lowShare = 0.5;
+
+    /** How long a low-priority request waits for a slot before it is shed; others are shed at once. */
+    private long lowPriorityMaxWaitMs = 100;
+
+    /** Sent as Retry-After on shed requests. */
+    private int retryAfterSeconds = 1;
+}
@@ -0,0 +1,17 @@
+package org.elavationlab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "wallet.balance-reads")
+public class BalanceReadProperties {
+
+    /** Whether concurrent reads of the same wallet share one query. */
+    private boolean coalescingEnabled = true;
+
+    /** Distinct wallets with a shared read in flight; reads of further wallets query on their own. */
+    private int maxInFlight = 10_000;
+}
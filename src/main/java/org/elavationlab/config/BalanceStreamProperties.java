@@ -0,0 +1,32 @@
+package org.elavationlab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "wallet.balance-stream")
+public class BalanceStreamProperties {
+
+    /** Open streams per node; further subscriptions are refused with 503. */
+    private int maxSubscribers = 50_000;
+
+    /** Changes to the same wallet within this window are pushed once, with the latest balance. */
+    private long coalesceMs = 100;
+
+    /** Threads writing events to subscribers. */
+    private int senderThreads = 4;
+
+    /** Comment sent on idle streams so proxies keep them open and dead clients are noticed. */
+    private long heartbeatIntervalMs = 20_000;
+
+    /** A subscriber whose write has been blocked this long is disconnected. */
+    private long slowConsumerTimeoutMs = 10_000;
+
+    /** How often blocked writes are checked against {@link #slowConsumerTimeoutMs}. */
+    private long slowConsumerCheckMs = 1_000;
+
+    /** Streams are closed after this long; EventSource clients reconnect on their own. */
+    private long connectionTimeoutMs = 30 * 60_000;
+}
@@ -0,0 +1,23 @@
+package org.elavationlab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "wallet.bonus-campaigns")
+public class BonusCampaignProperties {
+
+    /** Players credited per transaction. */
+    private int chunkSize = 5000;
+
+    /** Timeout of one chunk's transaction. */
+    private int chunkTimeoutSeconds = 30;
+
+    /** Default rate of a run, in players per second, unless the run sets its own; zero or less disables it. */
+    private double maxPlayersPerSecond = 20000;
+
+    /** Pause before the next chunk while requests are waiting for a connection from the write pool. */
+    private long writePressureBackoffMs = 200;
+}
@@ -0,0 +1,25 @@
+package org.elavationlab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "wallet.bonus-expiry")
+public class BonusExpiryProperties {
+
+    /** Sweeps expired bonus buckets on this node. Any number of nodes can sweep; they skip each other's batches. */
+    private boolean sweeperEnabled = true;
+
+    private long sweepIntervalMs = 10_000;
+
+    /** Expired buckets claimed and expired per transaction. */
+    private int batchSize = 500;
+
+    /** Batches per sweep at most, so a backlog is worked off over several sweeps. */
+    private int maxBatchesPerSweep = 100;
+
+    /** Timeout of one batch's transaction. */
+    private int batchTimeoutSeconds = 10;
+}
@@ -0,0 +1,48 @@
+package org.elavationlab.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "wallet.bulkheads")
+public class BulkheadProperties {
+
+    private Limits write = new Limits(20, 200, 200, 50);
+
+    private Limits read = new Limits(10, 40, 40, 200);
+
+    private Limits bulk = new Limits(5, 4, 8, 1000);
+
+    private Pool background = new Pool(26);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limits {
+
+        /** Connections in the workload's pool. */
+        private int poolSize;
+
+        /** Requests of the workload processed at the same time. */
+        private int maxConcurrent;
+
+        /** Requests that may wait for a slot; beyond this they are rejected at once. */
+        private int maxQueued;
+
+        /** How long a queued request waits for a slot before it is rejected. */
+        private long maxWaitMs;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Pool {
+
+        /** Connections in the workload's pool. */
+        private int poolSize;
+    }
+}
@@ -0,0 +1,63 @@
+package org.elavationlab.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.elavationlab.admission.Workload;
+import org.elavationlab.admission.WorkloadRoutingDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One connection pool per {@link Workload} behind a single routing data source, so history and report queries
+ * cannot hold the connections bets and wins need. Every pool takes the {@code spring.datasource} connection
+ * settings and the shared {@code spring.datasource.hikari} settings; only the size and name differ. Pool metrics
+ * are published as {@code hikaricp.*}, tagged with the pool name.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariConfig sharedHikariConfig() {
+        return new HikariConfig();
+    }
+
+    @Bean(destroyMethod = "close")
+    public WorkloadRoutingDataSource dataSource(DataSourceProperties dataSourceProperties, HikariConfig sharedHikariConfig,
+                                                BulkheadProperties bulkheadProperties, MeterRegistry meterRegistry) {
+        Map<Workload, HikariDataSource> pools = new EnumMap<>(Workload.class);
+        pools.put(Workload.WRITE, pool(Workload.WRITE, bulkheadProperties.getWrite().getPoolSize(),
+                dataSourceProperties, sharedHikariConfig, meterRegistry));
+        pools.put(Workload.READ, pool(Workload.READ, bulkheadProperties.getRead().getPoolSize(),
+                dataSourceProperties, sharedHikariConfig, meterRegistry));
+        pools.put(Workload.BULK, pool(Workload.BULK, bulkheadProperties.getBulk().getPoolSize(),
+                dataSourceProperties, sharedHikariConfig, meterRegistry));
+        pools.put(Workload.BACKGROUND, pool(Workload.BACKGROUND, bulkheadProperties.getBackground().getPoolSize(),
+                dataSourceProperties, sharedHikariConfig, meterRegistry));
+        return new WorkloadRoutingDataSource(pools);
+    }
+
+    private static HikariDataSource pool(Workload workload, int poolSize,
+                                         DataSourceProperties dataSourceProperties, HikariConfig shared,
+                                         MeterRegistry meterRegistry) {
+        HikariConfig config = new HikariConfig();
+        shared.copyStateTo(config);
+        config.setJdbcUrl(dataSourceProperties.determineUrl());
+        config.setUsername(dataSourceProperties.determineUsername());
+        config.setPassword(dataSourceProperties.determinePassword());
+        config.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        config.setPoolName("wallet-" + workload.name().toLowerCase());
+        config.setMaximumPoolSize(poolSize);
+        // Hikari keeps a full pool idle unless told otherwise; four full pools would idle more than one did
+        config.setMinimumIdle(Math.min(poolSize, Math.max(1, shared.getMinimumIdle())));
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return new HikariDataSource(config);
+    }
+}
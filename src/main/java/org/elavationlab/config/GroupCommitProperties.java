@@ -0,0 +1,26 @@
+package org.elavationlab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "wallet.group-commit")
+public class GroupCommitProperties {
+
+    /** Whether bets and wins are committed in groups; otherwise each commits its own transaction. */
+    private boolean enabled = false;
+
+    /** A group is committed once it has this many mutations... */
+    private int maxGroupSize = 64;
+
+    /** ...or this long after its first mutation arrived, whichever comes first. */
+    private long windowMs = 2;
+
+    /** Threads committing groups, each holding one connection while it commits. */
+    private int committers = 4;
+
+    /** Mutations waiting for a group; beyond this they commit on their own. */
+    private int maxQueued = 10_000;
+}
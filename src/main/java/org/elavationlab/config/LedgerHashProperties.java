@@ -0,0 +1,31 @@
+package org.elavationlab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "wallet.ledger-hash")
+public class LedgerHashProperties {
+
+    /** HMAC-SHA256 key that signs seals. Keep it out of the database so seals cannot be forged from there. */
+    private String sealKey;
+
+    /** Verifies and seals the entries written since the last seal every {@link #sealIntervalMs}. */
+    private boolean sealEnabled = true;
+
+    private long sealIntervalMs = 300_000;
+
+    /** Wallet chunks audited concurrently; each holds one DB connection. */
+    private int parallelism = 4;
+
+    /** Wallets per audited chunk. */
+    private int chunkSize = 2_000;
+
+    /** Rows fetched per cursor round trip. */
+    private int fetchSize = 1_000;
+
+    /** Failures returned by an audit; further ones are only counted. */
+    private int maxReportedFailures = 100;
+}
@@ -0,0 +1,39 @@
+package org.elavationlab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "wallet.outbox")
+public class OutboxProperties {
+
+    /**
+     * Relay partitions; a player's events always land in the same one. Only change with an empty outbox, or
+     * a player's queued and new events may be delivered out of order.
+     */
+    private int partitions = 16;
+
+    /** Delivers outbox events on this node. Any number of nodes can relay; each partition is drained by one. */
+    private boolean relayEnabled = true;
+
+    /** Partitions drained concurrently on this node. */
+    private int relayThreads = 4;
+
+    /** Events claimed, delivered and deleted per transaction. */
+    private int batchSize = 500;
+
+    private long pollIntervalMs = 200;
+
+    /** {@code log} or {@code http}. */
+    private String sink = "log";
+
+    /** JSON-lines file the log sink appends to; events are logged when blank. */
+    private String logFile;
+
+    /** Endpoint the http sink posts each batch to as a JSON array. */
+    private String httpUrl;
+
+    private long httpTimeoutMs = 5_000;
+}
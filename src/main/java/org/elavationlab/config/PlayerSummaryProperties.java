@@ -0,0 +1,17 @@
+package org.elavationlab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "wallet.player-summary")
+public class PlayerSummaryProperties {
+
+    /** Outbox partitions rebuilt concurrently; each holds one connection and that partition's relay lock. */
+    private int rebuildParallelism = 4;
+
+    /** Width of the player id range rebuilt per transaction, which is how long the relay lock is held. */
+    private int rebuildRangeSize = 10_000;
+}
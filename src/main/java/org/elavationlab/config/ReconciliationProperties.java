@@ -0,0 +1,28 @@
+package org.elavationlab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "wallet.reconciliation")
+public class ReconciliationProperties {
+
+    /** Fork-join parallelism; each range being scanned holds one DB connection. */
+    private int parallelism = 4;
+
+    /** Player id ranges are split in half until they are at most this wide. */
+    private int rangeSize = 5_000;
+
+    /** Rows fetched per cursor round trip. */
+    private int fetchSize = 1_000;
+
+    /** Mismatches stored per range; further ones are only counted. */
+    private int maxMismatchesPerRange = 1_000;
+
+    /** Runs an incremental reconciliation on {@link #cron}. */
+    private boolean scheduleEnabled = true;
+
+    private String cron = "0 30 2 * * *";
+}
@@ -0,0 +1,26 @@
+package org.elavationlab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "wallet.retry")
+public class RetryProperties {
+
+    /** Total attempts per operation, including the first one. */
+    private int maxAttempts = 4;
+
+    /** Backoff before the first retry; doubles on every further retry. */
+    private long baseBackoffMillis = 5;
+
+    /** Upper bound for a single backoff. */
+    private long maxBackoffMillis = 200;
+
+    /** Retry tokens earned per first attempt; 0.2 allows retries for at most 20% of calls in steady state. */
+    private double budgetRatio = 0.2;
+
+    /** Maximum number of retry tokens that can accumulate during quiet periods. */
+    private int budgetMaxTokens = 100;
+}
@@ -0,0 +1,17 @@
+package org.elavationlab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "wallet.settlements")
+public class SettlementProperties {
+
+    /** Lines of a settlement file applied, and checkpointed, per transaction. */
+    private int chunkSize = 1000;
+
+    /** Timeout of one chunk's transaction. */
+    private int chunkTimeoutSeconds = 30;
+}
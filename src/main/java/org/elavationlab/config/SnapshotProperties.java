@@ -0,0 +1,23 @@
+package org.elavationlab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "wallet.snapshots")
+public class SnapshotProperties {
+
+    /** Wallets copied per transaction. */
+    private int chunkSize = 5_000;
+
+    /** Takes the end-of-day snapshot on {@link #cron}. */
+    private boolean scheduleEnabled = true;
+
+    /** Runs a few minutes after midnight so transactions in flight at midnight have committed. */
+    private String cron = "0 5 0 * * *";
+
+    /** Monthly partitions older than this are dropped; 0 keeps every snapshot. */
+    private int retentionMonths = 25;
+}
@@ -0,0 +1,29 @@
+package org.elavationlab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "wallet.statements")
+public class StatementProperties {
+
+    /** Directory statement files are written to, one sub-directory per month. */
+    private String outputDirectory = "statements";
+
+    /** Number of player id ranges processed concurrently; each holds one DB connection while it runs. */
+    private int parallelism = 4;
+
+    /** Width of the player id range scanned by a single cursor. */
+    private int rangeSize = 10_000;
+
+    /** Rows fetched per cursor round trip. */
+    private int fetchSize = 1_000;
+
+    /** Upper bound on statements written per second across all workers; 0 disables throttling. */
+    private double maxPlayersPerSecond = 0;
+
+    /** Number of finished players between checkpoint writes. */
+    private int checkpointInterval = 100;
+}
@@ -0,0 +1,50 @@
+package org.elavationlab.config;
+
+import org.elavationlab.admission.AdmissionControlInterceptor;
+import org.elavationlab.admission.BulkheadInterceptor;
+import org.elavationlab.protocol.WalletBinaryHttpMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final AdmissionControlInterceptor admissionControlInterceptor;
+    private final AdmissionProperties admissionProperties;
+    private final BulkheadInterceptor bulkheadInterceptor;
+
+    public WebConfig(AdmissionControlInterceptor admissionControlInterceptor, AdmissionProperties admissionProperties,
+                     BulkheadInterceptor bulkheadInterceptor) {
+        this.admissionControlInterceptor = admissionControlInterceptor;
+        this.admissionProperties = admissionProperties;
+        this.bulkheadInterceptor = bulkheadInterceptor;
+    }
+
+    /**
+     * Appended after the JSON converter, so JSON stays the default and the binary protocol is only used when a
+     * request's Content-Type or Accept header asks for it.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new WalletBinaryHttpMessageConverter());
+    }
+
+    /**
+     * Admin endpoints are left out: operators must still get through to an overloaded service. Their
+     * transactions run on the background pool, with the jobs they start.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (admissionProperties.isEnabled()) {
+            registry.addInterceptor(admissionControlInterceptor)
+                    .addPathPatterns("/api/wallets/**", "/api/transactions/**", "/api/reports/**");
+        }
+        registry.addInterceptor(bulkheadInterceptor)
+                .addPathPatterns("/api/**")
+                .excludePathPatterns("/api/admin/**");
+    }
+}
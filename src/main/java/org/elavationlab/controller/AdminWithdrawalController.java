@@ -0,0 +1,33 @@
+package org.elavationlab.controller;
+
+import jakarta.validation.Valid;
+import org.elavationlab.dto.WithdrawalBulkActionRequest;
+import org.elavationlab.dto.WithdrawalBulkActionResponse;
+import org.elavationlab.service.WithdrawalAdminService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/withdrawals")
+public class AdminWithdrawalController {
+
+    private final WithdrawalAdminService withdrawalAdminService;
+
+    public AdminWithdrawalController(WithdrawalAdminService withdrawalAdminService) {
+        this.withdrawalAdminService = withdrawalAdminService;
+    }
+
+    @PostMapping("/approve")
+    public ResponseEntity<WithdrawalBulkActionResponse> approve(
+            @RequestHeader("X-Admin-Id") String adminId,
+            @Valid @RequestBody WithdrawalBulkActionRequest request) {
+        return ResponseEntity.ok(withdrawalAdminService.approve(request, adminId));
+    }
+
+    @PostMapping("/reject")
+    public ResponseEntity<WithdrawalBulkActionResponse> reject(
+            @RequestHeader("X-Admin-Id") String adminId,
+            @Valid @RequestBody WithdrawalBulkActionRequest request) {
+        return ResponseEntity.ok(withdrawalAdminService.reject(request, adminId));
+    }
+}
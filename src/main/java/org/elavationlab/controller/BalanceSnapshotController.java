@@ -0,0 +1,39 @@
+package org.elavationlab.controller;
+
+import org.elavationlab.dto.BalanceSnapshotRunResponse;
+import org.elavationlab.service.BalanceSnapshotService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/admin/snapshots")
+public class BalanceSnapshotController {
+
+    private final BalanceSnapshotService balanceSnapshotService;
+
+    public BalanceSnapshotController(BalanceSnapshotService balanceSnapshotService) {
+        this.balanceSnapshotService = balanceSnapshotService;
+    }
+
+    @PostMapping
+    public ResponseEntity<BalanceSnapshotRunResponse> start(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        Optional<BalanceSnapshotRunResponse> started = balanceSnapshotService.start(date);
+        if (started.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        HttpStatus status = "COMPLETED".equals(started.get().getStatus()) ? HttpStatus.OK : HttpStatus.ACCEPTED;
+        return ResponseEntity.status(status).body(started.get());
+    }
+
+    @GetMapping("/{date}")
+    public ResponseEntity<BalanceSnapshotRunResponse> getRun(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.of(balanceSnapshotService.getRun(date));
+    }
+}
@@ -0,0 +1,78 @@
+package org.elavationlab.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.elavationlab.dto.BonusCampaignRequest;
+import org.elavationlab.dto.BonusCampaignStatus;
+import org.elavationlab.exception.InvalidBonusCampaignException;
+import org.elavationlab.service.BonusCampaignService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+@RestController
+@RequestMapping("/api/admin/bonus-campaigns")
+public class BonusCampaignController {
+
+    private static final Pattern CAMPAIGN_ID = Pattern.compile("[A-Za-z0-9._:-]{1,64}");
+
+    private final BonusCampaignService bonusCampaignService;
+
+    public BonusCampaignController(BonusCampaignService bonusCampaignService) {
+        this.bonusCampaignService = bonusCampaignService;
+    }
+
+    @PutMapping("/{campaignId}")
+    public ResponseEntity<BonusCampaignStatus> create(
+            @PathVariable String campaignId,
+            @Valid @RequestBody BonusCampaignRequest request) {
+        validateCampaignId(campaignId);
+        return ResponseEntity.ok(bonusCampaignService.create(campaignId, request.getAmount(), request.getCurrency(),
+                request.getExpiresAt()));
+    }
+
+    /**
+     * Adds the players listed in the request body, one player ID per line, gzip-compressed or not.
+     */
+    @PostMapping("/{campaignId}/players")
+    public ResponseEntity<BonusCampaignStatus> addPlayers(@PathVariable String campaignId, HttpServletRequest request)
+            throws IOException {
+        validateCampaignId(campaignId);
+        return ResponseEntity.ok(bonusCampaignService.addPlayers(campaignId, request.getInputStream()));
+    }
+
+    @PostMapping("/{campaignId}/run")
+    public ResponseEntity<BonusCampaignStatus> run(
+            @PathVariable String campaignId,
+            @RequestParam(required = false) Double maxPlayersPerSecond) {
+        validateCampaignId(campaignId);
+        HttpStatus status = bonusCampaignService.start(campaignId, maxPlayersPerSecond)
+                ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(bonusCampaignService.status(campaignId).orElse(null));
+    }
+
+    @PostMapping("/{campaignId}/stop")
+    public ResponseEntity<BonusCampaignStatus> stop(@PathVariable String campaignId) {
+        validateCampaignId(campaignId);
+        if (!bonusCampaignService.stop(campaignId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(bonusCampaignService.status(campaignId).orElse(null));
+    }
+
+    @GetMapping("/{campaignId}")
+    public ResponseEntity<BonusCampaignStatus> getStatus(@PathVariable String campaignId) {
+        validateCampaignId(campaignId);
+        return ResponseEntity.of(bonusCampaignService.status(campaignId));
+    }
+
+    private static void validateCampaignId(String campaignId) {
+        if (!CAMPAIGN_ID.matcher(campaignId).matches()) {
+            throw new InvalidBonusCampaignException(
+                    "Campaign ID must be 1 to 64 letters, digits, '.', '_', ':' or '-'");
+        }
+    }
+}
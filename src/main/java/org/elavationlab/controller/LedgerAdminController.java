@@ -0,0 +1,29 @@
+package org.elavationlab.controller;
+
+import org.elavationlab.dto.LedgerCheckpointResponse;
+import org.elavationlab.service.LedgerCheckpointer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/ledger")
+@ConditionalOnProperty(name = "wallet.storage.mode", havingValue = "event-sourced")
+public class LedgerAdminController {
+
+    private final LedgerCheckpointer ledgerCheckpointer;
+
+    public LedgerAdminController(LedgerCheckpointer ledgerCheckpointer) {
+        this.ledgerCheckpointer = ledgerCheckpointer;
+    }
+
+    @PostMapping("/checkpoint")
+    public ResponseEntity<LedgerCheckpointResponse> checkpoint() {
+        return ResponseEntity.ok(ledgerCheckpointer.checkpointNow());
+    }
+
+    @PostMapping("/materialize")
+    public ResponseEntity<LedgerCheckpointResponse> materialize() {
+        return ResponseEntity.ok(ledgerCheckpointer.materializeWalletBalances());
+    }
+}
@@ -0,0 +1,29 @@
+package org.elavationlab.controller;
+
+import org.elavationlab.dto.LedgerAuditResponse;
+import org.elavationlab.service.LedgerAuditService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/admin/ledger/audit")
+public class LedgerAuditController {
+
+    private final LedgerAuditService ledgerAuditService;
+
+    public LedgerAuditController(LedgerAuditService ledgerAuditService) {
+        this.ledgerAuditService = ledgerAuditService;
+    }
+
+    @PostMapping
+    public ResponseEntity<LedgerAuditResponse> audit(
+            @RequestParam(defaultValue = "false") boolean full,
+            @RequestParam(defaultValue = "false") boolean seal) {
+        Optional<LedgerAuditResponse> result = ledgerAuditService.audit(full, seal);
+        return result.map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+}
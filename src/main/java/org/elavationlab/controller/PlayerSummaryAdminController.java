@@ -0,0 +1,22 @@
+package org.elavationlab.controller;
+
+import org.elavationlab.service.PlayerSummaryRebuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/player-summary")
+public class PlayerSummaryAdminController {
+
+    private final PlayerSummaryRebuilder playerSummaryRebuilder;
+
+    public PlayerSummaryAdminController(PlayerSummaryRebuilder playerSummaryRebuilder) {
+        this.playerSummaryRebuilder = playerSummaryRebuilder;
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Void> rebuild() {
+        return ResponseEntity.status(playerSummaryRebuilder.start() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).build();
+    }
+}
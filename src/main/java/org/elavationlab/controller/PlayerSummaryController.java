@@ -0,0 +1,22 @@
+package org.elavationlab.controller;
+
+import org.elavationlab.dto.PlayerSummaryResponse;
+import org.elavationlab.service.PlayerSummaryService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/players")
+public class PlayerSummaryController {
+
+    private final PlayerSummaryService playerSummaryService;
+
+    public PlayerSummaryController(PlayerSummaryService playerSummaryService) {
+        this.playerSummaryService = playerSummaryService;
+    }
+
+    @GetMapping("/{playerId}/summary")
+    public ResponseEntity<PlayerSummaryResponse> getSummary(@PathVariable Integer playerId) {
+        return ResponseEntity.of(playerSummaryService.getSummary(playerId));
+    }
+}
@@ -0,0 +1,88 @@
+package org.elavationlab.controller;
+
+import org.elavationlab.domain.ReconciliationMismatch;
+import org.elavationlab.domain.ReconciliationRun;
+import org.elavationlab.dto.ReconciliationMismatchResponse;
+import org.elavationlab.dto.ReconciliationRunResponse;
+import org.elavationlab.repository.ReconciliationMismatchRepository;
+import org.elavationlab.service.LedgerReconciler;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/admin/reconciliation")
+public class ReconciliationController {
+
+    private static final int MAX_MISMATCHES = 1000;
+
+    private final LedgerReconciler ledgerReconciler;
+    private final ReconciliationMismatchRepository mismatchRepository;
+
+    public ReconciliationController(LedgerReconciler ledgerReconciler,
+                                    ReconciliationMismatchRepository mismatchRepository) {
+        this.ledgerReconciler = ledgerReconciler;
+        this.mismatchRepository = mismatchRepository;
+    }
+
+    @PostMapping
+    public ResponseEntity<ReconciliationRunResponse> start(
+            @RequestParam(defaultValue = "INCREMENTAL") ReconciliationRun.Mode mode) {
+        Optional<ReconciliationRun> started = ledgerReconciler.start(mode);
+        if (started.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ledgerReconciler.getLatestRun().map(this::toResponse).orElse(null));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(toResponse(started.get()));
+    }
+
+    @GetMapping("/runs/latest")
+    public ResponseEntity<ReconciliationRunResponse> getLatestRun() {
+        return ResponseEntity.of(ledgerReconciler.getLatestRun().map(this::toResponse));
+    }
+
+    @GetMapping("/runs/{runId}")
+    public ResponseEntity<ReconciliationRunResponse> getRun(@PathVariable Long runId) {
+        return ResponseEntity.of(ledgerReconciler.getRun(runId).map(this::toResponse));
+    }
+
+    @GetMapping("/runs/{runId}/mismatches")
+    public ResponseEntity<List<ReconciliationMismatchResponse>> getMismatches(
+            @PathVariable Long runId,
+            @RequestParam(defaultValue = "100") int limit) {
+        List<ReconciliationMismatch> mismatches = mismatchRepository.findByRunIdOrderById(runId,
+                PageRequest.of(0, Math.max(1, Math.min(limit, MAX_MISMATCHES))));
+        return ResponseEntity.ok(mismatches.stream()
+                .map(mismatch -> ReconciliationMismatchResponse.builder()
+                        .playerId(mismatch.getPlayerId())
+                        .currency(mismatch.getCurrency())
+                        .kind(mismatch.getKind())
+                        .transactionId(mismatch.getTransactionId())
+                        .expected(mismatch.getExpected())
+                        .actual(mismatch.getActual())
+                        .detectedAt(mismatch.getDetectedAt())
+                        .build())
+                .toList());
+    }
+
+    private ReconciliationRunResponse toResponse(ReconciliationRun run) {
+        return ReconciliationRunResponse.builder()
+                .id(run.getId())
+                .mode(run.getMode())
+                .status(run.getStatus())
+                .startedAt(run.getStartedAt())
+                .finishedAt(run.getFinishedAt())
+                .changedSince(run.getChangedSince())
+                .rangesTotal(run.getRangesTotal())
+                .rangesCompleted(run.getRangesCompleted())
+                .walletsChecked(run.getWalletsChecked())
+                .entriesChecked(run.getEntriesChecked())
+                .mismatches(run.getMismatches())
+                .error(run.getError())
+                .build();
+    }
+}
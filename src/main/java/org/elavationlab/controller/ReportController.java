@@ -0,0 +1,74 @@
+package org.elavationlab.controller;
+
+import org.elavationlab.admission.Admission;
+import org.elavationlab.admission.AdmissionPriority;
+import org.elavationlab.admission.Bulkhead;
+import org.elavationlab.admission.Workload;
+import org.elavationlab.domain.Transaction;
+import org.elavationlab.dto.ActivePlayersResponse;
+import org.elavationlab.dto.DailyReportRow;
+import org.elavationlab.dto.GameRevenueRow;
+import org.elavationlab.service.GameRevenueService;
+import org.elavationlab.service.ReportService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@Admission(AdmissionPriority.LOW)
+@Bulkhead(Workload.BULK)
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    private final ReportService reportService;
+    private final GameRevenueService gameRevenueService;
+
+    public ReportController(ReportService reportService, GameRevenueService gameRevenueService) {
+        this.reportService = reportService;
+        this.gameRevenueService = gameRevenueService;
+    }
+
+    @GetMapping("/daily")
+    public ResponseEntity<List<DailyReportRow>> getDailyReport(
+            @RequestParam(defaultValue = "30") int days) {
+        return ResponseEntity.ok(reportService.getDailyReport(days));
+    }
+
+    @GetMapping("/active-players")
+    public ResponseEntity<ActivePlayersResponse> getActivePlayers(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "DAY") ReportService.ActivityWindow window,
+            @RequestParam(required = false) String currency,
+            @RequestParam(required = false) Transaction.TransactionType type) {
+        return ResponseEntity.ok(reportService.getActivePlayers(date, window, currency, type));
+    }
+
+    /**
+     * GGR per game over {@code [from, to)}, highest first. Defaults to the last hour up to now.
+     */
+    @GetMapping("/ggr")
+    public ResponseEntity<List<GameRevenueRow>> getGameRevenue(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String currency) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        return ResponseEntity.ok(gameRevenueService.getTotals(from != null ? from : end.minusHours(1), end, currency));
+    }
+
+    /**
+     * Per-minute GGR of one game over {@code [from, to)}. Defaults to the last hour up to now.
+     */
+    @GetMapping("/ggr/{gameId}")
+    public ResponseEntity<List<GameRevenueRow>> getGameRevenueByMinute(
+            @PathVariable String gameId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String currency) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        return ResponseEntity.ok(gameRevenueService.getMinutes(gameId, from != null ? from : end.minusHours(1), end, currency));
+    }
+}
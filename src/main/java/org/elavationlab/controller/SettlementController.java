@@ -0,0 +1,94 @@
+package org.elavationlab.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.elavationlab.admission.Bulkhead;
+import org.elavationlab.admission.Workload;
+import org.elavationlab.dto.SettlementFeedStatus;
+import org.elavationlab.dto.SettlementLineResult;
+import org.elavationlab.exception.InvalidSettlementFeedException;
+import org.elavationlab.service.SettlementIngestService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.regex.Pattern;
+
+@RestController
+@Bulkhead(Workload.BULK)
+@RequestMapping("/api/settlements")
+public class SettlementController {
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final Pattern FEED_ID = Pattern.compile("[A-Za-z0-9._:-]{1,100}");
+
+    private final SettlementIngestService settlementIngestService;
+    private final ObjectMapper objectMapper;
+
+    public SettlementController(SettlementIngestService settlementIngestService, ObjectMapper objectMapper) {
+        this.settlementIngestService = settlementIngestService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Ingests a settlement file sent as the request body: NDJSON, gzip-compressed or not, one bet or win per line.
+     * The response is NDJSON too, written while the file is applied on the request thread: one result per line,
+     * flushed after every committed chunk, and the feed's status last. A status with an {@code error} means the
+     * upload stopped early; sending the same file again under the same feed id resumes after the last committed
+     * chunk.
+     */
+    @PostMapping("/{feedId}")
+    public void ingest(@PathVariable String feedId, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        validateFeedId(feedId);
+        response.setContentType(NDJSON);
+        OutputStream out = response.getOutputStream();
+        SettlementFeedStatus status = settlementIngestService.ingest(feedId, request.getInputStream(),
+                new SettlementIngestService.Listener() {
+                    @Override
+                    public void onResult(SettlementLineResult result) {
+                        writeLine(out, result);
+                    }
+
+                    @Override
+                    public void onChunkCommitted(long linesDone) {
+                        try {
+                            out.flush();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                });
+        try {
+            writeLine(out, status);
+            out.flush();
+        } catch (UncheckedIOException e) {
+            // The client is gone; its progress is in the feed's checkpoint
+        }
+    }
+
+    @GetMapping("/{feedId}")
+    public ResponseEntity<SettlementFeedStatus> getStatus(@PathVariable String feedId) {
+        validateFeedId(feedId);
+        return ResponseEntity.of(settlementIngestService.status(feedId));
+    }
+
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void validateFeedId(String feedId) {
+        if (!FEED_ID.matcher(feedId).matches()) {
+            throw new InvalidSettlementFeedException(
+                    "Feed ID must be 1 to 100 letters, digits, '.', '_', ':' or '-'");
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.elavationlab.controller;
+
+import org.elavationlab.dto.StatementRunStatus;
+import org.elavationlab.service.StatementGenerator;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+
+@RestController
+@RequestMapping("/api/admin/statements")
+public class StatementController {
+
+    private final StatementGenerator statementGenerator;
+
+    public StatementController(StatementGenerator statementGenerator) {
+        this.statementGenerator = statementGenerator;
+    }
+
+    @PostMapping("/{month}")
+    public ResponseEntity<StatementRunStatus> generate(
+            @PathVariable @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        if (!statementGenerator.start(month)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(statementGenerator.getStatus());
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(statementGenerator.getStatus());
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<StatementRunStatus> getStatus() {
+        StatementRunStatus status = statementGenerator.getStatus();
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+}
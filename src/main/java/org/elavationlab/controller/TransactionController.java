@@ -1,5 +1,7 @@
 package org.elavationlab.controller;
 
+import org.elavationlab.admission.Admission;
+import org.elavationlab.admission.AdmissionPriority;
 import org.elavationlab.dto.TransactionResponse;
 import org.elavationlab.service.TransactionService;
 import org.springframework.http.ResponseEntity;
@@ -8,6 +10,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 
 @RestController
+@Admission(AdmissionPriority.LOW)
 @RequestMapping("/api/transactions")
 public class TransactionController {
 
@@ -25,5 +28,21 @@ public class TransactionController {
         List<TransactionResponse> transactions = transactionService.getTransactionHistory(playerId, currency, days);
         return ResponseEntity.ok(transactions);
     }
+
+    @GetMapping("/games/{gameId}")
+    public ResponseEntity<List<TransactionResponse>> getGameTransactions(
+            @PathVariable String gameId,
+            @RequestParam(defaultValue = "1") int days,
+            @RequestParam(defaultValue = "1000") int limit) {
+        return ResponseEntity.ok(transactionService.getGameTransactions(gameId, days, limit));
+    }
+
+    @GetMapping("/bonuses/{bonusCode}")
+    public ResponseEntity<List<TransactionResponse>> getBonusTransactions(
+            @PathVariable String bonusCode,
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(defaultValue = "1000") int limit) {
+        return ResponseEntity.ok(transactionService.getBonusTransactions(bonusCode, days, limit));
+    }
 }
 
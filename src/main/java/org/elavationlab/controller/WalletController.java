@@ -1,12 +1,31 @@
 package org.elavationlab.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import org.elavationlab.admission.Admission;
+import org.elavationlab.admission.AdmissionPriority;
+import org.elavationlab.admission.Bulkhead;
+import org.elavationlab.admission.Workload;
 import org.elavationlab.dto.*;
+import org.elavationlab.service.BalanceSnapshotService;
+import org.elavationlab.service.BalanceStreamHub;
+import org.elavationlab.service.GroupCommitExecutor;
+import org.elavationlab.service.PlayerSummaryService;
+import org.elavationlab.service.WalletBatchService;
+import org.elavationlab.service.WalletMutation;
 import org.elavationlab.service.WalletService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -14,9 +33,24 @@ import java.util.List;
 public class WalletController {
 
     private final WalletService walletService;
+    private final GroupCommitExecutor groupCommitExecutor;
+    private final BalanceSnapshotService balanceSnapshotService;
+    private final WalletBatchService walletBatchService;
+    private final BalanceStreamHub balanceStreamHub;
+    private final PlayerSummaryService playerSummaryService;
+    private final ObjectMapper objectMapper;
 
-    public WalletController(WalletService walletService) {
+    public WalletController(WalletService walletService, GroupCommitExecutor groupCommitExecutor,
+                            BalanceSnapshotService balanceSnapshotService, WalletBatchService walletBatchService,
+                            BalanceStreamHub balanceStreamHub,
+                            PlayerSummaryService playerSummaryService, ObjectMapper objectMapper) {
         this.walletService = walletService;
+        this.groupCommitExecutor = groupCommitExecutor;
+        this.balanceSnapshotService = balanceSnapshotService;
+        this.walletBatchService = walletBatchService;
+        this.balanceStreamHub = balanceStreamHub;
+        this.playerSummaryService = playerSummaryService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping("/{playerId}/deposit")
@@ -37,20 +71,23 @@ public class WalletController {
         return ResponseEntity.ok(response);
     }
 
+    @Admission(AdmissionPriority.CRITICAL)
     @PostMapping("/{playerId}/bet")
     public ResponseEntity<Void> bet(
             @PathVariable Integer playerId,
             @Valid @RequestBody BetRequest request) {
-        walletService.processBet(playerId, request.getAmount(), request.getCurrency(), request.getGameId());
+        groupCommitExecutor.execute(WalletMutation.bet(
+                playerId, request.getAmount(), request.getCurrency(), request.getGameId(), request.getRoundId()));
         return ResponseEntity.ok().build();
     }
 
+    @Admission(AdmissionPriority.CRITICAL)
     @PostMapping("/{playerId}/win")
     public ResponseEntity<WalletBalanceResponse> win(
             @PathVariable Integer playerId,
             @Valid @RequestBody WinRequest request) {
-        WalletBalanceResponse response = walletService.processWin(
-                playerId, request.getAmount(), request.getCurrency(), request.getGameId());
+        WalletBalanceResponse response = groupCommitExecutor.execute(WalletMutation.win(
+                playerId, request.getAmount(), request.getCurrency(), request.getGameId(), request.getRoundId()));
         return ResponseEntity.ok(response);
     }
 
@@ -59,7 +96,7 @@ public class WalletController {
             @PathVariable Integer playerId,
             @Valid @RequestBody BonusRequest request) {
         WalletBalanceResponse response = walletService.addBonusBalance(
-                playerId, request.getAmount(), request.getCurrency(), request.getBonusCode());
+                playerId, request.getAmount(), request.getCurrency(), request.getBonusCode(), request.getExpiresAt());
         return ResponseEntity.ok(response);
     }
 
@@ -72,6 +109,21 @@ public class WalletController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/{playerId}/transfer")
+    public ResponseEntity<TransferResponse> transfer(
+            @PathVariable Integer playerId,
+            @Valid @RequestBody TransferRequest request) {
+        TransferResponse response = walletService.transferToPlayer(
+                playerId, request.getToPlayerId(), request.getAmount(), request.getCurrency());
+        return ResponseEntity.ok(response);
+    }
+
+    @Admission(AdmissionPriority.CRITICAL)
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResponse> batch(@Valid @RequestBody BatchRequest request) {
+        return ResponseEntity.ok(walletBatchService.execute(request.getOperations()));
+    }
+
     @GetMapping("/{playerId}/balance")
     public ResponseEntity<WalletBalanceResponse> getBalance(
             @PathVariable Integer playerId,
@@ -80,11 +132,59 @@ public class WalletController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Streams a {@code balance} event for each of the player's wallets, then one whenever a wallet changes.
+     */
+    @GetMapping(value = "/{playerId}/balance/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBalances(@PathVariable Integer playerId) {
+        return balanceStreamHub.subscribe(playerId, () -> walletService.getBalances(playerId));
+    }
+
+    @Admission(AdmissionPriority.LOW)
+    @GetMapping("/{playerId}/balance/as-of")
+    public ResponseEntity<BalanceAsOfResponse> getBalanceAsOf(
+            @PathVariable Integer playerId,
+            @RequestParam String currency,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(balanceSnapshotService.getBalanceAsOf(playerId, currency, at));
+    }
+
+    /**
+     * Served from the player summary, which trails the wallets by the outbox relay lag; players not projected
+     * yet are read from the wallets.
+     */
     @GetMapping("/{playerId}/balances")
     public ResponseEntity<MultiCurrencyBalanceResponse> getAllBalances(
             @PathVariable Integer playerId) {
-        MultiCurrencyBalanceResponse response = walletService.getAllBalances(playerId);
+        MultiCurrencyBalanceResponse response = playerSummaryService.getBalances(playerId)
+                .orElseGet(() -> walletService.getAllBalances(playerId));
         return ResponseEntity.ok(response);
     }
-}
 
+    /**
+     * Balances of many players in one request, for lobbies. The response is a JSON array written as the rows
+     * are read; players without wallets are left out. The rows are read after the request thread is released,
+     * on the bulk pool.
+     */
+    @Admission(AdmissionPriority.LOW)
+    @Bulkhead(Workload.BULK)
+    @PostMapping("/balances")
+    public ResponseEntity<StreamingResponseBody> getPlayersBalances(
+            @Valid @RequestBody PlayerBalancesRequest request) {
+        List<String> currencies = request.getCurrencies() != null ? request.getCurrencies() : List.of();
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                playerSummaryService.streamBalances(request.getPlayerIds(), currencies, balances -> {
+                    try {
+                        objectMapper.writeValue(generator, balances);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
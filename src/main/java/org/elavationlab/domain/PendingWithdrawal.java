@@ -41,6 +41,22 @@ public class PendingWithdrawal {
     @Column(name = "processed_at")
     private LocalDateTime processedAt;
 
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "claimed_by", length = 64)
+    private String claimedBy;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @Column(name = "reviewed_by", length = 64)
+    private String reviewedBy;
+
+    @Column(name = "reviewed_at")
+    private LocalDateTime reviewedAt;
+
     @PrePersist
     protected void onCreate() {
         if (requestedAt == null) {
@@ -48,8 +64,12 @@ public class PendingWithdrawal {
         }
     }
 
+    /**
+     * PENDING (awaiting review) → APPROVED → PROCESSING (claimed by a payout worker) → COMPLETED.
+     * PENDING, APPROVED and FAILED withdrawals can be REJECTED, which refunds the wallet.
+     */
     public enum WithdrawalStatus {
-        PENDING, APPROVED, REJECTED
+        PENDING, APPROVED, PROCESSING, COMPLETED, REJECTED, FAILED
     }
 }
 
@@ -0,0 +1,56 @@
+package org.elavationlab.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "reconciliation_mismatches")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationMismatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "player_id", nullable = false)
+    private Integer playerId;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private Kind kind;
+
+    @Column(name = "transaction_id")
+    private Long transactionId;
+
+    @Column(precision = 15, scale = 2)
+    private BigDecimal expected;
+
+    @Column(precision = 15, scale = 2)
+    private BigDecimal actual;
+
+    @Column(name = "detected_at", nullable = false)
+    private LocalDateTime detectedAt;
+
+    /**
+     * CHAIN_BREAK: an entry's balance_before differs from the previous entry's balance_after.
+     * BALANCE_MISMATCH: the wallet balance differs from the balance_after of its last entry.
+     */
+    public enum Kind {
+        CHAIN_BREAK, BALANCE_MISMATCH
+    }
+}
@@ -0,0 +1,74 @@
+package org.elavationlab.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "reconciliation_runs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Mode mode;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "changed_since")
+    private LocalDateTime changedSince;
+
+    @Column(name = "ranges_total", nullable = false)
+    @Builder.Default
+    private Integer rangesTotal = 0;
+
+    @Column(name = "ranges_completed", nullable = false)
+    @Builder.Default
+    private Integer rangesCompleted = 0;
+
+    @Column(name = "wallets_checked", nullable = false)
+    @Builder.Default
+    private Long walletsChecked = 0L;
+
+    @Column(name = "entries_checked", nullable = false)
+    @Builder.Default
+    private Long entriesChecked = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long mismatches = 0L;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    /**
+     * FULL re-reads every wallet's whole chain. INCREMENTAL only reads entries after the point each wallet was
+     * last verified, plus wallets updated since the previous completed run.
+     */
+    public enum Mode {
+        FULL, INCREMENTAL
+    }
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+}
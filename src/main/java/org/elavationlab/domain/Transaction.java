@@ -5,9 +5,11 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.elavationlab.util.LedgerHash;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Entity
 @Table(name = "transactions")
@@ -40,12 +42,47 @@ public class Transaction {
     @Column(name = "balance_after", precision = 15, scale = 2)
     private BigDecimal balanceAfter;
 
+    @Column(name = "balance_delta", nullable = false, precision = 15, scale = 2)
+    @Builder.Default
+    private BigDecimal balanceDelta = BigDecimal.ZERO;
+
+    @Column(name = "bonus_delta", nullable = false, precision = 15, scale = 2)
+    @Builder.Default
+    private BigDecimal bonusDelta = BigDecimal.ZERO;
+
     @Column(nullable = false)
     private LocalDateTime timestamp;
 
     @Column(columnDefinition = "TEXT")
     private String description;
 
+    @Column(name = "game_id", length = 64)
+    private String gameId;
+
+    @Column(name = "round_id", length = 64)
+    private String roundId;
+
+    @Column(name = "bonus_code", length = 64)
+    private String bonusCode;
+
+    /** Currency on the other side of a conversion. */
+    @Column(name = "counter_currency", length = 3)
+    private String counterCurrency;
+
+    @Column(name = "transfer_id")
+    private UUID transferId;
+
+    @Column(name = "prev_hash")
+    private byte[] prevHash;
+
+    @Column(name = "entry_hash")
+    private byte[] entryHash;
+
+    /** Encoding of {@code entryHash}, see {@link LedgerHash}. */
+    @Column(name = "hash_version", nullable = false)
+    @Builder.Default
+    private Short hashVersion = LedgerHash.VERSION;
+
     @PrePersist
     protected void onCreate() {
         if (timestamp == null) {
@@ -54,7 +91,7 @@ public class Transaction {
     }
 
     public enum TransactionType {
-        DEPOSIT, WITHDRAWAL, BET, WIN, BONUS, CONVERSION
+        DEPOSIT, WITHDRAWAL, BET, WIN, BONUS, BONUS_EXPIRED, CONVERSION, CONVERSION_IN, REFUND, TRANSFER_OUT, TRANSFER_IN
     }
 }
 
@@ -37,6 +37,14 @@ public class Wallet {
     @Builder.Default
     private BigDecimal bonusBalance = BigDecimal.ZERO;
 
+    /** Hash of the wallet's latest ledger entry; the next entry chains from it. */
+    @Column(name = "ledger_hash")
+    private byte[] ledgerHash;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
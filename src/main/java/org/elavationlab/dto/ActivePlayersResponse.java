@@ -0,0 +1,22 @@
+package org.elavationlab.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.elavationlab.domain.Transaction;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivePlayersResponse {
+    private LocalDate from;
+    private LocalDate to;
+    private String currency;
+    private Transaction.TransactionType type;
+    private long uniquePlayers;
+    private double relativeStandardError;
+}
@@ -0,0 +1,27 @@
+package org.elavationlab.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceAsOfResponse {
+    private Integer playerId;
+    private String currency;
+    private LocalDateTime asOf;
+    private BigDecimal balance;
+    private BigDecimal bonusBalance;
+    private BigDecimal totalBalance;
+    private Long lastTransactionId;
+    /** Snapshot the balance was replayed from; null when it was derived backwards from the live balance. */
+    private LocalDate snapshotDate;
+    private long replayedEntries;
+}
@@ -0,0 +1,23 @@
+package org.elavationlab.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceSnapshotRunResponse {
+    private LocalDate snapshotDate;
+    private String status;
+    private long lastWalletId;
+    private long walletsSnapshotted;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
@@ -0,0 +1,43 @@
+package org.elavationlab.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOperation {
+
+    public enum Type {
+        BET, WIN, BALANCE
+    }
+
+    @NotNull(message = "Type is required")
+    private Type type;
+
+    @NotNull(message = "Player ID is required")
+    private Integer playerId;
+
+    /** Ignored for {@link Type#BALANCE}. */
+    private BigDecimal amount;
+
+    @NotNull(message = "Currency is required")
+    @Pattern(regexp = "^[A-Z]{3}$", message = "Currency must be a 3-letter code")
+    private String currency;
+
+    /** Ignored for {@link Type#BALANCE}. */
+    @Size(max = 64, message = "Game ID must be at most 64 characters")
+    private String gameId;
+
+    /** Optional; ignored for {@link Type#BALANCE}. */
+    @Size(max = 64, message = "Round ID must be at most 64 characters")
+    private String roundId;
+}
@@ -0,0 +1,19 @@
+package org.elavationlab.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRequest {
+    @NotEmpty(message = "Operations are required")
+    @Size(max = 1000, message = "At most 1000 operations per batch")
+    private List<@Valid BatchOperation> operations;
+}
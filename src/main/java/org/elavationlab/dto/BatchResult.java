@@ -0,0 +1,22 @@
+package org.elavationlab.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResult {
+
+    public enum Status {
+        OK, INSUFFICIENT_FUNDS, WALLET_NOT_FOUND, INVALID_REQUEST, CONFLICT, ERROR
+    }
+
+    private Status status;
+    /** Balance after the operation; null unless the status is {@link Status#OK}. */
+    private WalletBalanceResponse balance;
+    private String message;
+}
@@ -0,0 +1,25 @@
+package org.elavationlab.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class BonusCampaignRequest {
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    private BigDecimal amount;
+
+    @NotNull(message = "Currency is required")
+    @Pattern(regexp = "^[A-Z]{3}$", message = "Currency must be a 3-letter code")
+    private String currency;
+
+    /** When the unspent part of each credited bonus expires; null for a bonus that never expires. */
+    @Future(message = "Expiry must be in the future")
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,33 @@
+package org.elavationlab.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BonusCampaignStatus {
+    private String campaignId;
+    private String currency;
+    private BigDecimal amount;
+    /** When the credited bonuses expire; null if they never do. */
+    private LocalDateTime expiresAt;
+    /** CREATED, RUNNING, STOPPED, COMPLETED or FAILED. */
+    private String state;
+    /** Players targeted, as of the last upload or run start. */
+    private long players;
+    private long credited;
+    /** Targeted players without a wallet in the campaign currency. */
+    private long skipped;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+    /** Why the last run failed; null otherwise. */
+    private String error;
+}
@@ -1,12 +1,15 @@
 package org.elavationlab.dto;
 
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Data
 public class BonusRequest {
@@ -19,6 +22,11 @@ public class BonusRequest {
     private String currency;
 
     @NotBlank(message = "Bonus code is required")
+    @Size(max = 64, message = "Bonus code must be at most 64 characters")
     private String bonusCode;
+
+    /** When the unspent part of the bonus expires; null for a bonus that never expires. */
+    @Future(message = "Expiry must be in the future")
+    private LocalDateTime expiresAt;
 }
 
@@ -0,0 +1,26 @@
+package org.elavationlab.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameRevenueRow {
+    private String gameId;
+    private String currency;
+    /** Start of the minute for per-minute rows; null for totals over a window. */
+    private LocalDateTime minute;
+    private BigDecimal totalBets;
+    private BigDecimal totalWins;
+    /** Gross gaming revenue: bets minus wins. */
+    private BigDecimal ggr;
+    private long betCount;
+    private long winCount;
+}
@@ -0,0 +1,17 @@
+package org.elavationlab.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerAuditFailure {
+    private Integer playerId;
+    private String currency;
+    private Long transactionId;
+    private String reason;
+}
@@ -0,0 +1,22 @@
+package org.elavationlab.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerAuditResponse {
+    private boolean full;
+    private long walletsVerified;
+    private long entriesVerified;
+    private long walletsSealed;
+    private long failures;
+    private List<LedgerAuditFailure> failureSamples;
+    private long durationMillis;
+}
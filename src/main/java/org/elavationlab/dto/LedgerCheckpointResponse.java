@@ -0,0 +1,17 @@
+package org.elavationlab.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerCheckpointResponse {
+    private String action;
+    private long walletsCheckpointed;
+    private long walletsMaterialized;
+    private long durationMillis;
+}
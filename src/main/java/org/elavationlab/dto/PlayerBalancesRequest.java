@@ -0,0 +1,24 @@
+package org.elavationlab.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayerBalancesRequest {
+    @NotEmpty(message = "Player ids are required")
+    @Size(max = 1000, message = "At most 1000 players per request")
+    private List<@NotNull Integer> playerIds;
+
+    /** Currencies to return; all of a player's currencies when absent. */
+    @Size(max = 10, message = "At most 10 currencies per request")
+    private List<@NotNull @Pattern(regexp = "^[A-Z]{3}$", message = "Currency must be a 3-letter code") String> currencies;
+}
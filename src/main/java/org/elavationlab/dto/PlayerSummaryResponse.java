@@ -0,0 +1,34 @@
+package org.elavationlab.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A player's entry in the summary read model. It trails the ledger by the outbox relay lag; {@link #updatedAt}
+ * is when it last caught up.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayerSummaryResponse {
+    private Integer playerId;
+    private List<MultiCurrencyBalanceResponse.CurrencyBalance> currencies;
+    private BigDecimal totalBalanceInUSD;
+    private BigDecimal lifetimeDepositsUsd;
+    private BigDecimal lifetimeWithdrawalsUsd;
+    private BigDecimal lifetimeBetsUsd;
+    private BigDecimal lifetimeWinsUsd;
+    private long depositCount;
+    private long betCount;
+    private long winCount;
+    private LocalDateTime firstActivityAt;
+    private LocalDateTime lastActivityAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,24 @@
+package org.elavationlab.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.elavationlab.domain.ReconciliationMismatch;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationMismatchResponse {
+    private Integer playerId;
+    private String currency;
+    private ReconciliationMismatch.Kind kind;
+    private Long transactionId;
+    private BigDecimal expected;
+    private BigDecimal actual;
+    private LocalDateTime detectedAt;
+}
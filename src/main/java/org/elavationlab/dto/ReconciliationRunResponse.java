@@ -0,0 +1,28 @@
+package org.elavationlab.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.elavationlab.domain.ReconciliationRun;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationRunResponse {
+    private Long id;
+    private ReconciliationRun.Mode mode;
+    private ReconciliationRun.Status status;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private LocalDateTime changedSince;
+    private int rangesTotal;
+    private int rangesCompleted;
+    private long walletsChecked;
+    private long entriesChecked;
+    private long mismatches;
+    private String error;
+}
@@ -0,0 +1,25 @@
+package org.elavationlab.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementFeedStatus {
+    private String feedId;
+    /** Lines of the file applied so far; a resumed upload skips them. */
+    private long linesDone;
+    private long applied;
+    private long rejected;
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+    /** Why the upload stopped early; null otherwise. */
+    private String error;
+}
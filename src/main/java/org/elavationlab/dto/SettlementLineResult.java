@@ -0,0 +1,19 @@
+package org.elavationlab.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementLineResult {
+    /** 1-based line number in the uploaded file. */
+    private long line;
+    private BatchResult.Status status;
+    /** Balance after the operation; null unless the status is {@link BatchResult.Status#OK}. */
+    private WalletBalanceResponse balance;
+    private String message;
+}
@@ -23,5 +23,9 @@ public class TransactionResponse {
     private BigDecimal balanceAfter;
     private LocalDateTime timestamp;
     private String description;
+    private String gameId;
+    private String roundId;
+    private String bonusCode;
+    private String counterCurrency;
 }
 
@@ -0,0 +1,35 @@
+package org.elavationlab.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.elavationlab.domain.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A committed wallet change as delivered to downstream consumers. Delivery is at least once; consumers
+ * deduplicate on {@link #id}, which increases with every change of a player.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletChangeEvent {
+    private Long id;
+    private Integer playerId;
+    private String currency;
+    private Transaction.TransactionType type;
+    private BigDecimal amount;
+    /** Balances of the wallet after the change. */
+    private BigDecimal balance;
+    private BigDecimal bonusBalance;
+    private String gameId;
+    private String roundId;
+    private String bonusCode;
+    private UUID transferId;
+    private LocalDateTime occurredAt;
+}
@@ -4,6 +4,7 @@ import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -19,6 +20,10 @@ public class WinRequest {
     private String currency;
 
     @NotBlank(message = "Game ID is required")
+    @Size(max = 64, message = "Game ID must be at most 64 characters")
     private String gameId;
+
+    @Size(max = 64, message = "Round ID must be at most 64 characters")
+    private String roundId;
 }
 
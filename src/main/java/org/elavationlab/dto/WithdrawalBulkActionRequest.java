@@ -0,0 +1,33 @@
+package org.elavationlab.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class WithdrawalBulkActionRequest {
+    private List<Long> ids;
+
+    @Pattern(regexp = "^[A-Z]{3}$", message = "Currency must be a 3-letter code")
+    private String currency;
+
+    @DecimalMin(value = "0.00", message = "Minimum amount cannot be negative")
+    private BigDecimal minAmount;
+
+    private BigDecimal maxAmount;
+
+    private LocalDateTime requestedBefore;
+
+    @JsonIgnore
+    @AssertTrue(message = "At least one filter (ids, currency, amount band or age) is required")
+    public boolean isFilterPresent() {
+        return (ids != null && !ids.isEmpty()) || currency != null || minAmount != null
+                || maxAmount != null || requestedBefore != null;
+    }
+}
@@ -0,0 +1,25 @@
+package org.elavationlab.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WithdrawalBulkActionResponse {
+    private String action;
+    private long processed;
+    private int chunks;
+    private long durationMillis;
+    /** Matching withdrawals left in their status because a payout worker held them, even after a retry. */
+    private long skipped;
+    /** The first 100 of the skipped withdrawals. */
+    private List<Long> skippedIds;
+    /** Matching withdrawals left in their status because their wallet no longer exists; at most the first 100. */
+    private List<Long> unrefundableIds;
+}
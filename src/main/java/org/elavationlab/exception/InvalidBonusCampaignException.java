@@ -0,0 +1,7 @@
+package org.elavationlab.exception;
+
+public class InvalidBonusCampaignException extends WalletException {
+    public InvalidBonusCampaignException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.elavationlab.exception;
+
+public class InvalidSettlementFeedException extends WalletException {
+    public InvalidSettlementFeedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.elavationlab.exception;
+
+public class InvalidSnapshotDateException extends WalletException {
+    public InvalidSnapshotDateException(String message) {
+        super(message);
+    }
+}
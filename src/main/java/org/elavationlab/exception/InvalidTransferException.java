@@ -0,0 +1,7 @@
+package org.elavationlab.exception;
+
+public class InvalidTransferException extends WalletException {
+    public InvalidTransferException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package org.elavationlab.exception;
+
+import lombok.Getter;
+
+@Getter
+public class ServiceOverloadedException extends WalletException {
+    private final int retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
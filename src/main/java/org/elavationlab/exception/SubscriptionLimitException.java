@@ -0,0 +1,7 @@
+package org.elavationlab.exception;
+
+public class SubscriptionLimitException extends WalletException {
+    public SubscriptionLimitException(String message) {
+        super(message);
+    }
+}
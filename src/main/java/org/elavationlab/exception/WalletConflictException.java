@@ -0,0 +1,11 @@
+package org.elavationlab.exception;
+
+public class WalletConflictException extends WalletException {
+    public WalletConflictException(String message) {
+        super(message);
+    }
+
+    public WalletConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,274 @@
+package org.elavationlab.protocol;
+
+import org.elavationlab.controller.ErrorResponse;
+import org.elavationlab.dto.BatchOperation;
+import org.elavationlab.dto.BatchRequest;
+import org.elavationlab.dto.BatchResponse;
+import org.elavationlab.dto.BatchResult;
+import org.elavationlab.dto.BetRequest;
+import org.elavationlab.dto.WalletBalanceResponse;
+import org.elavationlab.dto.WinRequest;
+import org.springframework.http.MediaType;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-layout binary encoding of the game-server messages, negotiated as {@value #MEDIA_TYPE_VALUE}.
+ * <p>
+ * Every message starts with a version byte and a message tag. Integers are big-endian; amounts are signed 64-bit
+ * minor units (two decimal places); currencies are three ASCII bytes; strings are a length followed by UTF-8 bytes.
+ * <pre>
+ * WAGER          (bet, win)  amount:i64 currency:3 gameIdLength:u8 gameId roundIdLength:u8 roundId
+ * BALANCE                    playerId:i32 currency:3 balance:i64 bonusBalance:i64 totalBalance:i64
+ * BATCH_REQUEST              count:u16 then per operation
+ *                              type:u8 playerId:i32 amount:i64 currency:3 gameIdLength:u8 gameId
+ *                              roundIdLength:u8 roundId
+ * BATCH_RESPONSE             count:u16 then per result status:u8 BALANCE body (zeros unless status is OK)
+ * ERROR                      status:u16 errorLength:u16 error messageLength:u16 message
+ * </pre>
+ * Messages are decoded straight from the buffer into the request objects and encoded straight into the caller's
+ * buffer. An empty string stands for an absent value. Validation failures are reported as a JSON map, so binary
+ * clients should also accept {@code application/json}.
+ */
+public final class WalletBinaryCodec {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-wallet-binary";
+    public static final MediaType MEDIA_TYPE = MediaType.valueOf(MEDIA_TYPE_VALUE);
+
+    static final byte VERSION = 1;
+    static final byte WAGER = 0x01;
+    static final byte BALANCE = 0x02;
+    static final byte BATCH_REQUEST = 0x03;
+    static final byte BATCH_RESPONSE = 0x04;
+    static final byte ERROR = 0x7F;
+
+    private static final int HEADER_SIZE = 2;
+    private static final int BALANCE_BODY_SIZE = 4 + 3 + 8 + 8 + 8;
+    private static final int MAX_GAME_ID_BYTES = 255;
+    private static final int MAX_ERROR_TEXT_BYTES = 1024;
+    private static final BatchOperation.Type[] OPERATION_TYPES = BatchOperation.Type.values();
+    private static final BatchResult.Status[] RESULT_STATUSES = BatchResult.Status.values();
+
+    private WalletBinaryCodec() {
+    }
+
+    public static boolean canDecode(Class<?> type) {
+        return type == BetRequest.class || type == WinRequest.class || type == BatchRequest.class
+                || type == WalletBalanceResponse.class || type == BatchResponse.class;
+    }
+
+    public static boolean canEncode(Class<?> type) {
+        return canDecode(type) || type == ErrorResponse.class;
+    }
+
+    /**
+     * Upper bound of the encoded size of {@code value}, for sizing the output buffer.
+     */
+    public static int maxEncodedSize(Object value) {
+        if (value instanceof BatchResponse response) {
+            return HEADER_SIZE + 2 + response.getResults().size() * (1 + BALANCE_BODY_SIZE);
+        }
+        if (value instanceof BatchRequest request) {
+            return HEADER_SIZE + 2 + request.getOperations().size() * (1 + 4 + 8 + 3 + 2 * (1 + MAX_GAME_ID_BYTES));
+        }
+        if (value instanceof ErrorResponse) {
+            return HEADER_SIZE + 2 + 2 * (2 + MAX_ERROR_TEXT_BYTES);
+        }
+        return HEADER_SIZE + Math.max(BALANCE_BODY_SIZE, 8 + 3 + 2 * (1 + MAX_GAME_ID_BYTES));
+    }
+
+    public static Object decode(Class<?> type, ByteBuffer in) {
+        if (type == BetRequest.class) {
+            expectHeader(in, WAGER);
+            BetRequest request = new BetRequest();
+            request.setAmount(readAmount(in));
+            request.setCurrency(readCurrency(in));
+            request.setGameId(readShortString(in));
+            request.setRoundId(readShortString(in));
+            return request;
+        }
+        if (type == WinRequest.class) {
+            expectHeader(in, WAGER);
+            WinRequest request = new WinRequest();
+            request.setAmount(readAmount(in));
+            request.setCurrency(readCurrency(in));
+            request.setGameId(readShortString(in));
+            request.setRoundId(readShortString(in));
+            return request;
+        }
+        if (type == WalletBalanceResponse.class) {
+            expectHeader(in, BALANCE);
+            return readBalance(in);
+        }
+        if (type == BatchRequest.class) {
+            expectHeader(in, BATCH_REQUEST);
+            int count = Short.toUnsignedInt(in.getShort());
+            List<BatchOperation> operations = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int typeIndex = Byte.toUnsignedInt(in.get());
+                if (typeIndex >= OPERATION_TYPES.length) {
+                    throw new IllegalArgumentException("Unknown operation type " + typeIndex);
+                }
+                operations.add(BatchOperation.builder()
+                        .type(OPERATION_TYPES[typeIndex])
+                        .playerId(in.getInt())
+                        .amount(readAmount(in))
+                        .currency(readCurrency(in))
+                        .gameId(readShortString(in))
+                        .roundId(readShortString(in))
+                        .build());
+            }
+            return new BatchRequest(operations);
+        }
+        if (type == BatchResponse.class) {
+            expectHeader(in, BATCH_RESPONSE);
+            int count = Short.toUnsignedInt(in.getShort());
+            List<BatchResult> results = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                BatchResult.Status status = RESULT_STATUSES[Byte.toUnsignedInt(in.get())];
+                WalletBalanceResponse balance = readBalance(in);
+                results.add(BatchResult.builder()
+                        .status(status)
+                        .balance(status == BatchResult.Status.OK ? balance : null)
+                        .build());
+            }
+            return new BatchResponse(results);
+        }
+        throw new IllegalArgumentException("Cannot decode " + type.getName());
+    }
+
+    public static void encode(Object value, ByteBuffer out) {
+        if (value instanceof BetRequest request) {
+            writeHeader(out, WAGER);
+            writeWager(out, request.getAmount(), request.getCurrency(), request.getGameId(), request.getRoundId());
+        } else if (value instanceof WinRequest request) {
+            writeHeader(out, WAGER);
+            writeWager(out, request.getAmount(), request.getCurrency(), request.getGameId(), request.getRoundId());
+        } else if (value instanceof WalletBalanceResponse balance) {
+            writeHeader(out, BALANCE);
+            writeBalance(out, balance);
+        } else if (value instanceof BatchRequest request) {
+            writeHeader(out, BATCH_REQUEST);
+            out.putShort((short) request.getOperations().size());
+            for (BatchOperation operation : request.getOperations()) {
+                out.put((byte) operation.getType().ordinal());
+                out.putInt(operation.getPlayerId());
+                writeAmount(out, operation.getAmount());
+                writeCurrency(out, operation.getCurrency());
+                writeShortString(out, operation.getGameId());
+                writeShortString(out, operation.getRoundId());
+            }
+        } else if (value instanceof BatchResponse response) {
+            writeHeader(out, BATCH_RESPONSE);
+            out.putShort((short) response.getResults().size());
+            for (BatchResult result : response.getResults()) {
+                out.put((byte) result.getStatus().ordinal());
+                writeBalance(out, result.getBalance());
+            }
+        } else if (value instanceof ErrorResponse error) {
+            writeHeader(out, ERROR);
+            out.putShort((short) error.getStatus());
+            writeText(out, error.getError());
+            writeText(out, error.getMessage());
+        } else {
+            throw new IllegalArgumentException("Cannot encode " + value.getClass().getName());
+        }
+    }
+
+    private static void expectHeader(ByteBuffer in, byte tag) {
+        byte version = in.get();
+        byte actual = in.get();
+        if (version != VERSION || actual != tag) {
+            throw new IllegalArgumentException("Expected message " + tag + " version " + VERSION +
+                    " but got " + actual + " version " + version);
+        }
+    }
+
+    private static void writeHeader(ByteBuffer out, byte tag) {
+        out.put(VERSION).put(tag);
+    }
+
+    private static void writeWager(ByteBuffer out, BigDecimal amount, String currency, String gameId,
+                                   String roundId) {
+        writeAmount(out, amount);
+        writeCurrency(out, currency);
+        writeShortString(out, gameId);
+        writeShortString(out, roundId);
+    }
+
+    private static WalletBalanceResponse readBalance(ByteBuffer in) {
+        return WalletBalanceResponse.builder()
+                .playerId(in.getInt())
+                .currency(readCurrency(in))
+                .balance(readAmount(in))
+                .bonusBalance(readAmount(in))
+                .totalBalance(readAmount(in))
+                .build();
+    }
+
+    private static void writeBalance(ByteBuffer out, WalletBalanceResponse balance) {
+        if (balance == null) {
+            out.put(new byte[BALANCE_BODY_SIZE]);
+            return;
+        }
+        out.putInt(balance.getPlayerId());
+        writeCurrency(out, balance.getCurrency());
+        writeAmount(out, balance.getBalance());
+        writeAmount(out, balance.getBonusBalance());
+        writeAmount(out, balance.getTotalBalance());
+    }
+
+    private static BigDecimal readAmount(ByteBuffer in) {
+        return BigDecimal.valueOf(in.getLong(), 2);
+    }
+
+    private static void writeAmount(ByteBuffer out, BigDecimal amount) {
+        out.putLong(amount != null ? amount.movePointRight(2).longValueExact() : 0L);
+    }
+
+    private static String readCurrency(ByteBuffer in) {
+        byte[] bytes = new byte[3];
+        in.get(bytes);
+        return bytes[0] == 0 ? null : new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private static void writeCurrency(ByteBuffer out, String currency) {
+        if (currency == null) {
+            out.put(new byte[3]);
+            return;
+        }
+        byte[] bytes = currency.getBytes(StandardCharsets.US_ASCII);
+        if (bytes.length != 3) {
+            throw new IllegalArgumentException("Currency must be 3 characters: " + currency);
+        }
+        out.put(bytes);
+    }
+
+    private static String readShortString(ByteBuffer in) {
+        int length = Byte.toUnsignedInt(in.get());
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeShortString(ByteBuffer out, String value) {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (bytes.length > MAX_GAME_ID_BYTES) {
+            throw new IllegalArgumentException("String longer than " + MAX_GAME_ID_BYTES + " bytes");
+        }
+        out.put((byte) bytes.length).put(bytes);
+    }
+
+    private static void writeText(ByteBuffer out, String value) {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        int length = Math.min(bytes.length, MAX_ERROR_TEXT_BYTES);
+        out.putShort((short) length).put(bytes, 0, length);
+    }
+}
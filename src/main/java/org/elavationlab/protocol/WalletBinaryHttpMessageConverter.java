@@ -0,0 +1,109 @@
+package org.elavationlab.protocol;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Reads and writes {@link WalletBinaryCodec} messages for requests and responses negotiated as
+ * {@value WalletBinaryCodec#MEDIA_TYPE_VALUE}.
+ * <p>
+ * Request bodies are read into a per-thread buffer and responses are encoded into a per-thread buffer, so a
+ * steady stream of calls allocates nothing beyond the decoded objects themselves.
+ */
+public class WalletBinaryHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    static final int INITIAL_BUFFER_SIZE = 4 * 1024;
+    static final int MAX_BODY_SIZE = 512 * 1024;
+
+    private static final ThreadLocal<byte[]> READ_BUFFER = ThreadLocal.withInitial(() -> new byte[INITIAL_BUFFER_SIZE]);
+    private static final ThreadLocal<ByteBuffer> WRITE_BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(INITIAL_BUFFER_SIZE));
+
+    public WalletBinaryHttpMessageConverter() {
+        super(WalletBinaryCodec.MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return WalletBinaryCodec.canEncode(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return mediaType != null && super.canRead(mediaType);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return WalletBinaryCodec.canDecode(clazz) && canRead(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        int length = readBody(inputMessage);
+        try {
+            ByteBuffer in = ByteBuffer.wrap(READ_BUFFER.get(), 0, length);
+            Object value = WalletBinaryCodec.decode(clazz, in);
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException(in.remaining() + " trailing bytes");
+            }
+            return value;
+        } catch (RuntimeException e) {
+            throw new HttpMessageNotReadableException("Malformed wallet binary message: " + e.getMessage(), e,
+                    inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+        ByteBuffer out = writeBuffer(WalletBinaryCodec.maxEncodedSize(value));
+        try {
+            WalletBinaryCodec.encode(value, out);
+        } catch (RuntimeException e) {
+            throw new HttpMessageNotWritableException("Cannot encode " + value.getClass().getSimpleName(), e);
+        }
+        outputMessage.getHeaders().setContentLength(out.position());
+        outputMessage.getBody().write(out.array(), 0, out.position());
+    }
+
+    private int readBody(HttpInputMessage inputMessage) throws IOException {
+        byte[] buffer = READ_BUFFER.get();
+        InputStream body = inputMessage.getBody();
+        int length = 0;
+        int read;
+        while ((read = body.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+            if (length == buffer.length) {
+                if (buffer.length >= MAX_BODY_SIZE) {
+                    if (body.read() == -1) {
+                        break;
+                    }
+                    throw new HttpMessageNotReadableException(
+                            "Wallet binary message larger than " + MAX_BODY_SIZE + " bytes", inputMessage);
+                }
+                buffer = Arrays.copyOf(buffer, Math.min(buffer.length * 2, MAX_BODY_SIZE));
+                READ_BUFFER.set(buffer);
+            }
+        }
+        return length;
+    }
+
+    private static ByteBuffer writeBuffer(int capacity) {
+        ByteBuffer buffer = WRITE_BUFFER.get();
+        if (buffer.capacity() < capacity) {
+            buffer = ByteBuffer.allocate(Math.max(capacity, buffer.capacity() * 2));
+            WRITE_BUFFER.set(buffer);
+        }
+        buffer.clear();
+        return buffer;
+    }
+}
@@ -0,0 +1,111 @@
+package org.elavationlab.repository;
+
+import org.elavationlab.util.SqlArrays;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bonus grants of a wallet as buckets with an optional expiry, in the caller's transaction. The wallet's bonus
+ * balance stays the amount that is spent and displayed; buckets record which grant it came from and when it
+ * expires. The caller holds the wallet: locked, or loaded for an update its version check will guard.
+ */
+@Repository
+public class BonusBucketRepository {
+
+    private static final String LIVE_SQL =
+            "SELECT id, remaining, expires_at FROM bonus_buckets WHERE wallet_id = :walletId AND remaining > 0 ORDER BY id";
+
+    private static final String GRANT_SQL =
+            "INSERT INTO bonus_buckets (wallet_id, bonus_code, amount, remaining, granted_at, expires_at) " +
+            "SELECT unnest(:walletIds), :bonusCode, CAST(:amount AS numeric), CAST(:amount AS numeric), " +
+            "CAST(:grantedAt AS timestamp), CAST(:expiresAt AS timestamp)";
+
+    private static final String SET_REMAINING_SQL =
+            "UPDATE bonus_buckets b SET remaining = v.remaining " +
+            "FROM unnest(:ids, :remaining) AS v(id, remaining) " +
+            "WHERE b.id = v.id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public BonusBucketRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Buckets of a wallet with money left, oldest grant first, including expired ones the sweeper has not reached.
+     */
+    public List<Bucket> findLive(Long walletId) {
+        return jdbcTemplate.query(LIVE_SQL, new MapSqlParameterSource("walletId", walletId), (rs, rowNum) -> {
+            Timestamp expiresAt = rs.getTimestamp("expires_at");
+            return new Bucket(rs.getLong("id"), rs.getBigDecimal("remaining"),
+                    expiresAt != null ? expiresAt.toLocalDateTime() : null);
+        });
+    }
+
+    /**
+     * Adds one bucket of {@code amount} to each wallet. {@code expiresAt} is null for a grant that never expires.
+     */
+    public void grant(Collection<Long> walletIds, String bonusCode, BigDecimal amount, LocalDateTime grantedAt,
+                      LocalDateTime expiresAt) {
+        if (walletIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(GRANT_SQL, new MapSqlParameterSource()
+                .addValue("walletIds", SqlArrays.bigints(walletIds))
+                .addValue("bonusCode", bonusCode)
+                .addValue("amount", amount)
+                .addValue("grantedAt", grantedAt)
+                .addValue("expiresAt", expiresAt));
+    }
+
+    /**
+     * Sets the remaining amount of buckets, keyed by bucket id.
+     */
+    public void setRemaining(Map<Long, BigDecimal> remaining) {
+        if (remaining.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(remaining.keySet());
+        jdbcTemplate.update(SET_REMAINING_SQL, new MapSqlParameterSource()
+                .addValue("ids", SqlArrays.bigints(ids))
+                .addValue("remaining", SqlArrays.numerics(ids.stream().map(remaining::get).toList())));
+    }
+
+    /**
+     * Spends {@code amount} from the buckets unexpired at {@code now}, oldest first, and returns the new remaining
+     * amount of every bucket it touched. Spending beyond what the buckets hold leaves them all empty.
+     */
+    public static Map<Long, BigDecimal> drain(List<Bucket> buckets, BigDecimal amount, LocalDateTime now) {
+        Map<Long, BigDecimal> remaining = new LinkedHashMap<>();
+        BigDecimal left = amount;
+        for (Bucket bucket : buckets) {
+            if (left.signum() <= 0) {
+                break;
+            }
+            if (bucket.isExpiredAt(now)) {
+                continue;
+            }
+            BigDecimal spent = bucket.remaining().min(left);
+            remaining.put(bucket.id(), bucket.remaining().subtract(spent));
+            left = left.subtract(spent);
+        }
+        return remaining;
+    }
+
+    public record Bucket(long id, BigDecimal remaining, LocalDateTime expiresAt) {
+
+        public boolean isExpiredAt(LocalDateTime now) {
+            return expiresAt != null && !expiresAt.isAfter(now);
+        }
+    }
+}
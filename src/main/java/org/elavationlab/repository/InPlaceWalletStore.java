@@ -0,0 +1,147 @@
+package org.elavationlab.repository;
+
+import org.elavationlab.domain.Wallet;
+import org.elavationlab.dto.WalletBalanceResponse;
+import org.elavationlab.util.SqlArrays;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps balances on the wallet row. Concurrent single-wallet changes are caught by the wallet's version column.
+ */
+@Repository
+@ConditionalOnProperty(name = "wallet.storage.mode", havingValue = "update-in-place", matchIfMissing = true)
+public class InPlaceWalletStore implements WalletStore {
+
+    private static final String PLAYERS_BALANCES_SQL =
+            "SELECT player_id, currency, balance, bonus_balance FROM wallets " +
+            "WHERE player_id = ANY(:playerIds) AND (cardinality(:currencies) = 0 OR currency = ANY(:currencies)) " +
+            "ORDER BY player_id, currency";
+
+    private static final String BALANCES_SQL =
+            "SELECT id, balance, bonus_balance FROM wallets WHERE id = ANY(:ids)";
+
+    private static final String APPLY_SQL =
+            "UPDATE wallets w SET balance = w.balance + v.delta, version = w.version + 1, updated_at = now() " +
+            "FROM unnest(:ids, :deltas) AS v(id, delta) " +
+            "WHERE w.id = v.id " +
+            "RETURNING w.id, w.balance, w.bonus_balance";
+
+    private static final String APPLY_BONUS_SQL =
+            "UPDATE wallets w SET bonus_balance = w.bonus_balance + v.delta, version = w.version + 1, updated_at = now() " +
+            "FROM unnest(:ids, :deltas) AS v(id, delta) " +
+            "WHERE w.id = v.id " +
+            "RETURNING w.id, w.balance, w.bonus_balance";
+
+    private static final String HEADS_SQL =
+            "SELECT id, ledger_hash FROM wallets WHERE id = ANY(:ids) AND ledger_hash IS NOT NULL";
+
+    private static final String ADVANCE_HEADS_SQL =
+            "UPDATE wallets w SET ledger_hash = v.hash " +
+            "FROM unnest(:ids, :hashes) AS v(id, hash) " +
+            "WHERE w.id = v.id";
+
+    private final WalletRepository walletRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public InPlaceWalletStore(WalletRepository walletRepository, NamedParameterJdbcTemplate jdbcTemplate) {
+        this.walletRepository = walletRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<WalletBalanceResponse> findBalance(Integer playerId, String currency) {
+        return walletRepository.findBalance(playerId, currency);
+    }
+
+    @Override
+    public List<WalletBalanceResponse> findBalances(Integer playerId) {
+        return walletRepository.findBalances(playerId);
+    }
+
+    @Override
+    public List<WalletBalanceResponse> findBalances(Collection<Integer> playerIds, Collection<String> currencies) {
+        return jdbcTemplate.query(PLAYERS_BALANCES_SQL, new MapSqlParameterSource()
+                .addValue("playerIds", SqlArrays.integers(playerIds))
+                .addValue("currencies", SqlArrays.varchars(currencies)), (rs, rowNum) -> {
+            BigDecimal balance = rs.getBigDecimal("balance");
+            BigDecimal bonusBalance = rs.getBigDecimal("bonus_balance");
+            return new WalletBalanceResponse(rs.getInt("player_id"), rs.getString("currency"), balance, bonusBalance,
+                    balance.add(bonusBalance));
+        });
+    }
+
+    @Override
+    public Optional<Wallet> findForUpdate(Integer playerId, String currency) {
+        return walletRepository.findByPlayerIdAndCurrency(playerId, currency);
+    }
+
+    @Override
+    public Wallet save(Wallet wallet) {
+        return walletRepository.save(wallet);
+    }
+
+    @Override
+    public Map<Long, Balances> balances(Collection<Long> walletIds) {
+        Map<Long, Balances> balances = new HashMap<>();
+        jdbcTemplate.query(BALANCES_SQL, new MapSqlParameterSource("ids", SqlArrays.bigints(walletIds)),
+                rs -> {
+                    balances.put(rs.getLong("id"), new Balances(rs.getBigDecimal("balance"), rs.getBigDecimal("bonus_balance")));
+                });
+        return balances;
+    }
+
+    @Override
+    public Map<Long, Balances> applyBalanceDeltas(Map<Long, BigDecimal> deltas) {
+        return apply(APPLY_SQL, deltas);
+    }
+
+    @Override
+    public Map<Long, Balances> applyBonusDeltas(Map<Long, BigDecimal> deltas) {
+        return apply(APPLY_BONUS_SQL, deltas);
+    }
+
+    private Map<Long, Balances> apply(String sql, Map<Long, BigDecimal> deltas) {
+        List<Long> ids = new ArrayList<>(deltas.keySet());
+        List<BigDecimal> amounts = ids.stream().map(deltas::get).toList();
+        Map<Long, Balances> balances = new HashMap<>();
+        jdbcTemplate.query(sql, new MapSqlParameterSource()
+                        .addValue("ids", SqlArrays.bigints(ids))
+                        .addValue("deltas", SqlArrays.numerics(amounts)),
+                rs -> {
+                    balances.put(rs.getLong("id"), new Balances(rs.getBigDecimal("balance"), rs.getBigDecimal("bonus_balance")));
+                });
+        return balances;
+    }
+
+    @Override
+    public Map<Long, byte[]> ledgerHeads(Collection<Long> walletIds) {
+        Map<Long, byte[]> heads = new HashMap<>();
+        jdbcTemplate.query(HEADS_SQL, new MapSqlParameterSource("ids", SqlArrays.bigints(walletIds)),
+                rs -> {
+                    heads.put(rs.getLong("id"), rs.getBytes("ledger_hash"));
+                });
+        return heads;
+    }
+
+    @Override
+    public void advanceLedgerHeads(Map<Long, byte[]> heads) {
+        if (heads.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(heads.keySet());
+        jdbcTemplate.update(ADVANCE_HEADS_SQL, new MapSqlParameterSource()
+                .addValue("ids", SqlArrays.bigints(ids))
+                .addValue("hashes", SqlArrays.byteas(ids.stream().map(heads::get).toList())));
+    }
+}
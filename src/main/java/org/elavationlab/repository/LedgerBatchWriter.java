@@ -0,0 +1,115 @@
+package org.elavationlab.repository;
+
+import org.elavationlab.domain.Transaction;
+import org.elavationlab.util.LedgerHash;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Inserts ledger rows in JDBC batches for the set-based paths that bypass the JPA entities. With
+ * {@code reWriteBatchedInserts} enabled the driver sends each batch as multi-row INSERT statements.
+ */
+@Repository
+public class LedgerBatchWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO transactions (player_id, type, amount, currency, balance_before, balance_after, balance_delta, " +
+            "bonus_delta, timestamp, description, transfer_id, counter_currency, bonus_code, prev_hash, entry_hash, " +
+            "hash_version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LedgerBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insert(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setInt(1, entry.playerId());
+            ps.setString(2, entry.type().name());
+            ps.setBigDecimal(3, entry.amount());
+            ps.setString(4, entry.currency());
+            ps.setBigDecimal(5, entry.balanceBefore());
+            ps.setBigDecimal(6, entry.balanceAfter());
+            ps.setBigDecimal(7, entry.balanceDelta());
+            ps.setBigDecimal(8, entry.bonusDelta());
+            ps.setTimestamp(9, Timestamp.valueOf(entry.timestamp()));
+            ps.setString(10, entry.description());
+            ps.setObject(11, entry.transferId());
+            ps.setString(12, entry.counterCurrency());
+            ps.setString(13, entry.bonusCode());
+            ps.setBytes(14, entry.prevHash());
+            ps.setBytes(15, entry.entryHash());
+            ps.setShort(16, LedgerHash.VERSION);
+        });
+    }
+
+    public record Entry(Integer playerId, Transaction.TransactionType type, BigDecimal amount, String currency,
+                        BigDecimal balanceBefore, BigDecimal balanceAfter, BigDecimal bonusDelta, LocalDateTime timestamp,
+                        String description, UUID transferId, String counterCurrency, String bonusCode, byte[] prevHash,
+                        byte[] entryHash) {
+
+        public Entry(Integer playerId, Transaction.TransactionType type, BigDecimal amount, String currency,
+                     BigDecimal balanceBefore, BigDecimal balanceAfter, LocalDateTime timestamp, String description,
+                     UUID transferId) {
+            this(playerId, type, amount, currency, balanceBefore, balanceAfter, BigDecimal.ZERO, timestamp, description,
+                    transferId, null, null, null, null);
+        }
+
+        public Entry(Integer playerId, Transaction.TransactionType type, BigDecimal amount, String currency,
+                     BigDecimal balanceBefore, BigDecimal balanceAfter, LocalDateTime timestamp, String description) {
+            this(playerId, type, amount, currency, balanceBefore, balanceAfter, timestamp, description, null);
+        }
+
+        /**
+         * A grant of bonus money, which leaves the cash balance alone and records no balances before and after.
+         */
+        public static Entry bonus(Integer playerId, BigDecimal amount, String currency, LocalDateTime timestamp,
+                                  String bonusCode) {
+            return new Entry(playerId, Transaction.TransactionType.BONUS, amount, currency, null, null, amount,
+                    timestamp, null, null, null, bonusCode, null, null);
+        }
+
+        /**
+         * The expiry of what was left of a bonus grant, which takes it off the bonus balance.
+         */
+        public static Entry bonusExpiry(Integer playerId, BigDecimal amount, String currency, LocalDateTime timestamp,
+                                        String bonusCode) {
+            return new Entry(playerId, Transaction.TransactionType.BONUS_EXPIRED, amount, currency, null, null,
+                    amount.negate(), timestamp, null, null, null, bonusCode, null, null);
+        }
+
+        public BigDecimal balanceDelta() {
+            return balanceBefore != null && balanceAfter != null ? balanceAfter.subtract(balanceBefore) : BigDecimal.ZERO;
+        }
+
+        /**
+         * Records the currency on the other side of a conversion.
+         */
+        public Entry withCounterCurrency(String counterCurrency) {
+            return new Entry(playerId, type, amount, currency, balanceBefore, balanceAfter, bonusDelta, timestamp,
+                    description, transferId, counterCurrency, bonusCode, prevHash, entryHash);
+        }
+
+        /**
+         * Links this entry to the wallet's previous entry, whose hash is {@code prevHash} (null for the first).
+         */
+        public Entry chainedTo(byte[] prevHash) {
+            LocalDateTime stored = LedgerHash.timestamp(timestamp);
+            byte[] hash = LedgerHash.of(LedgerHash.VERSION, prevHash, playerId, currency, type, amount,
+                    balanceBefore, balanceAfter, balanceDelta(), bonusDelta, stored, transferId,
+                    new LedgerHash.References(null, null, bonusCode, counterCurrency, description));
+            return new Entry(playerId, type, amount, currency, balanceBefore, balanceAfter, bonusDelta, stored,
+                    description, transferId, counterCurrency, bonusCode, prevHash, hash);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package org.elavationlab.repository;
+
+import org.elavationlab.domain.Wallet;
+import org.elavationlab.dto.WalletBalanceResponse;
+import org.elavationlab.util.SqlArrays;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Derives balances from {@code wallet_checkpoints} plus the ledger entries written after each checkpoint, so
+ * money movements never update the wallet row.
+ * <p>
+ * Writers still serialize per wallet with {@code SELECT ... FOR UPDATE} on the wallet row, which takes a row lock
+ * without creating a new row version. The balance is read in a separate statement after the lock is granted, so
+ * it includes every entry committed by the previous holder. The checkpointer takes the same lock, which is what
+ * lets it advance a checkpoint to the wallet's highest entry id without missing a concurrent insert. The hash
+ * chain head is likewise read from the wallet's latest entry rather than stored.
+ */
+@Repository
+@ConditionalOnProperty(name = "wallet.storage.mode", havingValue = "event-sourced")
+public class LedgerWalletStore implements WalletStore {
+
+    private static final String HEAD_SQL =
+            "SELECT t.entry_hash FROM transactions t " +
+            "WHERE t.player_id = w.player_id AND t.currency = w.currency ORDER BY t.id DESC LIMIT 1";
+
+    private static final String DERIVED_BALANCES_SQL =
+            "       COALESCE(c.balance, 0) + COALESCE(d.balance_delta, 0) AS balance, " +
+            "       COALESCE(c.bonus_balance, 0) + COALESCE(d.bonus_delta, 0) AS bonus_balance ";
+
+    private static final String DERIVED_FROM_SQL =
+            "FROM wallets w " +
+            "LEFT JOIN wallet_checkpoints c ON c.wallet_id = w.id " +
+            "LEFT JOIN LATERAL (SELECT SUM(t.balance_delta) AS balance_delta, SUM(t.bonus_delta) AS bonus_delta " +
+            "                   FROM transactions t " +
+            "                   WHERE t.player_id = w.player_id AND t.currency = w.currency " +
+            "                     AND t.id > COALESCE(c.last_transaction_id, 0)) d ON true ";
+
+    private static final String DERIVED_SQL =
+            "SELECT w.id, w.player_id, w.currency, w.version, w.created_at, w.updated_at, " +
+            DERIVED_BALANCES_SQL + ", (" + HEAD_SQL + ") AS ledger_hash " +
+            DERIVED_FROM_SQL;
+
+    /** Balances only: skips the chain head and the columns a display never needs. */
+    private static final String BALANCE_VIEW_SQL =
+            "SELECT w.player_id, w.currency, " + DERIVED_BALANCES_SQL + DERIVED_FROM_SQL;
+
+    private static final String LOCK_SQL =
+            "SELECT id FROM wallets WHERE player_id = :playerId AND currency = :currency FOR UPDATE";
+
+    private static final String CREATE_SQL =
+            "INSERT INTO wallets (player_id, currency, balance, bonus_balance, version, created_at, updated_at) " +
+            "VALUES (:playerId, :currency, 0, 0, 0, now(), now()) " +
+            "ON CONFLICT (player_id, currency) DO NOTHING";
+
+    private static final RowMapper<Wallet> WALLET_MAPPER = (rs, rowNum) -> Wallet.builder()
+            .id(rs.getLong("id"))
+            .playerId(rs.getInt("player_id"))
+            .currency(rs.getString("currency"))
+            .balance(rs.getBigDecimal("balance"))
+            .bonusBalance(rs.getBigDecimal("bonus_balance"))
+            .ledgerHash(rs.getBytes("ledger_hash"))
+            .version(rs.getLong("version"))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .updatedAt(rs.getTimestamp("updated_at").toLocalDateTime())
+            .build();
+
+    private static final RowMapper<WalletBalanceResponse> BALANCE_MAPPER = (rs, rowNum) -> {
+        BigDecimal balance = rs.getBigDecimal("balance");
+        BigDecimal bonusBalance = rs.getBigDecimal("bonus_balance");
+        return new WalletBalanceResponse(rs.getInt("player_id"), rs.getString("currency"), balance, bonusBalance,
+                balance.add(bonusBalance));
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public LedgerWalletStore(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<WalletBalanceResponse> findBalance(Integer playerId, String currency) {
+        return jdbcTemplate.query(BALANCE_VIEW_SQL + "WHERE w.player_id = :playerId AND w.currency = :currency",
+                walletParams(playerId, currency), BALANCE_MAPPER).stream().findFirst();
+    }
+
+    @Override
+    public List<WalletBalanceResponse> findBalances(Integer playerId) {
+        return jdbcTemplate.query(BALANCE_VIEW_SQL + "WHERE w.player_id = :playerId ORDER BY w.currency",
+                new MapSqlParameterSource("playerId", playerId), BALANCE_MAPPER);
+    }
+
+    @Override
+    public List<WalletBalanceResponse> findBalances(Collection<Integer> playerIds, Collection<String> currencies) {
+        return jdbcTemplate.query(BALANCE_VIEW_SQL + "WHERE w.player_id = ANY(:playerIds) " +
+                        "AND (cardinality(:currencies) = 0 OR w.currency = ANY(:currencies)) " +
+                        "ORDER BY w.player_id, w.currency",
+                new MapSqlParameterSource()
+                        .addValue("playerIds", SqlArrays.integers(playerIds))
+                        .addValue("currencies", SqlArrays.varchars(currencies)),
+                BALANCE_MAPPER);
+    }
+
+    @Override
+    public Optional<Wallet> findForUpdate(Integer playerId, String currency) {
+        List<Long> locked = jdbcTemplate.queryForList(LOCK_SQL, walletParams(playerId, currency), Long.class);
+        return locked.isEmpty() ? Optional.empty() : jdbcTemplate.query(
+                DERIVED_SQL + "WHERE w.player_id = :playerId AND w.currency = :currency",
+                walletParams(playerId, currency), WALLET_MAPPER).stream().findFirst();
+    }
+
+    /**
+     * Balances are carried by the ledger entry the caller writes, so only a new wallet needs a row here.
+     */
+    @Override
+    public Wallet save(Wallet wallet) {
+        if (wallet.getId() == null) {
+            MapSqlParameterSource params = walletParams(wallet.getPlayerId(), wallet.getCurrency());
+            jdbcTemplate.update(CREATE_SQL, params);
+            wallet.setId(jdbcTemplate.queryForObject(LOCK_SQL, params, Long.class));
+        }
+        return wallet;
+    }
+
+    @Override
+    public Map<Long, Balances> balances(Collection<Long> walletIds) {
+        Map<Long, Balances> balances = new HashMap<>();
+        jdbcTemplate.query(DERIVED_SQL + "WHERE w.id = ANY(:ids)",
+                new MapSqlParameterSource("ids", SqlArrays.bigints(walletIds)),
+                rs -> {
+                    balances.put(rs.getLong("id"), new Balances(rs.getBigDecimal("balance"), rs.getBigDecimal("bonus_balance")));
+                });
+        return balances;
+    }
+
+    @Override
+    public Map<Long, Balances> applyBalanceDeltas(Map<Long, BigDecimal> deltas) {
+        Map<Long, Balances> balances = balances(deltas.keySet());
+        balances.replaceAll((id, current) -> new Balances(current.balance().add(deltas.get(id)), current.bonusBalance()));
+        return balances;
+    }
+
+    @Override
+    public Map<Long, Balances> applyBonusDeltas(Map<Long, BigDecimal> deltas) {
+        Map<Long, Balances> balances = balances(deltas.keySet());
+        balances.replaceAll((id, current) -> new Balances(current.balance(), current.bonusBalance().add(deltas.get(id))));
+        return balances;
+    }
+
+    @Override
+    public Map<Long, byte[]> ledgerHeads(Collection<Long> walletIds) {
+        Map<Long, byte[]> heads = new HashMap<>();
+        jdbcTemplate.query("SELECT w.id, (" + HEAD_SQL + ") AS ledger_hash FROM wallets w WHERE w.id = ANY(:ids)",
+                new MapSqlParameterSource("ids", SqlArrays.bigints(walletIds)),
+                rs -> {
+                    byte[] head = rs.getBytes("ledger_hash");
+                    if (head != null) {
+                        heads.put(rs.getLong("id"), head);
+                    }
+                });
+        return heads;
+    }
+
+    /**
+     * The head is the hash of the latest entry, which the caller has just written.
+     */
+    @Override
+    public void advanceLedgerHeads(Map<Long, byte[]> heads) {
+    }
+
+    private static MapSqlParameterSource walletParams(Integer playerId, String currency) {
+        return new MapSqlParameterSource()
+                .addValue("playerId", playerId)
+                .addValue("currency", currency);
+    }
+}
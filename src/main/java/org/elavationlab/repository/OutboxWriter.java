@@ -0,0 +1,53 @@
+package org.elavationlab.repository;
+
+import org.elavationlab.config.OutboxProperties;
+import org.elavationlab.dto.WalletChangeEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Appends wallet change events to the outbox in the caller's transaction, so an event exists exactly when its
+ * change committed. All events of one change go out in a single JDBC batch.
+ */
+@Repository
+public class OutboxWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO wallet_outbox (partition, player_id, currency, type, amount, balance, bonus_balance, " +
+            "game_id, round_id, bonus_code, transfer_id, occurred_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OutboxProperties properties;
+
+    public OutboxWriter(JdbcTemplate jdbcTemplate, OutboxProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    public void append(List<WalletChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+            ps.setShort(1, (short) partitionOf(event.getPlayerId()));
+            ps.setInt(2, event.getPlayerId());
+            ps.setString(3, event.getCurrency());
+            ps.setString(4, event.getType().name());
+            ps.setBigDecimal(5, event.getAmount());
+            ps.setBigDecimal(6, event.getBalance());
+            ps.setBigDecimal(7, event.getBonusBalance());
+            ps.setString(8, event.getGameId());
+            ps.setString(9, event.getRoundId());
+            ps.setString(10, event.getBonusCode());
+            ps.setObject(11, event.getTransferId());
+            ps.setTimestamp(12, Timestamp.valueOf(event.getOccurredAt()));
+        });
+    }
+
+    public int partitionOf(Integer playerId) {
+        return Math.floorMod(playerId, properties.getPartitions());
+    }
+}
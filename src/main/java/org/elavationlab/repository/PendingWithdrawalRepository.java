@@ -2,9 +2,53 @@ package org.elavationlab.repository;
 
 import org.elavationlab.domain.PendingWithdrawal;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface PendingWithdrawalRepository extends JpaRepository<PendingWithdrawal, Long> {
-}
 
+    /**
+     * Claims up to {@code batchSize} of the oldest APPROVED withdrawals for {@code node}. Rows locked by a
+     * concurrent claimer are skipped rather than waited on, so several nodes can drain the queue in parallel.
+     */
+    @Query(value = "UPDATE pending_withdrawals SET status = 'PROCESSING', claimed_by = :node, " +
+           "claimed_at = now(), attempts = attempts + 1 " +
+           "WHERE id IN (SELECT id FROM pending_withdrawals WHERE status = 'APPROVED' " +
+           "ORDER BY requested_at LIMIT :batchSize FOR UPDATE SKIP LOCKED) " +
+           "RETURNING *", nativeQuery = true)
+    List<PendingWithdrawal> claimBatch(@Param("node") String node, @Param("batchSize") int batchSize);
+
+    @Modifying
+    @Query(value = "UPDATE pending_withdrawals SET status = :status, processed_at = now() " +
+           "WHERE id IN (:ids) AND status = 'PROCESSING' AND claimed_by = :node", nativeQuery = true)
+    int completeClaimed(@Param("ids") Collection<Long> ids, @Param("status") String status, @Param("node") String node);
+
+    @Modifying
+    @Query(value = "UPDATE pending_withdrawals SET status = 'APPROVED', claimed_by = NULL, claimed_at = NULL " +
+           "WHERE id IN (:ids) AND status = 'PROCESSING' AND claimed_by = :node", nativeQuery = true)
+    int releaseClaimed(@Param("ids") Collection<Long> ids, @Param("node") String node);
+
+    /**
+     * Returns withdrawals whose claim expired (for example because the claiming node died) to the queue.
+     */
+    @Modifying
+    @Query(value = "UPDATE pending_withdrawals SET status = 'APPROVED', claimed_by = NULL, claimed_at = NULL " +
+           "WHERE status = 'PROCESSING' AND claimed_at < :cutoff", nativeQuery = true)
+    int releaseExpiredClaims(@Param("cutoff") LocalDateTime cutoff);
+
+    @Query(value = "SELECT COUNT(*) AS \"depth\", MIN(requested_at) AS \"oldestRequestedAt\" " +
+           "FROM pending_withdrawals WHERE status = :status", nativeQuery = true)
+    QueueStats findQueueStats(@Param("status") String status);
+
+    interface QueueStats {
+        long getDepth();
+        LocalDateTime getOldestRequestedAt();
+    }
+}
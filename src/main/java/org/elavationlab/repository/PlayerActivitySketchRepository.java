@@ -0,0 +1,32 @@
+package org.elavationlab.repository;
+
+import jakarta.persistence.LockModeType;
+import org.elavationlab.domain.PlayerActivitySketch;
+import org.elavationlab.domain.Transaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PlayerActivitySketchRepository extends JpaRepository<PlayerActivitySketch, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM PlayerActivitySketch s WHERE s.activityDate = :date " +
+           "AND s.currency = :currency AND s.transactionType = :type")
+    Optional<PlayerActivitySketch> findForUpdate(
+        @Param("date") LocalDate date,
+        @Param("currency") String currency,
+        @Param("type") Transaction.TransactionType type
+    );
+
+    List<PlayerActivitySketch> findByActivityDateBetween(LocalDate from, LocalDate to);
+
+    @Query("SELECT MIN(s.activityDate) FROM PlayerActivitySketch s")
+    Optional<LocalDate> findFirstActivityDate();
+}
@@ -0,0 +1,13 @@
+package org.elavationlab.repository;
+
+import org.elavationlab.domain.ReconciliationMismatch;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReconciliationMismatchRepository extends JpaRepository<ReconciliationMismatch, Long> {
+    List<ReconciliationMismatch> findByRunIdOrderById(Long runId, Pageable pageable);
+}
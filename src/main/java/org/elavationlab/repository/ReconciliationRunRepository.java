@@ -0,0 +1,13 @@
+package org.elavationlab.repository;
+
+import org.elavationlab.domain.ReconciliationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, Long> {
+    Optional<ReconciliationRun> findFirstByStatusOrderByStartedAtDesc(ReconciliationRun.Status status);
+    Optional<ReconciliationRun> findFirstByOrderByStartedAtDesc();
+}
@@ -1,25 +1,87 @@
 package org.elavationlab.repository;
 
 import org.elavationlab.domain.Transaction;
+import org.elavationlab.dto.TransactionResponse;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.sql.Date;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+    String SELECT_RESPONSE =
+           "SELECT new org.elavationlab.dto.TransactionResponse(t.id, t.playerId, t.type, t.amount, t.currency, " +
+           "t.balanceBefore, t.balanceAfter, t.timestamp, t.description, t.gameId, t.roundId, t.bonusCode, " +
+           "t.counterCurrency) FROM Transaction t ";
+
     List<Transaction> findByPlayerIdAndCurrencyOrderByTimestampDesc(Integer playerId, String currency);
     
-    @Query("SELECT t FROM Transaction t WHERE t.playerId = :playerId " +
+    @Query(SELECT_RESPONSE + "WHERE t.playerId = :playerId " +
            "AND t.currency = :currency AND t.timestamp >= :since " +
            "ORDER BY t.timestamp DESC")
-    List<Transaction> findRecentTransactions(
+    List<TransactionResponse> findRecentTransactions(
         @Param("playerId") Integer playerId,
         @Param("currency") String currency,
         @Param("since") LocalDateTime since
     );
-}
 
+    /**
+     * Latest entries of a game, newest first, read through the partial {@code (game_id, timestamp)} index.
+     */
+    @Query(SELECT_RESPONSE + "WHERE t.gameId = :gameId AND t.timestamp >= :since ORDER BY t.timestamp DESC")
+    List<TransactionResponse> findByGame(
+        @Param("gameId") String gameId,
+        @Param("since") LocalDateTime since,
+        Pageable page
+    );
+
+    /**
+     * Latest grants of a bonus code, newest first, read through the partial {@code (bonus_code, timestamp)} index.
+     */
+    @Query(SELECT_RESPONSE + "WHERE t.bonusCode = :bonusCode AND t.timestamp >= :since ORDER BY t.timestamp DESC")
+    List<TransactionResponse> findByBonus(
+        @Param("bonusCode") String bonusCode,
+        @Param("since") LocalDateTime since,
+        Pageable page
+    );
+
+    @Query(value = "SELECT CAST(timestamp AS DATE) AS \"date\", currency AS \"currency\", " +
+           "SUM(CASE WHEN type = 'DEPOSIT' THEN amount ELSE 0 END) AS \"totalDeposits\", " +
+           "SUM(CASE WHEN type = 'WITHDRAWAL' THEN amount ELSE 0 END) AS \"totalWithdrawals\", " +
+           "SUM(CASE WHEN type = 'BET' THEN amount ELSE 0 END) AS \"totalBets\", " +
+           "SUM(CASE WHEN type = 'WIN' THEN amount ELSE 0 END) AS \"totalWins\" " +
+           "FROM transactions WHERE timestamp >= :since " +
+           "GROUP BY CAST(timestamp AS DATE), currency " +
+           "ORDER BY 1 DESC, 2", nativeQuery = true)
+    List<DailyTotals> findDailyTotals(@Param("since") LocalDateTime since);
+
+    /**
+     * Exact distinct players per day and currency in {@code [from, to)}, for days that have no activity sketch.
+     */
+    @Query(value = "SELECT CAST(timestamp AS DATE) AS \"date\", currency AS \"currency\", " +
+           "COUNT(DISTINCT player_id) AS \"uniquePlayers\" " +
+           "FROM transactions WHERE timestamp >= :from AND timestamp < :to " +
+           "GROUP BY CAST(timestamp AS DATE), currency", nativeQuery = true)
+    List<DailyUniquePlayers> findDailyUniquePlayers(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    interface DailyTotals {
+        Date getDate();
+        String getCurrency();
+        BigDecimal getTotalDeposits();
+        BigDecimal getTotalWithdrawals();
+        BigDecimal getTotalBets();
+        BigDecimal getTotalWins();
+    }
+
+    interface DailyUniquePlayers {
+        Date getDate();
+        String getCurrency();
+        Long getUniquePlayers();
+    }
+}
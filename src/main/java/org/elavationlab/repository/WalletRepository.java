@@ -1,7 +1,10 @@
 package org.elavationlab.repository;
 
 import org.elavationlab.domain.Wallet;
+import org.elavationlab.dto.WalletBalanceResponse;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,5 +14,13 @@ import java.util.Optional;
 public interface WalletRepository extends JpaRepository<Wallet, Long> {
     Optional<Wallet> findByPlayerIdAndCurrency(Integer playerId, String currency);
     List<Wallet> findByPlayerId(Integer playerId);
-}
+    boolean existsByPlayerIdAndCurrency(Integer playerId, String currency);
+
+    @Query("SELECT new org.elavationlab.dto.WalletBalanceResponse(w.playerId, w.currency, w.balance, w.bonusBalance, " +
+           "w.balance + w.bonusBalance) FROM Wallet w WHERE w.playerId = :playerId AND w.currency = :currency")
+    Optional<WalletBalanceResponse> findBalance(@Param("playerId") Integer playerId, @Param("currency") String currency);
 
+    @Query("SELECT new org.elavationlab.dto.WalletBalanceResponse(w.playerId, w.currency, w.balance, w.bonusBalance, " +
+           "w.balance + w.bonusBalance) FROM Wallet w WHERE w.playerId = :playerId ORDER BY w.currency")
+    List<WalletBalanceResponse> findBalances(@Param("playerId") Integer playerId);
+}
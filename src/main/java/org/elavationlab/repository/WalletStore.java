@@ -0,0 +1,79 @@
+package org.elavationlab.repository;
+
+import org.elavationlab.domain.Wallet;
+import org.elavationlab.dto.WalletBalanceResponse;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Where wallet balances live, selected with {@code wallet.storage.mode}.
+ * <p>
+ * {@link InPlaceWalletStore} keeps the balance on the wallet row and updates it on every movement.
+ * {@link LedgerWalletStore} treats the ledger as the source of truth: a balance is the wallet's checkpoint plus
+ * the deltas of the ledger entries written after it, so movements only insert rows. Either way the caller writes
+ * the ledger entry, with its balance and bonus deltas and its link in the wallet's hash chain, in the same
+ * transaction.
+ */
+public interface WalletStore {
+
+    /**
+     * Current balance of a wallet, selected straight into the response without loading the wallet.
+     */
+    Optional<WalletBalanceResponse> findBalance(Integer playerId, String currency);
+
+    /**
+     * Current balances of all of a player's wallets, ordered by currency.
+     */
+    List<WalletBalanceResponse> findBalances(Integer playerId);
+
+    /**
+     * Current balances of many players in one query, ordered by player and currency. An empty
+     * {@code currencies} selects every currency.
+     */
+    List<WalletBalanceResponse> findBalances(Collection<Integer> playerIds, Collection<String> currencies);
+
+    /**
+     * Loads a wallet that is about to change. The returned balances stay current until the transaction ends.
+     */
+    Optional<Wallet> findForUpdate(Integer playerId, String currency);
+
+    /**
+     * Makes the new state of a wallet loaded with {@link #findForUpdate} durable, creating the wallet if needed.
+     */
+    Wallet save(Wallet wallet);
+
+    /**
+     * Current balances of wallets the caller has already locked, keyed by wallet id.
+     */
+    Map<Long, Balances> balances(Collection<Long> walletIds);
+
+    /**
+     * Adds the deltas to wallets the caller has already locked and returns the new balances, keyed by wallet id.
+     */
+    Map<Long, Balances> applyBalanceDeltas(Map<Long, BigDecimal> deltas);
+
+    /**
+     * Adds the deltas to the bonus balances of wallets the caller has already locked and returns the new balances,
+     * keyed by wallet id.
+     */
+    Map<Long, Balances> applyBonusDeltas(Map<Long, BigDecimal> deltas);
+
+    /**
+     * Hash of the latest ledger entry of wallets the caller has already locked, keyed by wallet id. Wallets
+     * without a hashed entry are absent.
+     */
+    Map<Long, byte[]> ledgerHeads(Collection<Long> walletIds);
+
+    /**
+     * Records the hash of the ledger entries the caller just wrote for wallets it has locked, so the next entry
+     * chains from them.
+     */
+    void advanceLedgerHeads(Map<Long, byte[]> heads);
+
+    record Balances(BigDecimal balance, BigDecimal bonusBalance) {
+    }
+}
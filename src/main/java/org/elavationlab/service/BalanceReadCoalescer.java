@@ -0,0 +1,108 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.elavationlab.config.BalanceReadProperties;
+import org.elavationlab.dto.WalletBalanceResponse;
+import org.elavationlab.repository.WalletStore;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Single-flight balance reads: concurrent reads of the same wallet share one query, so a hot player's balance
+ * polled by many clients at once costs one query and one connection rather than one each.
+ * <p>
+ * The first read of a wallet runs the query on its own thread; reads arriving while it runs wait for it and
+ * get its result, or its exception. A coalesced read is therefore stale by at most one in-flight query: it can
+ * miss a change committed after the shared query took its snapshot, including one committed before the read
+ * joined it, but never one committed before that query started. A read inside a caller's transaction always
+ * queries on its own, since it must see that transaction's writes; so do reads once {@code max-in-flight} wallets
+ * have a shared read running.
+ */
+@Component
+public class BalanceReadCoalescer {
+
+    private final WalletStore walletStore;
+    private final TransactionTemplate transactionTemplate;
+    private final BalanceReadProperties properties;
+    private final Map<WalletKey, CompletableFuture<Optional<WalletBalanceResponse>>> inFlight = new ConcurrentHashMap<>();
+    private final Counter queriedCounter;
+    private final Counter coalescedCounter;
+    private final Counter bypassedCounter;
+
+    public BalanceReadCoalescer(WalletStore walletStore, PlatformTransactionManager transactionManager,
+                                BalanceReadProperties properties, MeterRegistry meterRegistry) {
+        this.walletStore = walletStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setTimeout(WalletService.OPERATION_TIMEOUT_SECONDS);
+        this.properties = properties;
+        this.queriedCounter = Counter.builder("wallet.balance.reads.total").tag("outcome", "queried").register(meterRegistry);
+        this.coalescedCounter = Counter.builder("wallet.balance.reads.total").tag("outcome", "coalesced").register(meterRegistry);
+        this.bypassedCounter = Counter.builder("wallet.balance.reads.total").tag("outcome", "bypassed").register(meterRegistry);
+        Gauge.builder("wallet.balance.reads.in.flight", inFlight, Map::size).register(meterRegistry);
+    }
+
+    public Optional<WalletBalanceResponse> findBalance(Integer playerId, String currency) {
+        if (!properties.isCoalescingEnabled() || TransactionSynchronizationManager.isActualTransactionActive()
+                || inFlight.size() >= properties.getMaxInFlight()) {
+            bypassedCounter.increment();
+            return query(playerId, currency);
+        }
+        WalletKey key = new WalletKey(playerId, currency);
+        CompletableFuture<Optional<WalletBalanceResponse>> read = new CompletableFuture<>();
+        CompletableFuture<Optional<WalletBalanceResponse>> shared = inFlight.putIfAbsent(key, read);
+        if (shared != null) {
+            coalescedCounter.increment();
+            return await(shared);
+        }
+        queriedCounter.increment();
+        try {
+            Optional<WalletBalanceResponse> balance = query(playerId, currency);
+            // Reads arriving from now on start a new query rather than take this, possibly older, result
+            inFlight.remove(key, read);
+            read.complete(balance);
+            return balance;
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, read);
+            read.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Optional<WalletBalanceResponse> query(Integer playerId, String currency) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return walletStore.findBalance(playerId, currency);
+        }
+        return transactionTemplate.execute(status -> walletStore.findBalance(playerId, currency));
+    }
+
+    private static Optional<WalletBalanceResponse> await(CompletableFuture<Optional<WalletBalanceResponse>> shared) {
+        try {
+            return shared.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a balance read", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private record WalletKey(Integer playerId, String currency) {
+    }
+}
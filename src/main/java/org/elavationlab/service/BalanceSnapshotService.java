@@ -0,0 +1,320 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.elavationlab.config.SnapshotProperties;
+import org.elavationlab.dto.BalanceAsOfResponse;
+import org.elavationlab.dto.BalanceSnapshotRunResponse;
+import org.elavationlab.exception.InvalidSnapshotDateException;
+import org.elavationlab.exception.WalletNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * End-of-day balance snapshots and point-in-time balance queries.
+ * <p>
+ * A balance as of {@code T} starts from the wallet's nearest snapshot taken at or before {@code T} and adds the
+ * deltas of the ledger entries after the snapshot's last entry and before {@code T}. A wallet without such a
+ * snapshot is derived backwards instead: its live balance minus the deltas of every entry from {@code T} on. Both
+ * directions rely on entry timestamps growing with entry ids per wallet, which holds because every writer locks
+ * the wallet before it inserts an entry. Entries written before deltas were recorded (V8) carry none, so
+ * backward derivation is only exact for times after that migration.
+ * <p>
+ * The snapshot job copies the balance at the start of a day for every wallet, walking wallets in id order in
+ * chunks. Each chunk is one {@code INSERT ... SELECT} computed with the same point-in-time query, so the job only
+ * reads the live tables and never locks a wallet; progress is committed with each chunk, which lets an
+ * interrupted run resume where it stopped. Snapshots are partitioned by month and expired a partition at a time.
+ */
+@Slf4j
+@Service
+public class BalanceSnapshotService {
+
+    private static final String AS_OF_SQL =
+            "SELECT w.id AS wallet_id, w.player_id, w.currency, s.snapshot_date, " +
+            "       CASE WHEN s.wallet_id IS NOT NULL THEN s.balance + COALESCE(f.balance_delta, 0) " +
+            "            ELSE %1$s - COALESCE(b.balance_delta, 0) END AS balance, " +
+            "       CASE WHEN s.wallet_id IS NOT NULL THEN s.bonus_balance + COALESCE(f.bonus_delta, 0) " +
+            "            ELSE %2$s - COALESCE(b.bonus_delta, 0) END AS bonus_balance, " +
+            "       CASE WHEN s.wallet_id IS NOT NULL THEN COALESCE(f.last_id, s.last_transaction_id) " +
+            "            ELSE COALESCE(p.last_id, 0) END AS last_transaction_id, " +
+            "       CASE WHEN s.wallet_id IS NOT NULL THEN f.entries ELSE b.entries END AS replayed_entries " +
+            "FROM wallets w " +
+            "LEFT JOIN LATERAL (SELECT bs.wallet_id, bs.snapshot_date, bs.balance, bs.bonus_balance, bs.last_transaction_id " +
+            "                   FROM balance_snapshots bs " +
+            "                   WHERE bs.wallet_id = w.id AND bs.snapshot_date <= :asOfDate " +
+            "                   ORDER BY bs.snapshot_date DESC LIMIT 1) s ON true " +
+            "%3$s" +
+            // Forward from the snapshot; the s.wallet_id test is a one-time filter that skips the scan otherwise
+            "LEFT JOIN LATERAL (SELECT SUM(t.balance_delta) AS balance_delta, SUM(t.bonus_delta) AS bonus_delta, " +
+            "                          MAX(t.id) AS last_id, COUNT(*) AS entries " +
+            "                   FROM transactions t " +
+            "                   WHERE s.wallet_id IS NOT NULL AND t.player_id = w.player_id AND t.currency = w.currency " +
+            "                     AND t.id > s.last_transaction_id AND t.timestamp < :asOf) f ON true " +
+            // Backwards from the live balance
+            "LEFT JOIN LATERAL (SELECT SUM(t.balance_delta) AS balance_delta, SUM(t.bonus_delta) AS bonus_delta, " +
+            "                          COUNT(*) AS entries " +
+            "                   FROM transactions t " +
+            "                   WHERE s.wallet_id IS NULL AND t.player_id = w.player_id AND t.currency = w.currency " +
+            "                     AND t.timestamp >= :asOf) b ON true " +
+            "LEFT JOIN LATERAL (SELECT MAX(t.id) AS last_id " +
+            "                   FROM transactions t " +
+            "                   WHERE s.wallet_id IS NULL AND t.player_id = w.player_id AND t.currency = w.currency " +
+            "                     AND t.timestamp < :asOf) p ON true " +
+            "WHERE w.created_at < :asOf AND ";
+
+    private static final String[] IN_PLACE_LIVE = {"w.balance", "w.bonus_balance", ""};
+
+    // In event-sourced mode the wallet row is not updated; the live balance is the checkpoint plus newer entries
+    private static final String[] LEDGER_LIVE = {
+            "COALESCE(c.balance, 0) + COALESCE(l.balance_delta, 0)",
+            "COALESCE(c.bonus_balance, 0) + COALESCE(l.bonus_delta, 0)",
+            "LEFT JOIN wallet_checkpoints c ON c.wallet_id = w.id " +
+            "LEFT JOIN LATERAL (SELECT SUM(t.balance_delta) AS balance_delta, SUM(t.bonus_delta) AS bonus_delta " +
+            "                   FROM transactions t " +
+            "                   WHERE s.wallet_id IS NULL AND t.player_id = w.player_id AND t.currency = w.currency " +
+            "                     AND t.id > COALESCE(c.last_transaction_id, 0)) l ON true "
+    };
+
+    private static final String START_RUN_SQL =
+            "INSERT INTO balance_snapshot_runs (snapshot_date, status, started_at) " +
+            "VALUES (:snapshotDate, 'RUNNING', now()) " +
+            "ON CONFLICT (snapshot_date) DO UPDATE SET status = 'RUNNING', error = NULL, finished_at = NULL " +
+            "WHERE balance_snapshot_runs.status <> 'COMPLETED' " +
+            "RETURNING last_wallet_id";
+
+    private static final String CHUNK_END_SQL =
+            "SELECT MAX(id) FROM (SELECT id FROM wallets WHERE id > :afterId ORDER BY id LIMIT :chunkSize) chunk";
+
+    private static final String SNAPSHOT_CHUNK_SQL =
+            "INSERT INTO balance_snapshots (snapshot_date, wallet_id, player_id, currency, balance, bonus_balance, " +
+            "    last_transaction_id, created_at) " +
+            "SELECT CAST(:asOfDate AS date), a.wallet_id, a.player_id, a.currency, a.balance, a.bonus_balance, " +
+            "       a.last_transaction_id, now() " +
+            "FROM (%s) a " +
+            "ON CONFLICT (snapshot_date, wallet_id) DO NOTHING";
+
+    private static final String PROGRESS_SQL =
+            "UPDATE balance_snapshot_runs SET last_wallet_id = :upTo, wallets_snapshotted = wallets_snapshotted + :inserted " +
+            "WHERE snapshot_date = :snapshotDate";
+
+    private static final String FINISH_RUN_SQL =
+            "UPDATE balance_snapshot_runs SET status = :status, error = :error, finished_at = now() " +
+            "WHERE snapshot_date = :snapshotDate";
+
+    private static final String RUN_SQL =
+            "SELECT snapshot_date, status, last_wallet_id, wallets_snapshotted, started_at, finished_at, error " +
+            "FROM balance_snapshot_runs WHERE snapshot_date = :snapshotDate";
+
+    private static final String PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = 'balance_snapshots'";
+
+    private static final String DELETE_EXPIRED_RUNS_SQL =
+            "DELETE FROM balance_snapshot_runs WHERE snapshot_date < :cutoff";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("balance_snapshots_(\\d{4})_(\\d{2})");
+
+    private static final RowMapper<BalanceSnapshotRunResponse> RUN_MAPPER = (rs, rowNum) -> {
+        Timestamp finishedAt = rs.getTimestamp("finished_at");
+        return BalanceSnapshotRunResponse.builder()
+                .snapshotDate(rs.getDate("snapshot_date").toLocalDate())
+                .status(rs.getString("status"))
+                .lastWalletId(rs.getLong("last_wallet_id"))
+                .walletsSnapshotted(rs.getLong("wallets_snapshotted"))
+                .startedAt(rs.getTimestamp("started_at").toLocalDateTime())
+                .finishedAt(finishedAt != null ? finishedAt.toLocalDateTime() : null)
+                .error(rs.getString("error"))
+                .build();
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SnapshotProperties properties;
+    private final String asOfSql;
+    private final String snapshotChunkSql;
+    private final ExecutorService runExecutor = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Counter walletsCounter;
+    private final Timer chunkTimer;
+    private final Timer asOfTimer;
+
+    public BalanceSnapshotService(NamedParameterJdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  SnapshotProperties properties,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${wallet.storage.mode:update-in-place}") String storageMode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        String[] live = "event-sourced".equals(storageMode) ? LEDGER_LIVE : IN_PLACE_LIVE;
+        this.asOfSql = String.format(AS_OF_SQL, live[0], live[1], live[2]);
+        this.snapshotChunkSql = String.format(SNAPSHOT_CHUNK_SQL, asOfSql + "w.id > :afterId AND w.id <= :upTo");
+        this.walletsCounter = Counter.builder("wallet.snapshots.wallets.total").register(meterRegistry);
+        this.chunkTimer = Timer.builder("wallet.snapshots.chunk.duration").register(meterRegistry);
+        this.asOfTimer = Timer.builder("wallet.balance.asof.duration").register(meterRegistry);
+    }
+
+    public BalanceAsOfResponse getBalanceAsOf(Integer playerId, String currency, LocalDateTime asOf) {
+        return asOfTimer.record(() -> jdbcTemplate.query(asOfSql + "w.player_id = :playerId AND w.currency = :currency",
+                        asOfParams(asOf)
+                                .addValue("playerId", playerId)
+                                .addValue("currency", currency),
+                        (rs, rowNum) -> {
+                            Date snapshotDate = rs.getDate("snapshot_date");
+                            return BalanceAsOfResponse.builder()
+                                    .playerId(rs.getInt("player_id"))
+                                    .currency(rs.getString("currency"))
+                                    .asOf(asOf)
+                                    .balance(rs.getBigDecimal("balance"))
+                                    .bonusBalance(rs.getBigDecimal("bonus_balance"))
+                                    .totalBalance(rs.getBigDecimal("balance").add(rs.getBigDecimal("bonus_balance")))
+                                    .lastTransactionId(rs.getLong("last_transaction_id"))
+                                    .snapshotDate(snapshotDate != null ? snapshotDate.toLocalDate() : null)
+                                    .replayedEntries(rs.getLong("replayed_entries"))
+                                    .build();
+                        })
+                .stream()
+                .findFirst()
+                .orElseThrow(() -> new WalletNotFoundException("Wallet not found for player " + playerId +
+                        " and currency " + currency + " as of " + asOf)));
+    }
+
+    @Scheduled(cron = "${wallet.snapshots.cron:0 5 0 * * *}")
+    public void scheduledSnapshot() {
+        if (properties.isScheduleEnabled()) {
+            start(LocalDate.now());
+        }
+    }
+
+    /**
+     * Snapshots balances at the start of {@code snapshotDate} in the background, resuming an unfinished run for
+     * that date. Returns empty if another run is still in progress on this node.
+     */
+    public Optional<BalanceSnapshotRunResponse> start(LocalDate snapshotDate) {
+        if (snapshotDate.isAfter(LocalDate.now())) {
+            throw new InvalidSnapshotDateException("Cannot snapshot " + snapshotDate + " before it has started");
+        }
+        if (!running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        try {
+            List<Long> resumeAfter = jdbcTemplate.queryForList(START_RUN_SQL,
+                    new MapSqlParameterSource("snapshotDate", Date.valueOf(snapshotDate)), Long.class);
+            if (resumeAfter.isEmpty()) {
+                // Already completed
+                running.set(false);
+            } else {
+                runExecutor.submit(() -> execute(snapshotDate, resumeAfter.get(0)));
+            }
+            return getRun(snapshotDate);
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    public Optional<BalanceSnapshotRunResponse> getRun(LocalDate snapshotDate) {
+        return jdbcTemplate.query(RUN_SQL, new MapSqlParameterSource("snapshotDate", Date.valueOf(snapshotDate)), RUN_MAPPER)
+                .stream()
+                .findFirst();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        runExecutor.shutdownNow();
+    }
+
+    void execute(LocalDate snapshotDate, long afterId) {
+        long started = System.currentTimeMillis();
+        MapSqlParameterSource runParams = new MapSqlParameterSource("snapshotDate", Date.valueOf(snapshotDate));
+        try {
+            ensurePartition(snapshotDate);
+            long total = 0;
+            Long upTo;
+            while ((upTo = jdbcTemplate.queryForObject(CHUNK_END_SQL, new MapSqlParameterSource()
+                    .addValue("afterId", afterId)
+                    .addValue("chunkSize", properties.getChunkSize()), Long.class)) != null) {
+                MapSqlParameterSource params = asOfParams(snapshotDate.atStartOfDay())
+                        .addValue("afterId", afterId)
+                        .addValue("upTo", upTo)
+                        .addValue("snapshotDate", Date.valueOf(snapshotDate));
+                int inserted = chunkTimer.record(() -> transactionTemplate.execute(status -> {
+                    int rows = jdbcTemplate.update(snapshotChunkSql, params);
+                    jdbcTemplate.update(PROGRESS_SQL, params.addValue("inserted", rows));
+                    return rows;
+                }));
+                walletsCounter.increment(inserted);
+                total += inserted;
+                afterId = upTo;
+            }
+            jdbcTemplate.update(FINISH_RUN_SQL, runParams.addValue("status", "COMPLETED").addValue("error", null));
+            dropExpiredPartitions(snapshotDate);
+            log.info("Balance snapshot for {} completed: {} wallets in {}ms", snapshotDate, total,
+                    System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error("Balance snapshot for {} failed after wallet {}", snapshotDate, afterId, e);
+            jdbcTemplate.update(FINISH_RUN_SQL, runParams.addValue("status", "FAILED").addValue("error", e.getMessage()));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void ensurePartition(LocalDate snapshotDate) {
+        YearMonth month = YearMonth.from(snapshotDate);
+        jdbcTemplate.getJdbcTemplate().execute(String.format(
+                "CREATE TABLE IF NOT EXISTS balance_snapshots_%s PARTITION OF balance_snapshots " +
+                "FOR VALUES FROM ('%s') TO ('%s')",
+                month.format(PARTITION_SUFFIX), month.atDay(1), month.plusMonths(1).atDay(1)));
+    }
+
+    /**
+     * Dropping a partition is a catalog change, not a delete: no dead rows are left behind for vacuum.
+     */
+    private void dropExpiredPartitions(LocalDate snapshotDate) {
+        if (properties.getRetentionMonths() <= 0) {
+            return;
+        }
+        YearMonth cutoff = YearMonth.from(snapshotDate).minusMonths(properties.getRetentionMonths());
+        for (String partition : jdbcTemplate.getJdbcTemplate().queryForList(PARTITIONS_SQL, String.class)) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (matcher.matches()
+                    && YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))).isBefore(cutoff)) {
+                jdbcTemplate.getJdbcTemplate().execute("DROP TABLE " + partition);
+                log.info("Dropped expired balance snapshot partition {}", partition);
+            }
+        }
+        jdbcTemplate.update(DELETE_EXPIRED_RUNS_SQL, new MapSqlParameterSource("cutoff", cutoff.atDay(1)));
+    }
+
+    private static MapSqlParameterSource asOfParams(LocalDateTime asOf) {
+        return new MapSqlParameterSource()
+                .addValue("asOf", Timestamp.valueOf(asOf))
+                .addValue("asOfDate", Date.valueOf(asOf.toLocalDate()));
+    }
+}
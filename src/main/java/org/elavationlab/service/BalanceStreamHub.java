@@ -0,0 +1,257 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.elavationlab.config.BalanceStreamProperties;
+import org.elavationlab.dto.WalletBalanceResponse;
+import org.elavationlab.exception.SubscriptionLimitException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pushes committed wallet balances to Server-Sent Event subscribers on this node.
+ * <p>
+ * Changes are only collected for players with an open stream, keyed by wallet, so a burst of bets within
+ * {@code coalesce-ms} reaches the client as a single event with the latest balance. Each subscriber holds at most
+ * one unsent balance per currency: while a write to a slow client is in progress newer balances replace the queued
+ * one instead of piling up, and a client whose write stays blocked past {@code slow-consumer-timeout-ms} is
+ * disconnected, checked every {@code slow-consumer-check-ms}. Writes run on a small sender pool, so the
+ * committing request threads never wait on a client. Disconnecting does not unblock a write in progress; the
+ * connector's write timeout ({@code server.tomcat.connection-timeout}) does, and is kept equal to the slow
+ * consumer timeout so a stalled client holds a sender thread no longer than that.
+ * <p>
+ * Only changes committed on this node are seen; in a multi-node deployment route a player's stream to the node
+ * that serves the player's game traffic.
+ */
+@Slf4j
+@Service
+public class BalanceStreamHub {
+
+    private static final long INITIAL_SEQUENCE = Long.MIN_VALUE;
+
+    enum DisconnectReason {
+        CLOSED, TIMEOUT, SLOW, ERROR, SHUTDOWN
+    }
+
+    private final BalanceStreamProperties properties;
+    private final Map<Integer, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Map<WalletKey, WalletBalanceChangedEvent> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService senders;
+    private final Counter sentCounter;
+    private final Counter coalescedCounter;
+    private final Map<DisconnectReason, Counter> disconnectCounters = new EnumMap<>(DisconnectReason.class);
+
+    public BalanceStreamHub(BalanceStreamProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.senders = Executors.newFixedThreadPool(properties.getSenderThreads());
+        Gauge.builder("wallet.balance.stream.subscribers", subscriberCount, AtomicInteger::get).register(meterRegistry);
+        this.sentCounter = Counter.builder("wallet.balance.stream.events.total").tag("result", "sent").register(meterRegistry);
+        this.coalescedCounter = Counter.builder("wallet.balance.stream.events.total").tag("result", "coalesced").register(meterRegistry);
+        for (DisconnectReason reason : DisconnectReason.values()) {
+            disconnectCounters.put(reason, Counter.builder("wallet.balance.stream.disconnects.total")
+                    .tag("reason", reason.name().toLowerCase()).register(meterRegistry));
+        }
+    }
+
+    /**
+     * Opens a stream for the player. The subscriber is registered before the current balances are read, so a
+     * change committed in between is pushed after them rather than lost.
+     */
+    public SseEmitter subscribe(Integer playerId, Supplier<List<WalletBalanceResponse>> currentBalances) {
+        if (subscriberCount.incrementAndGet() > properties.getMaxSubscribers()) {
+            subscriberCount.decrementAndGet();
+            throw new SubscriptionLimitException("Balance stream limit of " + properties.getMaxSubscribers() + " reached");
+        }
+        SseEmitter emitter = new SseEmitter(properties.getConnectionTimeoutMs());
+        Subscriber subscriber = new Subscriber(playerId, emitter);
+        subscribers.compute(playerId, (id, players) -> {
+            Set<Subscriber> set = players != null ? players : ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+        emitter.onCompletion(() -> disconnect(subscriber, DisconnectReason.CLOSED, false));
+        emitter.onTimeout(() -> disconnect(subscriber, DisconnectReason.TIMEOUT, true));
+        emitter.onError(e -> disconnect(subscriber, DisconnectReason.ERROR, false));
+
+        try {
+            for (WalletBalanceResponse balance : currentBalances.get()) {
+                subscriber.offer(new WalletBalanceChangedEvent(balance, INITIAL_SEQUENCE));
+            }
+        } catch (RuntimeException e) {
+            disconnect(subscriber, DisconnectReason.ERROR, false);
+            throw e;
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBalanceChanged(WalletBalanceChangedEvent event) {
+        WalletBalanceResponse balance = event.balance();
+        if (!subscribers.containsKey(balance.getPlayerId())) {
+            return;
+        }
+        pending.compute(new WalletKey(balance.getPlayerId(), balance.getCurrency()),
+                (key, queued) -> coalesce(queued, event));
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.balance-stream.coalesce-ms:100}")
+    public void flush() {
+        for (WalletKey key : pending.keySet()) {
+            WalletBalanceChangedEvent event = pending.remove(key);
+            Set<Subscriber> players = event != null ? subscribers.get(key.playerId()) : null;
+            if (players != null) {
+                players.forEach(subscriber -> subscriber.offer(event));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.balance-stream.heartbeat-interval-ms:20000}")
+    public void heartbeat() {
+        subscribers.values().forEach(players -> players.forEach(Subscriber::heartbeat));
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.balance-stream.slow-consumer-check-ms:1000}")
+    public void disconnectSlowConsumers() {
+        long stalledBefore = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(properties.getSlowConsumerTimeoutMs());
+        subscribers.values().forEach(players -> players.forEach(subscriber -> {
+            if (subscriber.blockedSince(stalledBefore)) {
+                log.warn("Disconnecting slow balance stream of player {}", subscriber.playerId);
+                disconnect(subscriber, DisconnectReason.SLOW, true);
+            }
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(players -> players.forEach(subscriber ->
+                disconnect(subscriber, DisconnectReason.SHUTDOWN, true)));
+        senders.shutdown();
+    }
+
+    private void disconnect(Subscriber subscriber, DisconnectReason reason, boolean complete) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscribers.computeIfPresent(subscriber.playerId, (id, players) -> {
+            players.remove(subscriber);
+            return players.isEmpty() ? null : players;
+        });
+        subscriberCount.decrementAndGet();
+        disconnectCounters.get(reason).increment();
+        if (complete) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    private WalletBalanceChangedEvent coalesce(WalletBalanceChangedEvent queued, WalletBalanceChangedEvent event) {
+        if (queued == null) {
+            return event;
+        }
+        coalescedCounter.increment();
+        return event.sequence() >= queued.sequence() ? event : queued;
+    }
+
+    private record WalletKey(Integer playerId, String currency) {
+    }
+
+    private final class Subscriber {
+
+        private final Integer playerId;
+        private final SseEmitter emitter;
+        private final Map<String, WalletBalanceChangedEvent> queued = new ConcurrentHashMap<>();
+        /** Only touched by {@link #drain}, which never runs concurrently for one subscriber. */
+        private final Map<String, Long> delivered = new HashMap<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+        private volatile long writingSince;
+
+        private Subscriber(Integer playerId, SseEmitter emitter) {
+            this.playerId = playerId;
+            this.emitter = emitter;
+        }
+
+        void offer(WalletBalanceChangedEvent event) {
+            queued.compute(event.balance().getCurrency(), (currency, current) -> coalesce(current, event));
+            schedule();
+        }
+
+        void heartbeat() {
+            heartbeatDue = true;
+            schedule();
+        }
+
+        boolean blockedSince(long nanos) {
+            long since = writingSince;
+            return since != 0 && since - nanos < 0;
+        }
+
+        private void schedule() {
+            if (closed.get() || !scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                disconnect(this, DisconnectReason.SHUTDOWN, true);
+            }
+        }
+
+        private void drain() {
+            do {
+                try {
+                    for (String currency : queued.keySet()) {
+                        WalletBalanceChangedEvent event = queued.remove(currency);
+                        Long last = delivered.get(currency);
+                        if (event == null || last != null && event.sequence() <= last) {
+                            continue;
+                        }
+                        write(SseEmitter.event().name("balance").data(event.balance(), MediaType.APPLICATION_JSON));
+                        delivered.put(currency, event.sequence());
+                        sentCounter.increment();
+                    }
+                    if (heartbeatDue) {
+                        heartbeatDue = false;
+                        write(SseEmitter.event().comment("heartbeat"));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    disconnect(this, DisconnectReason.ERROR, false);
+                    return;
+                } finally {
+                    scheduled.set(false);
+                }
+            } while (!closed.get() && (!queued.isEmpty() || heartbeatDue) && scheduled.compareAndSet(false, true));
+        }
+
+        private void write(SseEmitter.SseEventBuilder event) throws IOException {
+            writingSince = System.nanoTime();
+            try {
+                emitter.send(event);
+            } finally {
+                writingSince = 0;
+            }
+        }
+    }
+}
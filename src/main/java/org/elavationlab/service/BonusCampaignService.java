@@ -0,0 +1,431 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.elavationlab.admission.Workload;
+import org.elavationlab.admission.WorkloadContext;
+import org.elavationlab.admission.WorkloadRoutingDataSource;
+import org.elavationlab.config.BonusCampaignProperties;
+import org.elavationlab.domain.Transaction;
+import org.elavationlab.dto.BonusCampaignStatus;
+import org.elavationlab.dto.WalletBalanceResponse;
+import org.elavationlab.dto.WalletChangeEvent;
+import org.elavationlab.exception.InvalidBonusCampaignException;
+import org.elavationlab.exception.WalletConflictException;
+import org.elavationlab.repository.BonusBucketRepository;
+import org.elavationlab.repository.LedgerBatchWriter;
+import org.elavationlab.repository.OutboxWriter;
+import org.elavationlab.repository.WalletStore;
+import org.elavationlab.util.GzipStreams;
+import org.elavationlab.util.SqlArrays;
+import org.elavationlab.util.Throttle;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Credits a bonus to every player targeted by a campaign, in place of one {@code /bonus} call per player.
+ * <p>
+ * Targeted players live in {@code bonus_campaign_players}, loaded from an uploaded list or inserted straight from
+ * a segment query. A run credits them in player id order, {@code chunk-size} players per transaction: it claims
+ * the chunk's uncredited rows with {@code FOR UPDATE SKIP LOCKED}, locks their wallets in id order, adds the
+ * bonus to all of them in one statement through the {@link WalletStore}, grants each wallet a bonus bucket that
+ * expires with the campaign, writes the BONUS ledger rows and outbox events in one batch each, and marks the
+ * players credited. A player is credited at most once per campaign, so a
+ * failed or stopped run is resumed by starting it again, and runs of one campaign on two instances split the
+ * players between them.
+ * <p>
+ * Runs use the bulk connection pool, are held to a player rate, and pause while live requests are waiting for a
+ * connection from the write pool. One run at a time per instance.
+ */
+@Slf4j
+@Service
+public class BonusCampaignService {
+
+    private static final String CREATE_SQL =
+            "INSERT INTO bonus_campaigns (campaign_id, currency, amount, expires_at, state, created_at, updated_at) " +
+            "VALUES (:campaignId, :currency, :amount, :expiresAt, 'CREATED', now(), now()) " +
+            "ON CONFLICT (campaign_id) DO NOTHING";
+
+    private static final String STATUS_SQL =
+            "SELECT campaign_id, currency, amount, expires_at, state, players, credited, skipped, created_at, updated_at, " +
+            "completed_at, error FROM bonus_campaigns WHERE campaign_id = :campaignId";
+
+    private static final String ADD_PLAYERS_SQL =
+            "INSERT INTO bonus_campaign_players (campaign_id, player_id) " +
+            "SELECT :campaignId, unnest(:playerIds) " +
+            "ON CONFLICT (campaign_id, player_id) DO NOTHING";
+
+    private static final String COUNT_ADDED_SQL =
+            "UPDATE bonus_campaigns SET players = players + :added, updated_at = now() WHERE campaign_id = :campaignId";
+
+    private static final String START_RUN_SQL =
+            "UPDATE bonus_campaigns SET state = 'RUNNING', error = NULL, completed_at = NULL, updated_at = now(), " +
+            "players = (SELECT count(*) FROM bonus_campaign_players WHERE campaign_id = :campaignId) " +
+            "WHERE campaign_id = :campaignId";
+
+    private static final String FINISH_RUN_SQL =
+            "UPDATE bonus_campaigns SET state = :state, error = :error, updated_at = now(), " +
+            "completed_at = CASE WHEN :state = 'COMPLETED' THEN now() END " +
+            "WHERE campaign_id = :campaignId";
+
+    private static final String PICK_SQL =
+            "SELECT player_id FROM bonus_campaign_players " +
+            "WHERE campaign_id = :campaignId AND credited_at IS NULL AND player_id > :afterPlayerId " +
+            "ORDER BY player_id LIMIT :chunkSize FOR UPDATE SKIP LOCKED";
+
+    private static final String LOCK_WALLETS_SQL =
+            "SELECT id, player_id FROM wallets WHERE currency = :currency AND player_id = ANY(:playerIds) " +
+            "ORDER BY id FOR UPDATE";
+
+    private static final String MARK_CREDITED_SQL =
+            "UPDATE bonus_campaign_players SET credited_at = now(), " +
+            "outcome = CASE WHEN player_id = ANY(:creditedIds) THEN 'CREDITED' ELSE 'NO_WALLET' END " +
+            "WHERE campaign_id = :campaignId AND player_id = ANY(:playerIds)";
+
+    private static final String COUNT_CREDITED_SQL =
+            "UPDATE bonus_campaigns SET credited = credited + :credited, skipped = skipped + :skipped, " +
+            "updated_at = now() WHERE campaign_id = :campaignId";
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final WalletStore walletStore;
+    private final BonusBucketRepository bonusBucketRepository;
+    private final LedgerBatchWriter ledgerBatchWriter;
+    private final OutboxWriter outboxWriter;
+    private final PlayerActivityService playerActivityService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BonusCampaignProperties properties;
+    private final BooleanSupplier writePressure;
+    private final ExecutorService runExecutor = Executors.newSingleThreadExecutor();
+    private final AtomicReference<Run> currentRun = new AtomicReference<>();
+    private final Counter creditedCounter;
+    private final Counter skippedCounter;
+    private final Timer chunkTimer;
+
+    public BonusCampaignService(NamedParameterJdbcTemplate jdbcTemplate, WalletStore walletStore,
+                                BonusBucketRepository bonusBucketRepository, LedgerBatchWriter ledgerBatchWriter, OutboxWriter outboxWriter,
+                                PlayerActivityService playerActivityService, OptimisticRetryExecutor retryExecutor,
+                                PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                                BonusCampaignProperties properties, DataSource dataSource, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.walletStore = walletStore;
+        this.bonusBucketRepository = bonusBucketRepository;
+        this.ledgerBatchWriter = ledgerBatchWriter;
+        this.outboxWriter = outboxWriter;
+        this.playerActivityService = playerActivityService;
+        this.transactionTemplate = new RetryingTransactionTemplate(transactionManager, retryExecutor, "bonus-campaign");
+        this.transactionTemplate.setTimeout(properties.getChunkTimeoutSeconds());
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.writePressure = dataSource instanceof WorkloadRoutingDataSource routing
+                ? () -> routing.hasWaiters(Workload.WRITE)
+                : () -> false;
+        this.creditedCounter = Counter.builder("wallet.bonus_campaign.players.total").tag("outcome", "credited").register(meterRegistry);
+        this.skippedCounter = Counter.builder("wallet.bonus_campaign.players.total").tag("outcome", "skipped").register(meterRegistry);
+        this.chunkTimer = Timer.builder("wallet.bonus_campaign.chunk.duration").register(meterRegistry);
+    }
+
+    /**
+     * Creates a campaign, or returns it unchanged if it already exists with the same terms. {@code expiresAt} is
+     * when the credited bonuses expire, null if they never do.
+     */
+    public BonusCampaignStatus create(String campaignId, BigDecimal amount, String currency, LocalDateTime expiresAt) {
+        jdbcTemplate.update(CREATE_SQL, new MapSqlParameterSource()
+                .addValue("campaignId", campaignId)
+                .addValue("currency", currency)
+                .addValue("amount", amount)
+                .addValue("expiresAt", expiresAt));
+        BonusCampaignStatus status = require(campaignId);
+        if (status.getAmount().compareTo(amount) != 0 || !status.getCurrency().equals(currency)
+                || !Objects.equals(status.getExpiresAt(), expiresAt)) {
+            throw new WalletConflictException("Bonus campaign " + campaignId + " already exists with "
+                    + status.getAmount() + " " + status.getCurrency()
+                    + (status.getExpiresAt() != null ? " expiring " + status.getExpiresAt() : ""));
+        }
+        return status;
+    }
+
+    /**
+     * Adds the players of an uploaded list, one player id per line and optionally gzip-compressed, to a campaign.
+     * Players already targeted are left alone, so a list can be sent again after a failed upload.
+     */
+    public BonusCampaignStatus addPlayers(String campaignId, InputStream body) throws IOException {
+        require(campaignId);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(GzipStreams.decompressIfGzipped(body), StandardCharsets.UTF_8))) {
+            List<Integer> chunk = new ArrayList<>(properties.getChunkSize());
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    chunk.add(Integer.valueOf(line.strip()));
+                } catch (NumberFormatException e) {
+                    throw new InvalidBonusCampaignException("Line " + lineNumber + " is not a player ID");
+                }
+                if (chunk.size() >= properties.getChunkSize()) {
+                    stagePlayers(campaignId, chunk);
+                    chunk.clear();
+                }
+            }
+            stagePlayers(campaignId, chunk);
+        }
+        return require(campaignId);
+    }
+
+    /**
+     * Starts crediting a campaign in the background, at most {@code maxPlayersPerSecond} players per second or
+     * the configured rate if null. Returns false if a run is already in progress.
+     */
+    public boolean start(String campaignId, Double maxPlayersPerSecond) {
+        BonusCampaignStatus campaign = require(campaignId);
+        if (campaign.getExpiresAt() != null && !campaign.getExpiresAt().isAfter(LocalDateTime.now())) {
+            throw new InvalidBonusCampaignException("Bonus campaign " + campaignId + " expired at "
+                    + campaign.getExpiresAt());
+        }
+        Run run = new Run(campaignId, new AtomicBoolean());
+        if (!currentRun.compareAndSet(null, run)) {
+            return false;
+        }
+        double rate = maxPlayersPerSecond != null ? maxPlayersPerSecond : properties.getMaxPlayersPerSecond();
+        try {
+            jdbcTemplate.update(START_RUN_SQL, new MapSqlParameterSource("campaignId", campaignId));
+        } catch (RuntimeException e) {
+            currentRun.set(null);
+            throw e;
+        }
+        runExecutor.submit(() -> {
+            try {
+                WorkloadContext.callAs(Workload.BULK, () -> {
+                    credit(campaign, rate, run.stopRequested());
+                    return null;
+                });
+            } finally {
+                currentRun.compareAndSet(run, null);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Asks the running run of a campaign to stop after its current chunk. Returns false if it is not running here.
+     */
+    public boolean stop(String campaignId) {
+        Run run = currentRun.get();
+        if (run == null || !run.campaignId().equals(campaignId)) {
+            return false;
+        }
+        run.stopRequested().set(true);
+        return true;
+    }
+
+    public Optional<BonusCampaignStatus> status(String campaignId) {
+        return jdbcTemplate.query(STATUS_SQL, new MapSqlParameterSource("campaignId", campaignId), (rs, rowNum) -> {
+            Timestamp expiresAt = rs.getTimestamp("expires_at");
+            Timestamp completedAt = rs.getTimestamp("completed_at");
+            return BonusCampaignStatus.builder()
+                    .campaignId(rs.getString("campaign_id"))
+                    .currency(rs.getString("currency"))
+                    .amount(rs.getBigDecimal("amount"))
+                    .expiresAt(expiresAt != null ? expiresAt.toLocalDateTime() : null)
+                    .state(rs.getString("state"))
+                    .players(rs.getLong("players"))
+                    .credited(rs.getLong("credited"))
+                    .skipped(rs.getLong("skipped"))
+                    .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                    .updatedAt(rs.getTimestamp("updated_at").toLocalDateTime())
+                    .completedAt(completedAt != null ? completedAt.toLocalDateTime() : null)
+                    .error(rs.getString("error"))
+                    .build();
+        }).stream().findFirst();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        runExecutor.shutdownNow();
+    }
+
+    void credit(BonusCampaignStatus campaign, double maxPlayersPerSecond, AtomicBoolean stopRequested) {
+        String campaignId = campaign.getCampaignId();
+        String state = "COMPLETED";
+        String error = null;
+        try {
+            Throttle throttle = new Throttle(maxPlayersPerSecond);
+            // Players skipped while locked by another run, or added behind the run, are picked up by the next pass
+            boolean creditedInPass = true;
+            while (creditedInPass && state.equals("COMPLETED")) {
+                creditedInPass = false;
+                long afterPlayerId = Long.MIN_VALUE;
+                while (true) {
+                    if (stopRequested.get()) {
+                        state = "STOPPED";
+                        break;
+                    }
+                    if (writePressure.getAsBoolean()) {
+                        TimeUnit.MILLISECONDS.sleep(properties.getWritePressureBackoffMs());
+                        continue;
+                    }
+                    throttle.acquire(properties.getChunkSize());
+                    long after = afterPlayerId;
+                    Chunk chunk = chunkTimer.record(() ->
+                            transactionTemplate.execute(status -> creditChunk(campaign, after)));
+                    if (chunk.lastPlayerId() == null) {
+                        break;
+                    }
+                    creditedInPass = true;
+                    afterPlayerId = chunk.lastPlayerId();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            state = "STOPPED";
+        } catch (RuntimeException e) {
+            log.error("Bonus campaign {} failed", campaignId, e);
+            state = "FAILED";
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            error = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        }
+        jdbcTemplate.update(FINISH_RUN_SQL, new MapSqlParameterSource()
+                .addValue("campaignId", campaignId)
+                .addValue("state", state)
+                .addValue("error", error));
+        log.info("Bonus campaign {} run finished: {}", campaignId, state);
+    }
+
+    private Chunk creditChunk(BonusCampaignStatus campaign, long afterPlayerId) {
+        String campaignId = campaign.getCampaignId();
+        List<Integer> picked = jdbcTemplate.queryForList(PICK_SQL, new MapSqlParameterSource()
+                .addValue("campaignId", campaignId)
+                .addValue("afterPlayerId", afterPlayerId)
+                .addValue("chunkSize", properties.getChunkSize()), Integer.class);
+        if (picked.isEmpty()) {
+            return new Chunk(null);
+        }
+
+        Map<Long, Integer> playerByWallet = new LinkedHashMap<>();
+        jdbcTemplate.query(LOCK_WALLETS_SQL, new MapSqlParameterSource()
+                        .addValue("currency", campaign.getCurrency())
+                        .addValue("playerIds", SqlArrays.integers(picked)),
+                rs -> {
+                    playerByWallet.put(rs.getLong("id"), rs.getInt("player_id"));
+                });
+
+        if (!playerByWallet.isEmpty()) {
+            Map<Long, BigDecimal> deltas = new LinkedHashMap<>();
+            playerByWallet.keySet().forEach(walletId -> deltas.put(walletId, campaign.getAmount()));
+            Map<Long, WalletStore.Balances> updated = walletStore.applyBonusDeltas(deltas);
+
+            LocalDateTime now = LocalDateTime.now();
+            bonusBucketRepository.grant(playerByWallet.keySet(), campaignId, campaign.getAmount(), now,
+                    campaign.getExpiresAt());
+            Map<Long, byte[]> heads = new HashMap<>(walletStore.ledgerHeads(deltas.keySet()));
+            List<LedgerBatchWriter.Entry> entries = new ArrayList<>(playerByWallet.size());
+            List<WalletChangeEvent> events = new ArrayList<>(playerByWallet.size());
+            playerByWallet.forEach((walletId, playerId) -> {
+                WalletStore.Balances balances = updated.get(walletId);
+                LedgerBatchWriter.Entry entry = LedgerBatchWriter.Entry.bonus(playerId, campaign.getAmount(),
+                        campaign.getCurrency(), now, campaignId).chainedTo(heads.get(walletId));
+                entries.add(entry);
+                heads.put(walletId, entry.entryHash());
+                events.add(WalletChangeEvent.builder()
+                        .playerId(playerId)
+                        .currency(campaign.getCurrency())
+                        .type(entry.type())
+                        .amount(campaign.getAmount())
+                        .balance(balances.balance())
+                        .bonusBalance(balances.bonusBalance())
+                        .bonusCode(campaignId)
+                        .occurredAt(entry.timestamp())
+                        .build());
+            });
+            ledgerBatchWriter.insert(entries);
+            walletStore.advanceLedgerHeads(heads);
+            outboxWriter.append(events);
+            playerByWallet.forEach((walletId, playerId) -> {
+                WalletStore.Balances balances = updated.get(walletId);
+                playerActivityService.record(playerId, campaign.getCurrency(), Transaction.TransactionType.BONUS, now);
+                eventPublisher.publishEvent(new WalletBalanceChangedEvent(WalletBalanceResponse.builder()
+                        .playerId(playerId)
+                        .currency(campaign.getCurrency())
+                        .balance(balances.balance())
+                        .bonusBalance(balances.bonusBalance())
+                        .totalBalance(balances.balance().add(balances.bonusBalance()))
+                        .build()));
+            });
+        }
+
+        int credited = playerByWallet.size();
+        int skipped = picked.size() - credited;
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("campaignId", campaignId)
+                .addValue("playerIds", SqlArrays.integers(picked))
+                .addValue("creditedIds", SqlArrays.integers(playerByWallet.values()))
+                .addValue("credited", credited)
+                .addValue("skipped", skipped);
+        jdbcTemplate.update(MARK_CREDITED_SQL, params);
+        jdbcTemplate.update(COUNT_CREDITED_SQL, params);
+        creditedCounter.increment(credited);
+        skippedCounter.increment(skipped);
+        return new Chunk(picked.get(picked.size() - 1));
+    }
+
+    private void stagePlayers(String campaignId, List<Integer> playerIds) {
+        if (playerIds.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("campaignId", campaignId)
+                    .addValue("playerIds", SqlArrays.integers(playerIds));
+            int added = jdbcTemplate.update(ADD_PLAYERS_SQL, params);
+            jdbcTemplate.update(COUNT_ADDED_SQL, params.addValue("added", added));
+        });
+    }
+
+    private BonusCampaignStatus require(String campaignId) {
+        return status(campaignId).orElseThrow(() ->
+                new InvalidBonusCampaignException("Bonus campaign " + campaignId + " does not exist"));
+    }
+
+    private record Run(String campaignId, AtomicBoolean stopRequested) {
+    }
+
+    /** Last player id picked by a chunk, null when there was nothing left to credit. */
+    private record Chunk(Integer lastPlayerId) {
+    }
+}
@@ -0,0 +1,220 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.elavationlab.config.BonusExpiryProperties;
+import org.elavationlab.domain.Transaction;
+import org.elavationlab.dto.WalletBalanceResponse;
+import org.elavationlab.dto.WalletChangeEvent;
+import org.elavationlab.repository.LedgerBatchWriter;
+import org.elavationlab.repository.OutboxWriter;
+import org.elavationlab.repository.WalletStore;
+import org.elavationlab.util.SqlArrays;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Takes the unspent part of expired bonus grants off their wallets, in the background rather than on the bet path.
+ * <p>
+ * Expired buckets are found through the partial expiry index, which holds only live buckets that can expire, so a
+ * sweep reads what is due and nothing else however many grants are live. Each batch is one short transaction on the
+ * background pool: it claims up to {@code batch-size} due buckets with {@code FOR UPDATE SKIP LOCKED}, locks their
+ * wallets in id order, again skipping wallets a bet is holding, takes the expired amounts off the bonus balances in
+ * one statement through the {@link WalletStore}, and writes the BONUS_EXPIRED ledger rows and outbox events in one
+ * batch each. Buckets of skipped wallets are left for the next batch. Several nodes can sweep at once.
+ * <p>
+ * A bucket never expires more than the wallet's bonus balance still holds.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "wallet.bonus-expiry.sweeper-enabled", havingValue = "true", matchIfMissing = true)
+public class BonusExpirySweeper {
+
+    private static final String PICK_SQL =
+            "SELECT id, wallet_id, remaining, bonus_code FROM bonus_buckets " +
+            "WHERE remaining > 0 AND expires_at IS NOT NULL AND expires_at <= :now " +
+            "ORDER BY expires_at LIMIT :batchSize FOR UPDATE SKIP LOCKED";
+
+    private static final String LOCK_WALLETS_SQL =
+            "SELECT id, player_id, currency FROM wallets WHERE id = ANY(:walletIds) ORDER BY id FOR UPDATE SKIP LOCKED";
+
+    private static final String EXPIRE_SQL =
+            "UPDATE bonus_buckets SET remaining = 0, expired_at = :now WHERE id = ANY(:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final WalletStore walletStore;
+    private final LedgerBatchWriter ledgerBatchWriter;
+    private final OutboxWriter outboxWriter;
+    private final PlayerActivityService playerActivityService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BonusExpiryProperties properties;
+    private final Counter expiredCounter;
+    private final Counter skippedCounter;
+    private final Timer batchTimer;
+
+    public BonusExpirySweeper(NamedParameterJdbcTemplate jdbcTemplate, WalletStore walletStore,
+                              LedgerBatchWriter ledgerBatchWriter, OutboxWriter outboxWriter,
+                              PlayerActivityService playerActivityService, OptimisticRetryExecutor retryExecutor,
+                              PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                              BonusExpiryProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.walletStore = walletStore;
+        this.ledgerBatchWriter = ledgerBatchWriter;
+        this.outboxWriter = outboxWriter;
+        this.playerActivityService = playerActivityService;
+        this.transactionTemplate = new RetryingTransactionTemplate(transactionManager, retryExecutor, "bonus-expiry");
+        this.transactionTemplate.setTimeout(properties.getBatchTimeoutSeconds());
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.expiredCounter = Counter.builder("wallet.bonus_expiry.buckets.total").tag("outcome", "expired").register(meterRegistry);
+        this.skippedCounter = Counter.builder("wallet.bonus_expiry.buckets.total").tag("outcome", "wallet_busy").register(meterRegistry);
+        this.batchTimer = Timer.builder("wallet.bonus_expiry.batch.duration").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.bonus-expiry.sweep-interval-ms:10000}")
+    public void sweep() {
+        for (int batch = 0; batch < properties.getMaxBatchesPerSweep(); batch++) {
+            int expired;
+            try {
+                expired = batchTimer.record(() ->
+                        transactionTemplate.execute(status -> expireNextBatch(LocalDateTime.now())));
+            } catch (RuntimeException e) {
+                log.warn("Bonus expiry sweep stopped: {}", e.getMessage());
+                return;
+            }
+            // A short batch means nothing more is due, or live bets hold wallets; either way wait for the next sweep
+            if (expired < properties.getBatchSize()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Expires one batch of buckets due at {@code now} and returns how many were expired.
+     */
+    int expireNextBatch(LocalDateTime now) {
+        List<Due> due = jdbcTemplate.query(PICK_SQL, new MapSqlParameterSource()
+                        .addValue("now", now)
+                        .addValue("batchSize", properties.getBatchSize()),
+                (rs, rowNum) -> new Due(rs.getLong("id"), rs.getLong("wallet_id"), rs.getBigDecimal("remaining"),
+                        rs.getString("bonus_code")));
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, WalletKey> wallets = new LinkedHashMap<>();
+        jdbcTemplate.query(LOCK_WALLETS_SQL, new MapSqlParameterSource("walletIds",
+                        SqlArrays.bigints(due.stream().map(Due::walletId).distinct().toList())),
+                rs -> {
+                    wallets.put(rs.getLong("id"), new WalletKey(rs.getInt("player_id"), rs.getString("currency")));
+                });
+        Map<Long, List<Due>> byWallet = new LinkedHashMap<>();
+        wallets.keySet().forEach(walletId -> byWallet.put(walletId, new ArrayList<>()));
+        for (Due bucket : due) {
+            List<Due> buckets = byWallet.get(bucket.walletId());
+            if (buckets != null) {
+                buckets.add(bucket);
+            }
+        }
+        int expiring = byWallet.values().stream().mapToInt(List::size).sum();
+        skippedCounter.increment(due.size() - expiring);
+        if (wallets.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, WalletStore.Balances> before = walletStore.balances(wallets.keySet());
+        Map<Long, BigDecimal> deltas = new LinkedHashMap<>();
+        Map<Long, BigDecimal> expiredAmounts = new HashMap<>();
+        byWallet.forEach((walletId, buckets) -> {
+            buckets.sort(Comparator.comparingLong(Due::id));
+            BigDecimal bonus = before.get(walletId).bonusBalance();
+            BigDecimal total = BigDecimal.ZERO;
+            for (Due bucket : buckets) {
+                BigDecimal expired = bucket.remaining().min(bonus).max(BigDecimal.ZERO);
+                expiredAmounts.put(bucket.id(), expired);
+                bonus = bonus.subtract(expired);
+                total = total.add(expired);
+            }
+            if (total.signum() > 0) {
+                deltas.put(walletId, total.negate());
+            }
+        });
+
+        if (!deltas.isEmpty()) {
+            Map<Long, WalletStore.Balances> updated = walletStore.applyBonusDeltas(deltas);
+            Map<Long, byte[]> heads = new HashMap<>(walletStore.ledgerHeads(deltas.keySet()));
+            List<LedgerBatchWriter.Entry> entries = new ArrayList<>();
+            List<WalletChangeEvent> events = new ArrayList<>();
+            deltas.keySet().forEach(walletId -> {
+                WalletKey key = wallets.get(walletId);
+                BigDecimal bonus = before.get(walletId).bonusBalance();
+                for (Due bucket : byWallet.get(walletId)) {
+                    BigDecimal expired = expiredAmounts.get(bucket.id());
+                    if (expired.signum() == 0) {
+                        continue;
+                    }
+                    bonus = bonus.subtract(expired);
+                    LedgerBatchWriter.Entry entry = LedgerBatchWriter.Entry.bonusExpiry(key.playerId(), expired,
+                            key.currency(), now, bucket.bonusCode()).chainedTo(heads.get(walletId));
+                    entries.add(entry);
+                    heads.put(walletId, entry.entryHash());
+                    events.add(WalletChangeEvent.builder()
+                            .playerId(key.playerId())
+                            .currency(key.currency())
+                            .type(entry.type())
+                            .amount(expired)
+                            .balance(updated.get(walletId).balance())
+                            .bonusBalance(bonus)
+                            .bonusCode(bucket.bonusCode())
+                            .occurredAt(entry.timestamp())
+                            .build());
+                }
+            });
+            ledgerBatchWriter.insert(entries);
+            walletStore.advanceLedgerHeads(heads);
+            outboxWriter.append(events);
+            deltas.keySet().forEach(walletId -> {
+                WalletKey key = wallets.get(walletId);
+                WalletStore.Balances balances = updated.get(walletId);
+                playerActivityService.record(key.playerId(), key.currency(), Transaction.TransactionType.BONUS_EXPIRED, now);
+                eventPublisher.publishEvent(new WalletBalanceChangedEvent(WalletBalanceResponse.builder()
+                        .playerId(key.playerId())
+                        .currency(key.currency())
+                        .balance(balances.balance())
+                        .bonusBalance(balances.bonusBalance())
+                        .totalBalance(balances.balance().add(balances.bonusBalance()))
+                        .build()));
+            });
+        }
+
+        jdbcTemplate.update(EXPIRE_SQL, new MapSqlParameterSource()
+                .addValue("now", now)
+                .addValue("ids", SqlArrays.bigints(expiredAmounts.keySet())));
+        expiredCounter.increment(expiring);
+        return expiring;
+    }
+
+    private record Due(long id, long walletId, BigDecimal remaining, String bonusCode) {
+    }
+
+    private record WalletKey(int playerId, String currency) {
+    }
+}
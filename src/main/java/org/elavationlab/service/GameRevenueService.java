@@ -0,0 +1,289 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.elavationlab.domain.Transaction;
+import org.elavationlab.dto.GameRevenueRow;
+import org.elavationlab.util.SqlArrays;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live gross gaming revenue (bets minus wins) per game and currency.
+ * <p>
+ * Committed bets and wins are added to in-memory {@link LongAdder}s per game, currency and minute, so concurrent
+ * requests on the same game update separate cells instead of contending on one counter or row. Closed minutes are
+ * periodically added to {@code game_revenue_minutes}; since the upsert adds instead of overwriting, every node
+ * flushes into the same rows and a row is the total over all nodes. A minute is only flushed once it has been
+ * closed for a full minute, so no request still adds to an accumulator after it has been taken from the map.
+ * <p>
+ * Reads combine the rollup table with this node's unflushed minutes and never touch the ledger. Totals of other
+ * nodes become visible once they flush, roughly two minutes plus {@code flush-interval-ms} behind.
+ */
+@Slf4j
+@Service
+public class GameRevenueService {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO game_revenue_minutes (game_id, currency, minute, bet_amount, win_amount, bet_count, win_count) " +
+            "SELECT * FROM unnest(:gameIds, :currencies, :minutes, :bets, :wins, :betCounts, :winCounts) " +
+            "ON CONFLICT (game_id, currency, minute) DO UPDATE SET " +
+            "bet_amount = game_revenue_minutes.bet_amount + EXCLUDED.bet_amount, " +
+            "win_amount = game_revenue_minutes.win_amount + EXCLUDED.win_amount, " +
+            "bet_count = game_revenue_minutes.bet_count + EXCLUDED.bet_count, " +
+            "win_count = game_revenue_minutes.win_count + EXCLUDED.win_count";
+
+    private static final String TOTALS_SQL =
+            "SELECT game_id, currency, sum(bet_amount) AS bet_amount, sum(win_amount) AS win_amount, " +
+            "sum(bet_count) AS bet_count, sum(win_count) AS win_count " +
+            "FROM game_revenue_minutes WHERE minute >= :from AND minute < :to " +
+            "AND (CAST(:currency AS VARCHAR) IS NULL OR currency = :currency) " +
+            "GROUP BY game_id, currency";
+
+    private static final String MINUTES_SQL =
+            "SELECT game_id, currency, minute, bet_amount, win_amount, bet_count, win_count " +
+            "FROM game_revenue_minutes WHERE game_id = :gameId AND minute >= :from AND minute < :to " +
+            "AND (CAST(:currency AS VARCHAR) IS NULL OR currency = :currency)";
+
+    /** Flush order, so nodes upserting the same rows lock them in the same order. */
+    private static final Comparator<MinuteKey> KEY_ORDER = Comparator.comparing(MinuteKey::gameId)
+            .thenComparing(MinuteKey::currency)
+            .thenComparing(MinuteKey::minute);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Map<MinuteKey, Accumulator> accumulators = new ConcurrentHashMap<>();
+    private final Counter flushCounter;
+    private final Counter flushFailureCounter;
+
+    public GameRevenueService(NamedParameterJdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flushCounter = Counter.builder("wallet.ggr.flushes.total").tag("outcome", "success").register(meterRegistry);
+        this.flushFailureCounter = Counter.builder("wallet.ggr.flushes.total").tag("outcome", "failure").register(meterRegistry);
+    }
+
+    /**
+     * Counts a bet or win once the surrounding transaction commits, so rolled back and retried attempts are not
+     * counted. Other types and movements without a game are ignored.
+     */
+    public void record(String gameId, String currency, Transaction.TransactionType type, BigDecimal amount) {
+        if (gameId == null || (type != Transaction.TransactionType.BET && type != Transaction.TransactionType.WIN)) {
+            return;
+        }
+        long minorUnits = amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(gameId, currency, type, minorUnits);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(gameId, currency, type, minorUnits);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.ggr.flush-interval-ms:15000}")
+    public void flush() {
+        flushBefore(currentMinute().minusMinutes(1));
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        flushBefore(LocalDateTime.MAX);
+    }
+
+    /**
+     * Totals per game and currency for minutes in {@code [from, to)}. A null currency means all currencies.
+     */
+    public List<GameRevenueRow> getTotals(LocalDateTime from, LocalDateTime to, String currency) {
+        Map<List<String>, Totals> totals = new LinkedHashMap<>();
+        jdbcTemplate.query(TOTALS_SQL, window(from, to, currency), rs -> {
+            totals.computeIfAbsent(List.of(rs.getString("game_id"), rs.getString("currency")), k -> new Totals())
+                    .add(rs.getBigDecimal("bet_amount"), rs.getBigDecimal("win_amount"),
+                            rs.getLong("bet_count"), rs.getLong("win_count"));
+        });
+        accumulators.forEach((key, accumulator) -> {
+            if (key.within(from, to, currency)) {
+                totals.computeIfAbsent(List.of(key.gameId(), key.currency()), k -> new Totals()).add(accumulator);
+            }
+        });
+        List<GameRevenueRow> rows = new ArrayList<>(totals.size());
+        totals.forEach((key, total) -> rows.add(total.toRow(key.get(0), key.get(1), null)));
+        rows.sort(Comparator.comparing(GameRevenueRow::getGgr).reversed());
+        return rows;
+    }
+
+    /**
+     * Per-minute totals of one game for minutes in {@code [from, to)}, oldest first. A null currency means all
+     * currencies.
+     */
+    public List<GameRevenueRow> getMinutes(String gameId, LocalDateTime from, LocalDateTime to, String currency) {
+        Map<MinuteKey, Totals> minutes = new TreeMap<>(KEY_ORDER);
+        jdbcTemplate.query(MINUTES_SQL, window(from, to, currency).addValue("gameId", gameId), rs -> {
+            MinuteKey key = new MinuteKey(gameId, rs.getString("currency"), rs.getTimestamp("minute").toLocalDateTime());
+            minutes.computeIfAbsent(key, k -> new Totals())
+                    .add(rs.getBigDecimal("bet_amount"), rs.getBigDecimal("win_amount"),
+                            rs.getLong("bet_count"), rs.getLong("win_count"));
+        });
+        accumulators.forEach((key, accumulator) -> {
+            if (key.gameId().equals(gameId) && key.within(from, to, currency)) {
+                minutes.computeIfAbsent(key, k -> new Totals()).add(accumulator);
+            }
+        });
+        List<GameRevenueRow> rows = new ArrayList<>(minutes.size());
+        minutes.forEach((key, total) -> rows.add(total.toRow(key.gameId(), key.currency(), key.minute())));
+        rows.sort(Comparator.comparing(GameRevenueRow::getMinute).thenComparing(GameRevenueRow::getCurrency));
+        return rows;
+    }
+
+    private void add(String gameId, String currency, Transaction.TransactionType type, long minorUnits) {
+        MinuteKey key = new MinuteKey(gameId, currency, currentMinute());
+        Accumulator accumulator = accumulators.get(key);
+        if (accumulator == null) {
+            accumulator = accumulators.computeIfAbsent(key, k -> new Accumulator());
+        }
+        if (type == Transaction.TransactionType.BET) {
+            accumulator.betMinorUnits.add(minorUnits);
+            accumulator.betCount.increment();
+        } else {
+            accumulator.winMinorUnits.add(minorUnits);
+            accumulator.winCount.increment();
+        }
+    }
+
+    private void flushBefore(LocalDateTime cutoff) {
+        Map<MinuteKey, Accumulator> closed = new TreeMap<>(KEY_ORDER);
+        for (MinuteKey key : accumulators.keySet()) {
+            if (key.minute().isBefore(cutoff)) {
+                Accumulator accumulator = accumulators.remove(key);
+                if (accumulator != null) {
+                    closed.put(key, accumulator);
+                }
+            }
+        }
+        if (closed.isEmpty()) {
+            return;
+        }
+        try {
+            upsert(closed);
+            flushCounter.increment();
+        } catch (RuntimeException e) {
+            flushFailureCounter.increment();
+            log.warn("Failed to flush GGR for {} game minutes: {}", closed.size(), e.getMessage());
+            closed.forEach((key, accumulator) ->
+                    accumulators.computeIfAbsent(key, k -> new Accumulator()).addAll(accumulator));
+        }
+    }
+
+    private void upsert(Map<MinuteKey, Accumulator> closed) {
+        List<String> gameIds = new ArrayList<>(closed.size());
+        List<String> currencies = new ArrayList<>(closed.size());
+        List<LocalDateTime> minutes = new ArrayList<>(closed.size());
+        List<BigDecimal> bets = new ArrayList<>(closed.size());
+        List<BigDecimal> wins = new ArrayList<>(closed.size());
+        List<Long> betCounts = new ArrayList<>(closed.size());
+        List<Long> winCounts = new ArrayList<>(closed.size());
+        closed.forEach((key, accumulator) -> {
+            gameIds.add(key.gameId());
+            currencies.add(key.currency());
+            minutes.add(key.minute());
+            bets.add(BigDecimal.valueOf(accumulator.betMinorUnits.sum(), 2));
+            wins.add(BigDecimal.valueOf(accumulator.winMinorUnits.sum(), 2));
+            betCounts.add(accumulator.betCount.sum());
+            winCounts.add(accumulator.winCount.sum());
+        });
+        jdbcTemplate.update(UPSERT_SQL, new MapSqlParameterSource()
+                .addValue("gameIds", SqlArrays.varchars(gameIds))
+                .addValue("currencies", SqlArrays.varchars(currencies))
+                .addValue("minutes", SqlArrays.timestamps(minutes))
+                .addValue("bets", SqlArrays.numerics(bets))
+                .addValue("wins", SqlArrays.numerics(wins))
+                .addValue("betCounts", SqlArrays.bigints(betCounts))
+                .addValue("winCounts", SqlArrays.bigints(winCounts)));
+    }
+
+    private static MapSqlParameterSource window(LocalDateTime from, LocalDateTime to, String currency) {
+        return new MapSqlParameterSource()
+                .addValue("from", from)
+                .addValue("to", to)
+                .addValue("currency", currency);
+    }
+
+    private static LocalDateTime currentMinute() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+    }
+
+    private record MinuteKey(String gameId, String currency, LocalDateTime minute) {
+
+        boolean within(LocalDateTime from, LocalDateTime to, String currency) {
+            return !minute.isBefore(from) && minute.isBefore(to) && (currency == null || currency.equals(this.currency));
+        }
+    }
+
+    private static final class Accumulator {
+
+        private final LongAdder betMinorUnits = new LongAdder();
+        private final LongAdder winMinorUnits = new LongAdder();
+        private final LongAdder betCount = new LongAdder();
+        private final LongAdder winCount = new LongAdder();
+
+        void addAll(Accumulator other) {
+            betMinorUnits.add(other.betMinorUnits.sum());
+            winMinorUnits.add(other.winMinorUnits.sum());
+            betCount.add(other.betCount.sum());
+            winCount.add(other.winCount.sum());
+        }
+    }
+
+    private static final class Totals {
+
+        private BigDecimal bets = BigDecimal.ZERO.setScale(2);
+        private BigDecimal wins = BigDecimal.ZERO.setScale(2);
+        private long betCount;
+        private long winCount;
+
+        void add(BigDecimal bets, BigDecimal wins, long betCount, long winCount) {
+            this.bets = this.bets.add(bets);
+            this.wins = this.wins.add(wins);
+            this.betCount += betCount;
+            this.winCount += winCount;
+        }
+
+        void add(Accumulator accumulator) {
+            add(BigDecimal.valueOf(accumulator.betMinorUnits.sum(), 2), BigDecimal.valueOf(accumulator.winMinorUnits.sum(), 2),
+                    accumulator.betCount.sum(), accumulator.winCount.sum());
+        }
+
+        GameRevenueRow toRow(String gameId, String currency, LocalDateTime minute) {
+            return GameRevenueRow.builder()
+                    .gameId(gameId)
+                    .currency(currency)
+                    .minute(minute)
+                    .totalBets(bets)
+                    .totalWins(wins)
+                    .ggr(bets.subtract(wins))
+                    .betCount(betCount)
+                    .winCount(winCount)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.elavationlab.admission.Workload;
+import org.elavationlab.admission.WorkloadContext;
+import org.elavationlab.config.GroupCommitProperties;
+import org.elavationlab.dto.WalletBalanceResponse;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Commits bets and wins of different players in groups, so one commit and its WAL flush is paid per group rather
+ * than per mutation. Opt-in with {@code wallet.group-commit.enabled}.
+ * <p>
+ * Callers queue their mutation and wait. Committer threads take a group of up to {@code max-group-size}
+ * mutations, or whatever arrived within {@code window-ms} of the first, and apply it in one transaction with
+ * {@link WalletService#applyMutations}. Every mutation still updates its wallet and writes its own ledger entry,
+ * and every caller gets its own balance or error. Mutations are applied ordered by wallet, and mutations of one
+ * wallet keep their arrival order. In event-sourced mode each wallet is locked when it is read, so concurrent
+ * groups lock wallets in the same order. In update-in-place mode nothing is locked: wallets are read without a
+ * lock and checked by version when the group flushes, so one wallet changed by a concurrent group or request
+ * fails the whole group.
+ * <p>
+ * A mutation rejected by the wallet rules fails alone. Any other failure, such as that version conflict, rolls
+ * back the group; its mutations are then applied again one transaction each, with the usual conflict retries, so
+ * one bad mutation cannot fail the others. Their metrics are only counted on commit, so a mutation is counted
+ * once either way. When grouping is off or the queue is full, or the caller is already in a transaction, the
+ * mutation is applied on the calling thread in its own transaction.
+ */
+@Slf4j
+@Service
+public class GroupCommitExecutor {
+
+    private final WalletService walletService;
+    private final GroupCommitProperties properties;
+    private final BlockingQueue<Pending> queue;
+    private final ExecutorService committers;
+    private final long windowNanos;
+    private final Counter groupCounter;
+    private final Counter fallbackCounter;
+    private final Counter overflowCounter;
+    private final DistributionSummary groupSize;
+
+    public GroupCommitExecutor(WalletService walletService, GroupCommitProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.walletService = walletService;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getMaxQueued());
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(properties.getWindowMs());
+        this.groupCounter = Counter.builder("wallet.group_commit.groups.total").register(meterRegistry);
+        this.fallbackCounter = Counter.builder("wallet.group_commit.fallbacks.total").register(meterRegistry);
+        this.overflowCounter = Counter.builder("wallet.group_commit.overflow.total").register(meterRegistry);
+        this.groupSize = DistributionSummary.builder("wallet.group_commit.group.size").register(meterRegistry);
+        Gauge.builder("wallet.group_commit.queued", queue, BlockingQueue::size).register(meterRegistry);
+        this.committers = Executors.newFixedThreadPool(properties.getCommitters());
+        if (properties.isEnabled()) {
+            for (int i = 0; i < properties.getCommitters(); i++) {
+                committers.submit(this::commitGroups);
+            }
+        }
+    }
+
+    public WalletBalanceResponse execute(WalletMutation mutation) {
+        if (!properties.isEnabled() || committers.isShutdown()
+                || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return applyAlone(mutation);
+        }
+        Pending pending = new Pending(mutation, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            overflowCounter.increment();
+            return applyAlone(mutation);
+        }
+        try {
+            return pending.result().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a group commit", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void commitGroups() {
+        List<Pending> group = new ArrayList<>(properties.getMaxGroupSize());
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                group.add(queue.take());
+                long deadline = System.nanoTime() + windowNanos;
+                while (group.size() < properties.getMaxGroupSize()) {
+                    Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+                WorkloadContext.callAs(Workload.WRITE, () -> {
+                    commit(group);
+                    return null;
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Group commit of {} mutations failed", group.size(), e);
+            } finally {
+                // No-op for the mutations that were completed
+                group.forEach(pending -> pending.result().completeExceptionally(
+                        new IllegalStateException("Group commit stopped before the mutation was applied")));
+                group.clear();
+            }
+        }
+    }
+
+    private void commit(List<Pending> group) {
+        List<Pending> ordered = new ArrayList<>(group);
+        ordered.sort(Comparator.comparing((Pending pending) -> pending.mutation().playerId())
+                .thenComparing(pending -> pending.mutation().currency()));
+        List<WalletMutation.Outcome> outcomes;
+        try {
+            outcomes = walletService.applyMutations(ordered.stream().map(Pending::mutation).toList());
+        } catch (RuntimeException e) {
+            fallbackCounter.increment();
+            log.debug("Group of {} mutations rolled back, applying them one by one: {}", ordered.size(), e.getMessage());
+            for (Pending pending : ordered) {
+                try {
+                    pending.result().complete(applyAlone(pending.mutation()));
+                } catch (RuntimeException failure) {
+                    pending.result().completeExceptionally(failure);
+                }
+            }
+            return;
+        }
+        groupCounter.increment();
+        groupSize.record(ordered.size());
+        for (int i = 0; i < ordered.size(); i++) {
+            WalletMutation.Outcome outcome = outcomes.get(i);
+            if (outcome.failure() != null) {
+                ordered.get(i).result().completeExceptionally(outcome.failure());
+            } else {
+                ordered.get(i).result().complete(outcome.balance());
+            }
+        }
+    }
+
+    private WalletBalanceResponse applyAlone(WalletMutation mutation) {
+        return switch (mutation.type()) {
+            case BET -> walletService.processBet(mutation.playerId(), mutation.amount(), mutation.currency(),
+                    mutation.gameId(), mutation.roundId());
+            case WIN -> walletService.processWin(mutation.playerId(), mutation.amount(), mutation.currency(),
+                    mutation.gameId(), mutation.roundId());
+        };
+    }
+
+    @PreDestroy
+    void shutdown() {
+        committers.shutdownNow();
+        List<Pending> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(pending -> pending.result().completeExceptionally(
+                new IllegalStateException("Group commit stopped before the mutation was applied")));
+    }
+
+    private record Pending(WalletMutation mutation, CompletableFuture<WalletBalanceResponse> result) {
+    }
+}
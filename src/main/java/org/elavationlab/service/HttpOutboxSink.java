@@ -0,0 +1,60 @@
+package org.elavationlab.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.elavationlab.config.OutboxProperties;
+import org.elavationlab.dto.WalletChangeEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Posts each batch as a JSON array to {@code wallet.outbox.http-url}. Any status other than 2xx fails the batch,
+ * which is then delivered again.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.outbox.sink", havingValue = "http")
+public class HttpOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final URI uri;
+    private final Duration timeout;
+
+    public HttpOutboxSink(ObjectMapper objectMapper, OutboxProperties properties) {
+        this.objectMapper = objectMapper;
+        this.timeout = Duration.ofMillis(properties.getHttpTimeoutMs());
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+        this.uri = URI.create(properties.getHttpUrl());
+    }
+
+    @Override
+    public void deliver(List<WalletChangeEvent> events) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(events)))
+                    .build();
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() / 100 != 2) {
+                throw new IllegalStateException("Outbox endpoint " + uri + " returned " + response.statusCode());
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize wallet change events", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while delivering wallet change events", e);
+        }
+    }
+}
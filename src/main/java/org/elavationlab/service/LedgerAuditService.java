@@ -0,0 +1,374 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.elavationlab.config.LedgerHashProperties;
+import org.elavationlab.domain.Transaction;
+import org.elavationlab.dto.LedgerAuditFailure;
+import org.elavationlab.dto.LedgerAuditResponse;
+import org.elavationlab.util.LedgerHash;
+import org.elavationlab.util.SqlArrays;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Verifies the per-wallet ledger hash chain and seals verified chains.
+ * <p>
+ * A seal records a wallet's latest verified entry and its hash, signed with an HMAC key that lives outside the
+ * database. An incremental audit checks each seal's signature and then only the entries written after it, so its
+ * cost follows the write volume since the last run rather than the size of the ledger; a full audit walks every
+ * hashed entry and also checks that each seal still matches the chain. Wallets are audited in chunks of
+ * {@code chunk-size} on a fork-join pool, each chunk streamed with a cursor in its own read-only snapshot.
+ */
+@Slf4j
+@Service
+public class LedgerAuditService {
+
+    private static final String CHUNK_BOUNDS_SQL =
+            "SELECT id FROM (SELECT id, row_number() OVER (ORDER BY id) AS rn FROM wallets) w " +
+            "WHERE rn % :chunkSize = 0 ORDER BY id";
+
+    private static final String CHAIN_SQL =
+            "SELECT w.player_id, w.currency, s.last_transaction_id AS sealed_id, s.entry_hash AS sealed_hash, " +
+            "       s.signature, e.id, e.type, e.amount, e.balance_before, e.balance_after, e.balance_delta, " +
+            "       e.bonus_delta, e.timestamp, e.transfer_id, e.game_id, e.round_id, e.bonus_code, " +
+            "       e.counter_currency, e.description, e.prev_hash, e.entry_hash, e.hash_version " +
+            "FROM wallets w " +
+            "LEFT JOIN ledger_seals s ON s.player_id = w.player_id AND s.currency = w.currency " +
+            "LEFT JOIN LATERAL (SELECT t.id, t.type, t.amount, t.balance_before, t.balance_after, t.balance_delta, " +
+            "                          t.bonus_delta, t.timestamp, t.transfer_id, t.game_id, t.round_id, " +
+            "                          t.bonus_code, t.counter_currency, t.description, t.prev_hash, " +
+            "                          t.entry_hash, t.hash_version " +
+            "                   FROM transactions t " +
+            "                   WHERE t.player_id = w.player_id AND t.currency = w.currency " +
+            "                     AND t.id > CASE WHEN :full THEN 0 ELSE COALESCE(s.last_transaction_id, 0) END " +
+            "                   ORDER BY t.id) e ON true " +
+            "WHERE w.id > :afterId AND w.id <= :upTo " +
+            "ORDER BY w.id, e.id";
+
+    private static final String SEAL_SQL =
+            "INSERT INTO ledger_seals (player_id, currency, last_transaction_id, entry_hash, signature, sealed_at) " +
+            "SELECT v.player_id, v.currency, v.last_id, v.hash, v.signature, now() " +
+            "FROM unnest(:playerIds, :currencies, :lastIds, :hashes, :signatures) " +
+            "     AS v(player_id, currency, last_id, hash, signature) " +
+            "ON CONFLICT (player_id, currency) DO UPDATE SET last_transaction_id = EXCLUDED.last_transaction_id, " +
+            "    entry_hash = EXCLUDED.entry_hash, signature = EXCLUDED.signature, sealed_at = EXCLUDED.sealed_at " +
+            "WHERE ledger_seals.last_transaction_id < EXCLUDED.last_transaction_id";
+
+    public enum FailureReason {
+        SEAL_SIGNATURE, SEAL_MISMATCH, PREV_HASH_MISMATCH, ENTRY_HASH_MISMATCH, UNHASHED_ENTRY
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final NamedParameterJdbcTemplate cursorTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate snapshotTransaction;
+    private final LedgerHashProperties properties;
+    private final SecretKeySpec sealKey;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Counter entriesCounter;
+    private final Counter sealsCounter;
+    private final Map<FailureReason, Counter> failureCounters = new EnumMap<>(FailureReason.class);
+    private final Timer auditTimer;
+
+    public LedgerAuditService(DataSource dataSource,
+                              PlatformTransactionManager transactionManager,
+                              LedgerHashProperties properties,
+                              MeterRegistry meterRegistry) {
+        if (properties.getSealKey() == null || properties.getSealKey().isBlank()) {
+            throw new IllegalStateException("wallet.ledger-hash.seal-key must be set");
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        JdbcTemplate cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        cursorJdbcTemplate.setFetchSize(properties.getFetchSize());
+        this.cursorTemplate = new NamedParameterJdbcTemplate(cursorJdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+        this.properties = properties;
+        this.sealKey = new SecretKeySpec(properties.getSealKey().getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+
+        this.entriesCounter = Counter.builder("wallet.ledger.audit.entries.total").register(meterRegistry);
+        this.sealsCounter = Counter.builder("wallet.ledger.seals.total").register(meterRegistry);
+        for (FailureReason reason : FailureReason.values()) {
+            failureCounters.put(reason, Counter.builder("wallet.ledger.audit.failures.total")
+                    .tag("reason", reason.name().toLowerCase()).register(meterRegistry));
+        }
+        this.auditTimer = Timer.builder("wallet.ledger.audit.duration").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.ledger-hash.seal-interval-ms:300000}")
+    public void scheduledSeal() {
+        if (properties.isSealEnabled()) {
+            audit(false, true).ifPresent(result -> {
+                if (result.getFailures() > 0) {
+                    log.error("Ledger audit found {} broken links: {}", result.getFailures(), result.getFailureSamples());
+                }
+            });
+        }
+    }
+
+    /**
+     * Audits every wallet, sealing the clean ones when {@code seal} is set. Returns empty if an audit is already
+     * running on this node.
+     */
+    public Optional<LedgerAuditResponse> audit(boolean full, boolean seal) {
+        if (!running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        long started = System.currentTimeMillis();
+        ForkJoinPool pool = new ForkJoinPool(properties.getParallelism());
+        try {
+            List<Long> bounds = new ArrayList<>(namedJdbcTemplate.queryForList(CHUNK_BOUNDS_SQL,
+                    new MapSqlParameterSource("chunkSize", properties.getChunkSize()), Long.class));
+            bounds.add(Long.MAX_VALUE);
+            List<long[]> chunks = new ArrayList<>();
+            long afterId = 0;
+            for (long upTo : bounds) {
+                chunks.add(new long[]{afterId, upTo});
+                afterId = upTo;
+            }
+            AuditResult result = auditTimer.recordCallable(() -> pool.submit(() -> chunks.parallelStream()
+                            .map(chunk -> auditChunk(chunk[0], chunk[1], full, seal))
+                            .reduce(new AuditResult(), AuditResult::merge))
+                    .get());
+            return Optional.of(LedgerAuditResponse.builder()
+                    .full(full)
+                    .walletsVerified(result.wallets)
+                    .entriesVerified(result.entries)
+                    .walletsSealed(result.sealed)
+                    .failures(result.failureCount)
+                    .failureSamples(result.failures)
+                    .durationMillis(System.currentTimeMillis() - started)
+                    .build());
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+        } catch (Exception e) {
+            throw e instanceof RuntimeException ? (RuntimeException) e : new IllegalStateException(e);
+        } finally {
+            pool.shutdown();
+            running.set(false);
+        }
+    }
+
+    private AuditResult auditChunk(long afterId, long upTo, boolean full, boolean seal) {
+        AuditResult result = new AuditResult();
+        List<WalletChain> verified = new ArrayList<>();
+        snapshotTransaction.executeWithoutResult(status -> cursorTemplate.query(CHAIN_SQL, new MapSqlParameterSource()
+                        .addValue("afterId", afterId)
+                        .addValue("upTo", upTo)
+                        .addValue("full", full),
+                rs -> {
+                    WalletChain chain = verified.isEmpty() ? null : verified.get(verified.size() - 1);
+                    int playerId = rs.getInt("player_id");
+                    String currency = rs.getString("currency");
+                    if (chain == null || chain.playerId != playerId || !chain.currency.equals(currency)) {
+                        if (chain != null) {
+                            chain.finish(result);
+                        }
+                        chain = new WalletChain(playerId, currency, rs, full, result);
+                        verified.add(chain);
+                    }
+                    rs.getLong("id");
+                    if (!rs.wasNull()) {
+                        chain.append(rs, result);
+                    }
+                }));
+        if (!verified.isEmpty()) {
+            verified.get(verified.size() - 1).finish(result);
+        }
+        result.wallets = verified.size();
+        entriesCounter.increment(result.entries);
+
+        if (seal) {
+            List<WalletChain> sealable = verified.stream().filter(WalletChain::sealable).toList();
+            if (!sealable.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> namedJdbcTemplate.update(SEAL_SQL, new MapSqlParameterSource()
+                        .addValue("playerIds", SqlArrays.integers(sealable.stream().map(chain -> chain.playerId).toList()))
+                        .addValue("currencies", SqlArrays.varchars(sealable.stream().map(chain -> chain.currency).toList()))
+                        .addValue("lastIds", SqlArrays.bigints(sealable.stream().map(chain -> chain.lastId).toList()))
+                        .addValue("hashes", SqlArrays.byteas(sealable.stream().map(chain -> chain.expectedPrev).toList()))
+                        .addValue("signatures", SqlArrays.byteas(sealable.stream()
+                                .map(chain -> sign(chain.playerId, chain.currency, chain.lastId, chain.expectedPrev))
+                                .toList()))));
+                result.sealed = sealable.size();
+                sealsCounter.increment(sealable.size());
+            }
+        }
+        return result;
+    }
+
+    private byte[] sign(int playerId, String currency, long lastTransactionId, byte[] entryHash) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.writeInt(playerId);
+            out.writeUTF(currency);
+            out.writeLong(lastTransactionId);
+            out.write(entryHash);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(sealKey);
+            return mac.doFinal(buffer.toByteArray());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Walks one wallet's entries in id order. Entries written before hashing was introduced are skipped until
+     * the first hashed entry; after it every entry must be hashed. Each entry is recomputed with the hash
+     * encoding version it was written with.
+     */
+    private final class WalletChain {
+
+        private final int playerId;
+        private final String currency;
+        private final Long sealedId;
+        private final byte[] sealedHash;
+        private final boolean full;
+        private boolean started;
+        private boolean sealSeen;
+        private boolean failed;
+        private byte[] expectedPrev;
+        private long lastId;
+
+        WalletChain(int playerId, String currency, ResultSet rs, boolean full, AuditResult result) throws SQLException {
+            this.playerId = playerId;
+            this.currency = currency;
+            long sealed = rs.getLong("sealed_id");
+            this.sealedId = rs.wasNull() ? null : sealed;
+            this.sealedHash = rs.getBytes("sealed_hash");
+            this.full = full;
+            if (sealedId != null) {
+                this.lastId = sealedId;
+                if (!MessageDigest.isEqual(rs.getBytes("signature"), sign(playerId, currency, sealedId, sealedHash))) {
+                    fail(null, FailureReason.SEAL_SIGNATURE, result);
+                }
+                if (!full) {
+                    this.started = true;
+                    this.expectedPrev = sealedHash;
+                }
+            }
+        }
+
+        void append(ResultSet rs, AuditResult result) throws SQLException {
+            long id = rs.getLong("id");
+            byte[] entryHash = rs.getBytes("entry_hash");
+            if (entryHash == null) {
+                if (started) {
+                    fail(id, FailureReason.UNHASHED_ENTRY, result);
+                }
+                return;
+            }
+            started = true;
+            byte[] prevHash = rs.getBytes("prev_hash");
+            if (!Arrays.equals(prevHash, expectedPrev)) {
+                fail(id, FailureReason.PREV_HASH_MISMATCH, result);
+            }
+            byte[] recomputed = LedgerHash.of(rs.getShort("hash_version"), prevHash, playerId, currency,
+                    Transaction.TransactionType.valueOf(rs.getString("type")), rs.getBigDecimal("amount"),
+                    rs.getBigDecimal("balance_before"), rs.getBigDecimal("balance_after"),
+                    rs.getBigDecimal("balance_delta"), rs.getBigDecimal("bonus_delta"),
+                    rs.getTimestamp("timestamp").toLocalDateTime(), rs.getObject("transfer_id", UUID.class),
+                    new LedgerHash.References(rs.getString("game_id"), rs.getString("round_id"),
+                            rs.getString("bonus_code"), rs.getString("counter_currency"),
+                            rs.getString("description")));
+            if (!MessageDigest.isEqual(recomputed, entryHash)) {
+                fail(id, FailureReason.ENTRY_HASH_MISMATCH, result);
+            }
+            if (full && sealedId != null && id == sealedId) {
+                sealSeen = true;
+                if (!Arrays.equals(entryHash, sealedHash)) {
+                    fail(id, FailureReason.SEAL_MISMATCH, result);
+                }
+            }
+            // Continue from the stored hash so a single altered entry is reported once
+            expectedPrev = entryHash;
+            lastId = id;
+            result.entries++;
+        }
+
+        void finish(AuditResult result) {
+            if (full && sealedId != null && !sealSeen) {
+                fail(sealedId, FailureReason.SEAL_MISMATCH, result);
+            }
+        }
+
+        boolean sealable() {
+            return !failed && expectedPrev != null && (sealedId == null || lastId > sealedId);
+        }
+
+        private void fail(Long transactionId, FailureReason reason, AuditResult result) {
+            failed = true;
+            failureCounters.get(reason).increment();
+            result.failureCount++;
+            if (result.failures.size() < properties.getMaxReportedFailures()) {
+                result.failures.add(LedgerAuditFailure.builder()
+                        .playerId(playerId)
+                        .currency(currency)
+                        .transactionId(transactionId)
+                        .reason(reason.name())
+                        .build());
+            }
+        }
+    }
+
+    private final class AuditResult {
+
+        private long wallets;
+        private long entries;
+        private long sealed;
+        private long failureCount;
+        private final List<LedgerAuditFailure> failures = new ArrayList<>();
+
+        AuditResult merge(AuditResult other) {
+            AuditResult merged = new AuditResult();
+            merged.wallets = wallets + other.wallets;
+            merged.entries = entries + other.entries;
+            merged.sealed = sealed + other.sealed;
+            merged.failureCount = failureCount + other.failureCount;
+            merged.failures.addAll(failures);
+            other.failures.stream()
+                    .limit(Math.max(0, properties.getMaxReportedFailures() - merged.failures.size()))
+                    .forEach(merged.failures::add);
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.elavationlab.dto.LedgerCheckpointResponse;
+import org.elavationlab.util.SqlArrays;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Advances {@code wallet_checkpoints} in event-sourced mode, so deriving a balance only has to sum the few ledger
+ * entries written since the last run.
+ * <p>
+ * Wallets are walked in id order in batches, each in one short transaction that locks the batch's wallet rows
+ * with {@code SKIP LOCKED}: a wallet with a write in flight is simply picked up on the next run, and holding the
+ * lock guarantees no entry for the wallet can commit below the new checkpoint. Only wallets with at least
+ * {@code checkpoint-min-entries} entries past their checkpoint, found through the ledger tail index, are locked
+ * and rewritten, so idle wallets are only read: a row lock writes the wallet tuple, and locking every wallet on
+ * each run would cost WAL and dirty pages in proportion to all wallets rather than the busy ones. This bounds the
+ * update churn to one checkpoint row version per busy wallet per run.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "wallet.storage.mode", havingValue = "event-sourced")
+public class LedgerCheckpointer {
+
+    // Counting stops at minEntries, so each candidate costs at most that many probes into the ledger tail index
+    private static final String LOCK_BATCH_SQL =
+            "SELECT w.id FROM wallets w " +
+            "LEFT JOIN wallet_checkpoints c ON c.wallet_id = w.id " +
+            "WHERE w.id > :afterId " +
+            "  AND (SELECT COUNT(*) FROM (SELECT 1 FROM transactions t " +
+            "                             WHERE t.player_id = w.player_id AND t.currency = w.currency " +
+            "                               AND t.id > COALESCE(c.last_transaction_id, 0) " +
+            "                             LIMIT :minEntries) tail) >= :minEntries " +
+            "ORDER BY w.id LIMIT :batchSize FOR UPDATE OF w SKIP LOCKED";
+
+    private static final String LOCK_BATCH_WAIT_SQL =
+            "SELECT id FROM wallets WHERE id > :afterId ORDER BY id LIMIT :batchSize FOR UPDATE";
+
+    private static final String CHECKPOINT_SQL =
+            "INSERT INTO wallet_checkpoints (wallet_id, balance, bonus_balance, last_transaction_id, updated_at) " +
+            "SELECT w.id, COALESCE(c.balance, 0) + d.balance_delta, COALESCE(c.bonus_balance, 0) + d.bonus_delta, " +
+            "       d.last_id, now() " +
+            "FROM wallets w " +
+            "LEFT JOIN wallet_checkpoints c ON c.wallet_id = w.id " +
+            "JOIN LATERAL (SELECT SUM(t.balance_delta) AS balance_delta, SUM(t.bonus_delta) AS bonus_delta, " +
+            "                     MAX(t.id) AS last_id " +
+            "              FROM transactions t " +
+            "              WHERE t.player_id = w.player_id AND t.currency = w.currency " +
+            "                AND t.id > COALESCE(c.last_transaction_id, 0) " +
+            "              HAVING COUNT(*) >= :minEntries) d ON true " +
+            "WHERE w.id = ANY(:ids) " +
+            "ON CONFLICT (wallet_id) DO UPDATE SET balance = EXCLUDED.balance, bonus_balance = EXCLUDED.bonus_balance, " +
+            "    last_transaction_id = EXCLUDED.last_transaction_id, updated_at = EXCLUDED.updated_at";
+
+    private static final String LEDGER_HEAD_SQL =
+            "(SELECT t.entry_hash FROM transactions t " +
+            " WHERE t.player_id = w.player_id AND t.currency = w.currency ORDER BY t.id DESC LIMIT 1)";
+
+    // Update-in-place mode chains new entries from wallets.ledger_hash, so it is brought up to date as well
+    private static final String MATERIALIZE_SQL =
+            "UPDATE wallets w SET balance = c.balance, bonus_balance = c.bonus_balance, " +
+            "    ledger_hash = " + LEDGER_HEAD_SQL + ", version = w.version + 1, updated_at = now() " +
+            "FROM wallet_checkpoints c " +
+            "WHERE c.wallet_id = w.id AND w.id = ANY(:ids) " +
+            "  AND (w.balance <> c.balance OR w.bonus_balance <> c.bonus_balance " +
+            "       OR w.ledger_hash IS DISTINCT FROM " + LEDGER_HEAD_SQL + ")";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int minEntries;
+    private final Counter checkpointCounter;
+    private final Timer checkpointTimer;
+
+    public LedgerCheckpointer(NamedParameterJdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${wallet.storage.checkpoint-batch-size:500}") int batchSize,
+                              @Value("${wallet.storage.checkpoint-min-entries:1}") int minEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.minEntries = Math.max(1, minEntries);
+        this.checkpointCounter = Counter.builder("wallet.ledger.checkpoints.total").register(meterRegistry);
+        this.checkpointTimer = Timer.builder("wallet.ledger.checkpoint.duration").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.storage.checkpoint-interval-ms:10000}")
+    public void checkpoint() {
+        checkpointTimer.record(() -> run("CHECKPOINT", minEntries, false));
+    }
+
+    public LedgerCheckpointResponse checkpointNow() {
+        return checkpointTimer.record(() -> run("CHECKPOINT", 1, false));
+    }
+
+    /**
+     * Copies the derived balances back onto the wallet rows, waiting for in-flight writes instead of skipping
+     * them. Run it with traffic stopped before switching back to update-in-place mode.
+     */
+    public LedgerCheckpointResponse materializeWalletBalances() {
+        return run("MATERIALIZE", 1, true);
+    }
+
+    private LedgerCheckpointResponse run(String action, int threshold, boolean materialize) {
+        long started = System.currentTimeMillis();
+        long afterId = 0;
+        long checkpointed = 0;
+        long materialized = 0;
+
+        while (true) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("afterId", afterId)
+                    .addValue("batchSize", batchSize)
+                    .addValue("minEntries", threshold);
+            BatchResult batch = transactionTemplate.execute(status -> {
+                List<Long> ids = jdbcTemplate.queryForList(materialize ? LOCK_BATCH_WAIT_SQL : LOCK_BATCH_SQL,
+                        params, Long.class);
+                if (ids.isEmpty()) {
+                    return new BatchResult(ids, 0, 0);
+                }
+                params.addValue("ids", SqlArrays.bigints(ids));
+                int written = jdbcTemplate.update(CHECKPOINT_SQL, params);
+                int copied = materialize ? jdbcTemplate.update(MATERIALIZE_SQL, params) : 0;
+                return new BatchResult(ids, written, copied);
+            });
+            if (batch == null || batch.walletIds().isEmpty()) {
+                break;
+            }
+            afterId = batch.walletIds().get(batch.walletIds().size() - 1);
+            checkpointed += batch.checkpointed();
+            materialized += batch.materialized();
+            checkpointCounter.increment(batch.checkpointed());
+        }
+
+        if (checkpointed > 0 || materialize) {
+            log.info("{} advanced {} wallet checkpoints and materialized {} wallets", action, checkpointed, materialized);
+        }
+        return LedgerCheckpointResponse.builder()
+                .action(action)
+                .walletsCheckpointed(checkpointed)
+                .walletsMaterialized(materialized)
+                .durationMillis(System.currentTimeMillis() - started)
+                .build();
+    }
+
+    private record BatchResult(List<Long> walletIds, int checkpointed, int materialized) {
+    }
+}
@@ -0,0 +1,416 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.elavationlab.config.ReconciliationProperties;
+import org.elavationlab.domain.ReconciliationMismatch;
+import org.elavationlab.domain.ReconciliationRun;
+import org.elavationlab.domain.Transaction;
+import org.elavationlab.repository.ReconciliationRunRepository;
+import org.elavationlab.util.SqlArrays;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verifies that every wallet's ledger forms an unbroken chain of {@code balance_before}/{@code balance_after}
+ * values that ends at the wallet's balance.
+ * <p>
+ * The player id space is split in half recursively on a fork-join pool until each range is at most
+ * {@code range-size} wide. Each range is read in one REPEATABLE READ transaction through server-side cursors, so
+ * the balances and the ledger entries it compares come from the same snapshot and memory stays bounded by the
+ * range. Mismatches go to {@code reconciliation_mismatches}; each wallet's verified chain end goes to
+ * {@code reconciliation_state}, which lets an incremental run read only the entries written after it.
+ * <p>
+ * Entries without balances do not move the cash balance when they are BONUS or BONUS_EXPIRED entries and are
+ * skipped. Any other entry without balances (conversions written before transfers carried balances) leaves the
+ * chain unverifiable until the next entry that has them.
+ */
+@Slf4j
+@Service
+public class LedgerReconciler {
+
+    private static final String PLAYER_BOUNDS_SQL = "SELECT MIN(player_id), MAX(player_id) FROM wallets";
+
+    private static final String IN_PLACE_BALANCE = "w.balance";
+
+    private static final String LEDGER_BALANCE =
+            "COALESCE(c.balance, 0) + COALESCE((SELECT SUM(t.balance_delta) FROM transactions t " +
+            "    WHERE t.player_id = w.player_id AND t.currency = w.currency " +
+            "      AND t.id > COALESCE(c.last_transaction_id, 0)), 0)";
+
+    private static final String WALLETS_SQL =
+            "SELECT w.player_id, w.currency, %s AS balance, s.last_transaction_id, s.last_balance_after " +
+            "FROM wallets w " +
+            "LEFT JOIN wallet_checkpoints c ON c.wallet_id = w.id " +
+            "LEFT JOIN reconciliation_state s ON s.player_id = w.player_id AND s.currency = w.currency " +
+            "WHERE w.player_id BETWEEN :fromPlayer AND :toPlayer " +
+            "  AND (NOT :incremental OR s.player_id IS NULL OR w.updated_at >= :changedSince " +
+            "       OR EXISTS (SELECT 1 FROM transactions t WHERE t.player_id = w.player_id " +
+            "                  AND t.currency = w.currency AND t.id > s.last_transaction_id))";
+
+    private static final String ENTRIES_SQL =
+            "SELECT e.id, e.player_id, e.currency, e.type, e.balance_before, e.balance_after " +
+            "FROM wallets w " +
+            "LEFT JOIN reconciliation_state s ON s.player_id = w.player_id AND s.currency = w.currency " +
+            "JOIN LATERAL (SELECT t.id, t.player_id, t.currency, t.type, t.balance_before, t.balance_after " +
+            "              FROM transactions t " +
+            "              WHERE t.player_id = w.player_id AND t.currency = w.currency " +
+            "                AND t.id > CASE WHEN :incremental THEN COALESCE(s.last_transaction_id, 0) ELSE 0 END " +
+            "              ORDER BY t.id) e ON true " +
+            "WHERE w.player_id BETWEEN :fromPlayer AND :toPlayer " +
+            "ORDER BY w.player_id, w.currency, e.id";
+
+    private static final String INSERT_MISMATCH_SQL =
+            "INSERT INTO reconciliation_mismatches (run_id, player_id, currency, kind, transaction_id, expected, actual, detected_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SAVE_STATE_SQL =
+            "INSERT INTO reconciliation_state (player_id, currency, last_transaction_id, last_balance_after, checked_at) " +
+            "SELECT v.player_id, v.currency, v.last_id, v.last_after, now() " +
+            "FROM unnest(:playerIds, :currencies, :lastIds, :lastAfters) AS v(player_id, currency, last_id, last_after) " +
+            "ON CONFLICT (player_id, currency) DO UPDATE SET last_transaction_id = EXCLUDED.last_transaction_id, " +
+            "    last_balance_after = EXCLUDED.last_balance_after, checked_at = EXCLUDED.checked_at";
+
+    private static final String RANGE_PROGRESS_SQL =
+            "UPDATE reconciliation_runs SET ranges_completed = ranges_completed + 1, " +
+            "    wallets_checked = wallets_checked + ?, entries_checked = entries_checked + ?, mismatches = mismatches + ? " +
+            "WHERE id = ?";
+
+    private final ReconciliationRunRepository runRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final NamedParameterJdbcTemplate cursorTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate snapshotTransaction;
+    private final ReconciliationProperties properties;
+    private final String walletsSql;
+    private final ExecutorService runExecutor = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final Counter walletsCounter;
+    private final Counter entriesCounter;
+    private final Map<ReconciliationMismatch.Kind, Counter> mismatchCounters = new EnumMap<>(ReconciliationMismatch.Kind.class);
+    private final Timer rangeTimer;
+    private final AtomicLong lastRunMismatches = new AtomicLong();
+
+    public LedgerReconciler(ReconciliationRunRepository runRepository,
+                            DataSource dataSource,
+                            PlatformTransactionManager transactionManager,
+                            ReconciliationProperties properties,
+                            MeterRegistry meterRegistry,
+                            @Value("${wallet.storage.mode:update-in-place}") String storageMode) {
+        this.runRepository = runRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        JdbcTemplate cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        cursorJdbcTemplate.setFetchSize(properties.getFetchSize());
+        this.cursorTemplate = new NamedParameterJdbcTemplate(cursorJdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+        this.properties = properties;
+        // In event-sourced mode the wallet row is not updated; compare against the derived balance instead
+        this.walletsSql = String.format(WALLETS_SQL,
+                "event-sourced".equals(storageMode) ? LEDGER_BALANCE : IN_PLACE_BALANCE);
+
+        this.walletsCounter = Counter.builder("wallet.reconciliation.wallets.total").register(meterRegistry);
+        this.entriesCounter = Counter.builder("wallet.reconciliation.entries.total").register(meterRegistry);
+        for (ReconciliationMismatch.Kind kind : ReconciliationMismatch.Kind.values()) {
+            mismatchCounters.put(kind, Counter.builder("wallet.reconciliation.mismatches.total")
+                    .tag("kind", kind.name().toLowerCase()).register(meterRegistry));
+        }
+        this.rangeTimer = Timer.builder("wallet.reconciliation.range.duration").register(meterRegistry);
+        Gauge.builder("wallet.reconciliation.last.run.mismatches", lastRunMismatches, AtomicLong::get).register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${wallet.reconciliation.cron:0 30 2 * * *}")
+    public void scheduledRun() {
+        if (properties.isScheduleEnabled()) {
+            start(ReconciliationRun.Mode.INCREMENTAL);
+        }
+    }
+
+    /**
+     * Starts a run in the background. Returns empty if another run is still in progress on this node.
+     */
+    public Optional<ReconciliationRun> start(ReconciliationRun.Mode mode) {
+        if (!running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        try {
+            LocalDateTime changedSince = mode == ReconciliationRun.Mode.INCREMENTAL
+                    ? runRepository.findFirstByStatusOrderByStartedAtDesc(ReconciliationRun.Status.COMPLETED)
+                            .map(ReconciliationRun::getStartedAt)
+                            .orElse(null)
+                    : null;
+            ReconciliationRun run = runRepository.save(ReconciliationRun.builder()
+                    .mode(mode)
+                    .status(ReconciliationRun.Status.RUNNING)
+                    .startedAt(LocalDateTime.now())
+                    .changedSince(changedSince)
+                    .build());
+            runExecutor.submit(() -> execute(run));
+            return Optional.of(run);
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    public Optional<ReconciliationRun> getRun(Long runId) {
+        return runRepository.findById(runId);
+    }
+
+    public Optional<ReconciliationRun> getLatestRun() {
+        return runRepository.findFirstByOrderByStartedAtDesc();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        runExecutor.shutdownNow();
+    }
+
+    void execute(ReconciliationRun run) {
+        ForkJoinPool pool = new ForkJoinPool(properties.getParallelism());
+        try {
+            long[] bounds = jdbcTemplate.queryForObject(PLAYER_BOUNDS_SQL, (rs, i) -> {
+                long min = rs.getLong(1);
+                return rs.wasNull() ? null : new long[]{min, rs.getLong(2)};
+            });
+            if (bounds != null) {
+                run.setRangesTotal(countRanges(bounds[0], bounds[1]));
+                runRepository.save(run);
+                pool.invoke(new RangeTask(run, bounds[0], bounds[1]));
+            }
+            finish(run, ReconciliationRun.Status.COMPLETED, null);
+        } catch (Exception e) {
+            log.error("Reconciliation run {} failed", run.getId(), e);
+            finish(run, ReconciliationRun.Status.FAILED, e.getMessage());
+        } finally {
+            pool.shutdownNow();
+            running.set(false);
+        }
+    }
+
+    private void finish(ReconciliationRun run, ReconciliationRun.Status status, String error) {
+        ReconciliationRun stored = runRepository.findById(run.getId()).orElse(run);
+        stored.setStatus(status);
+        stored.setError(error);
+        stored.setFinishedAt(LocalDateTime.now());
+        runRepository.save(stored);
+        lastRunMismatches.set(stored.getMismatches());
+        log.info("Reconciliation run {} ({}) {}: {} wallets, {} entries, {} mismatches", stored.getId(), stored.getMode(),
+                status, stored.getWalletsChecked(), stored.getEntriesChecked(), stored.getMismatches());
+    }
+
+    private int countRanges(long fromPlayer, long toPlayer) {
+        if (toPlayer - fromPlayer < properties.getRangeSize()) {
+            return 1;
+        }
+        long mid = fromPlayer + (toPlayer - fromPlayer) / 2;
+        return countRanges(fromPlayer, mid) + countRanges(mid + 1, toPlayer);
+    }
+
+    private void reconcileRange(ReconciliationRun run, long fromPlayer, long toPlayer) {
+        boolean incremental = run.getMode() == ReconciliationRun.Mode.INCREMENTAL;
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("fromPlayer", fromPlayer)
+                .addValue("toPlayer", toPlayer)
+                .addValue("incremental", incremental)
+                .addValue("changedSince", run.getChangedSince() != null ? Timestamp.valueOf(run.getChangedSince()) : null);
+        RangeResult result = new RangeResult(run.getId());
+
+        snapshotTransaction.executeWithoutResult(status -> {
+            cursorTemplate.query(walletsSql, params, rs -> {
+                WalletKey key = new WalletKey(rs.getInt("player_id"), rs.getString("currency"));
+                long lastId = rs.getLong("last_transaction_id");
+                boolean hasState = !rs.wasNull();
+                BigDecimal anchor = incremental && hasState ? rs.getBigDecimal("last_balance_after") : BigDecimal.ZERO;
+                result.chains.put(key, new WalletChain(key, rs.getBigDecimal("balance"),
+                        incremental && hasState ? lastId : 0, anchor));
+            });
+            cursorTemplate.query(ENTRIES_SQL, params, rs -> {
+                WalletChain chain = result.chains.get(new WalletKey(rs.getInt("player_id"), rs.getString("currency")));
+                if (chain != null) {
+                    chain.append(rs.getLong("id"), Transaction.TransactionType.valueOf(rs.getString("type")),
+                            rs.getBigDecimal("balance_before"), rs.getBigDecimal("balance_after"), result);
+                }
+            });
+        });
+        result.chains.values().forEach(chain -> chain.finish(result));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            writeMismatches(result);
+            saveState(result);
+            jdbcTemplate.update(RANGE_PROGRESS_SQL, result.chains.size(), result.entries, result.mismatchCount, run.getId());
+        });
+        walletsCounter.increment(result.chains.size());
+        entriesCounter.increment(result.entries);
+    }
+
+    private void writeMismatches(RangeResult result) {
+        if (result.mismatches.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_MISMATCH_SQL, result.mismatches, result.mismatches.size(), (ps, mismatch) -> {
+            ps.setLong(1, mismatch.getRunId());
+            ps.setInt(2, mismatch.getPlayerId());
+            ps.setString(3, mismatch.getCurrency());
+            ps.setString(4, mismatch.getKind().name());
+            ps.setObject(5, mismatch.getTransactionId());
+            ps.setBigDecimal(6, mismatch.getExpected());
+            ps.setBigDecimal(7, mismatch.getActual());
+            ps.setTimestamp(8, Timestamp.valueOf(mismatch.getDetectedAt()));
+        });
+    }
+
+    private void saveState(RangeResult result) {
+        List<Integer> playerIds = new ArrayList<>();
+        List<String> currencies = new ArrayList<>();
+        List<Long> lastIds = new ArrayList<>();
+        List<BigDecimal> lastAfters = new ArrayList<>();
+        for (WalletChain chain : result.chains.values()) {
+            playerIds.add(chain.key.playerId());
+            currencies.add(chain.key.currency());
+            lastIds.add(chain.lastTransactionId);
+            lastAfters.add(chain.anchor);
+        }
+        if (playerIds.isEmpty()) {
+            return;
+        }
+        namedJdbcTemplate.update(SAVE_STATE_SQL, new MapSqlParameterSource()
+                .addValue("playerIds", SqlArrays.integers(playerIds))
+                .addValue("currencies", SqlArrays.varchars(currencies))
+                .addValue("lastIds", SqlArrays.bigints(lastIds))
+                .addValue("lastAfters", SqlArrays.numerics(lastAfters)));
+    }
+
+    private final class RangeTask extends RecursiveAction {
+
+        private final ReconciliationRun run;
+        private final long fromPlayer;
+        private final long toPlayer;
+
+        RangeTask(ReconciliationRun run, long fromPlayer, long toPlayer) {
+            this.run = run;
+            this.fromPlayer = fromPlayer;
+            this.toPlayer = toPlayer;
+        }
+
+        @Override
+        protected void compute() {
+            if (toPlayer - fromPlayer < properties.getRangeSize()) {
+                rangeTimer.record(() -> reconcileRange(run, fromPlayer, toPlayer));
+                return;
+            }
+            long mid = fromPlayer + (toPlayer - fromPlayer) / 2;
+            invokeAll(new RangeTask(run, fromPlayer, mid), new RangeTask(run, mid + 1, toPlayer));
+        }
+    }
+
+    /**
+     * Collects one range's findings. Only the first {@code max-mismatches-per-range} are stored.
+     */
+    private final class RangeResult {
+
+        private final long runId;
+        private final Map<WalletKey, WalletChain> chains = new LinkedHashMap<>();
+        private final List<ReconciliationMismatch> mismatches = new ArrayList<>();
+        private long mismatchCount;
+        private long entries;
+
+        RangeResult(long runId) {
+            this.runId = runId;
+        }
+
+        void report(WalletKey key, ReconciliationMismatch.Kind kind, Long transactionId, BigDecimal expected, BigDecimal actual) {
+            mismatchCount++;
+            mismatchCounters.get(kind).increment();
+            if (mismatches.size() < properties.getMaxMismatchesPerRange()) {
+                mismatches.add(ReconciliationMismatch.builder()
+                        .runId(runId)
+                        .playerId(key.playerId())
+                        .currency(key.currency())
+                        .kind(kind)
+                        .transactionId(transactionId)
+                        .expected(expected)
+                        .actual(actual)
+                        .detectedAt(LocalDateTime.now())
+                        .build());
+            }
+        }
+    }
+
+    /**
+     * Walks one wallet's entries in id order. {@code anchor} is the balance the next entry must start from, or
+     * null while the chain cannot be verified.
+     */
+    private static final class WalletChain {
+
+        private final WalletKey key;
+        private final BigDecimal balance;
+        private long lastTransactionId;
+        private BigDecimal anchor;
+
+        WalletChain(WalletKey key, BigDecimal balance, long lastTransactionId, BigDecimal anchor) {
+            this.key = key;
+            this.balance = balance;
+            this.lastTransactionId = lastTransactionId;
+            this.anchor = anchor;
+        }
+
+        void append(long transactionId, Transaction.TransactionType type, BigDecimal before, BigDecimal after,
+                    RangeResult result) {
+            result.entries++;
+            lastTransactionId = transactionId;
+            if (before == null || after == null) {
+                if (type != Transaction.TransactionType.BONUS && type != Transaction.TransactionType.BONUS_EXPIRED) {
+                    anchor = null;
+                }
+                return;
+            }
+            if (anchor != null && before.compareTo(anchor) != 0) {
+                result.report(key, ReconciliationMismatch.Kind.CHAIN_BREAK, transactionId, anchor, before);
+            }
+            anchor = after;
+        }
+
+        void finish(RangeResult result) {
+            if (anchor != null && balance.compareTo(anchor) != 0) {
+                result.report(key, ReconciliationMismatch.Kind.BALANCE_MISMATCH, null, anchor, balance);
+            }
+        }
+    }
+
+    private record WalletKey(int playerId, String currency) {
+    }
+}
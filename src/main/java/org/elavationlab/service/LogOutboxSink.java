@@ -0,0 +1,69 @@
+package org.elavationlab.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.elavationlab.config.OutboxProperties;
+import org.elavationlab.dto.WalletChangeEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Local sink that appends each event as a JSON line to {@code wallet.outbox.log-file}, or logs it when no file
+ * is configured. Used until downstream consumers are connected.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "wallet.outbox.sink", havingValue = "log", matchIfMissing = true)
+public class LogOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final BufferedWriter writer;
+
+    public LogOutboxSink(ObjectMapper objectMapper, OutboxProperties properties) throws IOException {
+        this.objectMapper = objectMapper;
+        this.writer = properties.getLogFile() == null || properties.getLogFile().isBlank() ? null
+                : Files.newBufferedWriter(Path.of(properties.getLogFile()), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void deliver(List<WalletChangeEvent> events) {
+        try {
+            if (writer == null) {
+                for (WalletChangeEvent event : events) {
+                    log.info("Wallet change {}", objectMapper.writeValueAsString(event));
+                }
+                return;
+            }
+            synchronized (writer) {
+                for (WalletChangeEvent event : events) {
+                    writer.write(objectMapper.writeValueAsString(event));
+                    writer.newLine();
+                }
+                writer.flush();
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize wallet change event", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.elavationlab.config.RetryProperties;
+import org.elavationlab.exception.WalletConflictException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs wallet operations that lost an optimistic-locking race.
+ * <p>
+ * The operation must open its own transaction, so every attempt sees fresh state. Services do not call it
+ * directly: {@link RetryOnConflict} applies it around a transactional method and {@link RetryingTransactionTemplate}
+ * around a programmatic transaction. Retries use exponential backoff with full jitter and draw from a shared token
+ * budget that only refills as first attempts come in, so a hot wallet cannot turn contention into a retry
+ * storm: once the budget is spent, conflicts fail fast with {@link WalletConflictException}.
+ */
+@Component
+public class OptimisticRetryExecutor {
+
+    private static final long TOKEN_SCALE = 1000;
+
+    private final RetryProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong budget;
+    private final long tokenPerCall;
+    private final long maxBudget;
+    private final Map<String, OperationMetrics> metrics = new ConcurrentHashMap<>();
+
+    public OptimisticRetryExecutor(RetryProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.tokenPerCall = Math.round(properties.getBudgetRatio() * TOKEN_SCALE);
+        this.maxBudget = properties.getBudgetMaxTokens() * TOKEN_SCALE;
+        this.budget = new AtomicLong(maxBudget);
+    }
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        OperationMetrics operationMetrics = metrics.computeIfAbsent(operation, this::createMetrics);
+        depositToken();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (ConcurrencyFailureException e) {
+                operationMetrics.conflicts.increment();
+                if (attempt >= properties.getMaxAttempts() || !withdrawToken()) {
+                    operationMetrics.giveUps.increment();
+                    throw new WalletConflictException("Concurrent update on wallet, please retry", e);
+                }
+                operationMetrics.retries.increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    public void execute(String operation, Runnable action) {
+        execute(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private void depositToken() {
+        budget.getAndUpdate(current -> Math.min(maxBudget, current + tokenPerCall));
+    }
+
+    private boolean withdrawToken() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < TOKEN_SCALE) {
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - TOKEN_SCALE));
+        return true;
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(properties.getMaxBackoffMillis(), properties.getBaseBackoffMillis() << (attempt - 1));
+        long sleepMillis = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        try {
+            Thread.sleep(sleepMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WalletConflictException("Interrupted while retrying", e);
+        }
+    }
+
+    private OperationMetrics createMetrics(String operation) {
+        return new OperationMetrics(
+                Counter.builder("wallet.optimistic.conflicts.total").tag("operation", operation).register(meterRegistry),
+                Counter.builder("wallet.optimistic.retries.total").tag("operation", operation).register(meterRegistry),
+                Counter.builder("wallet.optimistic.giveups.total").tag("operation", operation).register(meterRegistry));
+    }
+
+    private record OperationMetrics(Counter conflicts, Counter retries, Counter giveUps) {
+    }
+}
@@ -0,0 +1,178 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.elavationlab.admission.Workload;
+import org.elavationlab.admission.WorkloadContext;
+import org.elavationlab.config.OutboxProperties;
+import org.elavationlab.domain.Transaction;
+import org.elavationlab.dto.WalletChangeEvent;
+import org.elavationlab.util.SqlArrays;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Projects outbox events into the player summary, delivers them to the {@link OutboxSink} and deletes them.
+ * <p>
+ * Each partition is drained by one relay at a time across all nodes: in one transaction that holds the
+ * partition's advisory lock, the next unprojected events are marked projected and applied to the
+ * {@link PlayerSummaryService}, then a batch of projected events is read in id order, delivered and deleted.
+ * Other relays skip a locked partition. Since a player's events always share a partition, they are delivered in
+ * order. A failed delivery leaves the batch in the outbox, so it is delivered again on the next poll: delivery is
+ * at least once. The projection is committed regardless, so the read model does not wait for the sink.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "wallet.outbox.relay-enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    /** First key of the partition advisory locks, so they cannot collide with other advisory locks. */
+    static final int LOCK_NAMESPACE = 0x0B0C;
+
+    private static final String LOCK_SQL = "SELECT pg_try_advisory_xact_lock(:namespace, :partition)";
+
+    private static final String EVENT_COLUMNS =
+            "id, player_id, currency, type, amount, balance, bonus_balance, game_id, round_id, bonus_code, " +
+            "transfer_id, occurred_at";
+
+    private static final String PROJECT_SQL =
+            "UPDATE wallet_outbox SET projected = true WHERE id IN (" +
+            "    SELECT id FROM wallet_outbox WHERE partition = :partition AND NOT projected ORDER BY id LIMIT :limit) " +
+            "RETURNING " + EVENT_COLUMNS;
+
+    private static final String CLAIM_SQL =
+            "SELECT " + EVENT_COLUMNS + " FROM wallet_outbox WHERE partition = :partition AND projected " +
+            "ORDER BY id LIMIT :limit";
+
+    private static final String DELETE_SQL = "DELETE FROM wallet_outbox WHERE id = ANY(:ids)";
+
+    private static final RowMapper<WalletChangeEvent> EVENT_MAPPER = (rs, rowNum) -> WalletChangeEvent.builder()
+            .id(rs.getLong("id"))
+            .playerId(rs.getInt("player_id"))
+            .currency(rs.getString("currency"))
+            .type(Transaction.TransactionType.valueOf(rs.getString("type")))
+            .amount(rs.getBigDecimal("amount"))
+            .balance(rs.getBigDecimal("balance"))
+            .bonusBalance(rs.getBigDecimal("bonus_balance"))
+            .gameId(rs.getString("game_id"))
+            .roundId(rs.getString("round_id"))
+            .bonusCode(rs.getString("bonus_code"))
+            .transferId(rs.getObject("transfer_id", UUID.class))
+            .occurredAt(rs.getTimestamp("occurred_at").toLocalDateTime())
+            .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxSink sink;
+    private final PlayerSummaryService playerSummaryService;
+    private final OutboxProperties properties;
+    private final ExecutorService relayPool;
+    private final Counter deliveredCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+
+    public OutboxRelay(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                       OutboxSink sink, PlayerSummaryService playerSummaryService, OutboxProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sink = sink;
+        this.playerSummaryService = playerSummaryService;
+        this.properties = properties;
+        this.relayPool = Executors.newFixedThreadPool(properties.getRelayThreads());
+        this.deliveredCounter = Counter.builder("wallet.outbox.events.total").tag("outcome", "delivered").register(meterRegistry);
+        this.failedCounter = Counter.builder("wallet.outbox.events.total").tag("outcome", "failed").register(meterRegistry);
+        this.batchTimer = Timer.builder("wallet.outbox.batch.duration").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.outbox.poll-interval-ms:200}")
+    public void relay() {
+        List<Future<?>> running = new ArrayList<>(properties.getPartitions());
+        for (int partition = 0; partition < properties.getPartitions(); partition++) {
+            int current = partition;
+            running.add(relayPool.submit(() ->
+                    WorkloadContext.runAs(Workload.BACKGROUND, () -> drainPartition(current))));
+        }
+        for (Future<?> future : running) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                log.error("Outbox relay failed", e.getCause());
+            }
+        }
+    }
+
+    private void drainPartition(int partition) {
+        while (!Thread.currentThread().isInterrupted()) {
+            int relayed;
+            try {
+                relayed = relayNextBatch(partition);
+            } catch (RuntimeException e) {
+                log.warn("Relaying outbox partition {} failed: {}", partition, e.getMessage());
+                return;
+            }
+            // A short batch drained the partition; a failed one (-1) waits for the next poll
+            if (relayed < properties.getBatchSize()) {
+                return;
+            }
+        }
+    }
+
+    int relayNextBatch(int partition) {
+        Integer relayed = transactionTemplate.execute(status -> {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("namespace", LOCK_NAMESPACE)
+                    .addValue("partition", partition)
+                    .addValue("limit", properties.getBatchSize());
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(LOCK_SQL, params, Boolean.class))) {
+                return 0;
+            }
+            List<WalletChangeEvent> projected = new ArrayList<>(jdbcTemplate.query(PROJECT_SQL, params, EVENT_MAPPER));
+            projected.sort(Comparator.comparing(WalletChangeEvent::getId));
+            playerSummaryService.apply(projected);
+
+            List<WalletChangeEvent> events = jdbcTemplate.query(CLAIM_SQL, params, EVENT_MAPPER);
+            if (events.isEmpty()) {
+                return 0;
+            }
+            try {
+                batchTimer.record(() -> sink.deliver(events));
+            } catch (RuntimeException e) {
+                failedCounter.increment(events.size());
+                log.warn("Delivering outbox partition {} failed: {}", partition, e.getMessage());
+                return -1;
+            }
+            jdbcTemplate.update(DELETE_SQL, new MapSqlParameterSource("ids",
+                    SqlArrays.bigints(events.stream().map(WalletChangeEvent::getId).toList())));
+            deliveredCounter.increment(events.size());
+            return events.size();
+        });
+        return relayed != null ? relayed : 0;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        relayPool.shutdownNow();
+    }
+}
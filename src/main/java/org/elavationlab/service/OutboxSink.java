@@ -0,0 +1,16 @@
+package org.elavationlab.service;
+
+import org.elavationlab.dto.WalletChangeEvent;
+
+import java.util.List;
+
+/**
+ * Where the {@link OutboxRelay} delivers wallet change events, selected with {@code wallet.outbox.sink}.
+ * <p>
+ * A batch holds the events of one relay partition in id order. It counts as delivered when {@link #deliver}
+ * returns; on an exception the whole batch is delivered again later, so consumers must tolerate duplicates.
+ */
+public interface OutboxSink {
+
+    void deliver(List<WalletChangeEvent> events);
+}
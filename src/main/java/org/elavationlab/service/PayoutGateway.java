@@ -0,0 +1,38 @@
+package org.elavationlab.service;
+
+import org.elavationlab.domain.PendingWithdrawal;
+
+/**
+ * Sends approved withdrawals to the payment provider.
+ * <p>
+ * Implementations must be idempotent on the withdrawal id: a claim whose lease expires can be retried by
+ * another node while the first call is still in flight.
+ */
+public interface PayoutGateway {
+
+    PayoutResult payout(PendingWithdrawal withdrawal);
+
+    enum Outcome {
+        /** Paid out; the withdrawal is completed. */
+        SUCCESS,
+        /** Temporary failure; the withdrawal goes back to the queue until attempts run out. */
+        RETRY,
+        /** Permanent failure; the withdrawal needs manual handling. */
+        FAILED
+    }
+
+    record PayoutResult(Outcome outcome, String message) {
+
+        public static PayoutResult success() {
+            return new PayoutResult(Outcome.SUCCESS, null);
+        }
+
+        public static PayoutResult retry(String message) {
+            return new PayoutResult(Outcome.RETRY, message);
+        }
+
+        public static PayoutResult failed(String message) {
+            return new PayoutResult(Outcome.FAILED, message);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.elavationlab.analytics.HyperLogLog;
+import org.elavationlab.domain.PlayerActivitySketch;
+import org.elavationlab.domain.Transaction;
+import org.elavationlab.repository.PlayerActivitySketchRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks unique active players per day, currency and transaction type with HyperLogLog sketches.
+ * <p>
+ * Each node accumulates sketches in memory and periodically merges them into
+ * {@code player_activity_sketches}. Because sketch merging is idempotent, a failed flush simply puts the
+ * sketch back to be merged again later, and any number of nodes can flush into the same rows.
+ */
+@Slf4j
+@Service
+public class PlayerActivityService {
+
+    private final PlayerActivitySketchRepository sketchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int precision;
+    private final Map<SketchKey, HyperLogLog> localSketches = new ConcurrentHashMap<>();
+    private final Counter flushCounter;
+    private final Counter flushFailureCounter;
+
+    public PlayerActivityService(PlayerActivitySketchRepository sketchRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${wallet.analytics.sketch-precision:14}") int precision) {
+        this.sketchRepository = sketchRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.precision = precision;
+        this.flushCounter = Counter.builder("wallet.activity.sketch.flushes.total").tag("outcome", "success").register(meterRegistry);
+        this.flushFailureCounter = Counter.builder("wallet.activity.sketch.flushes.total").tag("outcome", "failure").register(meterRegistry);
+    }
+
+    /**
+     * Counts a player as active once the surrounding transaction commits, so rolled back and retried attempts
+     * are not counted.
+     */
+    public void record(Integer playerId, String currency, Transaction.TransactionType type, LocalDateTime timestamp) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(playerId, currency, type, timestamp);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(playerId, currency, type, timestamp);
+            }
+        });
+    }
+
+    private void add(Integer playerId, String currency, Transaction.TransactionType type, LocalDateTime timestamp) {
+        SketchKey key = new SketchKey(timestamp.toLocalDate(), currency, type);
+        // compute() serializes writers per key, so an add can never race with the flush removing the sketch
+        localSketches.compute(key, (k, sketch) -> {
+            HyperLogLog target = sketch != null ? sketch : new HyperLogLog(precision);
+            target.offer(playerId);
+            return target;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.analytics.flush-interval-ms:60000}")
+    public void flush() {
+        for (SketchKey key : new ArrayList<>(localSketches.keySet())) {
+            HyperLogLog sketch = localSketches.remove(key);
+            if (sketch == null) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> mergeIntoStore(key, sketch));
+                flushCounter.increment();
+            } catch (DataIntegrityViolationException e) {
+                // Another node created the row concurrently; merge again on the next run
+                requeue(key, sketch);
+            } catch (RuntimeException e) {
+                flushFailureCounter.increment();
+                log.warn("Failed to flush activity sketch {}: {}", key, e.getMessage());
+                requeue(key, sketch);
+            }
+        }
+    }
+
+    /**
+     * Estimates distinct players active between {@code from} and {@code to} (inclusive).
+     * A null currency or type means all currencies or all types.
+     */
+    public long estimateUniquePlayers(LocalDate from, LocalDate to, String currency, Transaction.TransactionType type) {
+        HyperLogLog union = new HyperLogLog(precision);
+        for (PlayerActivitySketch stored : sketchRepository.findByActivityDateBetween(from, to)) {
+            if (matches(stored.getCurrency(), stored.getTransactionType(), currency, type)) {
+                union.merge(HyperLogLog.fromBytes(stored.getRegisters()));
+            }
+        }
+        for (SketchKey key : localSketches.keySet()) {
+            if (!key.date().isBefore(from) && !key.date().isAfter(to) && matches(key.currency(), key.type(), currency, type)) {
+                // Read the unflushed sketch under the same per-key lock that record() writes with
+                localSketches.computeIfPresent(key, (k, sketch) -> {
+                    union.merge(sketch);
+                    return sketch;
+                });
+            }
+        }
+        return union.estimate();
+    }
+
+    /**
+     * Estimates distinct players per day and currency across all transaction types, loading the stored
+     * sketches for the whole range in one query.
+     */
+    public Map<LocalDate, Map<String, Long>> estimateDailyUniquePlayers(LocalDate from, LocalDate to) {
+        Map<LocalDate, Map<String, HyperLogLog>> unions = new HashMap<>();
+        for (PlayerActivitySketch stored : sketchRepository.findByActivityDateBetween(from, to)) {
+            unions.computeIfAbsent(stored.getActivityDate(), d -> new HashMap<>())
+                    .computeIfAbsent(stored.getCurrency(), c -> new HyperLogLog(precision))
+                    .merge(HyperLogLog.fromBytes(stored.getRegisters()));
+        }
+        for (SketchKey key : localSketches.keySet()) {
+            if (!key.date().isBefore(from) && !key.date().isAfter(to)) {
+                HyperLogLog union = unions.computeIfAbsent(key.date(), d -> new HashMap<>())
+                        .computeIfAbsent(key.currency(), c -> new HyperLogLog(precision));
+                localSketches.computeIfPresent(key, (k, sketch) -> {
+                    union.merge(sketch);
+                    return sketch;
+                });
+            }
+        }
+
+        Map<LocalDate, Map<String, Long>> estimates = new HashMap<>();
+        unions.forEach((date, byCurrency) -> byCurrency.forEach((currency, union) ->
+                estimates.computeIfAbsent(date, d -> new HashMap<>()).put(currency, union.estimate())));
+        return estimates;
+    }
+
+    /**
+     * The first day a sketch was stored for, which is when sketching started. Activity earlier that day, and on
+     * any day before, is not in the sketches.
+     */
+    public Optional<LocalDate> firstSketchedDate() {
+        return sketchRepository.findFirstActivityDate();
+    }
+
+    public double relativeStandardError() {
+        return HyperLogLog.relativeStandardError(precision);
+    }
+
+    private void mergeIntoStore(SketchKey key, HyperLogLog sketch) {
+        PlayerActivitySketch stored = sketchRepository.findForUpdate(key.date(), key.currency(), key.type())
+                .orElseGet(() -> PlayerActivitySketch.builder()
+                        .activityDate(key.date())
+                        .currency(key.currency())
+                        .transactionType(key.type())
+                        .build());
+
+        HyperLogLog merged = sketch.copy();
+        if (stored.getRegisters() != null) {
+            merged.merge(HyperLogLog.fromBytes(stored.getRegisters()));
+        }
+        stored.setRegisters(merged.toBytes());
+        sketchRepository.saveAndFlush(stored);
+    }
+
+    private void requeue(SketchKey key, HyperLogLog sketch) {
+        localSketches.merge(key, sketch, (current, failed) -> {
+            current.merge(failed);
+            return current;
+        });
+    }
+
+    private boolean matches(String sketchCurrency, Transaction.TransactionType sketchType,
+                            String currency, Transaction.TransactionType type) {
+        return (currency == null || currency.equals(sketchCurrency)) && (type == null || type == sketchType);
+    }
+
+    private record SketchKey(LocalDate date, String currency, Transaction.TransactionType type) {
+    }
+}
@@ -0,0 +1,213 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.elavationlab.config.OutboxProperties;
+import org.elavationlab.config.PlayerSummaryProperties;
+import org.elavationlab.util.ExchangeRates;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Recomputes {@code player_summary} from the wallets and the ledger, for the initial load and after a change to
+ * how the summary is derived.
+ * <p>
+ * Outbox partitions are rebuilt in parallel, each in player id ranges of {@code rebuild-range-size}. A range is
+ * rebuilt by one statement in a transaction that holds the partition's relay lock, so the relay cannot project
+ * the same players meanwhile. The statement marks the partition's pending events in the range projected in the
+ * same snapshot it aggregates, so changes already counted are not applied again and changes committed after it
+ * are applied by the relay on top.
+ */
+@Slf4j
+@Service
+public class PlayerSummaryRebuilder {
+
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(:namespace, :partition)";
+
+    private static final String PLAYER_BOUNDS_SQL = "SELECT MIN(player_id), MAX(player_id) FROM wallets";
+
+    private static final String IN_PLACE_BALANCES =
+            "w.balance AS balance, w.bonus_balance AS bonus_balance FROM wallets w ";
+
+    private static final String LEDGER_BALANCES =
+            "COALESCE(c.balance, 0) + COALESCE(d.balance_delta, 0) AS balance, " +
+            "COALESCE(c.bonus_balance, 0) + COALESCE(d.bonus_delta, 0) AS bonus_balance " +
+            "FROM wallets w " +
+            "LEFT JOIN wallet_checkpoints c ON c.wallet_id = w.id " +
+            "LEFT JOIN LATERAL (SELECT SUM(t.balance_delta) AS balance_delta, SUM(t.bonus_delta) AS bonus_delta " +
+            "                   FROM transactions t " +
+            "                   WHERE t.player_id = w.player_id AND t.currency = w.currency " +
+            "                     AND t.id > COALESCE(c.last_transaction_id, 0)) d ON true ";
+
+    private static final String IN_PARTITION = "mod(mod(%s, :partitions) + :partitions, :partitions) = :partition";
+
+    private static final String REBUILD_SQL =
+            "WITH rates (currency, per_usd) AS (VALUES %s), " +
+            "wallet_balances AS (" +
+            "    SELECT w.player_id, w.currency, %s" +
+            "    WHERE w.player_id BETWEEN :fromPlayer AND :toPlayer AND " + IN_PARTITION.formatted("w.player_id") + "), " +
+            "balances AS (" +
+            "    SELECT player_id, jsonb_object_agg(currency, " +
+            "               jsonb_build_object('balance', balance, 'bonusBalance', bonus_balance)) AS balances " +
+            "    FROM wallet_balances GROUP BY player_id), " +
+            "activity AS (" +
+            "    SELECT t.player_id, " +
+            "        COALESCE(SUM(t.usd) FILTER (WHERE t.type = 'DEPOSIT'), 0) AS deposits, " +
+            "        COALESCE(SUM(t.usd) FILTER (WHERE t.type = 'WITHDRAWAL'), 0) " +
+            "            - COALESCE(SUM(t.usd) FILTER (WHERE t.type = 'REFUND'), 0) AS withdrawals, " +
+            "        COALESCE(SUM(t.usd) FILTER (WHERE t.type = 'BET'), 0) AS bets, " +
+            "        COALESCE(SUM(t.usd) FILTER (WHERE t.type = 'WIN'), 0) AS wins, " +
+            "        count(*) FILTER (WHERE t.type = 'DEPOSIT') AS deposit_count, " +
+            "        count(*) FILTER (WHERE t.type = 'BET') AS bet_count, " +
+            "        count(*) FILTER (WHERE t.type = 'WIN') AS win_count, " +
+            "        MIN(t.timestamp) AS first_at, MAX(t.timestamp) AS last_at " +
+            "    FROM (SELECT t.player_id, t.type, t.timestamp, round(t.amount / COALESCE(r.per_usd, 1), 2) AS usd " +
+            "          FROM transactions t LEFT JOIN rates r ON r.currency = t.currency " +
+            "          WHERE t.player_id BETWEEN :fromPlayer AND :toPlayer AND " + IN_PARTITION.formatted("t.player_id") + ") t " +
+            "    GROUP BY t.player_id), " +
+            "marked AS (" +
+            "    UPDATE wallet_outbox SET projected = true " +
+            "    WHERE partition = :partition AND NOT projected AND player_id BETWEEN :fromPlayer AND :toPlayer) " +
+            "INSERT INTO player_summary (player_id, balances, lifetime_deposits_usd, lifetime_withdrawals_usd, " +
+            "    lifetime_bets_usd, lifetime_wins_usd, deposit_count, bet_count, win_count, " +
+            "    first_activity_at, last_activity_at, updated_at) " +
+            "SELECT b.player_id, b.balances, COALESCE(a.deposits, 0), COALESCE(a.withdrawals, 0), COALESCE(a.bets, 0), " +
+            "    COALESCE(a.wins, 0), COALESCE(a.deposit_count, 0), COALESCE(a.bet_count, 0), COALESCE(a.win_count, 0), " +
+            "    a.first_at, a.last_at, now() " +
+            "FROM balances b LEFT JOIN activity a ON a.player_id = b.player_id " +
+            "ON CONFLICT (player_id) DO UPDATE SET " +
+            "balances = EXCLUDED.balances, " +
+            "lifetime_deposits_usd = EXCLUDED.lifetime_deposits_usd, " +
+            "lifetime_withdrawals_usd = EXCLUDED.lifetime_withdrawals_usd, " +
+            "lifetime_bets_usd = EXCLUDED.lifetime_bets_usd, " +
+            "lifetime_wins_usd = EXCLUDED.lifetime_wins_usd, " +
+            "deposit_count = EXCLUDED.deposit_count, " +
+            "bet_count = EXCLUDED.bet_count, " +
+            "win_count = EXCLUDED.win_count, " +
+            "first_activity_at = EXCLUDED.first_activity_at, " +
+            "last_activity_at = EXCLUDED.last_activity_at, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PlayerSummaryProperties properties;
+    private final int partitions;
+    private final String rebuildSql;
+    private final ExecutorService runExecutor = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Timer rangeTimer;
+
+    public PlayerSummaryRebuilder(NamedParameterJdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  PlayerSummaryProperties properties,
+                                  OutboxProperties outboxProperties,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${wallet.storage.mode:update-in-place}") String storageMode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.partitions = outboxProperties.getPartitions();
+        String rates = ExchangeRates.PER_USD.entrySet().stream()
+                .map(rate -> "('" + rate.getKey() + "', " + rate.getValue().toPlainString() + "::numeric)")
+                .collect(Collectors.joining(", "));
+        // In event-sourced mode the wallet row is not updated; derive the balances from the ledger instead
+        this.rebuildSql = String.format(REBUILD_SQL, rates,
+                "event-sourced".equals(storageMode) ? LEDGER_BALANCES : IN_PLACE_BALANCES);
+        this.rangeTimer = Timer.builder("wallet.player_summary.rebuild.range.duration").register(meterRegistry);
+    }
+
+    /**
+     * Starts a rebuild in the background. Returns false if one is already running on this node.
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            runExecutor.submit(() -> {
+                try {
+                    rebuild();
+                } finally {
+                    running.set(false);
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        runExecutor.shutdownNow();
+    }
+
+    /**
+     * Rebuilds every summary on the calling thread and returns the number written.
+     */
+    public long rebuild() {
+        ExecutorService pool = Executors.newFixedThreadPool(properties.getRebuildParallelism());
+        long started = System.nanoTime();
+        AtomicLong rebuilt = new AtomicLong();
+        try {
+            long[] bounds = jdbcTemplate.getJdbcTemplate().queryForObject(PLAYER_BOUNDS_SQL, (rs, i) -> {
+                long min = rs.getLong(1);
+                return rs.wasNull() ? null : new long[]{min, rs.getLong(2)};
+            });
+            if (bounds == null) {
+                return 0;
+            }
+            List<Future<?>> tasks = new ArrayList<>(partitions);
+            for (int partition = 0; partition < partitions; partition++) {
+                int current = partition;
+                tasks.add(pool.submit(() -> rebuildPartition(current, bounds[0], bounds[1], rebuilt)));
+            }
+            for (Future<?> future : tasks) {
+                future.get();
+            }
+            log.info("Rebuilt {} player summaries in {} ms", rebuilt.get(), (System.nanoTime() - started) / 1_000_000);
+            return rebuilt.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return rebuilt.get();
+        } catch (ExecutionException e) {
+            log.error("Player summary rebuild failed after {} summaries", rebuilt.get(), e.getCause());
+            return rebuilt.get();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void rebuildPartition(int partition, long fromPlayer, long toPlayer, AtomicLong rebuilt) {
+        for (long from = fromPlayer; from <= toPlayer; from += properties.getRebuildRangeSize()) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("namespace", OutboxRelay.LOCK_NAMESPACE)
+                    .addValue("partitions", partitions)
+                    .addValue("partition", partition)
+                    .addValue("fromPlayer", from)
+                    .addValue("toPlayer", Math.min(from + properties.getRebuildRangeSize() - 1, toPlayer));
+            Integer written = rangeTimer.record(() -> transactionTemplate.execute(status -> {
+                jdbcTemplate.queryForObject(LOCK_SQL, params, Object.class);
+                return jdbcTemplate.update(rebuildSql, params);
+            }));
+            rebuilt.addAndGet(written != null ? written : 0);
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.elavationlab.domain.Transaction;
+import org.elavationlab.dto.MultiCurrencyBalanceResponse;
+import org.elavationlab.dto.PlayerSummaryResponse;
+import org.elavationlab.dto.WalletBalanceResponse;
+import org.elavationlab.dto.WalletChangeEvent;
+import org.elavationlab.repository.WalletStore;
+import org.elavationlab.util.ExchangeRates;
+import org.elavationlab.util.SqlArrays;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains and serves the {@code player_summary} read model.
+ * <p>
+ * The outbox relay hands each batch of newly committed wallet changes to {@link #apply} inside the transaction
+ * that marks them projected, so every change is counted exactly once even when its delivery is retried. A batch
+ * is folded per player in memory and written with one upsert that adds to the lifetime totals and merges the
+ * latest balance of each currency into the balances document. Reads are a single primary-key lookup, or one
+ * set-based query for many players, with wallets not projected yet read from the {@link WalletStore}.
+ */
+@Service
+public class PlayerSummaryService {
+
+    private static final String UPSERT_SQL =
+            "WITH b AS (" +
+            "    SELECT player_id, jsonb_object_agg(currency, " +
+            "               jsonb_build_object('balance', balance, 'bonusBalance', bonus_balance)) AS balances " +
+            "    FROM unnest(:balancePlayerIds, :balanceCurrencies, :balances, :bonusBalances) " +
+            "         AS u(player_id, currency, balance, bonus_balance) " +
+            "    GROUP BY player_id) " +
+            "INSERT INTO player_summary (player_id, balances, lifetime_deposits_usd, lifetime_withdrawals_usd, " +
+            "    lifetime_bets_usd, lifetime_wins_usd, deposit_count, bet_count, win_count, " +
+            "    first_activity_at, last_activity_at, updated_at) " +
+            "SELECT a.player_id, COALESCE(b.balances, '{}'::jsonb), a.deposits, a.withdrawals, a.bets, a.wins, " +
+            "    a.deposit_count, a.bet_count, a.win_count, a.first_at, a.last_at, now() " +
+            "FROM unnest(:playerIds, :deposits, :withdrawals, :bets, :wins, :depositCounts, :betCounts, :winCounts, " +
+            "            :firstAts, :lastAts) " +
+            "     AS a(player_id, deposits, withdrawals, bets, wins, deposit_count, bet_count, win_count, first_at, last_at) " +
+            "LEFT JOIN b ON b.player_id = a.player_id " +
+            "ON CONFLICT (player_id) DO UPDATE SET " +
+            "balances = player_summary.balances || EXCLUDED.balances, " +
+            "lifetime_deposits_usd = player_summary.lifetime_deposits_usd + EXCLUDED.lifetime_deposits_usd, " +
+            "lifetime_withdrawals_usd = player_summary.lifetime_withdrawals_usd + EXCLUDED.lifetime_withdrawals_usd, " +
+            "lifetime_bets_usd = player_summary.lifetime_bets_usd + EXCLUDED.lifetime_bets_usd, " +
+            "lifetime_wins_usd = player_summary.lifetime_wins_usd + EXCLUDED.lifetime_wins_usd, " +
+            "deposit_count = player_summary.deposit_count + EXCLUDED.deposit_count, " +
+            "bet_count = player_summary.bet_count + EXCLUDED.bet_count, " +
+            "win_count = player_summary.win_count + EXCLUDED.win_count, " +
+            "first_activity_at = LEAST(player_summary.first_activity_at, EXCLUDED.first_activity_at), " +
+            "last_activity_at = GREATEST(player_summary.last_activity_at, EXCLUDED.last_activity_at), " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private static final String SUMMARY_SQL =
+            "SELECT s.*, b.key AS currency, (b.value ->> 'balance')::numeric AS balance, " +
+            "       (b.value ->> 'bonusBalance')::numeric AS bonus_balance " +
+            "FROM player_summary s LEFT JOIN LATERAL jsonb_each(s.balances) b ON true " +
+            "WHERE s.player_id = :playerId ORDER BY b.key";
+
+    private static final String PLAYERS_BALANCES_SQL =
+            "SELECT s.player_id, b.currency, b.balance, b.bonus_balance " +
+            "FROM player_summary s " +
+            "LEFT JOIN LATERAL (SELECT e.key AS currency, (e.value ->> 'balance')::numeric AS balance, " +
+            "                          (e.value ->> 'bonusBalance')::numeric AS bonus_balance " +
+            "                   FROM jsonb_each(s.balances) e " +
+            "                   WHERE cardinality(:currencies) = 0 OR e.key = ANY(:currencies)) b ON true " +
+            "WHERE s.player_id = ANY(:playerIds) " +
+            "ORDER BY s.player_id, b.currency";
+
+    /** Wallets with no balance in the summary yet: a new player, or a player's new currency. */
+    private static final String UNPROJECTED_WALLETS_SQL =
+            "SELECT w.player_id, w.currency FROM wallets w " +
+            "LEFT JOIN player_summary s ON s.player_id = w.player_id " +
+            "WHERE w.player_id = ANY(:playerIds) AND (cardinality(:currencies) = 0 OR w.currency = ANY(:currencies)) " +
+            "AND (s.balances -> w.currency) IS NULL";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final WalletStore walletStore;
+    private final Counter appliedCounter;
+    private final Timer lagTimer;
+
+    public PlayerSummaryService(NamedParameterJdbcTemplate jdbcTemplate, WalletStore walletStore,
+                                MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.walletStore = walletStore;
+        this.appliedCounter = Counter.builder("wallet.player_summary.events.total").register(meterRegistry);
+        this.lagTimer = Timer.builder("wallet.player_summary.lag")
+                .description("Time from a wallet change committing to it reaching the player summary")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Folds committed changes into the summaries of their players. Must run in the transaction that marks the
+     * events projected, in id order per player.
+     */
+    public void apply(List<WalletChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Map<Integer, Delta> deltas = new LinkedHashMap<>();
+        Map<BalanceKey, WalletChangeEvent> latestBalances = new LinkedHashMap<>();
+        for (WalletChangeEvent event : events) {
+            deltas.computeIfAbsent(event.getPlayerId(), id -> new Delta()).add(event);
+            if (event.getBalance() != null) {
+                latestBalances.put(new BalanceKey(event.getPlayerId(), event.getCurrency()), event);
+            }
+        }
+
+        List<Integer> playerIds = new ArrayList<>(deltas.keySet());
+        List<Delta> rows = new ArrayList<>(deltas.values());
+        List<WalletChangeEvent> balances = new ArrayList<>(latestBalances.values());
+        jdbcTemplate.update(UPSERT_SQL, new MapSqlParameterSource()
+                .addValue("balancePlayerIds", SqlArrays.integers(balances.stream().map(WalletChangeEvent::getPlayerId).toList()))
+                .addValue("balanceCurrencies", SqlArrays.varchars(balances.stream().map(WalletChangeEvent::getCurrency).toList()))
+                .addValue("balances", SqlArrays.numerics(balances.stream().map(WalletChangeEvent::getBalance).toList()))
+                .addValue("bonusBalances", SqlArrays.numerics(balances.stream()
+                        .map(e -> e.getBonusBalance() != null ? e.getBonusBalance() : BigDecimal.ZERO).toList()))
+                .addValue("playerIds", SqlArrays.integers(playerIds))
+                .addValue("deposits", SqlArrays.numerics(rows.stream().map(d -> d.deposits).toList()))
+                .addValue("withdrawals", SqlArrays.numerics(rows.stream().map(d -> d.withdrawals).toList()))
+                .addValue("bets", SqlArrays.numerics(rows.stream().map(d -> d.bets).toList()))
+                .addValue("wins", SqlArrays.numerics(rows.stream().map(d -> d.wins).toList()))
+                .addValue("depositCounts", SqlArrays.bigints(rows.stream().map(d -> d.depositCount).toList()))
+                .addValue("betCounts", SqlArrays.bigints(rows.stream().map(d -> d.betCount).toList()))
+                .addValue("winCounts", SqlArrays.bigints(rows.stream().map(d -> d.winCount).toList()))
+                .addValue("firstAts", SqlArrays.timestamps(rows.stream().map(d -> d.firstAt).toList()))
+                .addValue("lastAts", SqlArrays.timestamps(rows.stream().map(d -> d.lastAt).toList())));
+
+        LocalDateTime now = LocalDateTime.now();
+        for (WalletChangeEvent event : events) {
+            lagTimer.record(Duration.between(event.getOccurredAt(), now));
+        }
+        appliedCounter.increment(events.size());
+    }
+
+    public Optional<PlayerSummaryResponse> getSummary(Integer playerId) {
+        List<PlayerSummaryResponse> summaries = new ArrayList<>(1);
+        jdbcTemplate.query(SUMMARY_SQL, new MapSqlParameterSource("playerId", playerId), rs -> {
+            if (summaries.isEmpty()) {
+                summaries.add(PlayerSummaryResponse.builder()
+                        .playerId(rs.getInt("player_id"))
+                        .currencies(new ArrayList<>())
+                        .lifetimeDepositsUsd(rs.getBigDecimal("lifetime_deposits_usd"))
+                        .lifetimeWithdrawalsUsd(rs.getBigDecimal("lifetime_withdrawals_usd"))
+                        .lifetimeBetsUsd(rs.getBigDecimal("lifetime_bets_usd"))
+                        .lifetimeWinsUsd(rs.getBigDecimal("lifetime_wins_usd"))
+                        .depositCount(rs.getLong("deposit_count"))
+                        .betCount(rs.getLong("bet_count"))
+                        .winCount(rs.getLong("win_count"))
+                        .firstActivityAt(toLocalDateTime(rs.getTimestamp("first_activity_at")))
+                        .lastActivityAt(toLocalDateTime(rs.getTimestamp("last_activity_at")))
+                        .updatedAt(rs.getTimestamp("updated_at").toLocalDateTime())
+                        .build());
+            }
+            if (rs.getString("currency") != null) {
+                summaries.get(0).getCurrencies().add(currencyBalance(rs));
+            }
+        });
+        summaries.forEach(summary -> summary.setTotalBalanceInUSD(totalInUsd(summary.getCurrencies())));
+        return summaries.stream().findFirst();
+    }
+
+    /**
+     * Passes the balances of each requested player to {@code consumer} as they are read, without holding the
+     * whole result. Players without wallets are left out; an empty {@code currencies} selects every currency.
+     * Wallets the summary has no balance for yet, such as a player's new currency, are read from the
+     * {@link WalletStore}.
+     */
+    public void streamBalances(Collection<Integer> playerIds, Collection<String> currencies,
+                               Consumer<MultiCurrencyBalanceResponse> consumer) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("playerIds", SqlArrays.integers(playerIds))
+                .addValue("currencies", SqlArrays.varchars(currencies));
+        Set<BalanceKey> unprojected = new HashSet<>(jdbcTemplate.query(UNPROJECTED_WALLETS_SQL, params,
+                (rs, rowNum) -> new BalanceKey(rs.getInt("player_id"), rs.getString("currency"))));
+        Map<Integer, List<MultiCurrencyBalanceResponse.CurrencyBalance>> fromStore = new TreeMap<>();
+        if (!unprojected.isEmpty()) {
+            Set<Integer> players = unprojected.stream().map(BalanceKey::playerId).collect(Collectors.toSet());
+            Set<String> storeCurrencies = unprojected.stream().map(BalanceKey::currency).collect(Collectors.toSet());
+            for (WalletBalanceResponse balance : walletStore.findBalances(players, storeCurrencies)) {
+                if (unprojected.contains(new BalanceKey(balance.getPlayerId(), balance.getCurrency()))) {
+                    fromStore.computeIfAbsent(balance.getPlayerId(), id -> new ArrayList<>())
+                            .add(MultiCurrencyBalanceResponse.CurrencyBalance.builder()
+                                    .currency(balance.getCurrency())
+                                    .balance(balance.getBalance())
+                                    .bonusBalance(balance.getBonusBalance())
+                                    .totalBalance(balance.getTotalBalance())
+                                    .build());
+                }
+            }
+        }
+
+        PlayerBalances balances = new PlayerBalances(consumer, fromStore);
+        jdbcTemplate.query(PLAYERS_BALANCES_SQL, params, rs -> {
+            balances.add(rs.getInt("player_id"), rs.getString("currency") != null ? currencyBalance(rs) : null);
+        });
+        balances.flush();
+        // Players not in the summary at all
+        for (Integer playerId : new ArrayList<>(fromStore.keySet())) {
+            balances.add(playerId, null);
+        }
+        balances.flush();
+    }
+
+    /**
+     * The balances of a player from the summary, or empty when the player has not been projected yet.
+     */
+    public Optional<MultiCurrencyBalanceResponse> getBalances(Integer playerId) {
+        return getSummary(playerId).map(summary -> MultiCurrencyBalanceResponse.builder()
+                .playerId(summary.getPlayerId())
+                .currencies(summary.getCurrencies())
+                .totalBalanceInUSD(summary.getTotalBalanceInUSD())
+                .build());
+    }
+
+    /** Rounds once per movement, as the rebuild does, so both produce the same totals. */
+    static BigDecimal usd(BigDecimal amount, String currency) {
+        return ExchangeRates.toUsd(amount, currency).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static MultiCurrencyBalanceResponse.CurrencyBalance currencyBalance(ResultSet rs) throws SQLException {
+        BigDecimal balance = rs.getBigDecimal("balance");
+        BigDecimal bonusBalance = rs.getBigDecimal("bonus_balance");
+        return MultiCurrencyBalanceResponse.CurrencyBalance.builder()
+                .currency(rs.getString("currency"))
+                .balance(balance)
+                .bonusBalance(bonusBalance)
+                .totalBalance(balance.add(bonusBalance))
+                .build();
+    }
+
+    private static BigDecimal totalInUsd(List<MultiCurrencyBalanceResponse.CurrencyBalance> currencies) {
+        return currencies.stream()
+                .map(cb -> ExchangeRates.toUsd(cb.getTotalBalance(), cb.getCurrency()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add)
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    /** Groups consecutive balances of the same player into one response. */
+    private static final class PlayerBalances {
+        private final Consumer<MultiCurrencyBalanceResponse> consumer;
+        private final Map<Integer, List<MultiCurrencyBalanceResponse.CurrencyBalance>> fromStore;
+        private Integer playerId;
+        private List<MultiCurrencyBalanceResponse.CurrencyBalance> currencies;
+
+        PlayerBalances(Consumer<MultiCurrencyBalanceResponse> consumer,
+                       Map<Integer, List<MultiCurrencyBalanceResponse.CurrencyBalance>> fromStore) {
+            this.consumer = consumer;
+            this.fromStore = fromStore;
+        }
+
+        void add(Integer playerId, MultiCurrencyBalanceResponse.CurrencyBalance balance) {
+            if (!playerId.equals(this.playerId)) {
+                flush();
+                this.playerId = playerId;
+                this.currencies = new ArrayList<>(fromStore.getOrDefault(playerId, List.of()));
+                fromStore.remove(playerId);
+            }
+            if (balance != null) {
+                currencies.add(balance);
+            }
+        }
+
+        void flush() {
+            if (playerId != null) {
+                currencies.sort(Comparator.comparing(MultiCurrencyBalanceResponse.CurrencyBalance::getCurrency));
+                consumer.accept(MultiCurrencyBalanceResponse.builder()
+                        .playerId(playerId)
+                        .currencies(currencies)
+                        .totalBalanceInUSD(totalInUsd(currencies))
+                        .build());
+                playerId = null;
+            }
+        }
+    }
+
+    private record BalanceKey(Integer playerId, String currency) {
+    }
+
+    private static final class Delta {
+        private BigDecimal deposits = BigDecimal.ZERO;
+        private BigDecimal withdrawals = BigDecimal.ZERO;
+        private BigDecimal bets = BigDecimal.ZERO;
+        private BigDecimal wins = BigDecimal.ZERO;
+        private long depositCount;
+        private long betCount;
+        private long winCount;
+        private LocalDateTime firstAt;
+        private LocalDateTime lastAt;
+
+        void add(WalletChangeEvent event) {
+            Transaction.TransactionType type = event.getType();
+            BigDecimal amount = usd(event.getAmount(), event.getCurrency());
+            switch (type) {
+                case DEPOSIT -> {
+                    deposits = deposits.add(amount);
+                    depositCount++;
+                }
+                case WITHDRAWAL -> withdrawals = withdrawals.add(amount);
+                // A rejected withdrawal is refunded and no longer counts as withdrawn
+                case REFUND -> withdrawals = withdrawals.subtract(amount);
+                case BET -> {
+                    bets = bets.add(amount);
+                    betCount++;
+                }
+                case WIN -> {
+                    wins = wins.add(amount);
+                    winCount++;
+                }
+                default -> {
+                }
+            }
+            LocalDateTime at = event.getOccurredAt();
+            firstAt = firstAt == null || at.isBefore(firstAt) ? at : firstAt;
+            lastAt = lastAt == null || at.isAfter(lastAt) ? at : lastAt;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.elavationlab.service;
+
+import org.elavationlab.domain.Transaction;
+import org.elavationlab.dto.ActivePlayersResponse;
+import org.elavationlab.dto.DailyReportRow;
+import org.elavationlab.repository.TransactionRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class ReportService {
+
+    private final TransactionRepository transactionRepository;
+    private final PlayerActivityService playerActivityService;
+
+    public ReportService(TransactionRepository transactionRepository, PlayerActivityService playerActivityService) {
+        this.transactionRepository = transactionRepository;
+        this.playerActivityService = playerActivityService;
+    }
+
+    /**
+     * Daily totals per currency. Unique players come from the activity sketches instead of a
+     * COUNT(DISTINCT player_id) over the raw ledger. Days up to and including the first sketched day, which
+     * sketches do not fully cover, are counted exactly instead. Later days rely on the sketches alone, so
+     * activity another node has not flushed yet shows up after its next flush.
+     */
+    public List<DailyReportRow> getDailyReport(int days) {
+        LocalDate since = LocalDate.now().minusDays(days);
+        Map<LocalDate, Map<String, Long>> uniquePlayers =
+                playerActivityService.estimateDailyUniquePlayers(since, LocalDate.now());
+        List<TransactionRepository.DailyTotals> dailyTotals = transactionRepository.findDailyTotals(since.atStartOfDay());
+
+        LocalDate cutover = playerActivityService.firstSketchedDate().orElse(LocalDate.now());
+        boolean countsBeforeCutover = dailyTotals.stream()
+                .anyMatch(totals -> !totals.getDate().toLocalDate().isAfter(cutover));
+        if (countsBeforeCutover) {
+            transactionRepository.findDailyUniquePlayers(since.atStartOfDay(), cutover.plusDays(1).atStartOfDay())
+                    .forEach(exact -> uniquePlayers.computeIfAbsent(exact.getDate().toLocalDate(), d -> new HashMap<>())
+                            .put(exact.getCurrency(), exact.getUniquePlayers()));
+        }
+
+        return dailyTotals.stream()
+                .map(totals -> {
+                    LocalDate date = totals.getDate().toLocalDate();
+                    return DailyReportRow.builder()
+                            .date(date)
+                            .currency(totals.getCurrency())
+                            .totalDeposits(totals.getTotalDeposits())
+                            .totalWithdrawals(totals.getTotalWithdrawals())
+                            .totalBets(totals.getTotalBets())
+                            .totalWins(totals.getTotalWins())
+                            .uniquePlayers(uniquePlayers.getOrDefault(date, Map.of())
+                                    .getOrDefault(totals.getCurrency(), 0L))
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+
+    public ActivePlayersResponse getActivePlayers(LocalDate date, ActivityWindow window, String currency,
+                                                  Transaction.TransactionType type) {
+        LocalDate from = date.minusDays(window.getDays() - 1L);
+        return ActivePlayersResponse.builder()
+                .from(from)
+                .to(date)
+                .currency(currency)
+                .type(type)
+                .uniquePlayers(playerActivityService.estimateUniquePlayers(from, date, currency, type))
+                .relativeStandardError(playerActivityService.relativeStandardError())
+                .build();
+    }
+
+    /**
+     * Rolling windows ending on the requested date: DAU, WAU and MAU.
+     */
+    public enum ActivityWindow {
+        DAY(1), WEEK(7), MONTH(30);
+
+        private final int days;
+
+        ActivityWindow(int days) {
+            this.days = days;
+        }
+
+        public int getDays() {
+            return days;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package org.elavationlab.service;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Retries a transactional service method that lost an optimistic-locking race, with
+ * {@link OptimisticRetryExecutor}. The retry runs outside the method's transaction, so every attempt gets a new
+ * one. A call that joins a caller's transaction runs once and leaves the retry to the caller.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+
+    /** Operation name the retry metrics are tagged with. */
+    String value();
+}
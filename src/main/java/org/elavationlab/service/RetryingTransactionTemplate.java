@@ -0,0 +1,33 @@
+package org.elavationlab.service;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * A {@link TransactionTemplate} whose transactions are retried with {@link OptimisticRetryExecutor} when they
+ * lose an optimistic-locking race, for background jobs that demarcate their own transactions. It is the
+ * programmatic counterpart of {@link RetryOnConflict}; joining a caller's transaction, it runs once.
+ */
+public class RetryingTransactionTemplate extends TransactionTemplate {
+
+    private final OptimisticRetryExecutor retryExecutor;
+    private final String operation;
+
+    public RetryingTransactionTemplate(PlatformTransactionManager transactionManager,
+                                       OptimisticRetryExecutor retryExecutor, String operation) {
+        super(transactionManager);
+        this.retryExecutor = retryExecutor;
+        this.operation = operation;
+    }
+
+    @Override
+    public <T> T execute(TransactionCallback<T> action) throws TransactionException {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return super.execute(action);
+        }
+        return retryExecutor.execute(operation, () -> super.execute(action));
+    }
+}
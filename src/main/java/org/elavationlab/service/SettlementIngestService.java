@@ -0,0 +1,260 @@
+package org.elavationlab.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.elavationlab.config.SettlementProperties;
+import org.elavationlab.dto.BatchOperation;
+import org.elavationlab.dto.BatchResult;
+import org.elavationlab.dto.SettlementFeedStatus;
+import org.elavationlab.dto.SettlementLineResult;
+import org.elavationlab.exception.InsufficientFundsException;
+import org.elavationlab.exception.InvalidAmountException;
+import org.elavationlab.exception.UnsupportedCurrencyException;
+import org.elavationlab.exception.WalletConflictException;
+import org.elavationlab.exception.WalletException;
+import org.elavationlab.exception.WalletNotFoundException;
+import org.elavationlab.util.GzipStreams;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies provider settlement files: newline-delimited JSON {@link BatchOperation}s, one bet or win per line,
+ * optionally gzip-compressed.
+ * <p>
+ * The file is read line by line and applied in order, {@code chunk-size} lines per transaction, through
+ * {@link WalletService#applyMutations}; only one chunk is held in memory, whatever the size of the file. Each
+ * chunk's transaction also advances the feed's checkpoint in {@code settlement_feeds}, so an interrupted upload is
+ * resumed by sending the same file again under the same feed id: lines up to the checkpoint are skipped, and no
+ * line is applied twice. The checkpoint only advances from the value a chunk started from, so two uploads of the
+ * same feed at once cannot both apply a chunk.
+ * <p>
+ * A line that cannot be parsed or is rejected by the wallet rules is reported and counted, and the file carries
+ * on. Any other failure stops the upload at the last committed chunk.
+ */
+@Slf4j
+@Service
+public class SettlementIngestService {
+
+    private static final String START_SQL =
+            "INSERT INTO settlement_feeds (feed_id, started_at, updated_at) VALUES (:feedId, now(), now()) " +
+            "ON CONFLICT (feed_id) DO NOTHING";
+
+    private static final String STATUS_SQL =
+            "SELECT feed_id, lines_done, applied, rejected, started_at, updated_at, completed_at " +
+            "FROM settlement_feeds WHERE feed_id = :feedId";
+
+    private static final String CLAIM_SQL =
+            "UPDATE settlement_feeds SET lines_done = :to, updated_at = now() " +
+            "WHERE feed_id = :feedId AND lines_done = :from";
+
+    private static final String COUNT_SQL =
+            "UPDATE settlement_feeds SET applied = applied + :applied, rejected = rejected + :rejected " +
+            "WHERE feed_id = :feedId";
+
+    private static final String COMPLETE_SQL =
+            "UPDATE settlement_feeds SET completed_at = COALESCE(completed_at, now()) WHERE feed_id = :feedId";
+
+    /**
+     * Receives the outcome of every line as its chunk commits.
+     */
+    public interface Listener {
+
+        void onResult(SettlementLineResult result);
+
+        /** Called after each committed chunk, for example to flush what was written. */
+        default void onChunkCommitted(long linesDone) {
+        }
+    }
+
+    private final WalletService walletService;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SettlementProperties properties;
+    private final ObjectReader lineReader;
+    private final Validator validator;
+    private final Counter appliedCounter;
+    private final Counter rejectedCounter;
+    private final Counter skippedCounter;
+    private final Timer chunkTimer;
+
+    public SettlementIngestService(WalletService walletService, OptimisticRetryExecutor retryExecutor,
+                                   NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                   SettlementProperties properties, ObjectMapper objectMapper, Validator validator,
+                                   MeterRegistry meterRegistry) {
+        this.walletService = walletService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new RetryingTransactionTemplate(transactionManager, retryExecutor, "settlement");
+        this.transactionTemplate.setTimeout(properties.getChunkTimeoutSeconds());
+        this.properties = properties;
+        this.lineReader = objectMapper.readerFor(BatchOperation.class);
+        this.validator = validator;
+        this.appliedCounter = Counter.builder("wallet.settlement.lines.total").tag("outcome", "applied").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("wallet.settlement.lines.total").tag("outcome", "rejected").register(meterRegistry);
+        this.skippedCounter = Counter.builder("wallet.settlement.lines.total").tag("outcome", "skipped").register(meterRegistry);
+        this.chunkTimer = Timer.builder("wallet.settlement.chunk.duration").register(meterRegistry);
+    }
+
+    /**
+     * Applies the file from the checkpoint on and returns the feed's status afterwards, with the reason if the
+     * upload stopped before the end of the file.
+     */
+    public SettlementFeedStatus ingest(String feedId, InputStream body, Listener listener) {
+        MapSqlParameterSource feed = new MapSqlParameterSource("feedId", feedId);
+        jdbcTemplate.update(START_SQL, feed);
+        long done = status(feedId).map(SettlementFeedStatus::getLinesDone).orElse(0L);
+        String error = null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(GzipStreams.decompressIfGzipped(body), StandardCharsets.UTF_8))) {
+            List<ParsedLine> chunk = new ArrayList<>(properties.getChunkSize());
+            long lineNumber = 0;
+            String text;
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber <= done) {
+                    skippedCounter.increment();
+                    continue;
+                }
+                // Blank lines are applied as nothing, but still counted so line numbers match the file
+                if (!text.isBlank()) {
+                    chunk.add(parse(lineNumber, text));
+                }
+                if (lineNumber - done >= properties.getChunkSize()) {
+                    done = commitChunk(feedId, done, lineNumber, chunk, listener);
+                    chunk.clear();
+                }
+            }
+            if (lineNumber > done) {
+                done = commitChunk(feedId, done, lineNumber, chunk, listener);
+            }
+            jdbcTemplate.update(COMPLETE_SQL, feed);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Settlement feed {} stopped after line {}: {}", feedId, done, e.getMessage());
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        }
+        long linesDone = done;
+        SettlementFeedStatus status;
+        try {
+            status = status(feedId).orElseGet(() -> SettlementFeedStatus.builder().feedId(feedId).build());
+        } catch (RuntimeException e) {
+            status = SettlementFeedStatus.builder().feedId(feedId).linesDone(linesDone).build();
+        }
+        status.setError(error);
+        return status;
+    }
+
+    public Optional<SettlementFeedStatus> status(String feedId) {
+        return jdbcTemplate.query(STATUS_SQL, new MapSqlParameterSource("feedId", feedId), (rs, rowNum) -> {
+            Timestamp completedAt = rs.getTimestamp("completed_at");
+            return SettlementFeedStatus.builder()
+                    .feedId(rs.getString("feed_id"))
+                    .linesDone(rs.getLong("lines_done"))
+                    .applied(rs.getLong("applied"))
+                    .rejected(rs.getLong("rejected"))
+                    .startedAt(rs.getTimestamp("started_at").toLocalDateTime())
+                    .updatedAt(rs.getTimestamp("updated_at").toLocalDateTime())
+                    .completedAt(completedAt != null ? completedAt.toLocalDateTime() : null)
+                    .build();
+        }).stream().findFirst();
+    }
+
+    private long commitChunk(String feedId, long from, long to, List<ParsedLine> chunk, Listener listener) {
+        List<ParsedLine> valid = chunk.stream().filter(line -> line.mutation() != null).toList();
+        List<WalletMutation.Outcome> outcomes = chunkTimer.record(() -> transactionTemplate.execute(status -> {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("feedId", feedId)
+                    .addValue("from", from)
+                    .addValue("to", to);
+            if (jdbcTemplate.update(CLAIM_SQL, params) == 0) {
+                throw new WalletConflictException("Settlement feed " + feedId + " is being ingested by another upload");
+            }
+            List<WalletMutation.Outcome> applied = walletService.applyMutations(
+                    valid.stream().map(ParsedLine::mutation).toList());
+            long failed = applied.stream().filter(outcome -> outcome.failure() != null).count();
+            jdbcTemplate.update(COUNT_SQL, params
+                    .addValue("applied", applied.size() - failed)
+                    .addValue("rejected", chunk.size() - applied.size() + failed));
+            return applied;
+        }));
+
+        int next = 0;
+        for (ParsedLine line : chunk) {
+            SettlementLineResult result = line.invalid();
+            if (result == null) {
+                WalletMutation.Outcome outcome = outcomes.get(next++);
+                result = outcome.failure() == null
+                        ? SettlementLineResult.builder().line(line.number()).status(BatchResult.Status.OK)
+                                .balance(outcome.balance()).build()
+                        : rejected(line.number(), outcome.failure());
+            }
+            (result.getStatus() == BatchResult.Status.OK ? appliedCounter : rejectedCounter).increment();
+            listener.onResult(result);
+        }
+        listener.onChunkCommitted(to);
+        return to;
+    }
+
+    private ParsedLine parse(long number, String text) {
+        BatchOperation operation;
+        try {
+            operation = lineReader.readValue(text);
+        } catch (JsonProcessingException e) {
+            return ParsedLine.invalid(number, "Malformed line: " + e.getOriginalMessage());
+        }
+        Set<ConstraintViolation<BatchOperation>> violations = validator.validate(operation);
+        if (!violations.isEmpty()) {
+            return ParsedLine.invalid(number, violations.stream()
+                    .map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; ")));
+        }
+        return switch (operation.getType()) {
+            case BET -> new ParsedLine(number, WalletMutation.bet(operation.getPlayerId(), operation.getAmount(),
+                    operation.getCurrency(), operation.getGameId(), operation.getRoundId()), null);
+            case WIN -> new ParsedLine(number, WalletMutation.win(operation.getPlayerId(), operation.getAmount(),
+                    operation.getCurrency(), operation.getGameId(), operation.getRoundId()), null);
+            case BALANCE -> ParsedLine.invalid(number, "Only BET and WIN lines can be settled");
+        };
+    }
+
+    private static SettlementLineResult rejected(long number, WalletException failure) {
+        BatchResult.Status status;
+        if (failure instanceof InsufficientFundsException) {
+            status = BatchResult.Status.INSUFFICIENT_FUNDS;
+        } else if (failure instanceof WalletNotFoundException) {
+            status = BatchResult.Status.WALLET_NOT_FOUND;
+        } else if (failure instanceof InvalidAmountException || failure instanceof UnsupportedCurrencyException) {
+            status = BatchResult.Status.INVALID_REQUEST;
+        } else {
+            status = BatchResult.Status.ERROR;
+        }
+        return SettlementLineResult.builder().line(number).status(status).message(failure.getMessage()).build();
+    }
+
+    private record ParsedLine(long number, WalletMutation mutation, SettlementLineResult invalid) {
+
+        static ParsedLine invalid(long number, String message) {
+            return new ParsedLine(number, null, SettlementLineResult.builder()
+                    .line(number).status(BatchResult.Status.INVALID_REQUEST).message(message).build());
+        }
+    }
+}
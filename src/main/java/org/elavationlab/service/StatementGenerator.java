@@ -0,0 +1,328 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.elavationlab.config.StatementProperties;
+import org.elavationlab.dto.StatementRunStatus;
+import org.elavationlab.util.Throttle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a gzip-compressed monthly statement file for every player with activity in the month.
+ * <p>
+ * The player id space is split into fixed-width ranges that are scanned in parallel, each through its own
+ * server-side cursor, so memory stays flat and at most {@code parallelism} connections are used. Each range
+ * records the last player it finished in a checkpoint file, so an interrupted run resumes where it stopped.
+ * Ranges are split again from the current player ids on every run, and a finished range records the last id it
+ * covered, so a resumed run also writes players that appeared after the first run started.
+ */
+@Slf4j
+@Service
+public class StatementGenerator {
+
+    private static final String DONE = "DONE:";
+    private static final String HEADER = "timestamp,type,currency,amount,balance_before,balance_after,description\n";
+    private static final String RANGE_QUERY =
+            "SELECT player_id, type, amount, currency, balance_before, balance_after, timestamp, " +
+            "COALESCE(description, CASE type " +
+            "WHEN 'BET' THEN 'Bet on game ' || game_id || COALESCE(' round ' || round_id, '') " +
+            "WHEN 'WIN' THEN 'Win from game ' || game_id || COALESCE(' round ' || round_id, '') " +
+            "WHEN 'BONUS' THEN 'Bonus credited: ' || bonus_code " +
+            "WHEN 'BONUS_EXPIRED' THEN 'Bonus expired' || COALESCE(': ' || bonus_code, '') END) AS description " +
+            "FROM transactions WHERE player_id BETWEEN ? AND ? AND timestamp >= ? AND timestamp < ? " +
+            "ORDER BY player_id, timestamp, id";
+
+    private final JdbcTemplate cursorTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final StatementProperties properties;
+    private final ExecutorService runExecutor = Executors.newSingleThreadExecutor();
+    private final AtomicReference<Run> currentRun = new AtomicReference<>();
+    private final Counter playersCounter;
+    private final Timer rangeTimer;
+
+    public StatementGenerator(DataSource dataSource, PlatformTransactionManager transactionManager,
+                              StatementProperties properties, MeterRegistry meterRegistry) {
+        this.cursorTemplate = new JdbcTemplate(dataSource);
+        this.cursorTemplate.setFetchSize(properties.getFetchSize());
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.properties = properties;
+        this.playersCounter = Counter.builder("wallet.statements.players.total").register(meterRegistry);
+        this.rangeTimer = Timer.builder("wallet.statements.range.duration").register(meterRegistry);
+    }
+
+    /**
+     * Starts a run in the background. Returns false if another run is still in progress.
+     */
+    public boolean start(YearMonth month) {
+        Run run = new Run(month, LocalDateTime.now());
+        Run previous = currentRun.get();
+        if (previous != null && "RUNNING".equals(previous.state)) {
+            return false;
+        }
+        if (!currentRun.compareAndSet(previous, run)) {
+            return false;
+        }
+        runExecutor.submit(() -> generate(month, run));
+        return true;
+    }
+
+    public StatementRunStatus getStatus() {
+        Run run = currentRun.get();
+        return run != null ? run.toStatus() : null;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        runExecutor.shutdownNow();
+    }
+
+    void generate(YearMonth month, Run run) {
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        ExecutorService workers = Executors.newFixedThreadPool(properties.getParallelism());
+        try {
+            Path monthDir = Paths.get(properties.getOutputDirectory(), month.toString());
+            Files.createDirectories(monthDir.resolve(".checkpoints"));
+
+            List<long[]> ranges = splitPlayerRanges(from, to);
+            run.totalRanges = ranges.size();
+            Throttle throttle = new Throttle(properties.getMaxPlayersPerSecond());
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (long[] range : ranges) {
+                futures.add(workers.submit(() -> {
+                    long written = rangeTimer.recordCallable(() ->
+                            processRange(monthDir, range[0], range[1], from, to, throttle));
+                    run.playersWritten.addAndGet(written);
+                    run.completedRanges.incrementAndGet();
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            run.finish("COMPLETED", null);
+        } catch (Exception e) {
+            log.error("Statement generation for {} failed", month, e);
+            run.finish("FAILED", e.getMessage());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private List<long[]> splitPlayerRanges(LocalDateTime from, LocalDateTime to) {
+        List<long[]> ranges = new ArrayList<>();
+        cursorTemplate.query("SELECT MIN(player_id), MAX(player_id) FROM transactions WHERE timestamp >= ? AND timestamp < ?",
+                rs -> {
+                    long min = rs.getLong(1);
+                    if (rs.wasNull()) {
+                        return;
+                    }
+                    long max = rs.getLong(2);
+                    // Align ranges to multiples of the range size so checkpoints stay valid across resumed runs
+                    long first = Math.floorDiv(min, properties.getRangeSize()) * properties.getRangeSize();
+                    for (long start = first; start <= max; start += properties.getRangeSize()) {
+                        ranges.add(new long[]{start, Math.min(start + properties.getRangeSize() - 1, max)});
+                    }
+                },
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+        return ranges;
+    }
+
+    private long processRange(Path monthDir, long firstPlayer, long lastPlayer,
+                              LocalDateTime from, LocalDateTime to, Throttle throttle) throws IOException {
+        Path checkpoint = monthDir.resolve(".checkpoints").resolve("range-" + firstPlayer + ".ckpt");
+        String saved = Files.exists(checkpoint) ? Files.readString(checkpoint).trim() : null;
+        if (saved != null && saved.startsWith(DONE)) {
+            // The last range ends at the highest player id of its run; resume past it if newer players exist
+            saved = saved.substring(DONE.length());
+            if (Long.parseLong(saved) >= lastPlayer) {
+                return 0;
+            }
+        }
+        long resumeFrom = saved != null ? Long.parseLong(saved) + 1 : firstPlayer;
+
+        RangeWriter writer = new RangeWriter(monthDir, checkpoint, throttle);
+        // PostgreSQL only streams with a cursor inside a transaction; otherwise the whole result is buffered
+        readOnlyTransaction.executeWithoutResult(tx -> cursorTemplate.query(RANGE_QUERY, writer::append,
+                resumeFrom, lastPlayer, Timestamp.valueOf(from), Timestamp.valueOf(to)));
+        writer.finish();
+        writeAtomically(checkpoint, DONE + lastPlayer);
+        return writer.playersWritten;
+    }
+
+    private static void writeAtomically(Path target, String content) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.writeString(tmp, content);
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
+    private static String plain(BigDecimal value) {
+        return value != null ? value.toPlainString() : "";
+    }
+
+    /**
+     * Progress of a run, updated by the range workers and read by status requests. Counters are atomics so
+     * concurrent updates never go backwards; the final state is published after them.
+     */
+    static final class Run {
+
+        private final YearMonth month;
+        private final LocalDateTime startedAt;
+        private final AtomicInteger completedRanges = new AtomicInteger();
+        private final AtomicLong playersWritten = new AtomicLong();
+        private volatile int totalRanges;
+        private volatile String state = "RUNNING";
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        Run(YearMonth month, LocalDateTime startedAt) {
+            this.month = month;
+            this.startedAt = startedAt;
+        }
+
+        void finish(String state, String error) {
+            this.error = error;
+            this.finishedAt = LocalDateTime.now();
+            this.state = state;
+        }
+
+        StatementRunStatus toStatus() {
+            String state = this.state;
+            return StatementRunStatus.builder()
+                    .month(month)
+                    .state(state)
+                    .totalRanges(totalRanges)
+                    .completedRanges(completedRanges.get())
+                    .playersWritten(playersWritten.get())
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+
+    /**
+     * Streams one range's rows into per-player files. Rows arrive ordered by player, so a change of player id
+     * closes the previous file.
+     */
+    private final class RangeWriter {
+
+        private final Path monthDir;
+        private final Path checkpoint;
+        private final Throttle throttle;
+        private long currentPlayer = -1;
+        private Path currentTmp;
+        private Writer current;
+        private long playersWritten;
+
+        RangeWriter(Path monthDir, Path checkpoint, Throttle throttle) {
+            this.monthDir = monthDir;
+            this.checkpoint = checkpoint;
+            this.throttle = throttle;
+        }
+
+        void append(ResultSet rs) throws SQLException {
+            try {
+                long playerId = rs.getLong("player_id");
+                if (playerId != currentPlayer) {
+                    closeCurrent();
+                    open(playerId);
+                }
+                current.write(rs.getTimestamp("timestamp").toLocalDateTime().toString());
+                current.write(',');
+                current.write(rs.getString("type"));
+                current.write(',');
+                current.write(rs.getString("currency"));
+                current.write(',');
+                current.write(plain(rs.getBigDecimal("amount")));
+                current.write(',');
+                current.write(plain(rs.getBigDecimal("balance_before")));
+                current.write(',');
+                current.write(plain(rs.getBigDecimal("balance_after")));
+                current.write(',');
+                current.write(csv(rs.getString("description")));
+                current.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() throws IOException {
+            closeCurrent();
+        }
+
+        private void open(long playerId) throws IOException {
+            try {
+                throttle.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while throttled", e);
+            }
+            currentPlayer = playerId;
+            currentTmp = monthDir.resolve("player-" + playerId + ".csv.gz.tmp");
+            current = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(currentTmp), 8192), StandardCharsets.UTF_8));
+            current.write(HEADER);
+        }
+
+        private void closeCurrent() throws IOException {
+            if (current == null) {
+                return;
+            }
+            current.close();
+            Files.move(currentTmp, monthDir.resolve("player-" + currentPlayer + ".csv.gz"),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            current = null;
+            playersWritten++;
+            playersCounter.increment();
+            if (playersWritten % properties.getCheckpointInterval() == 0) {
+                writeAtomically(checkpoint, Long.toString(currentPlayer));
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.elavationlab.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.elavationlab.domain.PendingWithdrawal;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local gateway that accepts every payout. Used until a real provider integration is configured.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "wallet.withdrawals.gateway", havingValue = "stub", matchIfMissing = true)
+public class StubPayoutGateway implements PayoutGateway {
+
+    @Override
+    public PayoutResult payout(PendingWithdrawal withdrawal) {
+        log.debug("Stub payout of {} {} for player {} (withdrawal {})",
+                withdrawal.getAmount(), withdrawal.getCurrency(), withdrawal.getPlayerId(), withdrawal.getId());
+        return PayoutResult.success();
+    }
+}
@@ -1,20 +1,21 @@
 package org.elavationlab.service;
 
-import org.elavationlab.domain.Transaction;
-import org.elavationlab.domain.Wallet;
 import org.elavationlab.dto.TransactionResponse;
 import org.elavationlab.exception.WalletNotFoundException;
 import org.elavationlab.repository.TransactionRepository;
 import org.elavationlab.repository.WalletRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class TransactionService {
 
+    private static final int MAX_LOOKUP_RESULTS = 10_000;
+
     private final TransactionRepository transactionRepository;
     private final WalletRepository walletRepository;
 
@@ -23,31 +24,31 @@ public class TransactionService {
         this.walletRepository = walletRepository;
     }
 
+    /**
+     * Selects the history straight into response objects in a read-only transaction, so no entities enter the
+     * persistence context and nothing is snapshotted, dirty-checked or flushed.
+     */
+    @Transactional(readOnly = true, timeout = WalletService.QUERY_TIMEOUT_SECONDS)
     public List<TransactionResponse> getTransactionHistory(Integer playerId, String currency, int days) {
-        // Verify wallet exists
-        walletRepository.findByPlayerIdAndCurrency(playerId, currency)
-                .orElseThrow(() -> new WalletNotFoundException("Wallet not found for player " + playerId + " and currency " + currency));
+        if (!walletRepository.existsByPlayerIdAndCurrency(playerId, currency)) {
+            throw new WalletNotFoundException("Wallet not found for player " + playerId + " and currency " + currency);
+        }
 
         LocalDateTime since = LocalDateTime.now().minusDays(days);
-        List<Transaction> transactions = transactionRepository.findRecentTransactions(playerId, currency, since);
+        return transactionRepository.findRecentTransactions(playerId, currency, since);
+    }
 
-        return transactions.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true, timeout = WalletService.QUERY_TIMEOUT_SECONDS)
+    public List<TransactionResponse> getGameTransactions(String gameId, int days, int limit) {
+        return transactionRepository.findByGame(gameId, LocalDateTime.now().minusDays(days), page(limit));
     }
 
-    private TransactionResponse mapToResponse(Transaction transaction) {
-        return TransactionResponse.builder()
-                .id(transaction.getId())
-                .playerId(transaction.getPlayerId())
-                .type(transaction.getType())
-                .amount(transaction.getAmount())
-                .currency(transaction.getCurrency())
-                .balanceBefore(transaction.getBalanceBefore())
-                .balanceAfter(transaction.getBalanceAfter())
-                .timestamp(transaction.getTimestamp())
-                .description(transaction.getDescription())
-                .build();
+    @Transactional(readOnly = true, timeout = WalletService.QUERY_TIMEOUT_SECONDS)
+    public List<TransactionResponse> getBonusTransactions(String bonusCode, int days, int limit) {
+        return transactionRepository.findByBonus(bonusCode, LocalDateTime.now().minusDays(days), page(limit));
     }
-}
 
+    private static PageRequest page(int limit) {
+        return PageRequest.of(0, Math.max(1, Math.min(limit, MAX_LOOKUP_RESULTS)));
+    }
+}
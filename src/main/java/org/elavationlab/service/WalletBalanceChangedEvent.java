@@ -0,0 +1,17 @@
+package org.elavationlab.service;
+
+import org.elavationlab.dto.WalletBalanceResponse;
+
+/**
+ * Published inside the transaction that changed a wallet; listeners that need committed state use
+ * {@code @TransactionalEventListener}.
+ * <p>
+ * The sequence is taken while the wallet is locked, so it orders the changes of one wallet on this node even when
+ * their after-commit listeners run out of order.
+ */
+public record WalletBalanceChangedEvent(WalletBalanceResponse balance, long sequence) {
+
+    public WalletBalanceChangedEvent(WalletBalanceResponse balance) {
+        this(balance, System.nanoTime());
+    }
+}
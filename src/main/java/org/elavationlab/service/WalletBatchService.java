@@ -0,0 +1,79 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.elavationlab.dto.BatchOperation;
+import org.elavationlab.dto.BatchResponse;
+import org.elavationlab.dto.BatchResult;
+import org.elavationlab.dto.WalletBalanceResponse;
+import org.elavationlab.exception.InsufficientFundsException;
+import org.elavationlab.exception.InvalidAmountException;
+import org.elavationlab.exception.UnsupportedCurrencyException;
+import org.elavationlab.exception.WalletConflictException;
+import org.elavationlab.exception.WalletNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs a batch of bets, wins and balance reads for game servers that would otherwise make one call per
+ * operation. Operations run in order, each in its own transaction with the usual conflict retries, so one failed
+ * operation is reported in its result without affecting the others.
+ */
+@Slf4j
+@Service
+public class WalletBatchService {
+
+    private final WalletService walletService;
+    private final Map<BatchResult.Status, Counter> resultCounters = new EnumMap<>(BatchResult.Status.class);
+
+    public WalletBatchService(WalletService walletService, MeterRegistry meterRegistry) {
+        this.walletService = walletService;
+        for (BatchResult.Status status : BatchResult.Status.values()) {
+            resultCounters.put(status, Counter.builder("wallet.batch.operations.total")
+                    .tag("status", status.name().toLowerCase()).register(meterRegistry));
+        }
+    }
+
+    public BatchResponse execute(List<BatchOperation> operations) {
+        List<BatchResult> results = new ArrayList<>(operations.size());
+        for (BatchOperation operation : operations) {
+            BatchResult result = execute(operation);
+            resultCounters.get(result.getStatus()).increment();
+            results.add(result);
+        }
+        return new BatchResponse(results);
+    }
+
+    private BatchResult execute(BatchOperation operation) {
+        try {
+            WalletBalanceResponse balance = switch (operation.getType()) {
+                case BET -> walletService.processBet(operation.getPlayerId(), operation.getAmount(),
+                        operation.getCurrency(), operation.getGameId(), operation.getRoundId());
+                case WIN -> walletService.processWin(operation.getPlayerId(), operation.getAmount(),
+                        operation.getCurrency(), operation.getGameId(), operation.getRoundId());
+                case BALANCE -> walletService.getBalance(operation.getPlayerId(), operation.getCurrency());
+            };
+            return BatchResult.builder().status(BatchResult.Status.OK).balance(balance).build();
+        } catch (InsufficientFundsException e) {
+            return failed(BatchResult.Status.INSUFFICIENT_FUNDS, e);
+        } catch (WalletNotFoundException e) {
+            return failed(BatchResult.Status.WALLET_NOT_FOUND, e);
+        } catch (InvalidAmountException | UnsupportedCurrencyException e) {
+            return failed(BatchResult.Status.INVALID_REQUEST, e);
+        } catch (WalletConflictException e) {
+            return failed(BatchResult.Status.CONFLICT, e);
+        } catch (RuntimeException e) {
+            log.error("Batch {} for player {} failed", operation.getType(), operation.getPlayerId(), e);
+            return failed(BatchResult.Status.ERROR, e);
+        }
+    }
+
+    private static BatchResult failed(BatchResult.Status status, Exception e) {
+        return BatchResult.builder().status(status).message(e.getMessage()).build();
+    }
+}
@@ -0,0 +1,31 @@
+package org.elavationlab.service;
+
+import org.elavationlab.dto.WalletBalanceResponse;
+import org.elavationlab.exception.WalletException;
+
+import java.math.BigDecimal;
+
+/**
+ * A bet or win to apply through {@link GroupCommitExecutor}.
+ */
+public record WalletMutation(Type type, Integer playerId, BigDecimal amount, String currency, String gameId,
+                             String roundId) {
+
+    public enum Type {
+        BET, WIN
+    }
+
+    public static WalletMutation bet(Integer playerId, BigDecimal amount, String currency, String gameId, String roundId) {
+        return new WalletMutation(Type.BET, playerId, amount, currency, gameId, roundId);
+    }
+
+    public static WalletMutation win(Integer playerId, BigDecimal amount, String currency, String gameId, String roundId) {
+        return new WalletMutation(Type.WIN, playerId, amount, currency, gameId, roundId);
+    }
+
+    /**
+     * The new balance of an applied mutation, or why it was rejected.
+     */
+    public record Outcome(WalletBalanceResponse balance, WalletException failure) {
+    }
+}
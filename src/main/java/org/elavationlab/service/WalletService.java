@@ -3,40 +3,68 @@ package org.elavationlab.service;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import org.elavationlab.domain.PendingWithdrawal;
 import org.elavationlab.domain.Transaction;
 import org.elavationlab.domain.Wallet;
 import org.elavationlab.dto.MultiCurrencyBalanceResponse;
+import org.elavationlab.dto.TransferResponse;
 import org.elavationlab.dto.WalletBalanceResponse;
+import org.elavationlab.dto.WalletChangeEvent;
 import org.elavationlab.exception.InsufficientFundsException;
 import org.elavationlab.exception.InvalidAmountException;
 import org.elavationlab.exception.UnsupportedCurrencyException;
+import org.elavationlab.exception.WalletException;
 import org.elavationlab.exception.WalletNotFoundException;
+import org.elavationlab.repository.BonusBucketRepository;
+import org.elavationlab.repository.OutboxWriter;
+import org.elavationlab.repository.PendingWithdrawalRepository;
 import org.elavationlab.repository.TransactionRepository;
-import org.elavationlab.repository.WalletRepository;
+import org.elavationlab.repository.WalletStore;
+import org.elavationlab.util.ExchangeRates;
+import org.elavationlab.util.LedgerHash;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
 public class WalletService {
 
+    /**
+     * Every statement and lock wait of an operation must finish within this, NFR-003's commit budget; a stalled
+     * database then fails the request fast instead of holding its thread and connection.
+     */
+    static final int OPERATION_TIMEOUT_SECONDS = 1;
+
+    /**
+     * History and report reads scan more rows than a wallet operation; they get longer, but still fail well before
+     * a stalled database would hold their request thread for the client's own timeout.
+     */
+    static final int QUERY_TIMEOUT_SECONDS = 5;
+
     private static final BigDecimal MAX_DEPOSIT = new BigDecimal("10000.00");
     private static final BigDecimal MAX_WITHDRAWAL = new BigDecimal("5000.00");
-    private static final Map<String, BigDecimal> EXCHANGE_RATES = Map.of(
-            "USD", BigDecimal.ONE,
-            "EUR", new BigDecimal("0.85"),
-            "GBP", new BigDecimal("0.73"),
-            "CAD", new BigDecimal("1.25")
-    );
-
-    private final WalletRepository walletRepository;
+
+    private final WalletStore walletStore;
+    private final BalanceReadCoalescer balanceReadCoalescer;
+    private final BonusBucketRepository bonusBucketRepository;
     private final TransactionRepository transactionRepository;
+    private final OutboxWriter outboxWriter;
+    private final PendingWithdrawalRepository pendingWithdrawalRepository;
+    private final WalletTransferService walletTransferService;
+    private final PlayerActivityService playerActivityService;
+    private final GameRevenueService gameRevenueService;
+    private final ApplicationEventPublisher eventPublisher;
     private final MeterRegistry meterRegistry;
     private Counter depositCounter;
     private Counter withdrawalCounter;
@@ -46,9 +74,22 @@ public class WalletService {
     private Counter errorCounter;
     private Timer transactionTimer;
 
-    public WalletService(WalletRepository walletRepository, TransactionRepository transactionRepository, MeterRegistry meterRegistry) {
-        this.walletRepository = walletRepository;
+    public WalletService(WalletStore walletStore, BalanceReadCoalescer balanceReadCoalescer,
+                         BonusBucketRepository bonusBucketRepository, TransactionRepository transactionRepository,
+                         OutboxWriter outboxWriter, PendingWithdrawalRepository pendingWithdrawalRepository,
+                         WalletTransferService walletTransferService,
+                         PlayerActivityService playerActivityService, GameRevenueService gameRevenueService,
+                         ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.walletStore = walletStore;
+        this.balanceReadCoalescer = balanceReadCoalescer;
+        this.bonusBucketRepository = bonusBucketRepository;
         this.transactionRepository = transactionRepository;
+        this.outboxWriter = outboxWriter;
+        this.pendingWithdrawalRepository = pendingWithdrawalRepository;
+        this.walletTransferService = walletTransferService;
+        this.playerActivityService = playerActivityService;
+        this.gameRevenueService = gameRevenueService;
+        this.eventPublisher = eventPublisher;
         this.meterRegistry = meterRegistry;
         this.depositCounter = Counter.builder("wallet.transactions.total").tag("type", "deposit").register(meterRegistry);
         this.withdrawalCounter = Counter.builder("wallet.transactions.total").tag("type", "withdrawal").register(meterRegistry);
@@ -59,7 +100,8 @@ public class WalletService {
         this.transactionTimer = Timer.builder("wallet.transactions.duration").register(meterRegistry);
     }
 
-    @Transactional
+    @RetryOnConflict("deposit")
+    @Transactional(timeout = OPERATION_TIMEOUT_SECONDS)
     public WalletBalanceResponse processDeposit(Integer playerId, BigDecimal amount, String currency) {
         return transactionTimer.record(() -> {
             try {
@@ -70,7 +112,7 @@ public class WalletService {
                     throw new InvalidAmountException("Exceeds deposit limit of " + MAX_DEPOSIT);
                 }
 
-                Wallet wallet = walletRepository.findByPlayerIdAndCurrency(playerId, currency)
+                Wallet wallet = walletStore.findForUpdate(playerId, currency)
                         .orElse(Wallet.builder()
                                 .playerId(playerId)
                                 .currency(currency)
@@ -80,11 +122,12 @@ public class WalletService {
 
                 BigDecimal balanceBefore = wallet.getBalance();
                 wallet.setBalance(wallet.getBalance().add(amount));
-                Wallet savedWallet = walletRepository.save(wallet);
+                Wallet savedWallet = walletStore.save(wallet);
                 balanceUpdateCounter.increment();
 
-                createTransaction(playerId, Transaction.TransactionType.DEPOSIT, amount, currency,
-                        balanceBefore, savedWallet.getBalance(), "Deposit via payment gateway");
+                createTransaction(savedWallet, Transaction.TransactionType.DEPOSIT, amount,
+                        balanceBefore, savedWallet.getBalance(), BigDecimal.ZERO,
+                        Transaction.builder().description("Deposit via payment gateway"));
                 depositCounter.increment();
 
                 return mapToResponse(savedWallet);
@@ -95,7 +138,8 @@ public class WalletService {
         });
     }
 
-    @Transactional
+    @RetryOnConflict("withdraw")
+    @Transactional(timeout = OPERATION_TIMEOUT_SECONDS)
     public WalletBalanceResponse processWithdrawal(Integer playerId, BigDecimal amount, String currency) {
         return transactionTimer.record(() -> {
             try {
@@ -105,7 +149,7 @@ public class WalletService {
                     throw new InvalidAmountException("Exceeds withdrawal limit of " + MAX_WITHDRAWAL);
                 }
 
-                Wallet wallet = walletRepository.findByPlayerIdAndCurrency(playerId, currency)
+                Wallet wallet = walletStore.findForUpdate(playerId, currency)
                         .orElseThrow(() -> new WalletNotFoundException("Wallet not found for player " + playerId + " and currency " + currency));
 
                 if (wallet.getBalance().compareTo(amount) < 0) {
@@ -114,11 +158,17 @@ public class WalletService {
 
                 BigDecimal balanceBefore = wallet.getBalance();
                 wallet.setBalance(wallet.getBalance().subtract(amount));
-                Wallet savedWallet = walletRepository.save(wallet);
+                Wallet savedWallet = walletStore.save(wallet);
                 balanceUpdateCounter.increment();
 
-                createTransaction(playerId, Transaction.TransactionType.WITHDRAWAL, amount, currency,
-                        balanceBefore, savedWallet.getBalance(), "Withdrawal requested");
+                createTransaction(savedWallet, Transaction.TransactionType.WITHDRAWAL, amount,
+                        balanceBefore, savedWallet.getBalance(), BigDecimal.ZERO,
+                        Transaction.builder().description("Withdrawal requested"));
+                pendingWithdrawalRepository.save(PendingWithdrawal.builder()
+                        .playerId(playerId)
+                        .amount(amount)
+                        .currency(currency)
+                        .build());
                 withdrawalCounter.increment();
 
                 return mapToResponse(savedWallet);
@@ -129,92 +179,191 @@ public class WalletService {
         });
     }
 
-    @Transactional
-    public void processBet(Integer playerId, BigDecimal amount, String currency, String gameId) {
-        transactionTimer.record(() -> {
-            try {
-                validateAmount(amount);
+    @RetryOnConflict("bet")
+    @Transactional(timeout = OPERATION_TIMEOUT_SECONDS)
+    public WalletBalanceResponse processBet(Integer playerId, BigDecimal amount, String currency, String gameId) {
+        return processBet(playerId, amount, currency, gameId, null);
+    }
 
-                Wallet wallet = walletRepository.findByPlayerIdAndCurrency(playerId, currency)
-                        .orElseThrow(() -> new WalletNotFoundException("Wallet not found for player " + playerId + " and currency " + currency));
+    @RetryOnConflict("bet")
+    @Transactional(timeout = OPERATION_TIMEOUT_SECONDS)
+    public WalletBalanceResponse processBet(Integer playerId, BigDecimal amount, String currency, String gameId,
+                                            String roundId) {
+        return applyBet(playerId, amount, currency, gameId, roundId);
+    }
 
-                BigDecimal totalAvailable = wallet.getBalance().add(wallet.getBonusBalance());
-                if (totalAvailable.compareTo(amount) < 0) {
-                    throw new InsufficientFundsException("Insufficient funds. Available: " + totalAvailable);
-                }
+    @RetryOnConflict("win")
+    @Transactional(timeout = OPERATION_TIMEOUT_SECONDS)
+    public WalletBalanceResponse processWin(Integer playerId, BigDecimal amount, String currency, String gameId) {
+        return processWin(playerId, amount, currency, gameId, null);
+    }
 
-                BigDecimal balanceBefore = wallet.getBalance();
-                BigDecimal remainingAmount = amount;
-
-                // Deduct from bonus first, then from balance
-                if (wallet.getBonusBalance().compareTo(BigDecimal.ZERO) > 0) {
-                    if (wallet.getBonusBalance().compareTo(remainingAmount) >= 0) {
-                        wallet.setBonusBalance(wallet.getBonusBalance().subtract(remainingAmount));
-                        remainingAmount = BigDecimal.ZERO;
-                    } else {
-                        remainingAmount = remainingAmount.subtract(wallet.getBonusBalance());
-                        wallet.setBonusBalance(BigDecimal.ZERO);
-                    }
-                }
+    @RetryOnConflict("win")
+    @Transactional(timeout = OPERATION_TIMEOUT_SECONDS)
+    public WalletBalanceResponse processWin(Integer playerId, BigDecimal amount, String currency, String gameId,
+                                            String roundId) {
+        return applyWin(playerId, amount, currency, gameId, roundId);
+    }
 
-                if (remainingAmount.compareTo(BigDecimal.ZERO) > 0) {
-                    wallet.setBalance(wallet.getBalance().subtract(remainingAmount));
-                }
+    /**
+     * Applies bets and wins in one transaction, for {@link GroupCommitExecutor}, and returns their outcomes in
+     * order. A mutation rejected with a {@link WalletException} is reported in its outcome without affecting the
+     * others: bets and wins only throw those before they write anything. Any other failure rolls back the group.
+     */
+    @Transactional(timeout = OPERATION_TIMEOUT_SECONDS)
+    public List<WalletMutation.Outcome> applyMutations(List<WalletMutation> mutations) {
+        List<WalletMutation.Outcome> outcomes = new ArrayList<>(mutations.size());
+        for (WalletMutation mutation : mutations) {
+            try {
+                WalletBalanceResponse balance = switch (mutation.type()) {
+                    case BET -> applyBet(mutation.playerId(), mutation.amount(), mutation.currency(),
+                            mutation.gameId(), mutation.roundId());
+                    case WIN -> applyWin(mutation.playerId(), mutation.amount(), mutation.currency(),
+                            mutation.gameId(), mutation.roundId());
+                };
+                outcomes.add(new WalletMutation.Outcome(balance, null));
+            } catch (WalletException e) {
+                outcomes.add(new WalletMutation.Outcome(null, e));
+            }
+        }
+        return outcomes;
+    }
 
-                Wallet savedWallet = walletRepository.save(wallet);
-                balanceUpdateCounter.increment();
+    private WalletBalanceResponse applyBet(Integer playerId, BigDecimal amount, String currency, String gameId,
+                                           String roundId) {
+        long start = System.nanoTime();
+        try {
+            validateAmount(amount);
+
+            Wallet wallet = walletStore.findForUpdate(playerId, currency)
+                    .orElseThrow(() -> new WalletNotFoundException("Wallet not found for player " + playerId + " and currency " + currency));
+
+            // Expired buckets stay in the bonus balance until the sweeper removes them, but cannot be spent.
+            // Wallets without bonus money, most of them, skip the buckets entirely.
+            LocalDateTime now = LocalDateTime.now();
+            List<BonusBucketRepository.Bucket> buckets = List.of();
+            BigDecimal spendableBonus = BigDecimal.ZERO;
+            if (wallet.getBonusBalance().signum() > 0) {
+                buckets = bonusBucketRepository.findLive(wallet.getId());
+                BigDecimal expired = buckets.stream()
+                        .filter(bucket -> bucket.isExpiredAt(now))
+                        .map(BonusBucketRepository.Bucket::remaining)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add);
+                spendableBonus = wallet.getBonusBalance().subtract(expired).max(BigDecimal.ZERO);
+            }
 
-                createTransaction(playerId, Transaction.TransactionType.BET, amount, currency,
-                        balanceBefore, savedWallet.getBalance(), "Bet on game " + gameId);
-                betCounter.increment();
-            } catch (Exception e) {
-                errorCounter.increment();
-                throw e;
+            BigDecimal totalAvailable = wallet.getBalance().add(spendableBonus);
+            if (totalAvailable.compareTo(amount) < 0) {
+                throw new InsufficientFundsException("Insufficient funds. Available: " + totalAvailable);
             }
-        });
-    }
 
-    @Transactional
-    public WalletBalanceResponse processWin(Integer playerId, BigDecimal amount, String currency, String gameId) {
-        return transactionTimer.record(() -> {
-            try {
-                validateAmount(amount);
+            BigDecimal balanceBefore = wallet.getBalance();
+            BigDecimal bonusBefore = wallet.getBonusBalance();
 
-                Wallet wallet = walletRepository.findByPlayerIdAndCurrency(playerId, currency)
-                        .orElseThrow(() -> new WalletNotFoundException("Wallet not found for player " + playerId + " and currency " + currency));
+            // Deduct from bonus first, oldest grant first, then from balance
+            BigDecimal bonusSpent = spendableBonus.min(amount);
+            if (bonusSpent.signum() > 0) {
+                wallet.setBonusBalance(wallet.getBonusBalance().subtract(bonusSpent));
+                bonusBucketRepository.setRemaining(BonusBucketRepository.drain(buckets, bonusSpent, now));
+            }
 
-                BigDecimal balanceBefore = wallet.getBalance();
-                wallet.setBalance(wallet.getBalance().add(amount));
-                Wallet savedWallet = walletRepository.save(wallet);
-                balanceUpdateCounter.increment();
+            BigDecimal remainingAmount = amount.subtract(bonusSpent);
+            if (remainingAmount.compareTo(BigDecimal.ZERO) > 0) {
+                wallet.setBalance(wallet.getBalance().subtract(remainingAmount));
+            }
 
-                createTransaction(playerId, Transaction.TransactionType.WIN, amount, currency,
-                        balanceBefore, savedWallet.getBalance(), "Win from game " + gameId);
-                winCounter.increment();
+            Wallet savedWallet = walletStore.save(wallet);
 
-                return mapToResponse(savedWallet);
-            } catch (Exception e) {
-                errorCounter.increment();
-                throw e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(e);
+            createTransaction(savedWallet, Transaction.TransactionType.BET, amount,
+                    balanceBefore, savedWallet.getBalance(), savedWallet.getBonusBalance().subtract(bonusBefore),
+                    Transaction.builder().gameId(gameId).roundId(roundId));
+            gameRevenueService.record(gameId, currency, Transaction.TransactionType.BET, amount);
+            countAfterCommit(betCounter, System.nanoTime() - start);
+
+            return mapToResponse(savedWallet);
+        } catch (Exception e) {
+            errorCounter.increment();
+            throw e;
+        }
+    }
+
+    private WalletBalanceResponse applyWin(Integer playerId, BigDecimal amount, String currency, String gameId,
+                                           String roundId) {
+        long start = System.nanoTime();
+        try {
+            validateAmount(amount);
+
+            Wallet wallet = walletStore.findForUpdate(playerId, currency)
+                    .orElseThrow(() -> new WalletNotFoundException("Wallet not found for player " + playerId + " and currency " + currency));
+
+            BigDecimal balanceBefore = wallet.getBalance();
+            wallet.setBalance(wallet.getBalance().add(amount));
+            Wallet savedWallet = walletStore.save(wallet);
+
+            createTransaction(savedWallet, Transaction.TransactionType.WIN, amount,
+                    balanceBefore, savedWallet.getBalance(), BigDecimal.ZERO,
+                    Transaction.builder().gameId(gameId).roundId(roundId));
+            gameRevenueService.record(gameId, currency, Transaction.TransactionType.WIN, amount);
+            countAfterCommit(winCounter, System.nanoTime() - start);
+
+            return mapToResponse(savedWallet);
+        } catch (Exception e) {
+            errorCounter.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Counts a bet or win and its balance update, and times it, once its transaction commits: a group that rolls
+     * back is applied again one mutation at a time, and must not be counted twice. Outside a transaction it counts
+     * at once, like {@link GameRevenueService#record}.
+     */
+    private void countAfterCommit(Counter counter, long elapsedNanos) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            count(counter, elapsedNanos);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                count(counter, elapsedNanos);
             }
         });
     }
 
-    @Transactional
+    private void count(Counter counter, long elapsedNanos) {
+        counter.increment();
+        balanceUpdateCounter.increment();
+        transactionTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @RetryOnConflict("bonus")
+    @Transactional(timeout = OPERATION_TIMEOUT_SECONDS)
     public WalletBalanceResponse addBonusBalance(Integer playerId, BigDecimal amount, String currency, String bonusCode) {
+        return addBonusBalance(playerId, amount, currency, bonusCode, null);
+    }
+
+    /**
+     * Grants bonus money that expires at {@code expiresAt}, or never if it is null.
+     */
+    @RetryOnConflict("bonus")
+    @Transactional(timeout = OPERATION_TIMEOUT_SECONDS)
+    public WalletBalanceResponse addBonusBalance(Integer playerId, BigDecimal amount, String currency, String bonusCode,
+                                                 LocalDateTime expiresAt) {
         return transactionTimer.record(() -> {
             try {
                 validateAmount(amount);
 
-                Wallet wallet = walletRepository.findByPlayerIdAndCurrency(playerId, currency)
+                Wallet wallet = walletStore.findForUpdate(playerId, currency)
                         .orElseThrow(() -> new WalletNotFoundException("Wallet not found for player " + playerId + " and currency " + currency));
 
                 wallet.setBonusBalance(wallet.getBonusBalance().add(amount));
-                Wallet savedWallet = walletRepository.save(wallet);
+                Wallet savedWallet = walletStore.save(wallet);
+                bonusBucketRepository.grant(List.of(savedWallet.getId()), bonusCode, amount, LocalDateTime.now(), expiresAt);
                 balanceUpdateCounter.increment();
 
-                createTransaction(playerId, Transaction.TransactionType.BONUS, amount, currency,
-                        null, null, "Bonus credited: " + bonusCode);
+                createTransaction(savedWallet, Transaction.TransactionType.BONUS, amount,
+                        null, null, amount, Transaction.builder().bonusCode(bonusCode));
 
                 return mapToResponse(savedWallet);
             } catch (Exception e) {
@@ -224,7 +373,8 @@ public class WalletService {
         });
     }
 
-    @Transactional
+    @RetryOnConflict("convert")
+    @Transactional(timeout = OPERATION_TIMEOUT_SECONDS)
     public WalletBalanceResponse convertCurrency(Integer playerId, String fromCurrency, String toCurrency, BigDecimal amount) {
         return transactionTimer.record(() -> {
             try {
@@ -232,39 +382,41 @@ public class WalletService {
                 validateCurrency(fromCurrency);
                 validateCurrency(toCurrency);
 
-                Wallet sourceWallet = walletRepository.findByPlayerIdAndCurrency(playerId, fromCurrency)
-                        .orElseThrow(() -> new WalletNotFoundException("Source wallet not found for player " + playerId + " and currency " + fromCurrency));
-
-                if (sourceWallet.getBalance().compareTo(amount) < 0) {
-                    throw new InsufficientFundsException("Insufficient funds in " + fromCurrency + " wallet");
-                }
-
-                BigDecimal fromRate = EXCHANGE_RATES.get(fromCurrency);
-                BigDecimal toRate = EXCHANGE_RATES.get(toCurrency);
+                BigDecimal fromRate = ExchangeRates.PER_USD.get(fromCurrency);
+                BigDecimal toRate = ExchangeRates.PER_USD.get(toCurrency);
                 BigDecimal convertedAmount = amount.divide(fromRate, 10, RoundingMode.HALF_UP)
                         .multiply(toRate)
                         .setScale(2, RoundingMode.HALF_UP);
+                validateAmount(convertedAmount);
 
-                sourceWallet.setBalance(sourceWallet.getBalance().subtract(amount));
-                walletRepository.save(sourceWallet);
-                balanceUpdateCounter.increment();
+                TransferResponse transfer = walletTransferService.transfer(WalletTransferService.Kind.CONVERSION,
+                        new WalletTransferService.Leg(playerId, fromCurrency, amount),
+                        new WalletTransferService.Leg(playerId, toCurrency, convertedAmount),
+                        "Converted " + amount + " " + fromCurrency + " to " + convertedAmount + " " + toCurrency);
+                balanceUpdateCounter.increment(2);
 
-                Wallet targetWallet = walletRepository.findByPlayerIdAndCurrency(playerId, toCurrency)
-                        .orElse(Wallet.builder()
-                                .playerId(playerId)
-                                .currency(toCurrency)
-                                .balance(BigDecimal.ZERO)
-                                .bonusBalance(BigDecimal.ZERO)
-                                .build());
+                return transfer.getTarget();
+            } catch (Exception e) {
+                errorCounter.increment();
+                throw e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(e);
+            }
+        });
+    }
 
-                targetWallet.setBalance(targetWallet.getBalance().add(convertedAmount));
-                walletRepository.save(targetWallet);
-                balanceUpdateCounter.increment();
+    @Transactional(timeout = OPERATION_TIMEOUT_SECONDS)
+    public TransferResponse transferToPlayer(Integer fromPlayerId, Integer toPlayerId, BigDecimal amount, String currency) {
+        return transactionTimer.record(() -> {
+            try {
+                validateAmount(amount);
+                validateCurrency(currency);
 
-                createTransaction(playerId, Transaction.TransactionType.CONVERSION, amount, fromCurrency,
-                        null, null, "Converted to " + convertedAmount + " " + toCurrency);
+                TransferResponse transfer = walletTransferService.transfer(WalletTransferService.Kind.P2P,
+                        new WalletTransferService.Leg(fromPlayerId, currency, amount),
+                        new WalletTransferService.Leg(toPlayerId, currency, amount),
+                        "Transfer from player " + fromPlayerId + " to player " + toPlayerId);
+                balanceUpdateCounter.increment(2);
 
-                return mapToResponse(targetWallet);
+                return transfer;
             } catch (Exception e) {
                 errorCounter.increment();
                 throw e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(e);
@@ -272,31 +424,34 @@ public class WalletService {
         });
     }
 
+    /**
+     * Not transactional: concurrent reads of the same wallet share one read-only transaction in
+     * {@link BalanceReadCoalescer}.
+     */
     public WalletBalanceResponse getBalance(Integer playerId, String currency) {
-        Wallet wallet = walletRepository.findByPlayerIdAndCurrency(playerId, currency)
+        return balanceReadCoalescer.findBalance(playerId, currency)
                 .orElseThrow(() -> new WalletNotFoundException("Wallet not found for player " + playerId + " and currency " + currency));
+    }
 
-        return mapToResponse(wallet);
+    @Transactional(readOnly = true, timeout = OPERATION_TIMEOUT_SECONDS)
+    public List<WalletBalanceResponse> getBalances(Integer playerId) {
+        return walletStore.findBalances(playerId);
     }
 
+    @Transactional(readOnly = true, timeout = OPERATION_TIMEOUT_SECONDS)
     public MultiCurrencyBalanceResponse getAllBalances(Integer playerId) {
-        List<Wallet> wallets = walletRepository.findByPlayerId(playerId);
-        
-        List<MultiCurrencyBalanceResponse.CurrencyBalance> currencyBalances = wallets.stream()
-                .map(wallet -> MultiCurrencyBalanceResponse.CurrencyBalance.builder()
-                        .currency(wallet.getCurrency())
-                        .balance(wallet.getBalance())
-                        .bonusBalance(wallet.getBonusBalance())
-                        .totalBalance(wallet.getTotalBalance())
+        List<MultiCurrencyBalanceResponse.CurrencyBalance> currencyBalances = walletStore.findBalances(playerId).stream()
+                .map(balance -> MultiCurrencyBalanceResponse.CurrencyBalance.builder()
+                        .currency(balance.getCurrency())
+                        .balance(balance.getBalance())
+                        .bonusBalance(balance.getBonusBalance())
+                        .totalBalance(balance.getTotalBalance())
                         .build())
                 .collect(Collectors.toList());
 
         // Calculate total balance in USD
         BigDecimal totalBalanceInUSD = currencyBalances.stream()
-                .map(cb -> {
-                    BigDecimal rate = EXCHANGE_RATES.getOrDefault(cb.getCurrency(), BigDecimal.ONE);
-                    return cb.getTotalBalance().divide(rate, 10, RoundingMode.HALF_UP);
-                })
+                .map(cb -> ExchangeRates.toUsd(cb.getTotalBalance(), cb.getCurrency()))
                 .reduce(BigDecimal.ZERO, BigDecimal::add)
                 .setScale(2, RoundingMode.HALF_UP);
 
@@ -314,24 +469,53 @@ public class WalletService {
     }
 
     private void validateCurrency(String currency) {
-        if (!EXCHANGE_RATES.containsKey(currency)) {
+        if (!ExchangeRates.isSupported(currency)) {
             throw new UnsupportedCurrencyException("Unsupported currency: " + currency);
         }
     }
 
-    private void createTransaction(Integer playerId, Transaction.TransactionType type, BigDecimal amount,
-                                   String currency, BigDecimal balanceBefore, BigDecimal balanceAfter, String description) {
-        Transaction transaction = Transaction.builder()
-                .playerId(playerId)
+    /**
+     * Writes the ledger entry for a change to a wallet loaded with {@code findForUpdate}, chained to the wallet's
+     * previous entry. The new chain head is set on the wallet, which in update-in-place mode is flushed in the
+     * same row update as the balance, so the hash costs no extra statement. The change is appended to the outbox
+     * in the same transaction and the new balance is published for after-commit listeners.
+     * <p>
+     * {@code details} carries what identifies the movement outside the wallet: the game and round of a bet or
+     * win, the bonus code of a grant, or a description where there is no typed reference.
+     */
+    private void createTransaction(Wallet wallet, Transaction.TransactionType type, BigDecimal amount,
+                                   BigDecimal balanceBefore, BigDecimal balanceAfter,
+                                   BigDecimal bonusDelta, Transaction.TransactionBuilder details) {
+        Transaction transaction = details
+                .playerId(wallet.getPlayerId())
                 .type(type)
                 .amount(amount)
-                .currency(currency)
+                .currency(wallet.getCurrency())
                 .balanceBefore(balanceBefore)
                 .balanceAfter(balanceAfter)
-                .description(description)
+                .balanceDelta(balanceBefore != null && balanceAfter != null ? balanceAfter.subtract(balanceBefore) : BigDecimal.ZERO)
+                .bonusDelta(bonusDelta)
+                .timestamp(LedgerHash.timestamp(LocalDateTime.now()))
+                .prevHash(wallet.getLedgerHash())
                 .build();
+        transaction.setEntryHash(LedgerHash.of(transaction.getPrevHash(), transaction));
+        wallet.setLedgerHash(transaction.getEntryHash());
 
         transactionRepository.save(transaction);
+        outboxWriter.append(List.of(WalletChangeEvent.builder()
+                .playerId(wallet.getPlayerId())
+                .currency(wallet.getCurrency())
+                .type(type)
+                .amount(amount)
+                .balance(wallet.getBalance())
+                .bonusBalance(wallet.getBonusBalance())
+                .gameId(transaction.getGameId())
+                .roundId(transaction.getRoundId())
+                .bonusCode(transaction.getBonusCode())
+                .occurredAt(transaction.getTimestamp())
+                .build()));
+        playerActivityService.record(wallet.getPlayerId(), wallet.getCurrency(), type, transaction.getTimestamp());
+        eventPublisher.publishEvent(new WalletBalanceChangedEvent(mapToResponse(wallet)));
     }
 
     private WalletBalanceResponse mapToResponse(Wallet wallet) {
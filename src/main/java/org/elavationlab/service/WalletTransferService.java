@@ -0,0 +1,202 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.elavationlab.domain.Transaction;
+import org.elavationlab.dto.TransferResponse;
+import org.elavationlab.dto.WalletBalanceResponse;
+import org.elavationlab.dto.WalletChangeEvent;
+import org.elavationlab.exception.InsufficientFundsException;
+import org.elavationlab.exception.InvalidAmountException;
+import org.elavationlab.exception.InvalidTransferException;
+import org.elavationlab.exception.WalletNotFoundException;
+import org.elavationlab.repository.LedgerBatchWriter;
+import org.elavationlab.repository.OutboxWriter;
+import org.elavationlab.repository.WalletStore;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Moves money between two wallets atomically.
+ * <p>
+ * Both wallets are locked with a single {@code SELECT ... ORDER BY id FOR UPDATE}, so every transfer takes its
+ * locks in the same global order and two transfers over the same pair of wallets queue instead of deadlocking,
+ * whichever direction they run in. Both legs are then applied in one call to the {@link WalletStore}, and a pair
+ * of ledger rows sharing a transfer id records the balances before and after each leg.
+ */
+@Service
+public class WalletTransferService {
+
+    private static final String ENSURE_WALLET_SQL =
+            "INSERT INTO wallets (player_id, currency, balance, bonus_balance, version, created_at, updated_at) " +
+            "VALUES (:playerId, :currency, 0, 0, 0, now(), now()) " +
+            "ON CONFLICT (player_id, currency) DO NOTHING";
+
+    private static final String LOCK_SQL =
+            "SELECT id, player_id, currency FROM wallets " +
+            "WHERE (player_id = :sourcePlayerId AND currency = :sourceCurrency) " +
+            "   OR (player_id = :targetPlayerId AND currency = :targetCurrency) " +
+            "ORDER BY id FOR UPDATE";
+
+    public enum Kind {
+        CONVERSION(Transaction.TransactionType.CONVERSION, Transaction.TransactionType.CONVERSION_IN, true),
+        P2P(Transaction.TransactionType.TRANSFER_OUT, Transaction.TransactionType.TRANSFER_IN, false);
+
+        private final Transaction.TransactionType debitType;
+        private final Transaction.TransactionType creditType;
+        private final boolean createTarget;
+
+        Kind(Transaction.TransactionType debitType, Transaction.TransactionType creditType, boolean createTarget) {
+            this.debitType = debitType;
+            this.creditType = creditType;
+            this.createTarget = createTarget;
+        }
+    }
+
+    /**
+     * One side of a transfer. The debit and credit amounts differ for currency conversions.
+     */
+    public record Leg(Integer playerId, String currency, BigDecimal amount) {
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final WalletStore walletStore;
+    private final LedgerBatchWriter ledgerBatchWriter;
+    private final OutboxWriter outboxWriter;
+    private final PlayerActivityService playerActivityService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<Kind, Counter> transferCounters = new EnumMap<>(Kind.class);
+    private final Map<Kind, Timer> transferTimers = new EnumMap<>(Kind.class);
+
+    public WalletTransferService(NamedParameterJdbcTemplate jdbcTemplate, WalletStore walletStore,
+                                 LedgerBatchWriter ledgerBatchWriter, OutboxWriter outboxWriter,
+                                 PlayerActivityService playerActivityService,
+                                 ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.walletStore = walletStore;
+        this.ledgerBatchWriter = ledgerBatchWriter;
+        this.outboxWriter = outboxWriter;
+        this.playerActivityService = playerActivityService;
+        this.eventPublisher = eventPublisher;
+        for (Kind kind : Kind.values()) {
+            String tag = kind.name().toLowerCase();
+            transferCounters.put(kind, Counter.builder("wallet.transfers.total").tag("kind", tag).register(meterRegistry));
+            transferTimers.put(kind, Timer.builder("wallet.transfers.duration").tag("kind", tag).register(meterRegistry));
+        }
+    }
+
+    @Transactional
+    public TransferResponse transfer(Kind kind, Leg debit, Leg credit, String description) {
+        return transferTimers.get(kind).record(() -> {
+            if (debit.playerId().equals(credit.playerId()) && debit.currency().equals(credit.currency())) {
+                throw new InvalidTransferException("Source and target wallet must differ");
+            }
+            if (debit.amount().signum() <= 0 || credit.amount().signum() <= 0) {
+                throw new InvalidAmountException("Amount must be greater than 0");
+            }
+
+            if (kind.createTarget) {
+                jdbcTemplate.update(ENSURE_WALLET_SQL, new MapSqlParameterSource()
+                        .addValue("playerId", credit.playerId())
+                        .addValue("currency", credit.currency()));
+            }
+
+            Map<WalletKey, Long> walletIds = new HashMap<>();
+            jdbcTemplate.query(LOCK_SQL, new MapSqlParameterSource()
+                            .addValue("sourcePlayerId", debit.playerId())
+                            .addValue("sourceCurrency", debit.currency())
+                            .addValue("targetPlayerId", credit.playerId())
+                            .addValue("targetCurrency", credit.currency()),
+                    rs -> {
+                        walletIds.put(new WalletKey(rs.getInt("player_id"), rs.getString("currency")), rs.getLong("id"));
+                    });
+
+            Long sourceId = walletIds.get(new WalletKey(debit.playerId(), debit.currency()));
+            if (sourceId == null) {
+                throw new WalletNotFoundException("Wallet not found for player " + debit.playerId() + " and currency " + debit.currency());
+            }
+            Long targetId = walletIds.get(new WalletKey(credit.playerId(), credit.currency()));
+            if (targetId == null) {
+                throw new WalletNotFoundException("Wallet not found for player " + credit.playerId() + " and currency " + credit.currency());
+            }
+            Map<Long, WalletStore.Balances> before = walletStore.balances(List.of(sourceId, targetId));
+            BigDecimal sourceBefore = before.get(sourceId).balance();
+            if (sourceBefore.compareTo(debit.amount()) < 0) {
+                throw new InsufficientFundsException("Insufficient funds in " + debit.currency() + " wallet");
+            }
+
+            Map<Long, BigDecimal> deltas = new LinkedHashMap<>();
+            deltas.put(sourceId, debit.amount().negate());
+            deltas.put(targetId, credit.amount());
+            Map<Long, WalletStore.Balances> after = walletStore.applyBalanceDeltas(deltas);
+            WalletBalanceResponse source = toResponse(debit, after.get(sourceId));
+            WalletBalanceResponse target = toResponse(credit, after.get(targetId));
+
+            UUID transferId = UUID.randomUUID();
+            LocalDateTime now = LocalDateTime.now();
+            Map<Long, byte[]> heads = walletStore.ledgerHeads(List.of(sourceId, targetId));
+            LedgerBatchWriter.Entry debitEntry = new LedgerBatchWriter.Entry(debit.playerId(), kind.debitType,
+                    debit.amount(), debit.currency(), sourceBefore, source.getBalance(), now, description, transferId)
+                    .withCounterCurrency(kind == Kind.CONVERSION ? credit.currency() : null)
+                    .chainedTo(heads.get(sourceId));
+            LedgerBatchWriter.Entry creditEntry = new LedgerBatchWriter.Entry(credit.playerId(), kind.creditType,
+                    credit.amount(), credit.currency(), before.get(targetId).balance(), target.getBalance(), now,
+                    description, transferId)
+                    .withCounterCurrency(kind == Kind.CONVERSION ? debit.currency() : null)
+                    .chainedTo(heads.get(targetId));
+            ledgerBatchWriter.insert(List.of(debitEntry, creditEntry));
+            walletStore.advanceLedgerHeads(Map.of(sourceId, debitEntry.entryHash(), targetId, creditEntry.entryHash()));
+            outboxWriter.append(List.of(changeEvent(debitEntry, source), changeEvent(creditEntry, target)));
+            playerActivityService.record(debit.playerId(), debit.currency(), kind.debitType, now);
+            playerActivityService.record(credit.playerId(), credit.currency(), kind.creditType, now);
+            eventPublisher.publishEvent(new WalletBalanceChangedEvent(source));
+            eventPublisher.publishEvent(new WalletBalanceChangedEvent(target));
+            transferCounters.get(kind).increment();
+
+            return TransferResponse.builder()
+                    .transferId(transferId)
+                    .source(source)
+                    .target(target)
+                    .build();
+        });
+    }
+
+    private static WalletChangeEvent changeEvent(LedgerBatchWriter.Entry entry, WalletBalanceResponse balance) {
+        return WalletChangeEvent.builder()
+                .playerId(entry.playerId())
+                .currency(entry.currency())
+                .type(entry.type())
+                .amount(entry.amount())
+                .balance(balance.getBalance())
+                .bonusBalance(balance.getBonusBalance())
+                .transferId(entry.transferId())
+                .occurredAt(entry.timestamp())
+                .build();
+    }
+
+    private static WalletBalanceResponse toResponse(Leg leg, WalletStore.Balances balances) {
+        return WalletBalanceResponse.builder()
+                .playerId(leg.playerId())
+                .currency(leg.currency())
+                .balance(balances.balance())
+                .bonusBalance(balances.bonusBalance())
+                .totalBalance(balances.balance().add(balances.bonusBalance()))
+                .build();
+    }
+
+    private record WalletKey(int playerId, String currency) {
+    }
+}
@@ -0,0 +1,319 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.elavationlab.domain.PendingWithdrawal.WithdrawalStatus;
+import org.elavationlab.domain.Transaction;
+import org.elavationlab.dto.WalletBalanceResponse;
+import org.elavationlab.dto.WalletChangeEvent;
+import org.elavationlab.dto.WithdrawalBulkActionRequest;
+import org.elavationlab.dto.WithdrawalBulkActionResponse;
+import org.elavationlab.repository.LedgerBatchWriter;
+import org.elavationlab.repository.OutboxWriter;
+import org.elavationlab.repository.WalletStore;
+import org.elavationlab.util.SqlArrays;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk approval and rejection of withdrawals for operations.
+ * <p>
+ * Matching rows are processed in id order, one chunk per short transaction. Each chunk is a single
+ * {@code UPDATE ... RETURNING} whose status guard only moves rows out of the allowed source statuses, and
+ * skips rows locked by the payout workers instead of waiting for them. Rejections lock the affected wallets in id
+ * order, refund them through the {@link WalletStore} in one call and write the REFUND ledger rows in the same
+ * transaction. A withdrawal whose wallet no longer exists cannot be refunded, so a rejection leaves it in its
+ * status and reports it instead.
+ * <p>
+ * Rows skipped because a payout worker held them are behind the id cursor by the time it is released, so a
+ * second pass retries them once; whatever is still held after that is reported as skipped.
+ */
+@Slf4j
+@Service
+public class WithdrawalAdminService {
+
+    private static final Set<WithdrawalStatus> APPROVABLE = EnumSet.of(WithdrawalStatus.PENDING, WithdrawalStatus.FAILED);
+    private static final Set<WithdrawalStatus> REJECTABLE =
+            EnumSet.of(WithdrawalStatus.PENDING, WithdrawalStatus.APPROVED, WithdrawalStatus.FAILED);
+
+    private static final String LOCK_WALLETS_SQL =
+            "SELECT w.id, w.player_id, w.currency FROM wallets w " +
+            "JOIN unnest(:playerIds, :currencies) AS v(player_id, currency) " +
+            "  ON w.player_id = v.player_id AND w.currency = v.currency " +
+            "ORDER BY w.id FOR UPDATE OF w";
+
+    private static final String HAS_WALLET =
+            "EXISTS (SELECT 1 FROM wallets w WHERE w.player_id = pending_withdrawals.player_id " +
+            "AND w.currency = pending_withdrawals.currency)";
+
+    private static final int MAX_REPORTED_IDS = 100;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final WalletStore walletStore;
+    private final LedgerBatchWriter ledgerBatchWriter;
+    private final OutboxWriter outboxWriter;
+    private final PlayerActivityService playerActivityService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final Counter approvedCounter;
+    private final Counter rejectedCounter;
+
+    public WithdrawalAdminService(NamedParameterJdbcTemplate jdbcTemplate,
+                                  WalletStore walletStore,
+                                  LedgerBatchWriter ledgerBatchWriter,
+                                  OutboxWriter outboxWriter,
+                                  PlayerActivityService playerActivityService,
+                                  PlatformTransactionManager transactionManager,
+                                  ApplicationEventPublisher eventPublisher,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${wallet.withdrawals.admin-chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.walletStore = walletStore;
+        this.ledgerBatchWriter = ledgerBatchWriter;
+        this.outboxWriter = outboxWriter;
+        this.playerActivityService = playerActivityService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.approvedCounter = Counter.builder("wallet.withdrawals.reviewed.total").tag("action", "approve").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("wallet.withdrawals.reviewed.total").tag("action", "reject").register(meterRegistry);
+    }
+
+    public WithdrawalBulkActionResponse approve(WithdrawalBulkActionRequest filter, String adminId) {
+        return run("APPROVE", filter, adminId, APPROVABLE, WithdrawalStatus.APPROVED, false);
+    }
+
+    public WithdrawalBulkActionResponse reject(WithdrawalBulkActionRequest filter, String adminId) {
+        return run("REJECT", filter, adminId, REJECTABLE, WithdrawalStatus.REJECTED, true);
+    }
+
+    private WithdrawalBulkActionResponse run(String action, WithdrawalBulkActionRequest filter, String adminId,
+                                             Set<WithdrawalStatus> from, WithdrawalStatus to, boolean refund) {
+        long started = System.currentTimeMillis();
+        String sql = buildTransitionSql(filter, to, refund);
+        String filterSql = buildFilter(filter);
+        Progress progress = new Progress();
+
+        transition(sql, filter, from, to, adminId, refund, progress);
+        // Rows the payout workers held were skipped behind the id cursor; give them one more pass
+        String skippedSql = "SELECT id, COUNT(*) OVER () AS total FROM pending_withdrawals WHERE " + filterSql +
+                (refund ? " AND " + HAS_WALLET : "") + " ORDER BY id LIMIT :limit";
+        MapSqlParameterSource skippedParams = buildParams(filter, from, to, adminId, 0).addValue("limit", MAX_REPORTED_IDS);
+        Skipped skipped = findSkipped(skippedSql, skippedParams);
+        if (skipped.count() > 0) {
+            transition(sql, filter, from, to, adminId, refund, progress);
+            skipped = findSkipped(skippedSql, skippedParams);
+            if (skipped.count() > 0) {
+                log.warn("{} skipped {} withdrawals held by the payout workers: {}", action, skipped.count(), skipped.ids());
+            }
+        }
+
+        List<Long> unrefundable = List.of();
+        if (refund) {
+            unrefundable = jdbcTemplate.queryForList("SELECT id FROM pending_withdrawals WHERE " + filterSql +
+                    " AND NOT " + HAS_WALLET + " ORDER BY id LIMIT :limit",
+                    buildParams(filter, from, to, adminId, 0).addValue("limit", MAX_REPORTED_IDS), Long.class);
+            if (!unrefundable.isEmpty()) {
+                log.warn("{} left withdrawals without a wallet to refund in their status: {}", action, unrefundable);
+            }
+        }
+
+        log.info("{} of {} withdrawals by {} finished in {} chunks", action, progress.processed, adminId, progress.chunks);
+        return WithdrawalBulkActionResponse.builder()
+                .action(action)
+                .processed(progress.processed)
+                .chunks(progress.chunks)
+                .skipped(skipped.count())
+                .skippedIds(skipped.ids())
+                .unrefundableIds(unrefundable)
+                .durationMillis(System.currentTimeMillis() - started)
+                .build();
+    }
+
+    /**
+     * Moves matching withdrawals chunk by chunk in id order, skipping rows locked by the payout workers.
+     */
+    private void transition(String sql, WithdrawalBulkActionRequest filter, Set<WithdrawalStatus> from,
+                            WithdrawalStatus to, String adminId, boolean refund, Progress progress) {
+        long afterId = 0;
+        while (true) {
+            MapSqlParameterSource params = buildParams(filter, from, to, adminId, afterId);
+            List<Claimed> chunk = transactionTemplate.execute(status -> {
+                List<Claimed> rows = jdbcTemplate.query(sql, params, (rs, i) -> new Claimed(
+                        rs.getLong("id"),
+                        rs.getInt("player_id"),
+                        rs.getString("currency"),
+                        rs.getBigDecimal("amount")));
+                if (refund && !rows.isEmpty()) {
+                    refundWallets(rows);
+                }
+                return rows;
+            });
+            if (chunk == null || chunk.isEmpty()) {
+                return;
+            }
+            progress.processed += chunk.size();
+            progress.chunks++;
+            afterId = chunk.stream().mapToLong(Claimed::id).max().orElse(afterId);
+            (refund ? rejectedCounter : approvedCounter).increment(chunk.size());
+        }
+    }
+
+    private Skipped findSkipped(String sql, MapSqlParameterSource params) {
+        List<Skipped> rows = jdbcTemplate.query(sql, params,
+                (rs, i) -> new Skipped(rs.getLong("total"), List.of(rs.getLong("id"))));
+        return new Skipped(rows.isEmpty() ? 0 : rows.get(0).count(),
+                rows.stream().flatMap(row -> row.ids().stream()).toList());
+    }
+
+    private String buildTransitionSql(WithdrawalBulkActionRequest filter, WithdrawalStatus to, boolean terminal) {
+        String where = buildFilter(filter) + " AND id > :afterId" + (terminal ? " AND " + HAS_WALLET : "");
+        return "WITH picked AS (SELECT id FROM pending_withdrawals WHERE " + where +
+                " ORDER BY id LIMIT :chunkSize FOR UPDATE SKIP LOCKED) " +
+                "UPDATE pending_withdrawals pw SET status = :toStatus, reviewed_by = :adminId, reviewed_at = now()" +
+                (terminal ? ", processed_at = now()" : ", attempts = 0") +
+                " FROM picked WHERE pw.id = picked.id AND pw.status = ANY(:fromStatuses)" +
+                " RETURNING pw.id, pw.player_id, pw.currency, pw.amount";
+    }
+
+    private static String buildFilter(WithdrawalBulkActionRequest filter) {
+        StringBuilder where = new StringBuilder("status = ANY(:fromStatuses)");
+        if (filter.getIds() != null && !filter.getIds().isEmpty()) {
+            where.append(" AND id = ANY(:ids)");
+        }
+        if (filter.getCurrency() != null) {
+            where.append(" AND currency = :currency");
+        }
+        if (filter.getMinAmount() != null) {
+            where.append(" AND amount >= :minAmount");
+        }
+        if (filter.getMaxAmount() != null) {
+            where.append(" AND amount <= :maxAmount");
+        }
+        if (filter.getRequestedBefore() != null) {
+            where.append(" AND requested_at < :requestedBefore");
+        }
+        return where.toString();
+    }
+
+    private MapSqlParameterSource buildParams(WithdrawalBulkActionRequest filter, Set<WithdrawalStatus> from,
+                                              WithdrawalStatus to, String adminId, long afterId) {
+        return new MapSqlParameterSource()
+                .addValue("fromStatuses", SqlArrays.varchars(from.stream().map(Enum::name).toList()))
+                .addValue("toStatus", to.name())
+                .addValue("adminId", adminId)
+                .addValue("afterId", afterId)
+                .addValue("chunkSize", chunkSize)
+                .addValue("ids", filter.getIds() != null ? SqlArrays.bigints(filter.getIds()) : null)
+                .addValue("currency", filter.getCurrency())
+                .addValue("minAmount", filter.getMinAmount())
+                .addValue("maxAmount", filter.getMaxAmount())
+                .addValue("requestedBefore", filter.getRequestedBefore());
+    }
+
+    private void refundWallets(List<Claimed> rejected) {
+        Map<WalletKey, List<Claimed>> byWallet = new LinkedHashMap<>();
+        for (Claimed claimed : rejected) {
+            byWallet.computeIfAbsent(new WalletKey(claimed.playerId(), claimed.currency()), k -> new ArrayList<>()).add(claimed);
+        }
+
+        List<Integer> playerIds = new ArrayList<>();
+        List<String> currencies = new ArrayList<>();
+        byWallet.keySet().forEach(key -> {
+            playerIds.add(key.playerId());
+            currencies.add(key.currency());
+        });
+
+        Map<WalletKey, Long> walletIds = new LinkedHashMap<>();
+        jdbcTemplate.query(LOCK_WALLETS_SQL, new MapSqlParameterSource()
+                        .addValue("playerIds", SqlArrays.integers(playerIds))
+                        .addValue("currencies", SqlArrays.varchars(currencies)),
+                rs -> {
+                    walletIds.put(new WalletKey(rs.getInt("player_id"), rs.getString("currency")), rs.getLong("id"));
+                });
+
+        Map<Long, BigDecimal> deltas = new LinkedHashMap<>();
+        walletIds.forEach((key, walletId) -> deltas.put(walletId,
+                byWallet.get(key).stream().map(Claimed::amount).reduce(BigDecimal.ZERO, BigDecimal::add)));
+        Map<Long, WalletStore.Balances> updated = deltas.isEmpty() ? Map.of() : walletStore.applyBalanceDeltas(deltas);
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, byte[]> heads = deltas.isEmpty() ? new HashMap<>() : new HashMap<>(walletStore.ledgerHeads(deltas.keySet()));
+        List<LedgerBatchWriter.Entry> entries = new ArrayList<>();
+        List<WalletChangeEvent> events = new ArrayList<>();
+        byWallet.forEach((key, rows) -> {
+            Long walletId = walletIds.get(key);
+            if (walletId == null) {
+                // Only withdrawals with a wallet are claimed; rolls the chunk back rather than close them unrefunded
+                throw new IllegalStateException("No wallet to refund rejected withdrawals "
+                        + rows.stream().map(Claimed::id).toList() + " for player " + key.playerId() + " " + key.currency());
+            }
+            BigDecimal running = updated.get(walletId).balance().subtract(deltas.get(walletId));
+            rows.sort(Comparator.comparingLong(Claimed::id));
+            for (Claimed row : rows) {
+                BigDecimal after = running.add(row.amount());
+                LedgerBatchWriter.Entry entry = new LedgerBatchWriter.Entry(row.playerId(), Transaction.TransactionType.REFUND,
+                        row.amount(), row.currency(), running, after, now, "Withdrawal " + row.id() + " rejected")
+                        .chainedTo(heads.get(walletId));
+                entries.add(entry);
+                events.add(WalletChangeEvent.builder()
+                        .playerId(row.playerId())
+                        .currency(row.currency())
+                        .type(Transaction.TransactionType.REFUND)
+                        .amount(row.amount())
+                        .balance(after)
+                        .bonusBalance(updated.get(walletId).bonusBalance())
+                        .occurredAt(entry.timestamp())
+                        .build());
+                heads.put(walletId, entry.entryHash());
+                running = after;
+            }
+        });
+        ledgerBatchWriter.insert(entries);
+        walletStore.advanceLedgerHeads(heads);
+        outboxWriter.append(events);
+        walletIds.forEach((key, walletId) -> {
+            WalletStore.Balances balances = updated.get(walletId);
+            playerActivityService.record(key.playerId(), key.currency(), Transaction.TransactionType.REFUND, now);
+            eventPublisher.publishEvent(new WalletBalanceChangedEvent(WalletBalanceResponse.builder()
+                    .playerId(key.playerId())
+                    .currency(key.currency())
+                    .balance(balances.balance())
+                    .bonusBalance(balances.bonusBalance())
+                    .totalBalance(balances.balance().add(balances.bonusBalance()))
+                    .build()));
+        });
+    }
+
+    private static final class Progress {
+        private long processed;
+        private int chunks;
+    }
+
+    private record Skipped(long count, List<Long> ids) {
+    }
+
+    private record Claimed(long id, int playerId, String currency, BigDecimal amount) {
+    }
+
+    private record WalletKey(int playerId, String currency) {
+    }
+}
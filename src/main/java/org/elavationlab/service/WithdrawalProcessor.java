@@ -0,0 +1,210 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.elavationlab.admission.Workload;
+import org.elavationlab.admission.WorkloadContext;
+import org.elavationlab.domain.PendingWithdrawal;
+import org.elavationlab.repository.PendingWithdrawalRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pays out APPROVED withdrawals through the {@link PayoutGateway}.
+ * <p>
+ * Each worker claims a batch with {@code FOR UPDATE SKIP LOCKED} and marks it PROCESSING in a short
+ * transaction, calls the gateway outside any transaction, and then writes the outcomes back with one
+ * set-based update per outcome. Claims carry the node id and a lease, so several nodes can drain the
+ * queue concurrently and withdrawals claimed by a node that died are returned to the queue.
+ * <p>
+ * A FAILED withdrawal, refused by the provider or out of attempts, stays debited until operations decide on it:
+ * approving it again through {@code /api/admin/withdrawals/approve} puts it back in the queue, rejecting it through
+ * {@code /api/admin/withdrawals/reject} refunds the wallet. {@code wallet.withdrawals.failed} and its oldest age are
+ * the gauges to alert on.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "wallet.withdrawals.processor-enabled", havingValue = "true", matchIfMissing = true)
+public class WithdrawalProcessor {
+
+    private final PendingWithdrawalRepository pendingWithdrawalRepository;
+    private final PayoutGateway payoutGateway;
+    private final TransactionTemplate transactionTemplate;
+    private final int workers;
+    private final int batchSize;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final String nodeId;
+    private final ExecutorService workerPool;
+
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final AtomicLong oldestPendingAgeSeconds = new AtomicLong();
+    private final AtomicLong reviewQueueDepth = new AtomicLong();
+    private final AtomicLong oldestReviewAgeSeconds = new AtomicLong();
+    private final AtomicLong failedDepth = new AtomicLong();
+    private final AtomicLong oldestFailedAgeSeconds = new AtomicLong();
+    private final Counter completedCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+
+    public WithdrawalProcessor(PendingWithdrawalRepository pendingWithdrawalRepository,
+                               PayoutGateway payoutGateway,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${wallet.withdrawals.workers:2}") int workers,
+                               @Value("${wallet.withdrawals.batch-size:100}") int batchSize,
+                               @Value("${wallet.withdrawals.lease-seconds:300}") long leaseSeconds,
+                               @Value("${wallet.withdrawals.max-attempts:5}") int maxAttempts) {
+        this.pendingWithdrawalRepository = pendingWithdrawalRepository;
+        this.payoutGateway = payoutGateway;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.maxAttempts = maxAttempts;
+        this.nodeId = resolveNodeId();
+        this.workerPool = Executors.newFixedThreadPool(workers);
+
+        this.completedCounter = Counter.builder("wallet.withdrawals.processed.total").tag("outcome", "completed").register(meterRegistry);
+        this.retriedCounter = Counter.builder("wallet.withdrawals.processed.total").tag("outcome", "retried").register(meterRegistry);
+        this.failedCounter = Counter.builder("wallet.withdrawals.processed.total").tag("outcome", "failed").register(meterRegistry);
+        this.batchTimer = Timer.builder("wallet.withdrawals.batch.duration").register(meterRegistry);
+        Gauge.builder("wallet.withdrawals.queue.depth", queueDepth, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("wallet.withdrawals.queue.oldest.age.seconds", oldestPendingAgeSeconds, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("wallet.withdrawals.review.depth", reviewQueueDepth, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("wallet.withdrawals.review.oldest.age.seconds", oldestReviewAgeSeconds, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("wallet.withdrawals.failed", failedDepth, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("wallet.withdrawals.failed.oldest.age.seconds", oldestFailedAgeSeconds, AtomicLong::get).register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.withdrawals.poll-interval-ms:1000}")
+    public void drainQueue() {
+        transactionTemplate.executeWithoutResult(status ->
+                pendingWithdrawalRepository.releaseExpiredClaims(LocalDateTime.now().minus(lease)));
+
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            running.add(workerPool.submit(() -> WorkloadContext.runAs(Workload.BACKGROUND, this::drainUntilEmpty)));
+        }
+        for (Future<?> future : running) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                log.error("Withdrawal worker failed", e.getCause());
+            }
+        }
+        refreshQueueStats();
+    }
+
+    private void drainUntilEmpty() {
+        while (!Thread.currentThread().isInterrupted() && processNextBatch() == batchSize) {
+            // keep claiming while full batches come back
+        }
+    }
+
+    int processNextBatch() {
+        List<PendingWithdrawal> claimed = transactionTemplate.execute(status ->
+                pendingWithdrawalRepository.claimBatch(nodeId, batchSize));
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+
+        batchTimer.record(() -> {
+            List<Long> completed = new ArrayList<>();
+            List<Long> retry = new ArrayList<>();
+            List<Long> failed = new ArrayList<>();
+            for (PendingWithdrawal withdrawal : claimed) {
+                PayoutGateway.PayoutResult result = payout(withdrawal);
+                switch (result.outcome()) {
+                    case SUCCESS -> completed.add(withdrawal.getId());
+                    case RETRY -> (withdrawal.getAttempts() >= maxAttempts ? failed : retry).add(withdrawal.getId());
+                    case FAILED -> failed.add(withdrawal.getId());
+                }
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!completed.isEmpty()) {
+                    pendingWithdrawalRepository.completeClaimed(completed,
+                            PendingWithdrawal.WithdrawalStatus.COMPLETED.name(), nodeId);
+                }
+                if (!failed.isEmpty()) {
+                    pendingWithdrawalRepository.completeClaimed(failed,
+                            PendingWithdrawal.WithdrawalStatus.FAILED.name(), nodeId);
+                }
+                if (!retry.isEmpty()) {
+                    pendingWithdrawalRepository.releaseClaimed(retry, nodeId);
+                }
+            });
+            completedCounter.increment(completed.size());
+            retriedCounter.increment(retry.size());
+            failedCounter.increment(failed.size());
+            if (!failed.isEmpty()) {
+                log.warn("Withdrawals {} failed and stay debited until approved again or rejected", failed);
+            }
+        });
+        return claimed.size();
+    }
+
+    private PayoutGateway.PayoutResult payout(PendingWithdrawal withdrawal) {
+        try {
+            return payoutGateway.payout(withdrawal);
+        } catch (RuntimeException e) {
+            log.warn("Payout of withdrawal {} failed: {}", withdrawal.getId(), e.getMessage());
+            return PayoutGateway.PayoutResult.retry(e.getMessage());
+        }
+    }
+
+    private void refreshQueueStats() {
+        refreshQueueStats(PendingWithdrawal.WithdrawalStatus.APPROVED, queueDepth, oldestPendingAgeSeconds);
+        refreshQueueStats(PendingWithdrawal.WithdrawalStatus.PENDING, reviewQueueDepth, oldestReviewAgeSeconds);
+        refreshQueueStats(PendingWithdrawal.WithdrawalStatus.FAILED, failedDepth, oldestFailedAgeSeconds);
+    }
+
+    private void refreshQueueStats(PendingWithdrawal.WithdrawalStatus status, AtomicLong depth, AtomicLong oldestAgeSeconds) {
+        PendingWithdrawalRepository.QueueStats stats = pendingWithdrawalRepository.findQueueStats(status.name());
+        depth.set(stats.getDepth());
+        LocalDateTime oldest = stats.getOldestRequestedAt();
+        oldestAgeSeconds.set(oldest != null ? Duration.between(oldest, LocalDateTime.now()).toSeconds() : 0);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workerPool.shutdownNow();
+    }
+
+    private static String resolveNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        return (host.length() > 50 ? host.substring(0, 50) : host) + "-" + suffix;
+    }
+}
@@ -0,0 +1,33 @@
+package org.elavationlab.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+
+/**
+ * Supported currencies and their fixed rates, as units of the currency per US dollar.
+ */
+public final class ExchangeRates {
+
+    public static final Map<String, BigDecimal> PER_USD = Map.of(
+            "USD", BigDecimal.ONE,
+            "EUR", new BigDecimal("0.85"),
+            "GBP", new BigDecimal("0.73"),
+            "CAD", new BigDecimal("1.25")
+    );
+
+    private ExchangeRates() {
+    }
+
+    public static boolean isSupported(String currency) {
+        return PER_USD.containsKey(currency);
+    }
+
+    /**
+     * The amount in US dollars at full precision; callers round once after summing. Unknown currencies count
+     * at par.
+     */
+    public static BigDecimal toUsd(BigDecimal amount, String currency) {
+        return amount.divide(PER_USD.getOrDefault(currency, BigDecimal.ONE), 10, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,25 @@
+package org.elavationlab.util;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads uploads that may or may not be gzip-compressed, told apart by the gzip magic number.
+ */
+public final class GzipStreams {
+
+    private static final int GZIP_MAGIC = 0x8b1f;
+
+    private GzipStreams() {
+    }
+
+    public static InputStream decompressIfGzipped(InputStream body) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(body);
+        in.mark(2);
+        int magic = in.read() | (in.read() << 8);
+        in.reset();
+        return magic == GZIP_MAGIC ? new GZIPInputStream(in) : in;
+    }
+}
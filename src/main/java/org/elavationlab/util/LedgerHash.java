@@ -0,0 +1,140 @@
+package org.elavationlab.util;
+
+import org.elavationlab.domain.Transaction;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * SHA-256 links of the per-wallet ledger hash chain.
+ * <p>
+ * An entry's hash covers the previous entry's hash and the entry's money fields in a fixed binary encoding, so
+ * changing, removing or reordering an entry breaks every link after it. The entry id is not covered because it is
+ * only assigned on insert; the previous hash already fixes the entry's position in the chain. Decimals are encoded
+ * without trailing zeros and timestamps at microsecond precision, so a value read back from the database hashes
+ * the same as the value that was written.
+ * <p>
+ * Each entry records the version of the encoding its hash was computed with. Version 1 stops at the transfer id;
+ * version 2, used for every entry written since V12, also covers the game, round, bonus code, counter-currency
+ * and description, so a rewritten reference breaks the chain like a rewritten amount.
+ */
+public final class LedgerHash {
+
+    /** Encoding used for new entries. */
+    public static final short VERSION = 2;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private LedgerHash() {
+    }
+
+    /**
+     * Truncates a timestamp to the precision the database stores, which is also the precision that is hashed.
+     */
+    public static LocalDateTime timestamp(LocalDateTime timestamp) {
+        return timestamp.truncatedTo(ChronoUnit.MICROS);
+    }
+
+    public static byte[] of(byte[] prevHash, Transaction transaction) {
+        return of(transaction.getHashVersion(), prevHash, transaction.getPlayerId(), transaction.getCurrency(),
+                transaction.getType(), transaction.getAmount(), transaction.getBalanceBefore(),
+                transaction.getBalanceAfter(), transaction.getBalanceDelta(), transaction.getBonusDelta(),
+                transaction.getTimestamp(), transaction.getTransferId(),
+                new References(transaction.getGameId(), transaction.getRoundId(), transaction.getBonusCode(),
+                        transaction.getCounterCurrency(), transaction.getDescription()));
+    }
+
+    public static byte[] of(int version, byte[] prevHash, Integer playerId, String currency,
+                            Transaction.TransactionType type, BigDecimal amount, BigDecimal balanceBefore,
+                            BigDecimal balanceAfter, BigDecimal balanceDelta, BigDecimal bonusDelta,
+                            LocalDateTime timestamp, UUID transferId, References references) {
+        if (version != 1 && version != VERSION) {
+            throw new IllegalArgumentException("Unknown ledger hash version: " + version);
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(160);
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.writeShort(prevHash != null ? prevHash.length : 0);
+            if (prevHash != null) {
+                out.write(prevHash);
+            }
+            out.writeInt(playerId);
+            writeString(out, currency);
+            writeString(out, type.name());
+            writeDecimal(out, amount);
+            writeDecimal(out, balanceBefore);
+            writeDecimal(out, balanceAfter);
+            writeDecimal(out, balanceDelta);
+            writeDecimal(out, bonusDelta);
+            LocalDateTime micros = timestamp(timestamp);
+            out.writeLong(micros.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(micros.getNano() / 1_000);
+            out.writeBoolean(transferId != null);
+            if (transferId != null) {
+                out.writeLong(transferId.getMostSignificantBits());
+                out.writeLong(transferId.getLeastSignificantBits());
+            }
+            if (version >= 2) {
+                writeString(out, references.gameId());
+                writeString(out, references.roundId());
+                writeString(out, references.bonusCode());
+                writeString(out, references.counterCurrency());
+                writeText(out, references.description());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return digest.digest(buffer.toByteArray());
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        writeString(out, value != null ? value.stripTrailingZeros().toPlainString() : null);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Like {@link #writeString} with an int length, for free text that may not fit a short.
+     */
+    private static void writeText(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * What identifies an entry outside the wallet, covered from version 2 on.
+     */
+    public record References(String gameId, String roundId, String bonusCode, String counterCurrency,
+                             String description) {
+    }
+}
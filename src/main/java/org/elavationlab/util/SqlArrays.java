@@ -0,0 +1,52 @@
+package org.elavationlab.util;
+
+import org.springframework.jdbc.core.support.AbstractSqlTypeValue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * JDBC array parameters, for set-based statements that pass whole batches as {@code = ANY(?)} or
+ * {@code unnest(?, ?)} instead of expanding one bind parameter per value.
+ */
+public final class SqlArrays {
+
+    private SqlArrays() {
+    }
+
+    public static AbstractSqlTypeValue bigints(Collection<Long> values) {
+        return array("bigint", values.toArray());
+    }
+
+    public static AbstractSqlTypeValue integers(Collection<Integer> values) {
+        return array("integer", values.toArray());
+    }
+
+    public static AbstractSqlTypeValue varchars(Collection<String> values) {
+        return array("varchar", values.toArray());
+    }
+
+    public static AbstractSqlTypeValue numerics(Collection<? extends Number> values) {
+        return array("numeric", values.toArray());
+    }
+
+    public static AbstractSqlTypeValue timestamps(Collection<LocalDateTime> values) {
+        return array("timestamp", values.stream().map(Timestamp::valueOf).toArray());
+    }
+
+    public static AbstractSqlTypeValue byteas(Collection<byte[]> values) {
+        return array("bytea", values.toArray(new byte[0][]));
+    }
+
+    private static AbstractSqlTypeValue array(String elementType, Object[] elements) {
+        return new AbstractSqlTypeValue() {
+            @Override
+            protected Object createTypeValue(Connection connection, int sqlType, String typeName) throws SQLException {
+                return connection.createArrayOf(elementType, elements);
+            }
+        };
+    }
+}
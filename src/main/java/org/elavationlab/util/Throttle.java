@@ -0,0 +1,38 @@
+package org.elavationlab.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces out permits so that callers, across all threads, proceed at most {@code permitsPerSecond} times
+ * per second. A rate of zero or less disables throttling.
+ */
+public class Throttle {
+
+    private final long intervalNanos;
+    private long nextFreeNanos;
+
+    public Throttle(double permitsPerSecond) {
+        this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    public void acquire() throws InterruptedException {
+        acquire(1);
+    }
+
+    public void acquire(int permits) throws InterruptedException {
+        if (intervalNanos == 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long start = Math.max(now, nextFreeNanos);
+            nextFreeNanos = start + intervalNanos * permits;
+            waitNanos = start - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+-- End-of-day balances: one row per wallet per day, holding the balance at the start of snapshot_date.
+-- Partitioned by month so old days are dropped as whole partitions instead of deleted row by row.
+-- The snapshot job creates each month's partition before writing to it.
+CREATE TABLE balance_snapshots (
+    snapshot_date DATE NOT NULL,
+    wallet_id BIGINT NOT NULL,
+    player_id INTEGER NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    balance DECIMAL(15,2) NOT NULL,
+    bonus_balance DECIMAL(15,2) NOT NULL,
+    -- Highest ledger entry included in the balance; point-in-time queries replay entries above it
+    last_transaction_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (snapshot_date, wallet_id)
+) PARTITION BY RANGE (snapshot_date);
+
+-- Nearest snapshot at or before a date for one wallet
+CREATE INDEX idx_balance_snapshots_wallet_date ON balance_snapshots(wallet_id, snapshot_date);
+
+CREATE TABLE balance_snapshot_runs (
+    snapshot_date DATE PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,
+    -- Chunks are committed in wallet id order, so an interrupted run resumes after this id
+    last_wallet_id BIGINT NOT NULL DEFAULT 0,
+    wallets_snapshotted BIGINT NOT NULL DEFAULT 0,
+    started_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP,
+    error TEXT
+);
@@ -0,0 +1,18 @@
+-- Per-wallet hash chain over the ledger. Entries written before this migration carry no hash; each wallet's
+-- chain starts at its first entry written after it.
+ALTER TABLE transactions ADD COLUMN prev_hash BYTEA;
+ALTER TABLE transactions ADD COLUMN entry_hash BYTEA;
+
+-- Hash of the wallet's latest ledger entry in update-in-place mode, kept in the same row update as the balance
+ALTER TABLE wallets ADD COLUMN ledger_hash BYTEA;
+
+-- Latest signed, verified point of each wallet's chain; audits start after it
+CREATE TABLE ledger_seals (
+    player_id INTEGER NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    last_transaction_id BIGINT NOT NULL,
+    entry_hash BYTEA NOT NULL,
+    signature BYTEA NOT NULL,
+    sealed_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (player_id, currency)
+) WITH (fillfactor = 80);
@@ -0,0 +1,12 @@
+-- Typed references of a ledger entry, replacing identifiers embedded in the description. Existing rows are
+-- backfilled by V13.
+ALTER TABLE transactions ADD COLUMN game_id VARCHAR(64);
+ALTER TABLE transactions ADD COLUMN round_id VARCHAR(64);
+ALTER TABLE transactions ADD COLUMN bonus_code VARCHAR(64);
+-- Currency on the other side of a conversion
+ALTER TABLE transactions ADD COLUMN counter_currency VARCHAR(3);
+
+-- Encoding of each entry's hash. Version 2 adds the typed references and the description to what the hash
+-- covers; entries already in the table keep version 1, which stops at the transfer id, because V13 rewrites
+-- their references after they were hashed. The constant default keeps the column add metadata-only.
+ALTER TABLE transactions ADD COLUMN hash_version SMALLINT NOT NULL DEFAULT 1;
@@ -0,0 +1,4 @@
+-- Per-game and per-bonus lookups. Built after the V13 backfill so the backfill does not maintain them row by row;
+-- partial, since most ledger rows carry neither reference.
+CREATE INDEX idx_transactions_game_timestamp ON transactions (game_id, timestamp) WHERE game_id IS NOT NULL;
+CREATE INDEX idx_transactions_bonus_timestamp ON transactions (bonus_code, timestamp) WHERE bonus_code IS NOT NULL;
@@ -0,0 +1,15 @@
+-- Per-minute bet and win totals per game and currency. Every node adds its in-memory totals to these rows, so a
+-- row is the sum over all nodes; live and historical GGR is read from here instead of the ledger.
+CREATE TABLE game_revenue_minutes (
+    game_id VARCHAR(64) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    minute TIMESTAMP NOT NULL,
+    bet_amount NUMERIC(19, 2) NOT NULL,
+    win_amount NUMERIC(19, 2) NOT NULL,
+    bet_count BIGINT NOT NULL,
+    win_count BIGINT NOT NULL,
+    PRIMARY KEY (game_id, currency, minute)
+);
+
+-- All-games reads over a time window
+CREATE INDEX idx_game_revenue_minutes_minute ON game_revenue_minutes (minute);
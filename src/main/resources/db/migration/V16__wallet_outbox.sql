@@ -0,0 +1,19 @@
+-- Wallet change events written in the same transaction as the change and deleted once the relay has delivered
+-- them. Rows are spread over relay partitions by player, so one player's events are delivered in id order.
+CREATE TABLE wallet_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    partition SMALLINT NOT NULL,
+    player_id INTEGER NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    amount NUMERIC(15, 2) NOT NULL,
+    balance NUMERIC(15, 2) NOT NULL,
+    bonus_balance NUMERIC(15, 2) NOT NULL,
+    game_id VARCHAR(64),
+    round_id VARCHAR(64),
+    bonus_code VARCHAR(64),
+    transfer_id UUID,
+    occurred_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_wallet_outbox_partition_id ON wallet_outbox (partition, id);
@@ -0,0 +1,24 @@
+-- Denormalized per-player read model for the lobby and CRM, projected from the outbox by the relay and
+-- rebuildable from the ledger. Lifetime totals are in US dollars at the fixed exchange rates, each movement
+-- rounded to cents.
+CREATE TABLE player_summary (
+    player_id INTEGER PRIMARY KEY,
+    -- {"USD": {"balance": 10.00, "bonusBalance": 0.00}, ...}
+    balances JSONB NOT NULL,
+    lifetime_deposits_usd NUMERIC(19, 2) NOT NULL,
+    lifetime_withdrawals_usd NUMERIC(19, 2) NOT NULL,
+    lifetime_bets_usd NUMERIC(19, 2) NOT NULL,
+    lifetime_wins_usd NUMERIC(19, 2) NOT NULL,
+    deposit_count BIGINT NOT NULL,
+    bet_count BIGINT NOT NULL,
+    win_count BIGINT NOT NULL,
+    first_activity_at TIMESTAMP,
+    last_activity_at TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL
+) WITH (fillfactor = 80);
+
+-- Events are projected before they are delivered; an event whose delivery failed stays in the outbox
+-- but is not projected twice
+ALTER TABLE wallet_outbox ADD COLUMN projected BOOLEAN NOT NULL DEFAULT false;
+
+CREATE INDEX idx_wallet_outbox_unprojected ON wallet_outbox (partition, id) WHERE NOT projected;
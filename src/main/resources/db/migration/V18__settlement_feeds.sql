@@ -0,0 +1,12 @@
+-- Progress of provider settlement files ingested through /api/settlements. lines_done is the last line of the
+-- file that was applied, advanced in the same transaction as the wallet changes of its chunk, so an interrupted
+-- upload is resumed by sending the file again.
+CREATE TABLE settlement_feeds (
+    feed_id VARCHAR(100) PRIMARY KEY,
+    lines_done BIGINT NOT NULL DEFAULT 0,
+    applied BIGINT NOT NULL DEFAULT 0,
+    rejected BIGINT NOT NULL DEFAULT 0,
+    started_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    completed_at TIMESTAMP
+);
@@ -0,0 +1,30 @@
+-- Bonus campaigns credited in bulk through /api/admin/bonus-campaigns. The campaign id is the bonus code of the
+-- ledger entries it writes.
+CREATE TABLE bonus_campaigns (
+    campaign_id VARCHAR(64) PRIMARY KEY,
+    currency VARCHAR(3) NOT NULL,
+    amount DECIMAL(15,2) NOT NULL CHECK (amount > 0),
+    state VARCHAR(20) NOT NULL,
+    players BIGINT NOT NULL DEFAULT 0,
+    credited BIGINT NOT NULL DEFAULT 0,
+    skipped BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    completed_at TIMESTAMP,
+    error VARCHAR(500)
+);
+
+-- Players targeted by a campaign, loaded from an uploaded list or inserted directly from a segment query.
+-- credited_at is set in the same transaction as the player's credit, which makes every player credited at most
+-- once per campaign however often the campaign is run. outcome is CREDITED, or NO_WALLET when the player has no
+-- wallet in the campaign currency.
+CREATE TABLE bonus_campaign_players (
+    campaign_id VARCHAR(64) NOT NULL REFERENCES bonus_campaigns (campaign_id),
+    player_id INTEGER NOT NULL,
+    credited_at TIMESTAMP,
+    outcome VARCHAR(20),
+    PRIMARY KEY (campaign_id, player_id)
+);
+-- Runs pick the players still to credit; credited rows drop out of the index.
+CREATE INDEX idx_bonus_campaign_players_pending ON bonus_campaign_players (campaign_id, player_id)
+    WHERE credited_at IS NULL;
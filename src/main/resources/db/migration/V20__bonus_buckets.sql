@@ -0,0 +1,32 @@
+-- Bonus grants as buckets with an optional expiry. A wallet's bonus balance is the sum of its buckets' remaining
+-- amounts: bets drain the unexpired buckets oldest first, and the expiry sweeper zeroes expired ones.
+CREATE TABLE bonus_buckets (
+    id BIGSERIAL PRIMARY KEY,
+    wallet_id BIGINT NOT NULL REFERENCES wallets(id) ON DELETE CASCADE,
+    bonus_code VARCHAR(64),
+    amount DECIMAL(15,2) NOT NULL,
+    remaining DECIMAL(15,2) NOT NULL CHECK (remaining >= 0),
+    granted_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP,
+    expired_at TIMESTAMP
+);
+
+-- A wallet's live buckets in grant order, read by every bet on a wallet with bonus money
+CREATE INDEX idx_bonus_buckets_wallet_live ON bonus_buckets (wallet_id, id) WHERE remaining > 0;
+-- The sweeper's queue: only live buckets that can expire, oldest expiry first
+CREATE INDEX idx_bonus_buckets_expiry ON bonus_buckets (expires_at) WHERE remaining > 0 AND expires_at IS NOT NULL;
+
+-- Bonus granted before buckets existed becomes one bucket per wallet that never expires, and is spent first.
+-- The balance is derived from the checkpoint and the entries after it, which is correct in both storage modes.
+INSERT INTO bonus_buckets (wallet_id, amount, remaining, granted_at)
+SELECT w.id, b.bonus_balance, b.bonus_balance, w.created_at
+FROM wallets w
+LEFT JOIN wallet_checkpoints c ON c.wallet_id = w.id
+CROSS JOIN LATERAL (SELECT COALESCE(c.bonus_balance, 0) + COALESCE(SUM(t.bonus_delta), 0) AS bonus_balance
+                    FROM transactions t
+                    WHERE t.player_id = w.player_id AND t.currency = w.currency
+                      AND t.id > COALESCE(c.last_transaction_id, 0)) b
+WHERE b.bonus_balance > 0
+ORDER BY w.id;
+
+ALTER TABLE bonus_campaigns ADD COLUMN expires_at TIMESTAMP;
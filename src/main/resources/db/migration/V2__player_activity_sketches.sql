@@ -0,0 +1,9 @@
+CREATE TABLE player_activity_sketches (
+    id BIGSERIAL PRIMARY KEY,
+    activity_date DATE NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    transaction_type VARCHAR(20) NOT NULL,
+    registers BYTEA NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    CONSTRAINT unique_activity_sketch UNIQUE (activity_date, currency, transaction_type)
+);
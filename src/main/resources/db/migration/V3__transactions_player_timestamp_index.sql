@@ -0,0 +1,2 @@
+-- Supports per-player range scans over a time window (statements, reconciliation)
+CREATE INDEX idx_transactions_player_timestamp ON transactions(player_id, timestamp);
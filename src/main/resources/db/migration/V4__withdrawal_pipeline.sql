@@ -0,0 +1,7 @@
+ALTER TABLE pending_withdrawals ADD COLUMN attempts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE pending_withdrawals ADD COLUMN claimed_by VARCHAR(64);
+ALTER TABLE pending_withdrawals ADD COLUMN claimed_at TIMESTAMP;
+
+-- Claim queries scan the claimable status oldest first; stale-claim recovery scans PROCESSING rows by claim time
+CREATE INDEX idx_pending_withdrawals_status_requested ON pending_withdrawals(status, requested_at);
+CREATE INDEX idx_pending_withdrawals_claimed ON pending_withdrawals(claimed_at) WHERE status = 'PROCESSING';
@@ -0,0 +1,2 @@
+ALTER TABLE pending_withdrawals ADD COLUMN reviewed_by VARCHAR(64);
+ALTER TABLE pending_withdrawals ADD COLUMN reviewed_at TIMESTAMP;
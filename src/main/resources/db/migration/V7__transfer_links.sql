@@ -0,0 +1,4 @@
+-- Both legs of a transfer or currency conversion share a transfer_id
+ALTER TABLE transactions ADD COLUMN transfer_id UUID;
+
+CREATE INDEX idx_transactions_transfer_id ON transactions(transfer_id) WHERE transfer_id IS NOT NULL;
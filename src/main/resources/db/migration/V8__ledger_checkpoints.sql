@@ -0,0 +1,20 @@
+-- Balance movement of every ledger entry, so balances can be derived from the ledger alone
+ALTER TABLE transactions ADD COLUMN balance_delta DECIMAL(15,2) NOT NULL DEFAULT 0;
+ALTER TABLE transactions ADD COLUMN bonus_delta DECIMAL(15,2) NOT NULL DEFAULT 0;
+
+-- Covers the "entries after the checkpoint" scan without touching the heap
+CREATE INDEX idx_transactions_wallet_tail ON transactions(player_id, currency, id) INCLUDE (balance_delta, bonus_delta);
+
+-- Leave room on each page so checkpoint updates stay HOT
+CREATE TABLE wallet_checkpoints (
+    wallet_id BIGINT PRIMARY KEY REFERENCES wallets(id) ON DELETE CASCADE,
+    balance DECIMAL(15,2) NOT NULL,
+    bonus_balance DECIMAL(15,2) NOT NULL,
+    last_transaction_id BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+) WITH (fillfactor = 80);
+
+-- Entries written before this migration carry no deltas, so every existing wallet starts from its current balance
+INSERT INTO wallet_checkpoints (wallet_id, balance, bonus_balance, last_transaction_id, updated_at)
+SELECT w.id, w.balance, w.bonus_balance, (SELECT COALESCE(MAX(id), 0) FROM transactions), now()
+FROM wallets w;
@@ -0,0 +1,41 @@
+CREATE TABLE reconciliation_runs (
+    id BIGSERIAL PRIMARY KEY,
+    mode VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    started_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP,
+    -- Wallets touched after this point are re-checked by the next incremental run
+    changed_since TIMESTAMP,
+    ranges_total INTEGER NOT NULL DEFAULT 0,
+    ranges_completed INTEGER NOT NULL DEFAULT 0,
+    wallets_checked BIGINT NOT NULL DEFAULT 0,
+    entries_checked BIGINT NOT NULL DEFAULT 0,
+    mismatches BIGINT NOT NULL DEFAULT 0,
+    error TEXT
+);
+
+CREATE INDEX idx_reconciliation_runs_status_started ON reconciliation_runs(status, started_at);
+
+CREATE TABLE reconciliation_mismatches (
+    id BIGSERIAL PRIMARY KEY,
+    run_id BIGINT NOT NULL REFERENCES reconciliation_runs(id) ON DELETE CASCADE,
+    player_id INTEGER NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    kind VARCHAR(30) NOT NULL,
+    transaction_id BIGINT,
+    expected DECIMAL(15,2),
+    actual DECIMAL(15,2),
+    detected_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_reconciliation_mismatches_run ON reconciliation_mismatches(run_id, id);
+
+-- Where each wallet's verified chain ends, so incremental runs only read entries after it
+CREATE TABLE reconciliation_state (
+    player_id INTEGER NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    last_transaction_id BIGINT NOT NULL,
+    last_balance_after DECIMAL(15,2),
+    checked_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (player_id, currency)
+);
@@ -0,0 +1,165 @@
+package org.elavationlab.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.elavationlab.config.AdmissionProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdmissionProperties properties;
+    private AtomicBoolean poolSaturated;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new AdmissionProperties();
+        properties.setInitialLimit(10);
+        properties.setMinLimit(2);
+        properties.setLowPriorityMaxWaitMs(1);
+        poolSaturated = new AtomicBoolean();
+    }
+
+    @Test
+    void tryAcquire_shouldShedLowPriorityFirst_andKeepHeadroomForCriticalRequests() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, poolSaturated::get, meterRegistry);
+
+        // When - low-priority requests fill their half of the limit
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire(AdmissionPriority.LOW)).isTrue();
+        }
+
+        // Then
+        assertThat(limiter.tryAcquire(AdmissionPriority.LOW)).isFalse();
+        assertThat(limiter.tryAcquire(AdmissionPriority.NORMAL)).isTrue();
+        assertThat(limiter.tryAcquire(AdmissionPriority.NORMAL)).isTrue();
+        assertThat(limiter.tryAcquire(AdmissionPriority.NORMAL)).isTrue();
+        assertThat(limiter.tryAcquire(AdmissionPriority.NORMAL)).isFalse();
+        assertThat(limiter.tryAcquire(AdmissionPriority.CRITICAL)).isTrue();
+        assertThat(limiter.tryAcquire(AdmissionPriority.CRITICAL)).isTrue();
+        assertThat(limiter.tryAcquire(AdmissionPriority.CRITICAL)).isFalse();
+        assertThat(meterRegistry.get("wallet.admission.shed.total").tag("priority", "low").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void tryAcquire_shouldShedLowPriority_whileThePoolHasWaiters() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, poolSaturated::get, meterRegistry);
+        poolSaturated.set(true);
+
+        // When & Then
+        assertThat(limiter.tryAcquire(AdmissionPriority.LOW)).isFalse();
+        assertThat(limiter.tryAcquire(AdmissionPriority.CRITICAL)).isTrue();
+    }
+
+    @Test
+    void release_shouldCutTheLimitOnSlowRequests_andGrowItOnFastOnes() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, poolSaturated::get, meterRegistry);
+        long slow = TimeUnit.MILLISECONDS.toNanos(properties.getLatencyTargetMs() * 2);
+
+        // When - one slow sample cuts once; the burst behind it does not cut again
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire(AdmissionPriority.CRITICAL);
+            limiter.release(AdmissionPriority.CRITICAL, slow);
+        }
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(9.0);
+
+        // When
+        for (int i = 0; i < 9; i++) {
+            limiter.tryAcquire(AdmissionPriority.CRITICAL);
+            limiter.release(AdmissionPriority.CRITICAL, 0);
+        }
+
+        // Then
+        assertThat(limiter.getLimit()).isGreaterThan(9.9);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void release_shouldNotSampleLowPriorityRequests() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, poolSaturated::get, meterRegistry);
+
+        // When
+        limiter.tryAcquire(AdmissionPriority.LOW);
+        limiter.release(AdmissionPriority.LOW, TimeUnit.SECONDS.toNanos(30));
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(10.0);
+    }
+
+    @Test
+    void tryAcquire_shouldNeverAdmitPastTheLimit_underContention() throws Exception {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, poolSaturated::get, meterRegistry);
+        AtomicInteger admitted = new AtomicInteger();
+        AtomicInteger maxAdmitted = new AtomicInteger();
+
+        // When - unsampled releases keep the limit at 10
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> runs = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                runs.add(threads.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        if (limiter.tryAcquire(AdmissionPriority.CRITICAL)) {
+                            maxAdmitted.accumulateAndGet(admitted.incrementAndGet(), Math::max);
+                            admitted.decrementAndGet();
+                            limiter.release(AdmissionPriority.CRITICAL, -1);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> run : runs) {
+                run.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        // Then
+        assertThat(maxAdmitted.get()).isBetween(1, 10);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void tryAcquire_shouldWakeAWaitingLowPriorityRequest_whenASlotIsReleased() throws Exception {
+        // Given - low-priority half of the limit is taken
+        properties.setLowPriorityMaxWaitMs(10_000);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, poolSaturated::get, meterRegistry);
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(AdmissionPriority.LOW);
+        }
+        ExecutorService waiter = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> admitted = waiter.submit(() -> limiter.tryAcquire(AdmissionPriority.LOW));
+            Thread.sleep(50);
+
+            // When
+            limiter.release(AdmissionPriority.LOW, 0);
+
+            // Then
+            assertThat(admitted.get(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(limiter.getInFlight()).isEqualTo(5);
+        } finally {
+            waiter.shutdownNow();
+        }
+    }
+}
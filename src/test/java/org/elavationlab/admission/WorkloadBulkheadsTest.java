@@ -0,0 +1,61 @@
+package org.elavationlab.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.elavationlab.config.BulkheadProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkloadBulkheadsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BulkheadProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new BulkheadProperties();
+        properties.setWrite(new BulkheadProperties.Limits(1, 2, 0, 10));
+        properties.setRead(new BulkheadProperties.Limits(1, 1, 0, 10));
+        properties.setBulk(new BulkheadProperties.Limits(1, 1, 1, 5_000));
+    }
+
+    @Test
+    void tryAcquire_shouldRejectAFullWorkload_withoutAffectingTheOthers() {
+        // Given
+        WorkloadBulkheads bulkheads = new WorkloadBulkheads(properties, meterRegistry);
+        assertThat(bulkheads.tryAcquire(Workload.READ)).isTrue();
+
+        // When & Then
+        assertThat(bulkheads.tryAcquire(Workload.READ)).isFalse();
+        assertThat(bulkheads.tryAcquire(Workload.WRITE)).isTrue();
+        assertThat(bulkheads.tryAcquire(Workload.WRITE)).isTrue();
+        assertThat(meterRegistry.get("wallet.bulkhead.rejected.total").tag("workload", "read").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("wallet.bulkhead.active").tag("workload", "write").gauge().value())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void tryAcquire_shouldQueueUpToMaxQueued_andAdmitTheQueuedRequestOnRelease() throws Exception {
+        // Given
+        WorkloadBulkheads bulkheads = new WorkloadBulkheads(properties, meterRegistry);
+        assertThat(bulkheads.tryAcquire(Workload.BULK)).isTrue();
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> bulkheads.tryAcquire(Workload.BULK));
+        while (meterRegistry.get("wallet.bulkhead.queued").tag("workload", "bulk").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // When - the queue is full, so the next request is rejected at once
+        boolean overflow = bulkheads.tryAcquire(Workload.BULK);
+        bulkheads.release(Workload.BULK);
+
+        // Then
+        assertThat(overflow).isFalse();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+}
@@ -0,0 +1,35 @@
+package org.elavationlab.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkloadContextTest {
+
+    @Test
+    void current_shouldBeBackground_outsideARequest() throws Exception {
+        // When
+        Workload onWorker = CompletableFuture.supplyAsync(WorkloadContext::current).get();
+
+        // Then - a thread with no request must not borrow the pool of report and admin requests
+        assertThat(onWorker).isEqualTo(Workload.BACKGROUND);
+    }
+
+    @Test
+    void runAs_shouldSetTheWorkload_andRestoreThePreviousOne() {
+        // Given
+        Workload[] seen = new Workload[2];
+
+        // When
+        WorkloadContext.runAs(Workload.BULK, () -> {
+            seen[0] = WorkloadContext.current();
+            WorkloadContext.runAs(Workload.WRITE, () -> seen[1] = WorkloadContext.current());
+        });
+
+        // Then
+        assertThat(seen).containsExactly(Workload.BULK, Workload.WRITE);
+        assertThat(WorkloadContext.current()).isEqualTo(Workload.BACKGROUND);
+    }
+}
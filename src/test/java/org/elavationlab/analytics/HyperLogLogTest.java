@@ -0,0 +1,88 @@
+package org.elavationlab.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimate_shouldBeWithinErrorBound_forLargeCardinality() {
+        // Given
+        HyperLogLog sketch = new HyperLogLog(14);
+        int players = 200_000;
+
+        // When
+        for (int playerId = 1; playerId <= players; playerId++) {
+            sketch.offer(playerId);
+        }
+
+        // Then - three standard errors
+        double tolerance = 3 * sketch.relativeStandardError() * players;
+        assertThat((double) sketch.estimate()).isBetween(players - tolerance, players + tolerance);
+    }
+
+    @Test
+    void estimate_shouldBeExactEnough_forSmallCardinality() {
+        // Given
+        HyperLogLog sketch = new HyperLogLog(14);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            for (int playerId = 1; playerId <= 100; playerId++) {
+                sketch.offer(playerId);
+            }
+        }
+
+        // Then
+        assertThat(sketch.estimate()).isBetween(98L, 102L);
+    }
+
+    @Test
+    void merge_shouldEqualSketchOfUnion() {
+        // Given
+        HyperLogLog dayOne = new HyperLogLog(12);
+        HyperLogLog dayTwo = new HyperLogLog(12);
+        HyperLogLog both = new HyperLogLog(12);
+        for (int playerId = 0; playerId < 30_000; playerId++) {
+            dayOne.offer(playerId);
+            both.offer(playerId);
+        }
+        for (int playerId = 20_000; playerId < 50_000; playerId++) {
+            dayTwo.offer(playerId);
+            both.offer(playerId);
+        }
+
+        // When
+        dayOne.merge(dayTwo);
+        dayOne.merge(dayTwo);
+
+        // Then - merging is idempotent and matches the sketch of the union
+        assertThat(dayOne).isEqualTo(both);
+    }
+
+    @Test
+    void toBytes_shouldRoundTrip() {
+        // Given
+        HyperLogLog sketch = new HyperLogLog(14);
+        for (int playerId = 0; playerId < 10_000; playerId++) {
+            sketch.offer(playerId * 31L);
+        }
+
+        // When
+        byte[] bytes = sketch.toBytes();
+        HyperLogLog restored = HyperLogLog.fromBytes(bytes);
+
+        // Then
+        assertThat(bytes).hasSize(1 + (1 << 14) * 6 / 8);
+        assertThat(restored).isEqualTo(sketch);
+        assertThat(restored.estimate()).isEqualTo(sketch.estimate());
+    }
+
+    @Test
+    void merge_shouldRejectDifferentPrecision() {
+        assertThatThrownBy(() -> new HyperLogLog(12).merge(new HyperLogLog(14)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,137 @@
+package org.elavationlab.integration;
+
+import org.elavationlab.dto.WalletBalanceResponse;
+import org.elavationlab.exception.WalletConflictException;
+import org.elavationlab.repository.TransactionRepository;
+import org.elavationlab.repository.WalletRepository;
+import org.elavationlab.service.WalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers a single hot wallet from several threads and reports throughput and how much the wallets table was
+ * rewritten, so the storage modes can be compared on the same workload.
+ */
+abstract class AbstractWalletStorageBenchmark {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withReuse(true)
+            .withStartupTimeout(java.time.Duration.ofMinutes(2));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    protected static final int PLAYER_ID = 4242;
+    protected static final String CURRENCY = "USD";
+    protected static final int THREADS = 8;
+    protected static final int DEPOSITS_PER_THREAD = 250;
+    protected static final BigDecimal DEPOSIT = new BigDecimal("1.00");
+
+    @Autowired
+    protected WalletService walletService;
+
+    @Autowired
+    protected WalletRepository walletRepository;
+
+    @Autowired
+    protected TransactionRepository transactionRepository;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void resetWallet() {
+        walletRepository.deleteAll();
+        transactionRepository.deleteAll();
+        walletService.processDeposit(PLAYER_ID, DEPOSIT, CURRENCY);
+    }
+
+    protected BenchmarkResult runHotWalletDeposits(String mode) throws Exception {
+        Map<String, Object> statsBefore = walletTableStats();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            pool.submit(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < DEPOSITS_PER_THREAD; i++) {
+                    try {
+                        walletService.processDeposit(PLAYER_ID, DEPOSIT, CURRENCY);
+                        succeeded.incrementAndGet();
+                    } catch (WalletConflictException e) {
+                        conflicts.incrementAndGet();
+                    } catch (Throwable e) {
+                        unexpected.add(e);
+                    }
+                }
+            });
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        assertThat(unexpected).isEmpty();
+
+        // Idle pooled connections flush their table statistics within PGSTAT_IDLE_INTERVAL (10s)
+        Thread.sleep(11_000);
+        Map<String, Object> statsAfter = walletTableStats();
+        long walletUpdates = ((Number) statsAfter.get("n_tup_upd")).longValue() - ((Number) statsBefore.get("n_tup_upd")).longValue();
+
+        BenchmarkResult result = new BenchmarkResult(succeeded.get(), conflicts.get(), seconds, walletUpdates,
+                ((Number) statsAfter.get("n_dead_tup")).longValue(), ((Number) statsAfter.get("size_bytes")).longValue());
+        System.out.printf("[%s] %d deposits ok, %d gave up in %.2fs (%.0f ops/s); wallets: %d row updates, %d dead tuples, %d bytes%n",
+                mode, result.succeeded(), result.conflicts(), result.seconds(), result.succeeded() / result.seconds(),
+                result.walletRowUpdates(), result.walletDeadTuples(), result.walletTableBytes());
+        return result;
+    }
+
+    protected void assertBalanceMatchesDeposits(BenchmarkResult result) {
+        WalletBalanceResponse balance = walletService.getBalance(PLAYER_ID, CURRENCY);
+        BigDecimal expected = DEPOSIT.multiply(BigDecimal.valueOf(result.succeeded() + 1L));
+        assertThat(balance.getBalance()).isEqualByComparingTo(expected);
+    }
+
+    private Map<String, Object> walletTableStats() {
+        jdbcTemplate.execute("SELECT pg_stat_force_next_flush()");
+        return jdbcTemplate.queryForMap(
+                "SELECT n_tup_upd, n_dead_tup, pg_relation_size('wallets') AS size_bytes " +
+                "FROM pg_stat_user_tables WHERE relname = 'wallets'");
+    }
+
+    protected record BenchmarkResult(int succeeded, int conflicts, double seconds, long walletRowUpdates,
+                                     long walletDeadTuples, long walletTableBytes) {
+    }
+}
@@ -0,0 +1,150 @@
+package org.elavationlab.integration;
+
+import org.elavationlab.dto.BalanceAsOfResponse;
+import org.elavationlab.dto.BalanceSnapshotRunResponse;
+import org.elavationlab.exception.WalletNotFoundException;
+import org.elavationlab.repository.TransactionRepository;
+import org.elavationlab.repository.WalletRepository;
+import org.elavationlab.service.BalanceSnapshotService;
+import org.elavationlab.service.WalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "wallet.snapshots.chunk-size=2",
+        "wallet.snapshots.schedule-enabled=false",
+        "wallet.withdrawals.processor-enabled=false"
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class BalanceSnapshotIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withReuse(true)
+            .withStartupTimeout(java.time.Duration.ofMinutes(2));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final String CURRENCY = "USD";
+    private static final LocalDate YESTERDAY = LocalDate.now().minusDays(1);
+
+    @Autowired
+    private BalanceSnapshotService balanceSnapshotService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM balance_snapshots");
+        jdbcTemplate.update("DELETE FROM balance_snapshot_runs");
+        walletRepository.deleteAll();
+        transactionRepository.deleteAll();
+
+        // Player 1: 100 two days ago, 50 yesterday morning, 25 now
+        for (int playerId = 1; playerId <= 5; playerId++) {
+            walletService.processDeposit(playerId, new BigDecimal("100.00"), CURRENCY);
+        }
+        walletService.processDeposit(1, new BigDecimal("50.00"), CURRENCY);
+        walletService.processDeposit(1, new BigDecimal("25.00"), CURRENCY);
+        jdbcTemplate.update("UPDATE wallets SET created_at = ?", Timestamp.valueOf(YESTERDAY.minusDays(2).atStartOfDay()));
+        jdbcTemplate.update("UPDATE transactions SET timestamp = ? WHERE amount = 100",
+                Timestamp.valueOf(YESTERDAY.minusDays(1).atTime(10, 0)));
+        jdbcTemplate.update("UPDATE transactions SET timestamp = ? WHERE amount = 50",
+                Timestamp.valueOf(YESTERDAY.atTime(6, 0)));
+    }
+
+    @Test
+    void snapshot_shouldCopyBalancesAtStartOfDay_inChunks() throws Exception {
+        // When
+        BalanceSnapshotRunResponse run = runToCompletion(YESTERDAY);
+
+        // Then
+        assertThat(run.getStatus()).isEqualTo("COMPLETED");
+        assertThat(run.getWalletsSnapshotted()).isEqualTo(5);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT balance FROM balance_snapshots WHERE snapshot_date = ? AND player_id = 1",
+                BigDecimal.class, java.sql.Date.valueOf(YESTERDAY))).isEqualByComparingTo("100.00");
+
+        // Running the same day again is a no-op
+        assertThat(balanceSnapshotService.start(YESTERDAY)).get()
+                .extracting(BalanceSnapshotRunResponse::getWalletsSnapshotted).isEqualTo(5L);
+    }
+
+    @Test
+    void balanceAsOf_shouldReplayFromNearestSnapshot() throws Exception {
+        // Given
+        runToCompletion(YESTERDAY);
+
+        // When
+        BalanceAsOfResponse midday = balanceSnapshotService.getBalanceAsOf(1, CURRENCY, YESTERDAY.atTime(12, 0));
+        BalanceAsOfResponse now = balanceSnapshotService.getBalanceAsOf(1, CURRENCY, LocalDateTime.now().plusMinutes(1));
+
+        // Then
+        assertThat(midday.getSnapshotDate()).isEqualTo(YESTERDAY);
+        assertThat(midday.getBalance()).isEqualByComparingTo("150.00");
+        assertThat(midday.getReplayedEntries()).isEqualTo(1);
+        assertThat(now.getBalance()).isEqualByComparingTo("175.00");
+        assertThat(now.getReplayedEntries()).isEqualTo(2);
+    }
+
+    @Test
+    void balanceAsOf_shouldDeriveBackwardsFromLiveBalance_withoutSnapshot() {
+        // When
+        BalanceAsOfResponse before = balanceSnapshotService.getBalanceAsOf(1, CURRENCY, YESTERDAY.minusDays(1).atTime(12, 0));
+
+        // Then
+        assertThat(before.getSnapshotDate()).isNull();
+        assertThat(before.getBalance()).isEqualByComparingTo("100.00");
+        assertThat(before.getReplayedEntries()).isEqualTo(2);
+        assertThatThrownBy(() -> balanceSnapshotService.getBalanceAsOf(1, CURRENCY, YESTERDAY.minusDays(5).atStartOfDay()))
+                .isInstanceOf(WalletNotFoundException.class);
+    }
+
+    private BalanceSnapshotRunResponse runToCompletion(LocalDate date) throws InterruptedException {
+        balanceSnapshotService.start(date).orElseThrow();
+        for (int i = 0; i < 300; i++) {
+            BalanceSnapshotRunResponse run = balanceSnapshotService.getRun(date).orElseThrow();
+            if (!"RUNNING".equals(run.getStatus())) {
+                return run;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Balance snapshot for " + date + " did not finish");
+    }
+}
@@ -0,0 +1,109 @@
+package org.elavationlab.integration;
+
+import org.elavationlab.repository.TransactionRepository;
+import org.elavationlab.repository.WalletRepository;
+import org.elavationlab.service.WalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest(properties = {
+        "wallet.balance-stream.coalesce-ms=500",
+        "wallet.withdrawals.processor-enabled=false"
+})
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class BalanceStreamIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withReuse(true)
+            .withStartupTimeout(java.time.Duration.ofMinutes(2));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final Integer PLAYER_ID = 1001;
+    private static final String CURRENCY = "USD";
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        walletRepository.deleteAll();
+        transactionRepository.deleteAll();
+    }
+
+    @Test
+    void stream_shouldSendCurrentBalancesThenCoalescedChanges() throws Exception {
+        // Given
+        walletService.processDeposit(PLAYER_ID, new BigDecimal("100.00"), CURRENCY);
+        MvcResult stream = mockMvc.perform(get("/api/wallets/{playerId}/balance/stream", PLAYER_ID)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockHttpServletResponse response = stream.getResponse();
+        awaitContent(response, "\"balance\":100.00");
+
+        // When - a burst of bets within one coalescing window
+        for (int i = 0; i < 5; i++) {
+            walletService.processBet(PLAYER_ID, new BigDecimal("10.00"), CURRENCY, "slot-1");
+        }
+
+        // Then
+        awaitContent(response, "\"balance\":50.00");
+        int events = response.getContentAsString().split("event:balance", -1).length - 1;
+        assertThat(events).isBetween(2, 5);
+    }
+
+    private static void awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        for (int i = 0; i < 100; i++) {
+            if (response.getContentAsString().contains(expected)) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        assertThat(response.getContentAsString()).contains(expected);
+    }
+}
@@ -0,0 +1,169 @@
+package org.elavationlab.integration;
+
+import org.elavationlab.dto.BonusCampaignStatus;
+import org.elavationlab.dto.LedgerAuditResponse;
+import org.elavationlab.repository.TransactionRepository;
+import org.elavationlab.repository.WalletRepository;
+import org.elavationlab.service.BonusCampaignService;
+import org.elavationlab.service.LedgerAuditService;
+import org.elavationlab.service.WalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "wallet.bonus-campaigns.chunk-size=2",
+        "wallet.withdrawals.processor-enabled=false"
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class BonusCampaignIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withReuse(true)
+            .withStartupTimeout(java.time.Duration.ofMinutes(2));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final String CURRENCY = "USD";
+    private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+
+    @Autowired
+    private BonusCampaignService bonusCampaignService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private LedgerAuditService ledgerAuditService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM bonus_campaign_players");
+        jdbcTemplate.update("DELETE FROM bonus_campaigns");
+        jdbcTemplate.update("DELETE FROM ledger_seals");
+        walletRepository.deleteAll();
+        transactionRepository.deleteAll();
+        for (int playerId = 4901; playerId <= 4905; playerId++) {
+            walletService.processDeposit(playerId, new BigDecimal("100.00"), CURRENCY);
+        }
+        walletService.addBonusBalance(4901, new BigDecimal("5.00"), CURRENCY, "WELCOME");
+    }
+
+    @Test
+    void run_shouldCreditEveryTargetedPlayerOnce_fromAnUploadedListAndASegmentQuery() throws Exception {
+        // Given - 4906 has no wallet, 4902 is listed twice, 4905 comes from a segment query
+        bonusCampaignService.create("autumn-reload", AMOUNT, CURRENCY, null);
+        bonusCampaignService.addPlayers("autumn-reload",
+                new ByteArrayInputStream(gzip("4901\n4902\n\n4903\n4906\n4902\n")));
+        jdbcTemplate.update("INSERT INTO bonus_campaign_players (campaign_id, player_id) " +
+                "SELECT 'autumn-reload', player_id FROM wallets WHERE player_id = 4905");
+
+        // When
+        startRun("autumn-reload");
+        BonusCampaignStatus status = awaitRun("autumn-reload");
+
+        // Then
+        assertThat(status.getState()).isEqualTo("COMPLETED");
+        assertThat(status.getPlayers()).isEqualTo(5);
+        assertThat(status.getCredited()).isEqualTo(4);
+        assertThat(status.getSkipped()).isEqualTo(1);
+        assertThat(walletService.getBalance(4901, CURRENCY).getBonusBalance()).isEqualByComparingTo("15.00");
+        assertThat(walletService.getBalance(4902, CURRENCY).getBonusBalance()).isEqualByComparingTo("10.00");
+        assertThat(walletService.getBalance(4904, CURRENCY).getBonusBalance()).isEqualByComparingTo("0.00");
+        assertThat(walletService.getBalance(4905, CURRENCY).getBonusBalance()).isEqualByComparingTo("10.00");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE type = 'BONUS' AND bonus_code = 'autumn-reload'", Long.class))
+                .isEqualTo(4);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM wallet_outbox WHERE bonus_code = 'autumn-reload'", Long.class))
+                .isEqualTo(4);
+        LedgerAuditResponse audit = ledgerAuditService.audit(true, false).orElseThrow();
+        assertThat(audit.getFailures()).isZero();
+    }
+
+    @Test
+    void run_shouldNotCreditAnyoneTwice_whenTheCampaignRunsAgain() throws Exception {
+        // Given
+        bonusCampaignService.create("double-run", AMOUNT, CURRENCY, null);
+        bonusCampaignService.addPlayers("double-run", new ByteArrayInputStream(
+                "4901\n4902\n4903\n".getBytes(StandardCharsets.UTF_8)));
+        startRun("double-run");
+        awaitRun("double-run");
+
+        // When - a late upload adds one more player
+        bonusCampaignService.addPlayers("double-run", new ByteArrayInputStream(
+                "4903\n4904\n".getBytes(StandardCharsets.UTF_8)));
+        startRun("double-run");
+        BonusCampaignStatus status = awaitRun("double-run");
+
+        // Then
+        assertThat(status.getState()).isEqualTo("COMPLETED");
+        assertThat(status.getPlayers()).isEqualTo(4);
+        assertThat(status.getCredited()).isEqualTo(4);
+        assertThat(walletService.getBalance(4903, CURRENCY).getBonusBalance()).isEqualByComparingTo("10.00");
+        assertThat(walletService.getBalance(4904, CURRENCY).getBonusBalance()).isEqualByComparingTo("10.00");
+    }
+
+    private void startRun(String campaignId) throws InterruptedException {
+        // The run slot frees up just after the previous run wrote its final state
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!bonusCampaignService.start(campaignId, null)) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    private BonusCampaignStatus awaitRun(String campaignId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        BonusCampaignStatus status = bonusCampaignService.status(campaignId).orElseThrow();
+        while (status.getState().equals("RUNNING") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            status = bonusCampaignService.status(campaignId).orElseThrow();
+        }
+        return status;
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,144 @@
+package org.elavationlab.integration;
+
+import org.elavationlab.dto.LedgerAuditResponse;
+import org.elavationlab.dto.WalletBalanceResponse;
+import org.elavationlab.repository.TransactionRepository;
+import org.elavationlab.repository.WalletRepository;
+import org.elavationlab.service.BonusExpirySweeper;
+import org.elavationlab.service.LedgerAuditService;
+import org.elavationlab.service.WalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "wallet.bonus-expiry.sweep-interval-ms=3600000",
+        "wallet.withdrawals.processor-enabled=false"
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class BonusExpiryIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withReuse(true)
+            .withStartupTimeout(java.time.Duration.ofMinutes(2));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final Integer PLAYER_ID = 5001;
+    private static final String CURRENCY = "USD";
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private BonusExpirySweeper bonusExpirySweeper;
+
+    @Autowired
+    private LedgerAuditService ledgerAuditService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM ledger_seals");
+        walletRepository.deleteAll();
+        transactionRepository.deleteAll();
+        walletService.processDeposit(PLAYER_ID, new BigDecimal("100.00"), CURRENCY);
+        walletService.addBonusBalance(PLAYER_ID, new BigDecimal("10.00"), CURRENCY, "WEEKEND",
+                LocalDateTime.now().plusHours(1));
+        walletService.addBonusBalance(PLAYER_ID, new BigDecimal("5.00"), CURRENCY, "WELCOME", null);
+        // The weekend bonus runs out before the sweeper gets to it
+        jdbcTemplate.update("UPDATE bonus_buckets SET expires_at = now() - interval '1 minute' " +
+                "WHERE bonus_code = 'WEEKEND'");
+    }
+
+    @Test
+    void sweep_shouldTakeTheUnspentExpiredBonusOff_andLedgerIt() {
+        // When
+        bonusExpirySweeper.sweep();
+
+        // Then
+        WalletBalanceResponse balance = walletService.getBalance(PLAYER_ID, CURRENCY);
+        assertThat(balance.getBalance()).isEqualByComparingTo("100.00");
+        assertThat(balance.getBonusBalance()).isEqualByComparingTo("5.00");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT amount FROM transactions WHERE type = 'BONUS_EXPIRED' AND bonus_code = 'WEEKEND'",
+                BigDecimal.class)).isEqualByComparingTo("10.00");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM bonus_buckets WHERE bonus_code = 'WEEKEND' AND remaining = 0 " +
+                "AND expired_at IS NOT NULL", Long.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM wallet_outbox WHERE type = 'BONUS_EXPIRED'", Long.class)).isEqualTo(1);
+        LedgerAuditResponse audit = ledgerAuditService.audit(true, false).orElseThrow();
+        assertThat(audit.getFailures()).isZero();
+    }
+
+    @Test
+    void processBet_shouldNotSpendExpiredBonus_beforeTheSweeperTakesItOff() {
+        // Given
+        walletService.addBonusBalance(PLAYER_ID, new BigDecimal("4.00"), CURRENCY, "REFERRAL", null);
+
+        // When - 9.00 of unexpired bonus is spendable, welcome first; the rest comes from cash
+        WalletBalanceResponse afterBet = walletService.processBet(PLAYER_ID, new BigDecimal("12.00"), CURRENCY,
+                "slot-1");
+        bonusExpirySweeper.sweep();
+
+        // Then
+        assertThat(afterBet.getBalance()).isEqualByComparingTo("97.00");
+        assertThat(afterBet.getBonusBalance()).isEqualByComparingTo("10.00");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT SUM(remaining) FROM bonus_buckets WHERE bonus_code IN ('WELCOME', 'REFERRAL')",
+                BigDecimal.class)).isEqualByComparingTo("0.00");
+        assertThat(walletService.getBalance(PLAYER_ID, CURRENCY).getBonusBalance()).isEqualByComparingTo("0.00");
+        LedgerAuditResponse audit = ledgerAuditService.audit(true, false).orElseThrow();
+        assertThat(audit.getFailures()).isZero();
+    }
+
+    @Test
+    void processBet_shouldDrainUnexpiredBucketsOldestFirst() {
+        // Given
+        walletService.addBonusBalance(PLAYER_ID, new BigDecimal("4.00"), CURRENCY, "REFERRAL", null);
+
+        // When
+        walletService.processBet(PLAYER_ID, new BigDecimal("7.00"), CURRENCY, "slot-1");
+
+        // Then
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT remaining FROM bonus_buckets WHERE bonus_code = 'WELCOME'", BigDecimal.class))
+                .isEqualByComparingTo("0.00");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT remaining FROM bonus_buckets WHERE bonus_code = 'REFERRAL'", BigDecimal.class))
+                .isEqualByComparingTo("2.00");
+        assertThat(walletService.getBalance(PLAYER_ID, CURRENCY).getBalance()).isEqualByComparingTo("100.00");
+    }
+}
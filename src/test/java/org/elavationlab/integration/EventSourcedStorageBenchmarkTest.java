@@ -0,0 +1,73 @@
+package org.elavationlab.integration;
+
+import org.elavationlab.service.LedgerCheckpointer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "wallet.storage.mode=event-sourced",
+        "wallet.storage.checkpoint-interval-ms=3600000",
+        "wallet.withdrawals.processor-enabled=false"
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class EventSourcedStorageBenchmarkTest extends AbstractWalletStorageBenchmark {
+
+    @Autowired
+    private LedgerCheckpointer ledgerCheckpointer;
+
+    @Test
+    void hotWalletDeposits_shouldOnlyInsertLedgerRows() throws Exception {
+        BenchmarkResult result = runHotWalletDeposits("event-sourced");
+
+        // Writers queue on the row lock instead of failing version checks
+        assertThat(result.conflicts()).isZero();
+        assertThat(result.walletRowUpdates()).isZero();
+        assertBalanceMatchesDeposits(result);
+    }
+
+    @Test
+    void checkpoint_shouldFoldLedgerTailIntoCheckpoint() throws Exception {
+        BenchmarkResult result = runHotWalletDeposits("event-sourced");
+
+        ledgerCheckpointer.checkpointNow();
+
+        Map<String, Object> checkpoint = jdbcTemplate.queryForMap(
+                "SELECT c.balance, c.last_transaction_id FROM wallet_checkpoints c " +
+                "JOIN wallets w ON w.id = c.wallet_id WHERE w.player_id = ? AND w.currency = ?", PLAYER_ID, CURRENCY);
+        Long lastEntryId = jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM transactions WHERE player_id = ? AND currency = ?", Long.class, PLAYER_ID, CURRENCY);
+        assertThat(((Number) checkpoint.get("last_transaction_id")).longValue()).isEqualTo(lastEntryId);
+        assertThat((BigDecimal) checkpoint.get("balance"))
+                .isEqualByComparingTo(DEPOSIT.multiply(BigDecimal.valueOf(result.succeeded() + 1L)));
+        assertBalanceMatchesDeposits(result);
+    }
+
+    @Test
+    void checkpoint_shouldNotLockIdleWallets() throws Exception {
+        // Given - an idle wallet whose checkpoint is already current
+        walletService.processDeposit(PLAYER_ID + 1, DEPOSIT, CURRENCY);
+        ledgerCheckpointer.checkpointNow();
+        String idleLocker = idleWalletXmax();
+        runHotWalletDeposits("event-sourced");
+
+        // When
+        ledgerCheckpointer.checkpointNow();
+
+        // Then - a row lock would have stamped the idle wallet's tuple with the checkpointer's transaction id
+        assertThat(idleWalletXmax()).isEqualTo(idleLocker);
+    }
+
+    private String idleWalletXmax() {
+        return jdbcTemplate.queryForObject("SELECT xmax::text FROM wallets WHERE player_id = ? AND currency = ?",
+                String.class, PLAYER_ID + 1, CURRENCY);
+    }
+}
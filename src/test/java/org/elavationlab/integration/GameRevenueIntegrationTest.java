@@ -0,0 +1,129 @@
+package org.elavationlab.integration;
+
+import org.elavationlab.dto.GameRevenueRow;
+import org.elavationlab.exception.InsufficientFundsException;
+import org.elavationlab.repository.TransactionRepository;
+import org.elavationlab.repository.WalletRepository;
+import org.elavationlab.service.GameRevenueService;
+import org.elavationlab.service.WalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "wallet.ggr.flush-interval-ms=3600000",
+        "wallet.withdrawals.processor-enabled=false"
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class GameRevenueIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withReuse(true)
+            .withStartupTimeout(java.time.Duration.ofMinutes(2));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final String CURRENCY = "USD";
+    private static final int PLAYERS = 8;
+    private static final int BETS_PER_PLAYER = 25;
+
+    @Autowired
+    private GameRevenueService gameRevenueService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        gameRevenueService.flushAll();
+        jdbcTemplate.update("DELETE FROM game_revenue_minutes");
+        walletRepository.deleteAll();
+        transactionRepository.deleteAll();
+        for (int playerId = 1; playerId <= PLAYERS; playerId++) {
+            walletService.processDeposit(playerId, new BigDecimal("1000.00"), CURRENCY);
+        }
+    }
+
+    @Test
+    void ggr_shouldCountCommittedBetsAndWinsBeforeAndAfterFlush() throws Exception {
+        // Given - concurrent bets on one game, a win, and a bet that is rolled back
+        ExecutorService executor = Executors.newFixedThreadPool(PLAYERS);
+        try {
+            List<Future<?>> bets = new ArrayList<>();
+            for (int playerId = 1; playerId <= PLAYERS; playerId++) {
+                int player = playerId;
+                bets.add(executor.submit(() -> {
+                    for (int i = 0; i < BETS_PER_PLAYER; i++) {
+                        walletService.processBet(player, new BigDecimal("2.00"), CURRENCY, "slot-ggr");
+                    }
+                }));
+            }
+            for (Future<?> bet : bets) {
+                bet.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        walletService.processWin(1, new BigDecimal("150.00"), CURRENCY, "slot-ggr");
+        assertThatThrownBy(() -> walletService.processBet(2, new BigDecimal("5000.00"), CURRENCY, "slot-ggr"))
+                .isInstanceOf(InsufficientFundsException.class);
+        LocalDateTime from = LocalDateTime.now().minusHours(1);
+        LocalDateTime to = LocalDateTime.now().plusMinutes(1);
+
+        // When
+        List<GameRevenueRow> live = gameRevenueService.getTotals(from, to, CURRENCY);
+        gameRevenueService.flushAll();
+        List<GameRevenueRow> flushed = gameRevenueService.getTotals(from, to, CURRENCY);
+
+        // Then
+        assertThat(live).isEqualTo(flushed);
+        assertThat(flushed).singleElement().satisfies(row -> {
+            assertThat(row.getBetCount()).isEqualTo(PLAYERS * BETS_PER_PLAYER);
+            assertThat(row.getTotalBets()).isEqualByComparingTo("400.00");
+            assertThat(row.getTotalWins()).isEqualByComparingTo("150.00");
+            assertThat(row.getGgr()).isEqualByComparingTo("250.00");
+        });
+        assertThat(gameRevenueService.getMinutes("slot-ggr", from, to, CURRENCY).stream()
+                .map(GameRevenueRow::getGgr)
+                .reduce(BigDecimal.ZERO, BigDecimal::add))
+                .isEqualByComparingTo("250.00");
+    }
+}
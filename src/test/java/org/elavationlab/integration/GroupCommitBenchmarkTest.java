@@ -0,0 +1,153 @@
+package org.elavationlab.integration;
+
+import org.elavationlab.repository.TransactionRepository;
+import org.elavationlab.repository.WalletRepository;
+import org.elavationlab.service.GroupCommitExecutor;
+import org.elavationlab.service.WalletMutation;
+import org.elavationlab.service.WalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Places bets for many players from many threads, once committing every bet on its own and once through
+ * {@link GroupCommitExecutor}, and reports bets and database commits per second for both.
+ */
+@SpringBootTest(properties = {
+        "wallet.group-commit.enabled=true",
+        "wallet.group-commit.committers=4",
+        "wallet.group-commit.window-ms=5",
+        "wallet.withdrawals.processor-enabled=false"
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class GroupCommitBenchmarkTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withReuse(true)
+            .withStartupTimeout(java.time.Duration.ofMinutes(2));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final int FIRST_PLAYER_ID = 7000;
+    private static final int PLAYERS = 64;
+    private static final int THREADS = 32;
+    private static final int BETS_PER_THREAD = 100;
+    private static final String CURRENCY = "USD";
+    private static final BigDecimal DEPOSIT = new BigDecimal("1000.00");
+    private static final BigDecimal BET = new BigDecimal("1.00");
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private GroupCommitExecutor groupCommitExecutor;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        walletRepository.deleteAll();
+        transactionRepository.deleteAll();
+        for (int i = 0; i < PLAYERS; i++) {
+            walletService.processDeposit(FIRST_PLAYER_ID + i, DEPOSIT, CURRENCY);
+        }
+    }
+
+    @Test
+    void groupCommit_shouldCommitFarLessOften_forTheSameBets() throws Exception {
+        BenchmarkResult alone = runBets("commit per bet", mutation ->
+                walletService.processBet(mutation.playerId(), mutation.amount(), mutation.currency(), mutation.gameId()));
+        BenchmarkResult grouped = runBets("group commit", groupCommitExecutor::execute);
+
+        assertThat(grouped.commits()).isLessThan(alone.commits() / 2);
+        BigDecimal placed = BET.multiply(BigDecimal.valueOf(2L * THREADS * BETS_PER_THREAD));
+        BigDecimal remaining = jdbcTemplate.queryForObject(
+                "SELECT SUM(balance) FROM wallets WHERE player_id BETWEEN ? AND ?", BigDecimal.class,
+                FIRST_PLAYER_ID, FIRST_PLAYER_ID + PLAYERS - 1);
+        assertThat(remaining).isEqualByComparingTo(DEPOSIT.multiply(BigDecimal.valueOf(PLAYERS)).subtract(placed));
+    }
+
+    private BenchmarkResult runBets(String mode, Consumer<WalletMutation> placeBet) throws Exception {
+        long commitsBefore = databaseCommits();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            pool.submit(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < BETS_PER_THREAD; i++) {
+                    int playerId = FIRST_PLAYER_ID + (thread * BETS_PER_THREAD + i) % PLAYERS;
+                    try {
+                        placeBet.accept(WalletMutation.bet(playerId, BET, CURRENCY, "slot-1", null));
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }
+            });
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        assertThat(failures).isEmpty();
+
+        // Idle pooled connections flush their statistics within PGSTAT_IDLE_INTERVAL (10s)
+        Thread.sleep(11_000);
+        long commits = databaseCommits() - commitsBefore;
+        int bets = THREADS * BETS_PER_THREAD;
+        System.out.printf("[%s] %d bets in %.2fs (%.0f bets/s); %d commits (%.0f commits/s)%n",
+                mode, bets, seconds, bets / seconds, commits, commits / seconds);
+        return new BenchmarkResult(bets, seconds, commits);
+    }
+
+    private long databaseCommits() {
+        jdbcTemplate.execute("SELECT pg_stat_force_next_flush()");
+        return jdbcTemplate.queryForObject(
+                "SELECT xact_commit FROM pg_stat_database WHERE datname = current_database()", Long.class);
+    }
+
+    private record BenchmarkResult(int bets, double seconds, long commits) {
+    }
+}
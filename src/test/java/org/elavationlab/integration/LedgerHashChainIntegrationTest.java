@@ -0,0 +1,149 @@
+package org.elavationlab.integration;
+
+import org.elavationlab.domain.Transaction;
+import org.elavationlab.dto.LedgerAuditFailure;
+import org.elavationlab.dto.LedgerAuditResponse;
+import org.elavationlab.repository.TransactionRepository;
+import org.elavationlab.repository.WalletRepository;
+import org.elavationlab.service.LedgerAuditService;
+import org.elavationlab.service.WalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "wallet.ledger-hash.seal-enabled=false",
+        "wallet.ledger-hash.chunk-size=2",
+        "wallet.withdrawals.processor-enabled=false"
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class LedgerHashChainIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withReuse(true)
+            .withStartupTimeout(java.time.Duration.ofMinutes(2));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final String CURRENCY = "USD";
+
+    @Autowired
+    private LedgerAuditService ledgerAuditService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM ledger_seals");
+        walletRepository.deleteAll();
+        transactionRepository.deleteAll();
+        for (int playerId = 1; playerId <= 5; playerId++) {
+            walletService.processDeposit(playerId, new BigDecimal("100.00"), CURRENCY);
+            walletService.addBonusBalance(playerId, new BigDecimal("10.00"), CURRENCY, "WELCOME");
+            walletService.processBet(playerId, new BigDecimal("15.00"), CURRENCY, "GAME_1");
+            walletService.processWin(playerId, new BigDecimal("30.00"), CURRENCY, "GAME_1");
+        }
+        walletService.transferToPlayer(1, 2, new BigDecimal("20.00"), CURRENCY);
+        walletService.convertCurrency(3, CURRENCY, "EUR", new BigDecimal("10.00"));
+    }
+
+    @Test
+    void everyWritePath_shouldProduceAnUnbrokenChain() {
+        // When
+        LedgerAuditResponse result = ledgerAuditService.audit(true, true).orElseThrow();
+
+        // Then - 5 x 4 single-wallet entries, 2 transfer legs and 2 conversion legs across 6 wallets
+        assertThat(result.getFailures()).isZero();
+        assertThat(result.getWalletsVerified()).isEqualTo(6);
+        assertThat(result.getEntriesVerified()).isEqualTo(24);
+        assertThat(result.getWalletsSealed()).isEqualTo(6);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE entry_hash IS NULL", Long.class))
+                .isZero();
+    }
+
+    @Test
+    void incrementalAudit_shouldOnlyVerifyEntriesWrittenSinceTheLastSeal() {
+        // Given
+        ledgerAuditService.audit(false, true).orElseThrow();
+        walletService.processBet(4, new BigDecimal("5.00"), CURRENCY, "GAME_2");
+        walletService.processWin(4, new BigDecimal("8.00"), CURRENCY, "GAME_2");
+
+        // When
+        LedgerAuditResponse result = ledgerAuditService.audit(false, true).orElseThrow();
+
+        // Then
+        assertThat(result.getFailures()).isZero();
+        assertThat(result.getEntriesVerified()).isEqualTo(2);
+        assertThat(result.getWalletsSealed()).isEqualTo(1);
+    }
+
+    @Test
+    void audit_shouldDetectAnAlteredEntry() {
+        // Given - a sealed history, then an edited amount behind the application's back
+        ledgerAuditService.audit(false, true).orElseThrow();
+        Transaction win = transactionRepository.findAll().stream()
+                .filter(row -> row.getPlayerId() == 5 && row.getType() == Transaction.TransactionType.WIN)
+                .max(Comparator.comparing(Transaction::getId))
+                .orElseThrow();
+        jdbcTemplate.update("UPDATE transactions SET amount = amount + 1000 WHERE id = ?", win.getId());
+
+        // When
+        LedgerAuditResponse incremental = ledgerAuditService.audit(false, false).orElseThrow();
+        LedgerAuditResponse full = ledgerAuditService.audit(true, false).orElseThrow();
+
+        // Then - the edit predates the seal, so only the full audit walks over it
+        assertThat(incremental.getFailures()).isZero();
+        List<LedgerAuditFailure> failures = full.getFailureSamples();
+        assertThat(failures).extracting(LedgerAuditFailure::getTransactionId, LedgerAuditFailure::getReason)
+                .containsExactly(org.assertj.core.groups.Tuple.tuple(win.getId(), "ENTRY_HASH_MISMATCH"));
+    }
+
+    @Test
+    void audit_shouldDetectARewrittenReference() {
+        // Given - a bet moved to another game, with the money fields untouched
+        Long bet = jdbcTemplate.queryForObject(
+                "SELECT id FROM transactions WHERE type = 'BET' AND player_id = 4", Long.class);
+        jdbcTemplate.update("UPDATE transactions SET game_id = 'GAME_9' WHERE id = ?", bet);
+
+        // When
+        LedgerAuditResponse result = ledgerAuditService.audit(true, false).orElseThrow();
+
+        // Then
+        assertThat(result.getFailureSamples()).extracting(LedgerAuditFailure::getTransactionId, LedgerAuditFailure::getReason)
+                .containsExactly(org.assertj.core.groups.Tuple.tuple(bet, "ENTRY_HASH_MISMATCH"));
+    }
+}
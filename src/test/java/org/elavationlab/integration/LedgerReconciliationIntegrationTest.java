@@ -0,0 +1,139 @@
+package org.elavationlab.integration;
+
+import org.elavationlab.domain.ReconciliationMismatch;
+import org.elavationlab.domain.ReconciliationRun;
+import org.elavationlab.repository.ReconciliationMismatchRepository;
+import org.elavationlab.repository.ReconciliationRunRepository;
+import org.elavationlab.repository.TransactionRepository;
+import org.elavationlab.repository.WalletRepository;
+import org.elavationlab.service.LedgerReconciler;
+import org.elavationlab.service.WalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "wallet.reconciliation.range-size=2",
+        "wallet.reconciliation.schedule-enabled=false",
+        "wallet.withdrawals.processor-enabled=false"
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class LedgerReconciliationIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withReuse(true)
+            .withStartupTimeout(java.time.Duration.ofMinutes(2));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final String CURRENCY = "USD";
+
+    @Autowired
+    private LedgerReconciler ledgerReconciler;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private ReconciliationRunRepository runRepository;
+
+    @Autowired
+    private ReconciliationMismatchRepository mismatchRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        runRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM reconciliation_state");
+        walletRepository.deleteAll();
+        transactionRepository.deleteAll();
+        for (int playerId = 1; playerId <= 5; playerId++) {
+            walletService.processDeposit(playerId, new BigDecimal("100.00"), CURRENCY);
+            walletService.processWin(playerId, new BigDecimal("25.00"), CURRENCY, "GAME_1");
+            walletService.processWithdrawal(playerId, new BigDecimal("10.00"), CURRENCY);
+        }
+    }
+
+    @Test
+    void fullRun_shouldReportBalanceAndChainMismatches() throws Exception {
+        // Given - a balance changed behind the ledger's back and an entry with a broken chain
+        jdbcTemplate.update("UPDATE wallets SET balance = balance + 1 WHERE player_id = 2");
+        jdbcTemplate.update("UPDATE transactions SET balance_before = balance_before - 5 " +
+                "WHERE player_id = 4 AND type = 'WIN'");
+
+        // When
+        ReconciliationRun run = runToCompletion(ReconciliationRun.Mode.FULL);
+
+        // Then
+        assertThat(run.getStatus()).isEqualTo(ReconciliationRun.Status.COMPLETED);
+        assertThat(run.getWalletsChecked()).isEqualTo(5);
+        assertThat(run.getEntriesChecked()).isEqualTo(15);
+        assertThat(run.getRangesCompleted()).isEqualTo(run.getRangesTotal());
+        List<ReconciliationMismatch> mismatches = mismatchRepository.findByRunIdOrderById(run.getId(), PageRequest.of(0, 10));
+        assertThat(mismatches)
+                .extracting(ReconciliationMismatch::getPlayerId, ReconciliationMismatch::getKind)
+                .containsExactlyInAnyOrder(
+                        org.assertj.core.groups.Tuple.tuple(2, ReconciliationMismatch.Kind.BALANCE_MISMATCH),
+                        org.assertj.core.groups.Tuple.tuple(4, ReconciliationMismatch.Kind.CHAIN_BREAK));
+    }
+
+    @Test
+    void incrementalRun_shouldOnlyCheckWalletsChangedSinceLastRun() throws Exception {
+        // Given
+        assertThat(runToCompletion(ReconciliationRun.Mode.FULL).getMismatches()).isZero();
+        walletService.processDeposit(3, new BigDecimal("50.00"), CURRENCY);
+
+        // When
+        ReconciliationRun run = runToCompletion(ReconciliationRun.Mode.INCREMENTAL);
+
+        // Then
+        assertThat(run.getStatus()).isEqualTo(ReconciliationRun.Status.COMPLETED);
+        assertThat(run.getWalletsChecked()).isEqualTo(1);
+        assertThat(run.getEntriesChecked()).isEqualTo(1);
+        assertThat(run.getMismatches()).isZero();
+    }
+
+    private ReconciliationRun runToCompletion(ReconciliationRun.Mode mode) throws InterruptedException {
+        Long runId = ledgerReconciler.start(mode).orElseThrow().getId();
+        for (int i = 0; i < 300; i++) {
+            ReconciliationRun run = runRepository.findById(runId).orElseThrow();
+            if (run.getStatus() != ReconciliationRun.Status.RUNNING) {
+                return run;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Reconciliation run " + runId + " did not finish");
+    }
+}
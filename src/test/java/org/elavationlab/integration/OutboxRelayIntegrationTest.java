@@ -0,0 +1,159 @@
+package org.elavationlab.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.elavationlab.domain.Transaction;
+import org.elavationlab.dto.WalletChangeEvent;
+import org.elavationlab.repository.TransactionRepository;
+import org.elavationlab.repository.WalletRepository;
+import org.elavationlab.service.OutboxRelay;
+import org.elavationlab.service.WalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "wallet.outbox.relay-enabled=true",
+        "wallet.outbox.sink=log",
+        "wallet.outbox.poll-interval-ms=3600000",
+        "wallet.outbox.batch-size=7",
+        "wallet.withdrawals.processor-enabled=false"
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class OutboxRelayIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withReuse(true)
+            .withStartupTimeout(java.time.Duration.ofMinutes(2));
+
+    private static final Path EVENTS_FILE = createEventsFile();
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("wallet.outbox.log-file", EVENTS_FILE::toString);
+    }
+
+    private static final String CURRENCY = "USD";
+    private static final int PLAYERS = 6;
+    private static final int BETS_PER_PLAYER = 20;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        outboxRelay.relay();
+        jdbcTemplate.update("DELETE FROM wallet_outbox");
+        Files.write(EVENTS_FILE, new byte[0]);
+        walletRepository.deleteAll();
+        transactionRepository.deleteAll();
+    }
+
+    @Test
+    void relay_shouldDeliverEveryChangeInOrderPerPlayerAndEmptyTheOutbox() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(PLAYERS);
+        try {
+            List<Future<?>> players = new ArrayList<>();
+            for (int playerId = 1; playerId <= PLAYERS; playerId++) {
+                int player = playerId;
+                players.add(executor.submit(() -> {
+                    walletService.processDeposit(player, new BigDecimal("100.00"), CURRENCY);
+                    for (int i = 0; i < BETS_PER_PLAYER; i++) {
+                        walletService.processBet(player, new BigDecimal("1.00"), CURRENCY, "slot-1", "round-" + i);
+                    }
+                }));
+            }
+            for (Future<?> player : players) {
+                player.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        walletService.transferToPlayer(1, 2, new BigDecimal("5.00"), CURRENCY);
+
+        // When
+        outboxRelay.relay();
+
+        // Then
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM wallet_outbox", Integer.class)).isZero();
+        List<WalletChangeEvent> events = Files.readAllLines(EVENTS_FILE).stream()
+                .map(this::parse)
+                .toList();
+        assertThat(events).hasSize(PLAYERS * (1 + BETS_PER_PLAYER) + 2);
+        Map<Integer, List<WalletChangeEvent>> byPlayer = events.stream()
+                .collect(Collectors.groupingBy(WalletChangeEvent::getPlayerId));
+        byPlayer.forEach((playerId, playerEvents) -> {
+            assertThat(playerEvents).extracting(WalletChangeEvent::getId).isSorted().doesNotHaveDuplicates();
+            assertThat(playerEvents.get(0).getType()).isEqualTo(Transaction.TransactionType.DEPOSIT);
+        });
+        assertThat(byPlayer.get(3).get(BETS_PER_PLAYER).getBalance()).isEqualByComparingTo("80.00");
+        assertThat(byPlayer.get(2)).last().satisfies(event -> {
+            assertThat(event.getType()).isEqualTo(Transaction.TransactionType.TRANSFER_IN);
+            assertThat(event.getTransferId()).isNotNull();
+        });
+    }
+
+    private WalletChangeEvent parse(String line) {
+        try {
+            return objectMapper.readValue(line, WalletChangeEvent.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path createEventsFile() {
+        try {
+            Path file = Files.createTempFile("wallet-outbox", ".jsonl");
+            file.toFile().deleteOnExit();
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package org.elavationlab.integration;
+
+import org.elavationlab.dto.MultiCurrencyBalanceResponse;
+import org.elavationlab.dto.PlayerSummaryResponse;
+import org.elavationlab.repository.TransactionRepository;
+import org.elavationlab.repository.WalletRepository;
+import org.elavationlab.service.OutboxRelay;
+import org.elavationlab.service.PlayerSummaryRebuilder;
+import org.elavationlab.service.PlayerSummaryService;
+import org.elavationlab.service.WalletService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "wallet.outbox.relay-enabled=true",
+        "wallet.outbox.sink=log",
+        "wallet.outbox.poll-interval-ms=3600000",
+        "wallet.outbox.batch-size=5",
+        "wallet.player-summary.rebuild-range-size=2",
+        "wallet.withdrawals.processor-enabled=false"
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class PlayerSummaryIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withReuse(true)
+            .withStartupTimeout(java.time.Duration.ofMinutes(2));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final Integer PLAYER_ID = 4201;
+    private static final Integer OTHER_PLAYER_ID = 4202;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private PlayerSummaryService playerSummaryService;
+
+    @Autowired
+    private PlayerSummaryRebuilder playerSummaryRebuilder;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        outboxRelay.relay();
+        jdbcTemplate.update("DELETE FROM wallet_outbox");
+        jdbcTemplate.update("DELETE FROM player_summary");
+        walletRepository.deleteAll();
+        transactionRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Other tests read balances through the summary; leave none behind
+        jdbcTemplate.update("DELETE FROM player_summary");
+    }
+
+    @Test
+    void relay_shouldProjectCommittedChangesIntoTheSummary() {
+        // Given
+        walletService.processDeposit(PLAYER_ID, new BigDecimal("100.00"), "USD");
+        walletService.processDeposit(PLAYER_ID, new BigDecimal("85.00"), "EUR");
+        walletService.processBet(PLAYER_ID, new BigDecimal("10.00"), "USD", "slot-1", "round-1");
+        walletService.processWin(PLAYER_ID, new BigDecimal("25.00"), "USD", "slot-1", "round-1");
+        walletService.processBet(PLAYER_ID, new BigDecimal("8.50"), "EUR", "slot-1", "round-2");
+        walletService.processDeposit(OTHER_PLAYER_ID, new BigDecimal("1.00"), "USD");
+        walletService.transferToPlayer(PLAYER_ID, OTHER_PLAYER_ID, new BigDecimal("5.00"), "USD");
+        assertThat(playerSummaryService.getSummary(PLAYER_ID)).isEmpty();
+
+        // When
+        outboxRelay.relay();
+
+        // Then
+        PlayerSummaryResponse summary = playerSummaryService.getSummary(PLAYER_ID).orElseThrow();
+        assertThat(summary.getLifetimeDepositsUsd()).isEqualByComparingTo("200.00");
+        assertThat(summary.getLifetimeBetsUsd()).isEqualByComparingTo("20.00");
+        assertThat(summary.getLifetimeWinsUsd()).isEqualByComparingTo("25.00");
+        assertThat(summary.getDepositCount()).isEqualTo(2);
+        assertThat(summary.getBetCount()).isEqualTo(2);
+        assertThat(summary.getWinCount()).isEqualTo(1);
+        assertThat(summary.getFirstActivityAt()).isBeforeOrEqualTo(summary.getLastActivityAt());
+        assertThat(summary.getTotalBalanceInUSD()).isEqualByComparingTo("200.00");
+        assertThat(summary.getCurrencies()).extracting(MultiCurrencyBalanceResponse.CurrencyBalance::getCurrency)
+                .containsExactly("EUR", "USD");
+        assertThat(playerSummaryService.getBalances(OTHER_PLAYER_ID).orElseThrow().getTotalBalanceInUSD())
+                .isEqualByComparingTo("6.00");
+
+        // Redelivery finds nothing left to project
+        outboxRelay.relay();
+        assertThat(playerSummaryService.getSummary(PLAYER_ID).orElseThrow().getDepositCount()).isEqualTo(2);
+    }
+
+    @Test
+    void rebuild_shouldMatchTheProjectionAndNotDoubleCountPendingChanges() {
+        // Given
+        walletService.processDeposit(PLAYER_ID, new BigDecimal("50.00"), "GBP");
+        walletService.processBet(PLAYER_ID, new BigDecimal("7.30"), "GBP", "slot-1");
+        walletService.processDeposit(OTHER_PLAYER_ID, new BigDecimal("20.00"), "USD");
+        outboxRelay.relay();
+        PlayerSummaryResponse projected = playerSummaryService.getSummary(PLAYER_ID).orElseThrow();
+        walletService.processWin(PLAYER_ID, new BigDecimal("14.60"), "GBP", "slot-1");
+        jdbcTemplate.update("UPDATE player_summary SET bet_count = 0, lifetime_bets_usd = 0");
+
+        // When - the win is still in the outbox
+        long rebuilt = playerSummaryRebuilder.rebuild();
+        outboxRelay.relay();
+
+        // Then
+        assertThat(rebuilt).isEqualTo(2);
+        PlayerSummaryResponse summary = playerSummaryService.getSummary(PLAYER_ID).orElseThrow();
+        assertThat(summary.getLifetimeDepositsUsd()).isEqualByComparingTo(projected.getLifetimeDepositsUsd());
+        assertThat(summary.getLifetimeBetsUsd()).isEqualByComparingTo("10.00");
+        assertThat(summary.getBetCount()).isEqualTo(1);
+        assertThat(summary.getLifetimeWinsUsd()).isEqualByComparingTo("20.00");
+        assertThat(summary.getWinCount()).isEqualTo(1);
+        assertThat(summary.getCurrencies()).singleElement()
+                .satisfies(balance -> assertThat(balance.getBalance()).isEqualByComparingTo("57.30"));
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM wallet_outbox", Integer.class)).isZero();
+    }
+
+    @Test
+    void streamBalances_shouldCombineProjectedAndNotYetProjectedPlayers() {
+        // Given - the first player is projected, the second only has wallets
+        walletService.processDeposit(PLAYER_ID, new BigDecimal("10.00"), "USD");
+        walletService.processDeposit(PLAYER_ID, new BigDecimal("8.50"), "EUR");
+        outboxRelay.relay();
+        walletService.processDeposit(OTHER_PLAYER_ID, new BigDecimal("4.00"), "USD");
+        walletService.processDeposit(OTHER_PLAYER_ID, new BigDecimal("1.00"), "CAD");
+
+        // When
+        List<MultiCurrencyBalanceResponse> all = new ArrayList<>();
+        playerSummaryService.streamBalances(List.of(PLAYER_ID, OTHER_PLAYER_ID, 9999), List.of(), all::add);
+        List<MultiCurrencyBalanceResponse> usdOnly = new ArrayList<>();
+        playerSummaryService.streamBalances(List.of(PLAYER_ID, OTHER_PLAYER_ID), List.of("USD"), usdOnly::add);
+
+        // Then
+        assertThat(all).extracting(MultiCurrencyBalanceResponse::getPlayerId)
+                .containsExactly(PLAYER_ID, OTHER_PLAYER_ID);
+        assertThat(all).extracting(MultiCurrencyBalanceResponse::getTotalBalanceInUSD)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("20.00"), new BigDecimal("4.80"));
+        assertThat(usdOnly).allSatisfy(balances -> assertThat(balances.getCurrencies())
+                .singleElement()
+                .satisfies(balance -> assertThat(balance.getCurrency()).isEqualTo("USD")));
+    }
+
+    @Test
+    void streamBalances_shouldIncludeANewCurrencyWallet_beforeItIsProjected() {
+        // Given - the player is projected, but the GBP wallet opened afterwards is only in the outbox
+        walletService.processDeposit(PLAYER_ID, new BigDecimal("10.00"), "USD");
+        outboxRelay.relay();
+        walletService.processDeposit(PLAYER_ID, new BigDecimal("5.00"), "GBP");
+
+        // When
+        List<MultiCurrencyBalanceResponse> streamed = new ArrayList<>();
+        playerSummaryService.streamBalances(List.of(PLAYER_ID), List.of(), streamed::add);
+
+        // Then
+        assertThat(streamed).singleElement().satisfies(balances -> assertThat(balances.getCurrencies())
+                .extracting(MultiCurrencyBalanceResponse.CurrencyBalance::getCurrency)
+                .containsExactly("GBP", "USD"));
+    }
+}
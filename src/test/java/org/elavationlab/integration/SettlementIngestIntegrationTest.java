@@ -0,0 +1,166 @@
+package org.elavationlab.integration;
+
+import org.elavationlab.dto.BatchResult;
+import org.elavationlab.dto.SettlementFeedStatus;
+import org.elavationlab.dto.SettlementLineResult;
+import org.elavationlab.repository.TransactionRepository;
+import org.elavationlab.repository.WalletRepository;
+import org.elavationlab.service.SettlementIngestService;
+import org.elavationlab.service.WalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "wallet.settlements.chunk-size=2",
+        "wallet.withdrawals.processor-enabled=false"
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class SettlementIngestIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withReuse(true)
+            .withStartupTimeout(java.time.Duration.ofMinutes(2));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final Integer PLAYER_ID = 4801;
+
+    private static final String FILE = String.join("\n",
+            "{\"type\":\"BET\",\"playerId\":4801,\"amount\":10.00,\"currency\":\"USD\",\"gameId\":\"slot-1\",\"roundId\":\"r1\"}",
+            "{\"type\":\"WIN\",\"playerId\":4801,\"amount\":25.00,\"currency\":\"USD\",\"gameId\":\"slot-1\",\"roundId\":\"r1\"}",
+            "{\"type\":\"BET\",\"playerId\":4801,",
+            "",
+            "{\"type\":\"BET\",\"playerId\":4801,\"amount\":500.00,\"currency\":\"USD\",\"gameId\":\"slot-1\",\"roundId\":\"r2\"}",
+            "{\"type\":\"BET\",\"playerId\":4801,\"amount\":5.00,\"currency\":\"USD\",\"gameId\":\"slot-1\",\"roundId\":\"r3\"}",
+            "{\"type\":\"BALANCE\",\"playerId\":4801,\"currency\":\"USD\"}") + "\n";
+
+    @Autowired
+    private SettlementIngestService settlementIngestService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM settlement_feeds");
+        walletRepository.deleteAll();
+        transactionRepository.deleteAll();
+        walletService.processDeposit(PLAYER_ID, new BigDecimal("100.00"), "USD");
+    }
+
+    @Test
+    void ingest_shouldApplyAGzippedFileInOrder_andReportEveryLine() throws IOException {
+        // Given
+        List<SettlementLineResult> results = new ArrayList<>();
+
+        // When
+        SettlementFeedStatus status = settlementIngestService.ingest("provider-a:2026-10-19",
+                new ByteArrayInputStream(gzip(FILE)), results::add);
+
+        // Then
+        assertThat(status.getError()).isNull();
+        assertThat(status.getLinesDone()).isEqualTo(7);
+        assertThat(status.getApplied()).isEqualTo(3);
+        assertThat(status.getRejected()).isEqualTo(3);
+        assertThat(status.getCompletedAt()).isNotNull();
+        assertThat(results).extracting(SettlementLineResult::getLine).containsExactly(1L, 2L, 3L, 5L, 6L, 7L);
+        assertThat(results).extracting(SettlementLineResult::getStatus).containsExactly(
+                BatchResult.Status.OK, BatchResult.Status.OK, BatchResult.Status.INVALID_REQUEST,
+                BatchResult.Status.INSUFFICIENT_FUNDS, BatchResult.Status.OK, BatchResult.Status.INVALID_REQUEST);
+        assertThat(walletService.getBalance(PLAYER_ID, "USD").getBalance()).isEqualByComparingTo("110.00");
+    }
+
+    @Test
+    void ingest_shouldResumeAnInterruptedUpload_withoutApplyingAnyLineTwice() {
+        // Given - the connection drops in the middle of line 3, after the first chunk committed
+        byte[] file = FILE.getBytes(StandardCharsets.UTF_8);
+        int cut = FILE.indexOf("\n", FILE.indexOf("\n") + 1) + 10;
+        SettlementFeedStatus interrupted = settlementIngestService.ingest("provider-b:2026-10-19",
+                failingAfter(file, cut), result -> { });
+
+        // When
+        List<SettlementLineResult> results = new ArrayList<>();
+        SettlementFeedStatus resumed = settlementIngestService.ingest("provider-b:2026-10-19",
+                new ByteArrayInputStream(file), results::add);
+
+        // Then
+        assertThat(interrupted.getError()).isNotNull();
+        assertThat(interrupted.getLinesDone()).isEqualTo(2);
+        assertThat(results).extracting(SettlementLineResult::getLine).startsWith(3L);
+        assertThat(resumed.getError()).isNull();
+        assertThat(resumed.getLinesDone()).isEqualTo(7);
+        assertThat(resumed.getApplied()).isEqualTo(3);
+        assertThat(walletService.getBalance(PLAYER_ID, "USD").getBalance()).isEqualByComparingTo("110.00");
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static InputStream failingAfter(byte[] content, int limit) {
+        return new FilterInputStream(new ByteArrayInputStream(content, 0, limit)) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b < 0) {
+                    throw new IOException("Connection reset");
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                if (n < 0) {
+                    throw new IOException("Connection reset");
+                }
+                return n;
+            }
+        };
+    }
+}
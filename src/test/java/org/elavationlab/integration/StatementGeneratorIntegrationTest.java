@@ -0,0 +1,154 @@
+package org.elavationlab.integration;
+
+import org.elavationlab.dto.StatementRunStatus;
+import org.elavationlab.repository.TransactionRepository;
+import org.elavationlab.repository.WalletRepository;
+import org.elavationlab.service.StatementGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "wallet.statements.output-directory=target/statements-it",
+        "wallet.statements.parallelism=1",
+        "wallet.statements.checkpoint-interval=2",
+        "wallet.withdrawals.processor-enabled=false"
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class StatementGeneratorIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withReuse(true)
+            .withStartupTimeout(java.time.Duration.ofMinutes(2));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final YearMonth MONTH = YearMonth.of(2026, 9);
+    private static final Path MONTH_DIR = Path.of("target/statements-it", MONTH.toString());
+
+    @Autowired
+    private StatementGenerator statementGenerator;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        walletRepository.deleteAll();
+        transactionRepository.deleteAll();
+        deleteRecursively(MONTH_DIR);
+        // Players 1 to 10, two deposits each in the month
+        jdbcTemplate.update("INSERT INTO transactions (player_id, type, amount, currency, balance_before, " +
+                "balance_after, timestamp) " +
+                "SELECT p, 'DEPOSIT', 10.00, 'USD', (n - 1) * 10.00, n * 10.00, " +
+                "TIMESTAMP '2026-09-15 12:00' + make_interval(mins => n) " +
+                "FROM generate_series(1, 10) AS p, generate_series(1, 2) AS n");
+    }
+
+    @Test
+    void start_shouldResumeAnInterruptedRun_fromItsLastCheckpoint() throws Exception {
+        // Given - the first run dies on player 7: its file cannot be moved into place
+        Path blocker = MONTH_DIR.resolve("player-7.csv.gz");
+        Files.createDirectories(blocker);
+        Files.writeString(blocker.resolve("in-the-way"), "");
+        StatementRunStatus interrupted = run();
+        deleteRecursively(blocker);
+        // Players before the checkpoint must not be written again
+        Files.delete(MONTH_DIR.resolve("player-1.csv.gz"));
+
+        // When
+        StatementRunStatus resumed = run();
+
+        // Then
+        assertThat(interrupted.getState()).isEqualTo("FAILED");
+        assertThat(interrupted.getPlayersWritten()).isZero();
+        assertThat(resumed.getState()).isEqualTo("COMPLETED");
+        assertThat(resumed.getCompletedRanges()).isEqualTo(resumed.getTotalRanges());
+        assertThat(resumed.getPlayersWritten()).isEqualTo(4);
+        assertThat(MONTH_DIR.resolve("player-1.csv.gz")).doesNotExist();
+        for (int playerId = 2; playerId <= 10; playerId++) {
+            assertThat(MONTH_DIR.resolve("player-" + playerId + ".csv.gz")).exists();
+        }
+        assertThat(MONTH_DIR.resolve(".checkpoints")).isDirectoryContaining(path ->
+                path.getFileName().toString().endsWith(".ckpt"));
+    }
+
+    @Test
+    void start_shouldWritePlayersAddedAfterACompletedRun() throws Exception {
+        // Given - a completed run, then two players with higher ids settle in the same month
+        StatementRunStatus first = run();
+        jdbcTemplate.update("INSERT INTO transactions (player_id, type, amount, currency, balance_before, " +
+                "balance_after, timestamp) " +
+                "SELECT p, 'DEPOSIT', 10.00, 'USD', 0.00, 10.00, TIMESTAMP '2026-09-30 23:00' " +
+                "FROM generate_series(11, 12) AS p");
+
+        // When
+        StatementRunStatus resumed = run();
+
+        // Then - only the new players are written
+        assertThat(first.getState()).isEqualTo("COMPLETED");
+        assertThat(first.getPlayersWritten()).isEqualTo(10);
+        assertThat(resumed.getState()).isEqualTo("COMPLETED");
+        assertThat(resumed.getPlayersWritten()).isEqualTo(2);
+        assertThat(MONTH_DIR.resolve("player-11.csv.gz")).exists();
+        assertThat(MONTH_DIR.resolve("player-12.csv.gz")).exists();
+    }
+
+    private StatementRunStatus run() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!statementGenerator.start(MONTH)) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(50);
+        }
+        StatementRunStatus status = statementGenerator.getStatus();
+        while (status.getState().equals("RUNNING") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            status = statementGenerator.getStatus();
+        }
+        return status;
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+}
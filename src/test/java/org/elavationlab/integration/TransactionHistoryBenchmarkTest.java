@@ -0,0 +1,144 @@
+package org.elavationlab.integration;
+
+import org.elavationlab.domain.Transaction;
+import org.elavationlab.dto.TransactionResponse;
+import org.elavationlab.repository.TransactionRepository;
+import org.elavationlab.repository.WalletRepository;
+import org.elavationlab.service.TransactionService;
+import org.elavationlab.service.WalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the projected, read-only history query with loading {@link Transaction} entities in a read-write
+ * transaction and copying them into responses, reporting requests per second and heap allocated per request.
+ */
+@SpringBootTest(properties = "wallet.withdrawals.processor-enabled=false")
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class TransactionHistoryBenchmarkTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withReuse(true)
+            .withStartupTimeout(java.time.Duration.ofMinutes(2));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final int PLAYER_ID = 5150;
+    private static final String CURRENCY = "USD";
+    private static final int HISTORY_SIZE = 500;
+    private static final int WARMUP_REQUESTS = 200;
+    private static final int MEASURED_REQUESTS = 1_000;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        walletRepository.deleteAll();
+        transactionRepository.deleteAll();
+        walletService.processDeposit(PLAYER_ID, new BigDecimal("1.00"), CURRENCY);
+        jdbcTemplate.update(
+                "INSERT INTO transactions (player_id, type, amount, currency, balance_before, balance_after, " +
+                "balance_delta, bonus_delta, timestamp, description) " +
+                "SELECT ?, 'BET', 1.00, ?, 1.00, 0.00, -1.00, 0, now() - make_interval(secs => g), 'Bet on game bench' " +
+                "FROM generate_series(1, ?) AS g",
+                PLAYER_ID, CURRENCY, HISTORY_SIZE - 1);
+    }
+
+    @Test
+    void history_projectionShouldAllocateLessThanEntities() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        Supplier<List<TransactionResponse>> entities = () -> readWrite.execute(status ->
+                transactionRepository.findByPlayerIdAndCurrencyOrderByTimestampDesc(PLAYER_ID, CURRENCY).stream()
+                        .map(t -> TransactionResponse.builder()
+                                .id(t.getId())
+                                .playerId(t.getPlayerId())
+                                .type(t.getType())
+                                .amount(t.getAmount())
+                                .currency(t.getCurrency())
+                                .balanceBefore(t.getBalanceBefore())
+                                .balanceAfter(t.getBalanceAfter())
+                                .timestamp(t.getTimestamp())
+                                .description(t.getDescription())
+                                .gameId(t.getGameId())
+                                .roundId(t.getRoundId())
+                                .bonusCode(t.getBonusCode())
+                                .counterCurrency(t.getCounterCurrency())
+                                .build())
+                        .toList());
+        Supplier<List<TransactionResponse>> projection = () ->
+                transactionService.getTransactionHistory(PLAYER_ID, CURRENCY, 30);
+
+        assertThat(projection.get()).hasSize(HISTORY_SIZE).isEqualTo(entities.get());
+
+        Result entityResult = measure("entities", entities);
+        Result projectionResult = measure("projection", projection);
+
+        assertThat(projectionResult.bytesPerRequest()).isLessThan(entityResult.bytesPerRequest());
+    }
+
+    private static Result measure(String name, Supplier<List<TransactionResponse>> history) {
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            history.get();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long started = System.nanoTime();
+        for (int i = 0; i < MEASURED_REQUESTS; i++) {
+            history.get();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long bytesPerRequest = (threads.getThreadAllocatedBytes(threadId) - allocatedBefore) / MEASURED_REQUESTS;
+        Result result = new Result(MEASURED_REQUESTS / seconds, bytesPerRequest);
+        System.out.printf("[%s] %d entries per request: %.0f requests/s, %d KB allocated per request%n",
+                name, HISTORY_SIZE, result.requestsPerSecond(), result.bytesPerRequest() / 1024);
+        return result;
+    }
+
+    private record Result(double requestsPerSecond, long bytesPerRequest) {
+    }
+}
@@ -0,0 +1,157 @@
+package org.elavationlab.integration;
+
+import db.migration.V13__backfill_transaction_references;
+import org.elavationlab.domain.Transaction;
+import org.elavationlab.dto.TransactionResponse;
+import org.elavationlab.repository.TransactionRepository;
+import org.elavationlab.repository.WalletRepository;
+import org.elavationlab.service.TransactionService;
+import org.elavationlab.service.WalletService;
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = "wallet.withdrawals.processor-enabled=false")
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class TransactionReferencesIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withReuse(true)
+            .withStartupTimeout(java.time.Duration.ofMinutes(2));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final Integer PLAYER_ID = 3001;
+    private static final String CURRENCY = "USD";
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        walletRepository.deleteAll();
+        transactionRepository.deleteAll();
+        walletService.processDeposit(PLAYER_ID, new BigDecimal("100.00"), CURRENCY);
+    }
+
+    @Test
+    void movements_shouldBeFoundByGameAndBonus() {
+        // Given
+        walletService.processBet(PLAYER_ID, new BigDecimal("5.00"), CURRENCY, "slot-9", "round-1");
+        walletService.processWin(PLAYER_ID, new BigDecimal("8.00"), CURRENCY, "slot-9", "round-1");
+        walletService.processBet(PLAYER_ID, new BigDecimal("5.00"), CURRENCY, "poker-2");
+        walletService.addBonusBalance(PLAYER_ID, new BigDecimal("10.00"), CURRENCY, "WELCOME");
+
+        // When
+        List<TransactionResponse> game = transactionService.getGameTransactions("slot-9", 1, 100);
+        List<TransactionResponse> bonus = transactionService.getBonusTransactions("WELCOME", 1, 100);
+
+        // Then
+        assertThat(game).extracting(TransactionResponse::getType)
+                .containsExactlyInAnyOrder(Transaction.TransactionType.BET, Transaction.TransactionType.WIN);
+        assertThat(game).allSatisfy(t -> {
+            assertThat(t.getRoundId()).isEqualTo("round-1");
+            assertThat(t.getDescription()).isNull();
+        });
+        assertThat(bonus).singleElement().satisfies(t -> assertThat(t.getAmount()).isEqualByComparingTo("10.00"));
+    }
+
+    @Test
+    void conversion_shouldRecordTheCounterCurrencyOnBothLegs() {
+        // When
+        walletService.convertCurrency(PLAYER_ID, CURRENCY, "EUR", new BigDecimal("10.00"));
+
+        // Then
+        Map<String, Object> debit = jdbcTemplate.queryForMap(
+                "SELECT currency, counter_currency FROM transactions WHERE type = 'CONVERSION'");
+        Map<String, Object> credit = jdbcTemplate.queryForMap(
+                "SELECT currency, counter_currency FROM transactions WHERE type = 'CONVERSION_IN'");
+        assertThat(debit).containsEntry("currency", CURRENCY).containsEntry("counter_currency", "EUR");
+        assertThat(credit).containsEntry("currency", "EUR").containsEntry("counter_currency", CURRENCY);
+    }
+
+    @Test
+    void backfill_shouldMoveIdentifiersOutOfLegacyDescriptions() throws Exception {
+        // Given - rows as written before the reference columns existed
+        insertLegacy("BET", "Bet on game legacy-slot");
+        insertLegacy("WIN", "Win from game legacy-slot");
+        insertLegacy("BONUS", "Bonus credited: SPRING");
+        insertLegacy("CONVERSION", "Converted 10.00 USD to 8.50 EUR");
+        insertLegacy("CONVERSION_IN", "Converted 10.00 USD to 8.50 EUR");
+
+        // When - run twice, as after an interrupted deployment
+        runBackfill();
+        runBackfill();
+
+        // Then
+        assertThat(transactionService.getGameTransactions("legacy-slot", 1, 100)).hasSize(2)
+                .allSatisfy(t -> assertThat(t.getDescription()).isNull());
+        assertThat(transactionService.getBonusTransactions("SPRING", 1, 100)).hasSize(1);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT counter_currency FROM transactions WHERE type IN ('CONVERSION', 'CONVERSION_IN') ORDER BY type",
+                String.class)).containsExactly("EUR", "USD");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM transactions WHERE type = 'CONVERSION' AND description IS NOT NULL",
+                Integer.class)).isEqualTo(1);
+    }
+
+    private void insertLegacy(String type, String description) {
+        jdbcTemplate.update(
+                "INSERT INTO transactions (player_id, type, amount, currency, balance_before, balance_after, " +
+                "balance_delta, bonus_delta, timestamp, description) " +
+                "VALUES (?, ?, 1.00, ?, 100.00, 100.00, 0, 0, now(), ?)",
+                PLAYER_ID, type, CURRENCY, description);
+    }
+
+    private void runBackfill() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            Context context = mock(Context.class);
+            when(context.getConnection()).thenReturn(connection);
+            new V13__backfill_transaction_references().migrate(context);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.elavationlab.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "wallet.storage.mode=update-in-place",
+        "wallet.withdrawals.processor-enabled=false"
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class UpdateInPlaceStorageBenchmarkTest extends AbstractWalletStorageBenchmark {
+
+    @Test
+    void hotWalletDeposits_shouldRewriteWalletRowOnEveryDeposit() throws Exception {
+        BenchmarkResult result = runHotWalletDeposits("update-in-place");
+
+        assertBalanceMatchesDeposits(result);
+        assertThat(result.walletRowUpdates()).isGreaterThanOrEqualTo(result.succeeded());
+    }
+}
@@ -0,0 +1,155 @@
+package org.elavationlab.integration;
+
+import org.elavationlab.domain.Transaction;
+import org.elavationlab.domain.Wallet;
+import org.elavationlab.exception.InsufficientFundsException;
+import org.elavationlab.repository.TransactionRepository;
+import org.elavationlab.repository.WalletRepository;
+import org.elavationlab.service.WalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "wallet.withdrawals.processor-enabled=false")
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class WalletTransferConcurrencyIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withReuse(true)
+            .withStartupTimeout(java.time.Duration.ofMinutes(2));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final int PLAYERS = 4;
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 200;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @BeforeEach
+    void setUp() {
+        walletRepository.deleteAll();
+        transactionRepository.deleteAll();
+        for (int playerId = 1; playerId <= PLAYERS; playerId++) {
+            for (String currency : List.of("USD", "EUR")) {
+                walletRepository.save(Wallet.builder()
+                        .playerId(playerId)
+                        .currency(currency)
+                        .balance(INITIAL_BALANCE)
+                        .bonusBalance(BigDecimal.ZERO)
+                        .build());
+            }
+        }
+    }
+
+    @Test
+    void oppositeDirectionTransfers_shouldNeverDeadlock_andConserveFunds() throws Exception {
+        // Given - a few hot wallets so nearly every pair of operations contends
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger insufficient = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+
+        // When
+        List<Runnable> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    int from = random.nextInt(1, PLAYERS + 1);
+                    int to = from % PLAYERS + 1;
+                    try {
+                        if (random.nextBoolean()) {
+                            // Each pair of players is transferred between in both directions
+                            int[] pair = random.nextBoolean() ? new int[]{from, to} : new int[]{to, from};
+                            walletService.transferToPlayer(pair[0], pair[1], new BigDecimal("5.00"), "USD");
+                        } else {
+                            boolean toEur = random.nextBoolean();
+                            walletService.convertCurrency(from, toEur ? "USD" : "EUR", toEur ? "EUR" : "USD",
+                                    new BigDecimal("3.00"));
+                        }
+                        succeeded.incrementAndGet();
+                    } catch (InsufficientFundsException e) {
+                        insufficient.incrementAndGet();
+                    } catch (Throwable e) {
+                        unexpected.add(e);
+                    }
+                }
+            });
+        }
+        long started = System.nanoTime();
+        workers.forEach(worker -> pool.submit(() -> {
+            try {
+                start.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            worker.run();
+        }));
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("Transfers: %d ok, %d insufficient in %.2fs (%.0f ops/s)%n",
+                succeeded.get(), insufficient.get(), seconds, succeeded.get() / seconds);
+
+        // Then - no deadlocks or lost updates
+        assertThat(unexpected).isEmpty();
+        assertThat(succeeded.get() + insufficient.get()).isEqualTo(THREADS * OPERATIONS_PER_THREAD);
+
+        List<Transaction> ledger = transactionRepository.findAll();
+        assertThat(ledger).hasSize(succeeded.get() * 2);
+        assertThat(ledger).allSatisfy(row -> assertThat(row.getTransferId()).isNotNull());
+
+        // Every wallet's balance equals its opening balance plus its ledger movements
+        for (Wallet wallet : walletRepository.findAll()) {
+            BigDecimal expected = INITIAL_BALANCE;
+            for (Transaction row : ledger) {
+                if (row.getPlayerId().equals(wallet.getPlayerId()) && row.getCurrency().equals(wallet.getCurrency())) {
+                    expected = expected.add(row.getBalanceAfter()).subtract(row.getBalanceBefore());
+                }
+            }
+            assertThat(wallet.getBalance()).isEqualByComparingTo(expected);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.elavationlab.integration;
+
+import org.elavationlab.dto.WithdrawalBulkActionRequest;
+import org.elavationlab.dto.WithdrawalBulkActionResponse;
+import org.elavationlab.repository.PendingWithdrawalRepository;
+import org.elavationlab.repository.TransactionRepository;
+import org.elavationlab.repository.WalletRepository;
+import org.elavationlab.service.WalletService;
+import org.elavationlab.service.WithdrawalAdminService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Approves and then rejects 50k queued withdrawals spread over 500 wallets with the production chunk size,
+ * reporting how long each bulk action takes.
+ */
+@SpringBootTest(properties = "wallet.withdrawals.processor-enabled=false")
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class WithdrawalAdminBenchmarkTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withReuse(true)
+            .withStartupTimeout(java.time.Duration.ofMinutes(2));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final String CURRENCY = "USD";
+    private static final int FIRST_PLAYER_ID = 30001;
+    private static final int WALLETS = 500;
+    private static final int WITHDRAWALS = 50_000;
+    private static final long MAX_DURATION_MILLIS = 30_000;
+
+    @Autowired
+    private WithdrawalAdminService withdrawalAdminService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PendingWithdrawalRepository pendingWithdrawalRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        pendingWithdrawalRepository.deleteAll();
+        walletRepository.deleteAll();
+        transactionRepository.deleteAll();
+        for (int playerId = FIRST_PLAYER_ID; playerId < FIRST_PLAYER_ID + WALLETS; playerId++) {
+            walletService.processDeposit(playerId, new BigDecimal("1.00"), CURRENCY);
+        }
+        jdbcTemplate.update("INSERT INTO pending_withdrawals (player_id, amount, currency, status, requested_at) " +
+                "SELECT ? + g % ?, 1.00, ?, 'PENDING', now() FROM generate_series(1, ?) AS g",
+                FIRST_PLAYER_ID, WALLETS, CURRENCY, WITHDRAWALS);
+    }
+
+    @Test
+    void approveThenReject_shouldFinishFiftyThousandWithdrawalsInSeconds() {
+        // Given
+        WithdrawalBulkActionRequest filter = new WithdrawalBulkActionRequest();
+        filter.setCurrency(CURRENCY);
+
+        // When
+        WithdrawalBulkActionResponse approved = withdrawalAdminService.approve(filter, "bench");
+        WithdrawalBulkActionResponse rejected = withdrawalAdminService.reject(filter, "bench");
+        System.out.printf("[withdrawal admin] approved %d in %d ms (%d chunks), rejected %d in %d ms (%d chunks)%n",
+                approved.getProcessed(), approved.getDurationMillis(), approved.getChunks(),
+                rejected.getProcessed(), rejected.getDurationMillis(), rejected.getChunks());
+
+        // Then
+        assertThat(approved.getProcessed()).isEqualTo(WITHDRAWALS);
+        assertThat(rejected.getProcessed()).isEqualTo(WITHDRAWALS);
+        assertThat(approved.getDurationMillis()).isLessThan(MAX_DURATION_MILLIS);
+        assertThat(rejected.getDurationMillis()).isLessThan(MAX_DURATION_MILLIS);
+        assertThat(jdbcTemplate.queryForObject("SELECT sum(balance) FROM wallets", BigDecimal.class))
+                .isEqualByComparingTo(new BigDecimal(WALLETS + WITHDRAWALS));
+    }
+}
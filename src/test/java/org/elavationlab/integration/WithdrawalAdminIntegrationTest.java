@@ -0,0 +1,221 @@
+package org.elavationlab.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.elavationlab.dto.LedgerAuditResponse;
+import org.elavationlab.dto.WithdrawalBulkActionRequest;
+import org.elavationlab.dto.WithdrawalBulkActionResponse;
+import org.elavationlab.repository.PendingWithdrawalRepository;
+import org.elavationlab.repository.TransactionRepository;
+import org.elavationlab.repository.WalletRepository;
+import org.elavationlab.service.LedgerAuditService;
+import org.elavationlab.service.WalletService;
+import org.elavationlab.service.WithdrawalAdminService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "wallet.withdrawals.admin-chunk-size=2",
+        "wallet.withdrawals.processor-enabled=false"
+})
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class WithdrawalAdminIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withReuse(true)
+            .withStartupTimeout(java.time.Duration.ofMinutes(2));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final Integer PLAYER_ID = 2901;
+    private static final String CURRENCY = "USD";
+    private static final String ADMIN_ID = "ops-1";
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WithdrawalAdminService withdrawalAdminService;
+
+    @Autowired
+    private LedgerAuditService ledgerAuditService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PendingWithdrawalRepository pendingWithdrawalRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private MockMvc mockMvc;
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        objectMapper = new ObjectMapper();
+        jdbcTemplate.update("DELETE FROM ledger_seals");
+        pendingWithdrawalRepository.deleteAll();
+        walletRepository.deleteAll();
+        transactionRepository.deleteAll();
+        walletService.processDeposit(PLAYER_ID, new BigDecimal("100.00"), CURRENCY);
+        for (int i = 0; i < 3; i++) {
+            walletService.processWithdrawal(PLAYER_ID, new BigDecimal("10.00"), CURRENCY);
+        }
+    }
+
+    @Test
+    void approve_shouldMoveEveryMatchingWithdrawalInChunks_withoutTouchingTheWallet() throws Exception {
+        // When
+        mockMvc.perform(post("/api/admin/withdrawals/approve")
+                        .header("X-Admin-Id", ADMIN_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("currency", CURRENCY))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processed").value(3))
+                .andExpect(jsonPath("$.chunks").value(2));
+
+        // Then
+        assertThat(statuses()).containsOnly("APPROVED");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pending_withdrawals WHERE reviewed_by = ?", Long.class, ADMIN_ID)).isEqualTo(3);
+        assertThat(walletService.getBalance(PLAYER_ID, CURRENCY).getBalance()).isEqualByComparingTo("70.00");
+    }
+
+    @Test
+    void reject_shouldRefundTheWallet_withChainedRefundLedgerRows() {
+        // When
+        WithdrawalBulkActionResponse response = withdrawalAdminService.reject(byCurrency(), ADMIN_ID);
+
+        // Then
+        assertThat(response.getProcessed()).isEqualTo(3);
+        assertThat(response.getUnrefundableIds()).isEmpty();
+        assertThat(statuses()).containsOnly("REJECTED");
+        assertThat(walletService.getBalance(PLAYER_ID, CURRENCY).getBalance()).isEqualByComparingTo("100.00");
+        List<Map<String, Object>> refunds = jdbcTemplate.queryForList(
+                "SELECT balance_before, balance_after FROM transactions WHERE type = 'REFUND' ORDER BY id");
+        assertThat(refunds).extracting(row -> ((BigDecimal) row.get("balance_after")).toPlainString())
+                .containsExactly("80.00", "90.00", "100.00");
+        LedgerAuditResponse audit = ledgerAuditService.audit(true, false).orElseThrow();
+        assertThat(audit.getFailures()).isZero();
+    }
+
+    @Test
+    void statusGuard_shouldNotMoveAWithdrawalOutOfAFinalStatus() {
+        // Given - one withdrawal is paid out, the others were rejected and refunded
+        Long paidOut = jdbcTemplate.queryForObject(
+                "SELECT min(id) FROM pending_withdrawals WHERE player_id = ?", Long.class, PLAYER_ID);
+        jdbcTemplate.update("UPDATE pending_withdrawals SET status = 'COMPLETED' WHERE id = ?", paidOut);
+        withdrawalAdminService.reject(byCurrency(), ADMIN_ID);
+
+        // When
+        WithdrawalBulkActionResponse approved = withdrawalAdminService.approve(byCurrency(), ADMIN_ID);
+        WithdrawalBulkActionResponse rejectedAgain = withdrawalAdminService.reject(byCurrency(), ADMIN_ID);
+
+        // Then
+        assertThat(approved.getProcessed()).isZero();
+        assertThat(rejectedAgain.getProcessed()).isZero();
+        assertThat(statuses()).containsExactly("COMPLETED", "REJECTED", "REJECTED");
+        assertThat(walletService.getBalance(PLAYER_ID, CURRENCY).getBalance()).isEqualByComparingTo("90.00");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE type = 'REFUND'", Long.class)).isEqualTo(2);
+    }
+
+    @Test
+    void reject_shouldLeaveAWithdrawalWithoutAWallet_andReportIt() {
+        // Given
+        Long orphan = jdbcTemplate.queryForObject(
+                "INSERT INTO pending_withdrawals (player_id, amount, currency, status, requested_at) " +
+                "VALUES (2902, 10.00, ?, 'PENDING', now()) RETURNING id", Long.class, CURRENCY);
+
+        // When
+        WithdrawalBulkActionResponse response = withdrawalAdminService.reject(byCurrency(), ADMIN_ID);
+
+        // Then
+        assertThat(response.getProcessed()).isEqualTo(3);
+        assertThat(response.getUnrefundableIds()).containsExactly(orphan);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT status FROM pending_withdrawals WHERE id = ?", String.class, orphan)).isEqualTo("PENDING");
+    }
+
+    @Test
+    void reject_shouldReportAWithdrawalHeldByAPayoutWorker() throws Exception {
+        // Given - a payout worker holds the oldest withdrawal
+        Long held = jdbcTemplate.queryForObject(
+                "SELECT min(id) FROM pending_withdrawals WHERE player_id = ?", Long.class, PLAYER_ID);
+        try (Connection worker = dataSource.getConnection()) {
+            worker.setAutoCommit(false);
+            try (Statement statement = worker.createStatement()) {
+                statement.execute("SELECT id FROM pending_withdrawals WHERE id = " + held + " FOR UPDATE");
+            }
+
+            // When
+            WithdrawalBulkActionResponse response = withdrawalAdminService.reject(byCurrency(), ADMIN_ID);
+
+            // Then
+            assertThat(response.getProcessed()).isEqualTo(2);
+            assertThat(response.getSkipped()).isEqualTo(1);
+            assertThat(response.getSkippedIds()).containsExactly(held);
+            worker.rollback();
+        }
+        assertThat(statuses()).containsExactly("PENDING", "REJECTED", "REJECTED");
+    }
+
+    private List<String> statuses() {
+        return jdbcTemplate.queryForList(
+                "SELECT status FROM pending_withdrawals WHERE player_id = ? ORDER BY id", String.class, PLAYER_ID);
+    }
+
+    private static WithdrawalBulkActionRequest byCurrency() {
+        WithdrawalBulkActionRequest request = new WithdrawalBulkActionRequest();
+        request.setCurrency(CURRENCY);
+        return request;
+    }
+}
@@ -0,0 +1,149 @@
+package org.elavationlab.integration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.elavationlab.repository.PendingWithdrawalRepository;
+import org.elavationlab.service.PayoutGateway;
+import org.elavationlab.service.WithdrawalProcessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs two processors, standing in for two nodes, against one queue.
+ */
+@SpringBootTest(properties = "wallet.withdrawals.processor-enabled=false")
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class WithdrawalProcessorIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withReuse(true)
+            .withStartupTimeout(java.time.Duration.ofMinutes(2));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final int WITHDRAWALS = 2_000;
+
+    @Autowired
+    private PendingWithdrawalRepository pendingWithdrawalRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        pendingWithdrawalRepository.deleteAll();
+        jdbcTemplate.update("INSERT INTO pending_withdrawals (player_id, amount, currency, status, requested_at) " +
+                "SELECT 2801 + g % 50, 1.00, 'USD', 'APPROVED', now() - make_interval(secs => g) " +
+                "FROM generate_series(1, ?) AS g", WITHDRAWALS);
+    }
+
+    @Test
+    void drainQueue_shouldPayEveryWithdrawalExactlyOnce_whenTwoNodesDrainTheSameQueue() throws Exception {
+        // Given - a gateway that counts calls per withdrawal and is slow enough for the nodes to overlap
+        Map<Long, AtomicInteger> payouts = new ConcurrentHashMap<>();
+        PayoutGateway gateway = withdrawal -> {
+            payouts.computeIfAbsent(withdrawal.getId(), id -> new AtomicInteger()).incrementAndGet();
+            sleepQuietly();
+            return PayoutGateway.PayoutResult.success();
+        };
+        WithdrawalProcessor first = processor(gateway);
+        WithdrawalProcessor second = processor(gateway);
+
+        // When
+        ExecutorService nodes = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> runs = List.of(
+                    nodes.submit(() -> { await(start); first.drainQueue(); }),
+                    nodes.submit(() -> { await(start); second.drainQueue(); }));
+            start.countDown();
+            for (Future<?> run : runs) {
+                run.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            nodes.shutdownNow();
+        }
+
+        // Then
+        assertThat(payouts).hasSize(WITHDRAWALS);
+        assertThat(payouts.values()).allSatisfy(calls -> assertThat(calls.get()).isEqualTo(1));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pending_withdrawals WHERE status = 'COMPLETED'", Long.class))
+                .isEqualTo(WITHDRAWALS);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT claimed_by) FROM pending_withdrawals", Long.class)).isEqualTo(2);
+    }
+
+    @Test
+    void drainQueue_shouldLeaveARefusedPayoutFailedAndCounted() {
+        // Given
+        PayoutGateway refusing = withdrawal -> PayoutGateway.PayoutResult.failed("Account closed");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        WithdrawalProcessor processor = new WithdrawalProcessor(pendingWithdrawalRepository, refusing,
+                transactionManager, meterRegistry, 2, 100, 300, 5);
+
+        // When
+        processor.drainQueue();
+
+        // Then
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pending_withdrawals WHERE status = 'FAILED'", Long.class))
+                .isEqualTo(WITHDRAWALS);
+        assertThat(meterRegistry.get("wallet.withdrawals.failed").gauge().value()).isEqualTo(WITHDRAWALS);
+    }
+
+    private WithdrawalProcessor processor(PayoutGateway gateway) {
+        return new WithdrawalProcessor(pendingWithdrawalRepository, gateway, transactionManager,
+                new SimpleMeterRegistry(), 2, 50, 300, 5);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly() {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package org.elavationlab.protocol;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.elavationlab.dto.BatchOperation;
+import org.elavationlab.dto.BatchRequest;
+import org.elavationlab.dto.BatchResponse;
+import org.elavationlab.dto.BatchResult;
+import org.elavationlab.dto.BetRequest;
+import org.elavationlab.dto.WalletBalanceResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WalletBinaryCodecTest {
+
+    private static final int BENCHMARK_ITERATIONS = 20_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void betRequest_shouldRoundTrip() {
+        // Given
+        BetRequest request = new BetRequest();
+        request.setAmount(new BigDecimal("12.50"));
+        request.setCurrency("EUR");
+        request.setGameId("slot-42");
+        request.setRoundId("round-7");
+
+        // When
+        BetRequest decoded = (BetRequest) roundTrip(BetRequest.class, request);
+
+        // Then
+        assertThat(decoded).isEqualTo(request);
+    }
+
+    @Test
+    void batch_shouldRoundTripRequestsAndResults() {
+        // Given
+        BatchRequest request = batchRequest(3);
+        BatchResponse response = new BatchResponse(List.of(
+                BatchResult.builder().status(BatchResult.Status.OK).balance(balance(1)).build(),
+                BatchResult.builder().status(BatchResult.Status.INSUFFICIENT_FUNDS).build()));
+
+        // When
+        BatchRequest decodedRequest = (BatchRequest) roundTrip(BatchRequest.class, request);
+        BatchResponse decodedResponse = (BatchResponse) roundTrip(BatchResponse.class, response);
+
+        // Then
+        assertThat(decodedRequest).isEqualTo(request);
+        assertThat(decodedResponse).isEqualTo(response);
+    }
+
+    @Test
+    void decode_shouldRejectWrongMessageTag() {
+        // Given
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        WalletBinaryCodec.encode(balance(1), buffer);
+        buffer.flip();
+
+        // When & Then
+        assertThatThrownBy(() -> WalletBinaryCodec.decode(BetRequest.class, buffer))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void encode_shouldRejectAmountsBelowMinorUnits() {
+        // Given
+        BetRequest request = new BetRequest();
+        request.setAmount(new BigDecimal("0.001"));
+        request.setCurrency("EUR");
+        request.setGameId("slot-42");
+
+        // When & Then
+        assertThatThrownBy(() -> WalletBinaryCodec.encode(request, ByteBuffer.allocate(512)))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmark_binaryVersusJson() throws Exception {
+        // Given - a typical single call and a full game round batch
+        Object[] messages = {balance(7), batchRequest(50), batchResponse(50)};
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        for (Object message : messages) {
+            Class<?> type = message.getClass();
+            byte[] json = objectMapper.writeValueAsBytes(message);
+            int binarySize = encode(message, buffer);
+
+            // When
+            for (int i = 0; i < BENCHMARK_ITERATIONS / 10; i++) {
+                objectMapper.readValue(objectMapper.writeValueAsBytes(message), type);
+                encode(message, buffer);
+                WalletBinaryCodec.decode(type, buffer.flip());
+            }
+            long jsonStart = threads.getCurrentThreadCpuTime();
+            for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+                objectMapper.readValue(objectMapper.writeValueAsBytes(message), type);
+            }
+            long jsonNanos = threads.getCurrentThreadCpuTime() - jsonStart;
+            long binaryStart = threads.getCurrentThreadCpuTime();
+            for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+                encode(message, buffer);
+                WalletBinaryCodec.decode(type, buffer.flip());
+            }
+            long binaryNanos = threads.getCurrentThreadCpuTime() - binaryStart;
+
+            // Then
+            System.out.printf("%s: json %d bytes %.2f us, binary %d bytes %.2f us per encode+decode%n",
+                    type.getSimpleName(), json.length, jsonNanos / 1_000.0 / BENCHMARK_ITERATIONS,
+                    binarySize, binaryNanos / 1_000.0 / BENCHMARK_ITERATIONS);
+            assertThat(binarySize).isLessThan(json.length);
+        }
+    }
+
+    private static Object roundTrip(Class<?> type, Object value) {
+        ByteBuffer buffer = ByteBuffer.allocate(WalletBinaryCodec.maxEncodedSize(value));
+        WalletBinaryCodec.encode(value, buffer);
+        buffer.flip();
+        Object decoded = WalletBinaryCodec.decode(type, buffer);
+        assertThat(buffer.hasRemaining()).isFalse();
+        return decoded;
+    }
+
+    private static int encode(Object value, ByteBuffer buffer) {
+        buffer.clear();
+        WalletBinaryCodec.encode(value, buffer);
+        return buffer.position();
+    }
+
+    private static WalletBalanceResponse balance(int playerId) {
+        return WalletBalanceResponse.builder()
+                .playerId(playerId)
+                .currency("EUR")
+                .balance(new BigDecimal("1234.56"))
+                .bonusBalance(new BigDecimal("10.00"))
+                .totalBalance(new BigDecimal("1244.56"))
+                .build();
+    }
+
+    private static BatchRequest batchRequest(int size) {
+        List<BatchOperation> operations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            operations.add(BatchOperation.builder()
+                    .type(i % 2 == 0 ? BatchOperation.Type.BET : BatchOperation.Type.WIN)
+                    .playerId(1000 + i)
+                    .amount(new BigDecimal("2.50"))
+                    .currency("EUR")
+                    .gameId("slot-42")
+                    .build());
+        }
+        return new BatchRequest(operations);
+    }
+
+    private static BatchResponse batchResponse(int size) {
+        List<BatchResult> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            results.add(BatchResult.builder().status(BatchResult.Status.OK).balance(balance(1000 + i)).build());
+        }
+        return new BatchResponse(results);
+    }
+}
@@ -0,0 +1,100 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.elavationlab.config.BalanceReadProperties;
+import org.elavationlab.dto.WalletBalanceResponse;
+import org.elavationlab.repository.WalletStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceReadCoalescerTest {
+
+    private static final Integer PLAYER_ID = 1001;
+    private static final String CURRENCY = "USD";
+    private static final int READERS = 8;
+
+    @Mock
+    private WalletStore walletStore;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BalanceReadCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new BalanceReadCoalescer(walletStore, transactionManager, new BalanceReadProperties(), meterRegistry);
+    }
+
+    @Test
+    void findBalance_shouldShareOneQuery_betweenConcurrentReadsOfTheSameWallet() throws Exception {
+        // Given - the first query blocks until every reader has arrived
+        CountDownLatch release = new CountDownLatch(1);
+        WalletBalanceResponse balance = new WalletBalanceResponse(PLAYER_ID, CURRENCY, new BigDecimal("10.00"),
+                BigDecimal.ZERO, new BigDecimal("10.00"));
+        when(walletStore.findBalance(PLAYER_ID, CURRENCY)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(balance);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(READERS);
+
+        // When
+        List<CompletableFuture<Optional<WalletBalanceResponse>>> reads = new ArrayList<>();
+        try {
+            for (int i = 0; i < READERS; i++) {
+                reads.add(CompletableFuture.supplyAsync(() -> coalescer.findBalance(PLAYER_ID, CURRENCY), executor));
+            }
+            while (meterRegistry.get("wallet.balance.reads.total").tag("outcome", "coalesced").counter().count()
+                    < READERS - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            // Then
+            for (CompletableFuture<Optional<WalletBalanceResponse>> read : reads) {
+                assertThat(read.get(5, TimeUnit.SECONDS)).contains(balance);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(walletStore, times(1)).findBalance(PLAYER_ID, CURRENCY);
+        assertThat(meterRegistry.get("wallet.balance.reads.in.flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void findBalance_shouldQueryAgain_onceTheSharedReadHasFinished() {
+        // Given
+        when(walletStore.findBalance(PLAYER_ID, CURRENCY))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(Optional.empty());
+
+        // When & Then - a failed read is not cached
+        assertThatThrownBy(() -> coalescer.findBalance(PLAYER_ID, CURRENCY))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(coalescer.findBalance(PLAYER_ID, CURRENCY)).isEmpty();
+        verify(walletStore, times(2)).findBalance(PLAYER_ID, CURRENCY);
+    }
+}
@@ -0,0 +1,115 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.elavationlab.config.GroupCommitProperties;
+import org.elavationlab.dto.WalletBalanceResponse;
+import org.elavationlab.exception.InsufficientFundsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GroupCommitExecutorTest {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("5.00");
+
+    @Mock
+    private WalletService walletService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private GroupCommitExecutor executor;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        GroupCommitProperties properties = new GroupCommitProperties();
+        properties.setEnabled(true);
+        properties.setCommitters(1);
+        properties.setMaxGroupSize(3);
+        properties.setWindowMs(5_000);
+        executor = new GroupCommitExecutor(walletService, properties, meterRegistry);
+        callers = Executors.newFixedThreadPool(3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void execute_shouldCommitConcurrentMutationsTogether_andFailOnlyTheRejectedOne() throws Exception {
+        // Given - player 2 cannot afford the bet
+        when(walletService.applyMutations(anyList())).thenAnswer(invocation -> {
+            List<WalletMutation> mutations = invocation.getArgument(0);
+            return mutations.stream()
+                    .map(mutation -> mutation.playerId() == 2
+                            ? new WalletMutation.Outcome(null, new InsufficientFundsException("Insufficient funds"))
+                            : new WalletMutation.Outcome(balance(mutation.playerId()), null))
+                    .toList();
+        });
+
+        // When
+        CompletableFuture<WalletBalanceResponse> first = submit(WalletMutation.bet(3, AMOUNT, "USD", "slot-1", null));
+        CompletableFuture<WalletBalanceResponse> second = submit(WalletMutation.bet(2, AMOUNT, "USD", "slot-1", null));
+        CompletableFuture<WalletBalanceResponse> third = submit(WalletMutation.win(1, AMOUNT, "USD", "slot-1", null));
+
+        // Then
+        assertThat(first.get(5, TimeUnit.SECONDS).getPlayerId()).isEqualTo(3);
+        assertThat(third.get(5, TimeUnit.SECONDS).getPlayerId()).isEqualTo(1);
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(InsufficientFundsException.class);
+        verify(walletService, times(1)).applyMutations(anyList());
+        assertThat(meterRegistry.get("wallet.group_commit.group.size").summary().max()).isEqualTo(3.0);
+    }
+
+    @Test
+    void execute_shouldApplyEachMutationAlone_whenTheGroupRollsBack() throws Exception {
+        // Given
+        when(walletService.applyMutations(anyList())).thenThrow(new DataAccessResourceFailureException("deadlock"));
+        when(walletService.processBet(eq(1), eq(AMOUNT), eq("USD"), eq("slot-1"), eq(null))).thenReturn(balance(1));
+        when(walletService.processBet(eq(2), eq(AMOUNT), eq("USD"), eq("slot-1"), eq(null))).thenReturn(balance(2));
+        when(walletService.processWin(eq(3), eq(AMOUNT), eq("USD"), eq("slot-1"), eq(null))).thenReturn(balance(3));
+
+        // When
+        CompletableFuture<WalletBalanceResponse> first = submit(WalletMutation.bet(1, AMOUNT, "USD", "slot-1", null));
+        CompletableFuture<WalletBalanceResponse> second = submit(WalletMutation.bet(2, AMOUNT, "USD", "slot-1", null));
+        CompletableFuture<WalletBalanceResponse> third = submit(WalletMutation.win(3, AMOUNT, "USD", "slot-1", null));
+
+        // Then
+        assertThat(first.get(5, TimeUnit.SECONDS).getPlayerId()).isEqualTo(1);
+        assertThat(second.get(5, TimeUnit.SECONDS).getPlayerId()).isEqualTo(2);
+        assertThat(third.get(5, TimeUnit.SECONDS).getPlayerId()).isEqualTo(3);
+        assertThat(meterRegistry.get("wallet.group_commit.fallbacks.total").counter().count()).isEqualTo(1.0);
+    }
+
+    private CompletableFuture<WalletBalanceResponse> submit(WalletMutation mutation) {
+        return CompletableFuture.supplyAsync(() -> executor.execute(mutation), callers);
+    }
+
+    private static WalletBalanceResponse balance(Integer playerId) {
+        return new WalletBalanceResponse(playerId, "USD", BigDecimal.TEN, BigDecimal.ZERO, BigDecimal.TEN);
+    }
+}
@@ -0,0 +1,84 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.elavationlab.config.RetryProperties;
+import org.elavationlab.exception.WalletConflictException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OptimisticRetryExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RetryProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new RetryProperties();
+        properties.setBaseBackoffMillis(1);
+        properties.setMaxBackoffMillis(2);
+    }
+
+    @Test
+    void execute_shouldRetryConflicts_untilOperationSucceeds() {
+        // Given
+        OptimisticRetryExecutor executor = new OptimisticRetryExecutor(properties, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        String result = executor.execute("deposit", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Wallet", 1L);
+            }
+            return "ok";
+        });
+
+        // Then
+        assertThat(result).isEqualTo("ok");
+        assertThat(calls.get()).isEqualTo(3);
+        assertThat(meterRegistry.get("wallet.optimistic.retries.total").tag("operation", "deposit").counter().count())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void execute_shouldGiveUp_afterMaxAttempts() {
+        // Given
+        OptimisticRetryExecutor executor = new OptimisticRetryExecutor(properties, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        // When & Then
+        assertThatThrownBy(() -> executor.execute("bet", () -> {
+            calls.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Wallet", 1L);
+        })).isInstanceOf(WalletConflictException.class);
+        assertThat(calls.get()).isEqualTo(properties.getMaxAttempts());
+        assertThat(meterRegistry.get("wallet.optimistic.giveups.total").tag("operation", "bet").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void execute_shouldFailFast_whenRetryBudgetIsExhausted() {
+        // Given
+        properties.setBudgetMaxTokens(1);
+        OptimisticRetryExecutor executor = new OptimisticRetryExecutor(properties, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+        Runnable conflicting = () -> {
+            calls.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Wallet", 1L);
+        };
+
+        // When - the first call spends the only token
+        assertThatThrownBy(() -> executor.execute("win", conflicting)).isInstanceOf(WalletConflictException.class);
+        calls.set(0);
+
+        // Then - the next call is not retried
+        assertThatThrownBy(() -> executor.execute("win", conflicting)).isInstanceOf(WalletConflictException.class);
+        assertThat(calls.get()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,87 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.elavationlab.domain.Transaction;
+import org.elavationlab.repository.PlayerActivitySketchRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class PlayerActivityServiceTest {
+
+    @Mock
+    private PlayerActivitySketchRepository sketchRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PlayerActivityService playerActivityService;
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 19);
+
+    @BeforeEach
+    void setUp() {
+        playerActivityService = new PlayerActivityService(sketchRepository, transactionManager,
+                new SimpleMeterRegistry(), 14);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void record_shouldCountThePlayerOnlyOnceTheTransactionCommits() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        playerActivityService.record(1, "USD", Transaction.TransactionType.BET, TODAY.atTime(12, 0));
+        long beforeCommit = estimateToday();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        // Then
+        assertThat(beforeCommit).isZero();
+        assertThat(estimateToday()).isEqualTo(1);
+    }
+
+    @Test
+    void record_shouldNotCountARolledBackTransaction() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        playerActivityService.record(1, "USD", Transaction.TransactionType.BET, TODAY.atTime(12, 0));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Then
+        assertThat(estimateToday()).isZero();
+    }
+
+    @Test
+    void record_shouldCountAtOnce_outsideATransaction() {
+        // When
+        playerActivityService.record(1, "USD", Transaction.TransactionType.DEPOSIT, TODAY.atTime(12, 0));
+
+        // Then
+        assertThat(estimateToday()).isEqualTo(1);
+    }
+
+    private long estimateToday() {
+        return playerActivityService.estimateUniquePlayers(TODAY, TODAY, "USD", null);
+    }
+}
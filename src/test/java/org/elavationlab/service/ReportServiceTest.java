@@ -0,0 +1,104 @@
+package org.elavationlab.service;
+
+import org.elavationlab.dto.DailyReportRow;
+import org.elavationlab.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private PlayerActivityService playerActivityService;
+
+    private ReportService reportService;
+
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final LocalDate BEFORE_SKETCHES = TODAY.minusDays(3);
+
+    @BeforeEach
+    void setUp() {
+        reportService = new ReportService(transactionRepository, playerActivityService);
+    }
+
+    @Test
+    void getDailyReport_shouldCountExactly_upToTheFirstSketchedDay() {
+        // Given
+        LocalDate cutover = BEFORE_SKETCHES.plusDays(1);
+        Map<LocalDate, Map<String, Long>> estimates = new HashMap<>();
+        estimates.put(TODAY, new HashMap<>(Map.of("USD", 42L)));
+        estimates.put(cutover, new HashMap<>(Map.of("USD", 3L)));
+        when(playerActivityService.estimateDailyUniquePlayers(any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(estimates);
+        when(playerActivityService.firstSketchedDate()).thenReturn(Optional.of(cutover));
+        List<TransactionRepository.DailyTotals> dailyTotals =
+                List.of(totals(TODAY), totals(cutover), totals(BEFORE_SKETCHES));
+        when(transactionRepository.findDailyTotals(any(LocalDateTime.class))).thenReturn(dailyTotals);
+        TransactionRepository.DailyUniquePlayers exactBefore = exact(BEFORE_SKETCHES, 7L);
+        TransactionRepository.DailyUniquePlayers exactCutover = exact(cutover, 9L);
+        when(transactionRepository.findDailyUniquePlayers(any(LocalDateTime.class),
+                eq(cutover.plusDays(1).atStartOfDay()))).thenReturn(List.of(exactCutover, exactBefore));
+
+        // When
+        List<DailyReportRow> report = reportService.getDailyReport(7);
+
+        // Then
+        assertThat(report).extracting(DailyReportRow::getDate, DailyReportRow::getUniquePlayers)
+                .containsExactly(org.assertj.core.groups.Tuple.tuple(TODAY, 42L),
+                        org.assertj.core.groups.Tuple.tuple(cutover, 9L),
+                        org.assertj.core.groups.Tuple.tuple(BEFORE_SKETCHES, 7L));
+    }
+
+    @Test
+    void getDailyReport_shouldNotQueryTheLedger_forDaysAfterTheFirstSketchedDay() {
+        // Given
+        Map<LocalDate, Map<String, Long>> estimates = new HashMap<>();
+        estimates.put(TODAY, new HashMap<>(Map.of("USD", 42L)));
+        when(playerActivityService.estimateDailyUniquePlayers(any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(estimates);
+        when(playerActivityService.firstSketchedDate()).thenReturn(Optional.of(TODAY.minusDays(30)));
+        // A day whose only activity is not in any stored sketch yet, such as another node's unflushed refunds
+        List<TransactionRepository.DailyTotals> dailyTotals = List.of(totals(TODAY), totals(BEFORE_SKETCHES));
+        when(transactionRepository.findDailyTotals(any(LocalDateTime.class))).thenReturn(dailyTotals);
+
+        // When
+        List<DailyReportRow> report = reportService.getDailyReport(7);
+
+        // Then
+        verify(transactionRepository, never()).findDailyUniquePlayers(any(), any());
+        assertThat(report).extracting(DailyReportRow::getUniquePlayers).containsExactly(42L, 0L);
+    }
+
+    private static TransactionRepository.DailyTotals totals(LocalDate date) {
+        TransactionRepository.DailyTotals totals = mock(TransactionRepository.DailyTotals.class);
+        when(totals.getDate()).thenReturn(Date.valueOf(date));
+        when(totals.getCurrency()).thenReturn("USD");
+        return totals;
+    }
+
+    private static TransactionRepository.DailyUniquePlayers exact(LocalDate date, long uniquePlayers) {
+        TransactionRepository.DailyUniquePlayers exact = mock(TransactionRepository.DailyUniquePlayers.class);
+        when(exact.getDate()).thenReturn(Date.valueOf(date));
+        when(exact.getCurrency()).thenReturn("USD");
+        when(exact.getUniquePlayers()).thenReturn(uniquePlayers);
+        return exact;
+    }
+}
@@ -0,0 +1,75 @@
+package org.elavationlab.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.elavationlab.config.RetryProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RetryOnConflictAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConflictingOperation target;
+    private ConflictingOperation operation;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        RetryProperties properties = new RetryProperties();
+        properties.setBaseBackoffMillis(1);
+        properties.setMaxBackoffMillis(2);
+        target = new ConflictingOperation();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new RetryOnConflictAspect(new OptimisticRetryExecutor(properties, meterRegistry)));
+        operation = factory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void retry_shouldRunTheAnnotatedMethodAgain_afterAConflict() {
+        // When
+        String result = operation.apply(2);
+
+        // Then
+        assertThat(result).isEqualTo("ok");
+        assertThat(target.calls.get()).isEqualTo(3);
+        assertThat(meterRegistry.get("wallet.optimistic.retries.total").tag("operation", "bet").counter().count())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void retry_shouldLeaveTheConflictToTheCaller_insideItsTransaction() {
+        // Given
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        // When / Then
+        assertThatThrownBy(() -> operation.apply(1)).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(target.calls.get()).isEqualTo(1);
+    }
+
+    static class ConflictingOperation {
+
+        final AtomicInteger calls = new AtomicInteger();
+
+        @RetryOnConflict("bet")
+        public String apply(int conflicts) {
+            if (calls.incrementAndGet() <= conflicts) {
+                throw new ObjectOptimisticLockingFailureException("Wallet", 1L);
+            }
+            return "ok";
+        }
+    }
+}
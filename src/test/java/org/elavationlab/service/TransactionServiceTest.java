@@ -16,7 +16,6 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -45,7 +44,7 @@ class TransactionServiceTest {
     @Test
     void getTransactionHistory_shouldReturnTransactions_whenWalletExists() {
         // Given
-        Transaction transaction1 = Transaction.builder()
+        TransactionResponse transaction1 = TransactionResponse.builder()
                 .id(1L)
                 .playerId(PLAYER_ID)
                 .type(Transaction.TransactionType.DEPOSIT)
@@ -54,7 +53,7 @@ class TransactionServiceTest {
                 .timestamp(LocalDateTime.now().minusDays(1))
                 .build();
 
-        Transaction transaction2 = Transaction.builder()
+        TransactionResponse transaction2 = TransactionResponse.builder()
                 .id(2L)
                 .playerId(PLAYER_ID)
                 .type(Transaction.TransactionType.BET)
@@ -63,8 +62,8 @@ class TransactionServiceTest {
                 .timestamp(LocalDateTime.now())
                 .build();
 
-        when(walletRepository.findByPlayerIdAndCurrency(PLAYER_ID, CURRENCY))
-                .thenReturn(Optional.of(mock(org.elavationlab.domain.Wallet.class)));
+        when(walletRepository.existsByPlayerIdAndCurrency(PLAYER_ID, CURRENCY))
+                .thenReturn(true);
         when(transactionRepository.findRecentTransactions(eq(PLAYER_ID), eq(CURRENCY), any(LocalDateTime.class)))
                 .thenReturn(Arrays.asList(transaction2, transaction1));
 
@@ -80,8 +79,8 @@ class TransactionServiceTest {
     @Test
     void getTransactionHistory_shouldThrowException_whenWalletNotFound() {
         // Given
-        when(walletRepository.findByPlayerIdAndCurrency(PLAYER_ID, CURRENCY))
-                .thenReturn(Optional.empty());
+        when(walletRepository.existsByPlayerIdAndCurrency(PLAYER_ID, CURRENCY))
+                .thenReturn(false);
 
         // When/Then
         assertThatThrownBy(() -> transactionService.getTransactionHistory(PLAYER_ID, CURRENCY, 30))
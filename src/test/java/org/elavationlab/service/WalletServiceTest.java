@@ -2,6 +2,8 @@ package org.elavationlab.service;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.elavationlab.config.BalanceReadProperties;
+import org.elavationlab.domain.PendingWithdrawal;
 import org.elavationlab.domain.Transaction;
 import org.elavationlab.domain.Wallet;
 import org.elavationlab.dto.WalletBalanceResponse;
@@ -9,6 +11,10 @@ import org.elavationlab.exception.InsufficientFundsException;
 import org.elavationlab.exception.InvalidAmountException;
 import org.elavationlab.exception.UnsupportedCurrencyException;
 import org.elavationlab.exception.WalletNotFoundException;
+import org.elavationlab.repository.BonusBucketRepository;
+import org.elavationlab.repository.InPlaceWalletStore;
+import org.elavationlab.repository.OutboxWriter;
+import org.elavationlab.repository.PendingWithdrawalRepository;
 import org.elavationlab.repository.TransactionRepository;
 import org.elavationlab.repository.WalletRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,8 +23,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -32,9 +46,36 @@ class WalletServiceTest {
     @Mock
     private WalletRepository walletRepository;
 
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Mock
+    private BonusBucketRepository bonusBucketRepository;
+
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private PendingWithdrawalRepository pendingWithdrawalRepository;
+
+    @Mock
+    private WalletTransferService walletTransferService;
+
+    @Mock
+    private PlayerActivityService playerActivityService;
+
+    @Mock
+    private GameRevenueService gameRevenueService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private MeterRegistry meterRegistry;
 
     private WalletService walletService;
@@ -45,7 +86,12 @@ class WalletServiceTest {
     @BeforeEach
     void setUp() {
         meterRegistry = new SimpleMeterRegistry();
-        walletService = new WalletService(walletRepository, transactionRepository, meterRegistry);
+        InPlaceWalletStore walletStore = new InPlaceWalletStore(walletRepository, jdbcTemplate);
+        BalanceReadCoalescer balanceReadCoalescer = new BalanceReadCoalescer(walletStore, transactionManager,
+                new BalanceReadProperties(), meterRegistry);
+        walletService = new WalletService(walletStore, balanceReadCoalescer, bonusBucketRepository,
+                transactionRepository, outboxWriter, pendingWithdrawalRepository, walletTransferService, playerActivityService, gameRevenueService,
+                eventPublisher, meterRegistry);
     }
 
     @Test
@@ -163,6 +209,9 @@ class WalletServiceTest {
         assertThat(response.getBalance()).isEqualByComparingTo(existingBalance.subtract(withdrawalAmount));
         verify(walletRepository).save(any(Wallet.class));
         verify(transactionRepository).save(any(Transaction.class));
+        verify(pendingWithdrawalRepository).save(argThat(pending ->
+                pending.getStatus() == PendingWithdrawal.WithdrawalStatus.PENDING &&
+                pending.getAmount().compareTo(withdrawalAmount) == 0));
     }
 
     @Test
@@ -238,6 +287,38 @@ class WalletServiceTest {
         ));
     }
 
+    @Test
+    void processBet_shouldSpendUnexpiredBonusOldestFirst_andLeaveExpiredBonusAlone() {
+        // Given - 50.00 bonus, of which the 20.00 bucket has expired but not been swept yet
+        LocalDateTime now = LocalDateTime.now();
+        Wallet wallet = Wallet.builder()
+                .id(1L)
+                .playerId(PLAYER_ID)
+                .currency(CURRENCY)
+                .balance(new BigDecimal("100.00"))
+                .bonusBalance(new BigDecimal("50.00"))
+                .build();
+
+        when(walletRepository.findByPlayerIdAndCurrency(PLAYER_ID, CURRENCY))
+                .thenReturn(Optional.of(wallet));
+        when(bonusBucketRepository.findLive(1L)).thenReturn(List.of(
+                new BonusBucketRepository.Bucket(10L, new BigDecimal("20.00"), now.minusMinutes(1)),
+                new BonusBucketRepository.Bucket(11L, new BigDecimal("10.00"), null),
+                new BonusBucketRepository.Bucket(12L, new BigDecimal("20.00"), now.plusDays(7))));
+        when(walletRepository.save(any(Wallet.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        walletService.processBet(PLAYER_ID, new BigDecimal("45.00"), CURRENCY, "GAME_001");
+
+        // Then - 30.00 from the two live buckets, 15.00 from cash; the expired 20.00 is left for the sweeper
+        verify(bonusBucketRepository).setRemaining(Map.of(11L, new BigDecimal("0.00"), 12L, new BigDecimal("0.00")));
+        verify(walletRepository).save(argThat(w ->
+            w.getBonusBalance().compareTo(new BigDecimal("20.00")) == 0 &&
+            w.getBalance().compareTo(new BigDecimal("85.00")) == 0
+        ));
+    }
+
     @Test
     void processBet_shouldThrowException_whenInsufficientFunds() {
         // Given
@@ -288,20 +369,46 @@ class WalletServiceTest {
     }
 
     @Test
-    void getBalance_shouldReturnBalance_whenWalletExists() {
+    void processWin_shouldCountTheWinOnlyOnceTheTransactionCommits() {
         // Given
-        BigDecimal balance = new BigDecimal("1000.00");
-        BigDecimal bonusBalance = new BigDecimal("200.00");
         Wallet wallet = Wallet.builder()
                 .id(1L)
                 .playerId(PLAYER_ID)
                 .currency(CURRENCY)
-                .balance(balance)
-                .bonusBalance(bonusBalance)
+                .balance(new BigDecimal("100.00"))
+                .bonusBalance(BigDecimal.ZERO)
                 .build();
+        when(walletRepository.findByPlayerIdAndCurrency(PLAYER_ID, CURRENCY)).thenReturn(Optional.of(wallet));
+        when(walletRepository.save(any(Wallet.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            // When
+            walletService.processWin(PLAYER_ID, new BigDecimal("50.00"), CURRENCY, "GAME_001");
+            double countedBeforeCommit = meterRegistry.counter("wallet.transactions.total", "type", "win").count();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            // Then
+            assertThat(countedBeforeCommit).isZero();
+            assertThat(meterRegistry.counter("wallet.transactions.total", "type", "win").count()).isEqualTo(1);
+            assertThat(meterRegistry.counter("wallet.balance.updates.total").count()).isEqualTo(1);
+            assertThat(meterRegistry.timer("wallet.transactions.duration").count()).isEqualTo(1);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
 
-        when(walletRepository.findByPlayerIdAndCurrency(PLAYER_ID, CURRENCY))
-                .thenReturn(Optional.of(wallet));
+    @Test
+    void getBalance_shouldReturnBalance_whenWalletExists() {
+        // Given
+        BigDecimal balance = new BigDecimal("1000.00");
+        BigDecimal bonusBalance = new BigDecimal("200.00");
+        WalletBalanceResponse projection = new WalletBalanceResponse(PLAYER_ID, CURRENCY, balance, bonusBalance,
+                balance.add(bonusBalance));
+
+        when(walletRepository.findBalance(PLAYER_ID, CURRENCY))
+                .thenReturn(Optional.of(projection));
 
         // When
         WalletBalanceResponse response = walletService.getBalance(PLAYER_ID, CURRENCY);
@@ -315,7 +422,7 @@ class WalletServiceTest {
     @Test
     void getBalance_shouldThrowException_whenWalletNotFound() {
         // Given
-        when(walletRepository.findByPlayerIdAndCurrency(PLAYER_ID, CURRENCY))
+        when(walletRepository.findBalance(PLAYER_ID, CURRENCY))
                 .thenReturn(Optional.empty());
 
         // When/Then
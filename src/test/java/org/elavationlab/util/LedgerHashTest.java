@@ -0,0 +1,96 @@
+package org.elavationlab.util;
+
+import org.elavationlab.domain.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LedgerHashTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_789);
+
+    @Test
+    void of_shouldHashValuesReadBackFromTheDatabase_likeTheWrittenOnes() {
+        // Given - the database keeps two decimal places and microseconds
+        byte[] written = hash(null, new BigDecimal("10"), TIMESTAMP);
+
+        // When
+        byte[] readBack = hash(null, new BigDecimal("10.00"), LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000));
+
+        // Then
+        assertThat(readBack).isEqualTo(written).hasSize(32);
+    }
+
+    @Test
+    void of_shouldChangeWithAmountOrPreviousHash() {
+        // Given
+        byte[] first = hash(null, new BigDecimal("10.00"), TIMESTAMP);
+
+        // When
+        byte[] otherAmount = hash(null, new BigDecimal("10.01"), TIMESTAMP);
+        byte[] chained = hash(first, new BigDecimal("10.00"), TIMESTAMP);
+
+        // Then
+        assertThat(otherAmount).isNotEqualTo(first);
+        assertThat(chained).isNotEqualTo(first);
+        assertThat(hash(first, new BigDecimal("10.00"), TIMESTAMP)).isEqualTo(chained);
+    }
+
+    @Test
+    void of_shouldMatchForEntityAndFields() {
+        // Given
+        Transaction transaction = Transaction.builder()
+                .playerId(7)
+                .currency("EUR")
+                .type(Transaction.TransactionType.BET)
+                .amount(new BigDecimal("10.00"))
+                .balanceBefore(new BigDecimal("50.00"))
+                .balanceAfter(new BigDecimal("40.00"))
+                .balanceDelta(new BigDecimal("-10.00"))
+                .timestamp(TIMESTAMP)
+                .build();
+
+        // When & Then
+        assertThat(LedgerHash.of(null, transaction)).isEqualTo(hash(null, new BigDecimal("10.00"), TIMESTAMP));
+    }
+
+    @Test
+    void of_shouldChangeWithReferences_fromVersionTwo() {
+        // Given
+        LedgerHash.References round = new LedgerHash.References("slot-1", "r-1", null, null, null);
+        LedgerHash.References otherRound = new LedgerHash.References("slot-1", "r-2", null, null, null);
+
+        // When
+        byte[] current = hash(LedgerHash.VERSION, round);
+        byte[] rewritten = hash(LedgerHash.VERSION, otherRound);
+
+        // Then
+        assertThat(rewritten).isNotEqualTo(current);
+        assertThat(hash(LedgerHash.VERSION, new LedgerHash.References(null, null, null, null, "Deposit")))
+                .isNotEqualTo(hash(LedgerHash.VERSION, new LedgerHash.References(null, null, null, null, "Refund")));
+    }
+
+    @Test
+    void of_shouldIgnoreReferences_inVersionOne() {
+        // Given - entries hashed before references were covered, later backfilled
+        LedgerHash.References backfilled = new LedgerHash.References("slot-1", "r-1", null, null, "Bet on slot-1");
+
+        // When & Then
+        assertThat(hash(1, backfilled)).isEqualTo(hash(1, null)).isNotEqualTo(hash(LedgerHash.VERSION, backfilled));
+    }
+
+    private static byte[] hash(byte[] prevHash, BigDecimal amount, LocalDateTime timestamp) {
+        return LedgerHash.of(LedgerHash.VERSION, prevHash, 7, "EUR", Transaction.TransactionType.BET, amount,
+                new BigDecimal("50.00"), new BigDecimal("40.00"), new BigDecimal("-10.00"), BigDecimal.ZERO,
+                timestamp, null, new LedgerHash.References(null, null, null, null, null));
+    }
+
+    private static byte[] hash(int version, LedgerHash.References references) {
+        return LedgerHash.of(version, null, 7, "EUR", Transaction.TransactionType.BET, new BigDecimal("10.00"),
+                new BigDecimal("50.00"), new BigDecimal("40.00"), new BigDecimal("-10.00"), BigDecimal.ZERO,
+                TIMESTAMP, null, references);
+    }
+}